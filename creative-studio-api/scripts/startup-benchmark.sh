@@ -0,0 +1,119 @@
+#!/usr/bin/env bash
+# Cold start of the plain jar vs the fast-startup build (Spring AOT + CDS archive), with and without
+# the `lazy` profile. For each variant and run, starts the API against the configured database and
+# measures:
+#   login ms   launch until POST /api/auth/login first answers 200
+#   warmup ms  the next WARMUP_REQUESTS GET /api/dashboards, summed (first-request JIT and lazy beans)
+#   rss MB     resident set size of the JVM once those requests are done
+# and prints the median of RUNS runs.
+#
+#   mvn package -Pfast-startup -DskipTests && scripts/startup-benchmark.sh
+#
+# Environment: RUNS (5), WARMUP_REQUESTS (20), PORT (18080), JAVA (java on PATH or $JAVA_HOME),
+# JAVA_OPTS (extra JVM flags for every variant, e.g. -Xmx512m to mimic a container).
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS=${RUNS:-5}
+WARMUP_REQUESTS=${WARMUP_REQUESTS:-20}
+PORT=${PORT:-18080}
+JAVA=${JAVA:-${JAVA_HOME:+$JAVA_HOME/bin/}java}
+JAVA_OPTS=${JAVA_OPTS:-}
+JAR=target/creative-studio-api-0.0.1-SNAPSHOT.jar
+FAST_DIR=target/fast-startup
+BASE="http://localhost:$PORT"
+
+if [[ ! -f $FAST_DIR/application.jsa ]]; then
+    echo "No CDS archive in $FAST_DIR; build with: mvn package -Pfast-startup -DskipTests" >&2
+    exit 1
+fi
+
+declare -A VARIANTS=(
+    [plain]="-jar $JAR"
+    [aot+cds]="-XX:SharedArchiveFile=$FAST_DIR/application.jsa -Dspring.aot.enabled=true -jar $FAST_DIR/$(basename $JAR)"
+    [aot+cds+lazy]="-XX:SharedArchiveFile=$FAST_DIR/application.jsa -Dspring.aot.enabled=true -jar $FAST_DIR/$(basename $JAR) --spring.profiles.active=lazy"
+)
+ORDER=(plain aot+cds aot+cds+lazy)
+
+EMAIL="startup-$(date +%s)-$RANDOM@example.com"
+LOGIN="{\"email\":\"$EMAIL\",\"password\":\"password123\"}"
+PID=
+
+now_ms() { echo $(( $(date +%s%N) / 1000000 )); }
+
+stop() {
+    if [[ -n $PID ]]; then
+        kill "$PID" 2>/dev/null || true
+        wait "$PID" 2>/dev/null || true
+        PID=
+    fi
+}
+trap stop EXIT
+
+start() {
+    # shellcheck disable=SC2086
+    $JAVA $JAVA_OPTS $1 --server.port="$PORT" --spring.jpa.show-sql=false > target/startup-benchmark.log 2>&1 &
+    PID=$!
+}
+
+# Polls the login until it returns 200; prints the token
+wait_for_login() {
+    local deadline=$(( $(now_ms) + 120000 )) body
+    while (( $(now_ms) < deadline )); do
+        if body=$(curl -sf -H 'Content-Type: application/json' -d "$LOGIN" "$BASE/api/auth/login" 2>/dev/null); then
+            sed -E 's/.*"token":"([^"]+)".*/\1/' <<< "$body"
+            return
+        fi
+        kill -0 "$PID" 2>/dev/null || { echo "API exited, see target/startup-benchmark.log" >&2; exit 1; }
+        sleep 0.02
+    done
+    echo "API did not accept a login within 120 s, see target/startup-benchmark.log" >&2
+    exit 1
+}
+
+median() { sort -n | awk '{ v[NR] = $1 } END { print v[int((NR + 1) / 2)] }'; }
+
+# The account every run signs in with
+start "${VARIANTS[plain]}"
+until curl -sf "$BASE/actuator/health" > /dev/null 2>&1; do
+    kill -0 "$PID" 2>/dev/null || { echo "API exited, see target/startup-benchmark.log" >&2; exit 1; }
+    sleep 0.2
+done
+curl -sf -H 'Content-Type: application/json' \
+    -d "{\"name\":\"$EMAIL\",\"email\":\"$EMAIL\",\"password\":\"password123\"}" "$BASE/api/auth/register" > /dev/null
+stop
+
+declare -A LOGIN_MS WARMUP_MS RSS_MB
+for run in $(seq 1 "$RUNS"); do
+    for variant in "${ORDER[@]}"; do
+        launched=$(now_ms)
+        start "${VARIANTS[$variant]}"
+        token=$(wait_for_login)
+        login_ms=$(( $(now_ms) - launched ))
+
+        warm_start=$(now_ms)
+        for _ in $(seq 1 "$WARMUP_REQUESTS"); do
+            curl -sf -H "Authorization: Bearer $token" "$BASE/api/dashboards" > /dev/null
+        done
+        warmup_ms=$(( $(now_ms) - warm_start ))
+        rss_mb=$(( $(awk '/^VmRSS/ { print $2 }' "/proc/$PID/status") / 1024 ))
+        stop
+
+        printf 'run %d  %-14s login %6d ms  warmup %5d ms  rss %5d MB\n' \
+            "$run" "$variant" "$login_ms" "$warmup_ms" "$rss_mb"
+        LOGIN_MS[$variant]+="$login_ms "
+        WARMUP_MS[$variant]+="$warmup_ms "
+        RSS_MB[$variant]+="$rss_mb "
+    done
+done
+
+echo
+echo "=== Median of $RUNS runs ==="
+printf '%-14s %10s %10s %8s\n' variant "login ms" "warmup ms" "rss MB"
+for variant in "${ORDER[@]}"; do
+    printf '%-14s %10s %10s %8s\n' "$variant" \
+        "$(tr ' ' '\n' <<< "${LOGIN_MS[$variant]}" | grep . | median)" \
+        "$(tr ' ' '\n' <<< "${WARMUP_MS[$variant]}" | grep . | median)" \
+        "$(tr ' ' '\n' <<< "${RSS_MB[$variant]}" | grep . | median)"
+done
@@ -0,0 +1,74 @@
+package com.creativestudio.jmh;
+
+import com.creativestudio.datasource.ReadYourWrites;
+import com.creativestudio.dto.AuthResponse;
+import com.creativestudio.dto.LoginRequest;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.UserRepository;
+import com.creativestudio.security.JwtService;
+import com.creativestudio.security.SecurityConfig;
+import com.creativestudio.service.AuthService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// AuthService.login with the application's PasswordEncoder (BCrypt behind the hashing bulkhead);
+// the user lookup is stubbed, so the figure is the CPU cost per login - BCrypt dominates it
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AuthServiceLoginBenchmark {
+
+    private static final String PASSWORD = "password123";
+
+    private AuthService authService;
+    private PasswordEncoder passwordEncoder;
+    private LoginRequest request;
+    private String hash;
+
+    @Setup
+    public void setUp() {
+        // One hashing thread: the benchmark thread waits on it, as a request thread does
+        passwordEncoder = new SecurityConfig(null).passwordEncoder(1, 32, new SimpleMeterRegistry());
+        hash = passwordEncoder.encode(PASSWORD);
+
+        JwtService jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "mySecretKeyForJWTtokenGeneration12345678901234567890");
+        ReflectionTestUtils.setField(jwtService, "expiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+
+        User user = User.builder()
+                .id(UUID.randomUUID())
+                .email("bench@example.com")
+                .username("bench")
+                .passwordHash(hash)
+                .build();
+        UserRepository userRepository = Mockito.mock(UserRepository.class);
+        Mockito.when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+
+        authService = new AuthService(userRepository, passwordEncoder, jwtService,
+                new ReadYourWrites(3000, 1000, new SimpleMeterRegistry()));
+        request = new LoginRequest();
+        request.setEmail(user.getEmail());
+        request.setPassword(PASSWORD);
+    }
+
+    @Benchmark
+    public AuthResponse login() {
+        return authService.login(request);
+    }
+
+    @Benchmark
+    public boolean bcryptMatches() {
+        return passwordEncoder.matches(PASSWORD, hash);
+    }
+}
@@ -0,0 +1,107 @@
+package com.creativestudio.jmh;
+
+import com.creativestudio.controller.ResponseEncodingConfig;
+import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.Dashboard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Response body of GET /api/dashboards/{id} in each negotiated encoding, with the mappers
+// ResponseEncodingConfig builds for them, plain and gzipped the way server.compression does
+// (default deflate level).
+// Payload sizes are printed once per trial; serialize and serializeGzip give the CPU cost.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardResponseEncodingBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    private String format;
+
+    @Param({"10", "100", "1000"})
+    private int widgets;
+
+    private ObjectMapper objectMapper;
+    private DashboardResponse response;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = switch (format) {
+            case "cbor" -> ResponseEncodingConfig.binaryMapper(builder(), new CBORFactory());
+            case "smile" -> ResponseEncodingConfig.binaryMapper(builder(), new SmileFactory());
+            default -> builder().build();
+        };
+        response = response(Fixtures.dashboard(widgets));
+        encoded = objectMapper.writeValueAsBytes(response);
+        System.out.printf("%n%s, %d widgets: %d bytes, %d gzipped%n", format, widgets, encoded.length, gzip(encoded).length);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public byte[] serializeGzip() throws IOException {
+        return gzip(objectMapper.writeValueAsBytes(response));
+    }
+
+    // What a client of this encoding pays to read the body back
+    @Benchmark
+    public DashboardResponse deserialize() throws IOException {
+        return objectMapper.readValue(encoded, DashboardResponse.class);
+    }
+
+    // As Spring Boot configures it: dates as ISO strings
+    private static Jackson2ObjectMapperBuilder builder() {
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(body);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static DashboardResponse response(Dashboard dashboard) {
+        return DashboardResponse.builder()
+                .id(dashboard.getId())
+                .name(dashboard.getName())
+                .gridSize(dashboard.getGridSize())
+                .version(dashboard.getVersion())
+                .widgets(dashboard.getWidgets().stream()
+                        .map(w -> WidgetResponse.builder()
+                                .id(w.getId())
+                                .type(w.getType())
+                                .name(w.getName())
+                                .x(w.getX())
+                                .y(w.getY())
+                                .width(w.getWidth())
+                                .height(w.getHeight())
+                                .zIndex(w.getZIndex())
+                                .data(w.getData())
+                                .revision(w.getRevision())
+                                .createdAt(w.getCreatedAt())
+                                .updatedAt(w.getUpdatedAt())
+                                .build())
+                        .toList())
+                .createdAt(dashboard.getCreatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.creativestudio.jmh;
+
+import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.Dashboard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// Response body of GET /api/dashboards/{id}: Jackson configured like Spring Boot's
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DashboardResponseJsonBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int widgets;
+
+    private ObjectMapper objectMapper;
+    private DashboardResponse response;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        Dashboard dashboard = Fixtures.dashboard(widgets);
+        response = DashboardResponse.builder()
+                .id(dashboard.getId())
+                .name(dashboard.getName())
+                .gridSize(dashboard.getGridSize())
+                .version(dashboard.getVersion())
+                .widgets(dashboard.getWidgets().stream()
+                        .map(w -> WidgetResponse.builder()
+                                .id(w.getId())
+                                .type(w.getType())
+                                .name(w.getName())
+                                .x(w.getX())
+                                .y(w.getY())
+                                .width(w.getWidth())
+                                .height(w.getHeight())
+                                .zIndex(w.getZIndex())
+                                .data(w.getData())
+                                .revision(w.getRevision())
+                                .createdAt(w.getCreatedAt())
+                                .updatedAt(w.getUpdatedAt())
+                                .build())
+                        .toList())
+                .createdAt(dashboard.getCreatedAt())
+                .build();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws Exception {
+        return objectMapper.writeValueAsBytes(response);
+    }
+}
@@ -0,0 +1,83 @@
+package com.creativestudio.jmh;
+
+import com.creativestudio.model.Dashboard;
+import com.creativestudio.model.Widget;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Dashboards with the three widget types and jsonb payloads shaped like the front end's
+public final class Fixtures {
+
+    private static final String[] TYPES = {"todo-list", "notes-widget", "content-editor"};
+
+    private Fixtures() {
+    }
+
+    public static Dashboard dashboard(int widgetCount) {
+        Dashboard dashboard = Dashboard.builder()
+                .id(UUID.randomUUID())
+                .name("Benchmark dashboard")
+                .gridSize(40)
+                .version(widgetCount)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        for (int i = 0; i < widgetCount; i++) {
+            dashboard.getWidgets().add(widget(dashboard, i));
+        }
+        return dashboard;
+    }
+
+    public static Widget widget(Dashboard dashboard, int index) {
+        String type = TYPES[index % TYPES.length];
+        return Widget.builder()
+                .id(UUID.randomUUID())
+                .dashboard(dashboard)
+                .type(type)
+                .name(type + " " + index)
+                .x((index % 10) * 420)
+                .y((index / 10) * 420)
+                .width(400)
+                .height(400)
+                .zIndex(index)
+                .data(data(type, index))
+                .revision(index)
+                .createdAt(LocalDateTime.now())
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static Map<String, Object> data(String type, int index) {
+        Map<String, Object> data = new HashMap<>();
+        switch (type) {
+            case "todo-list" -> {
+                List<Map<String, Object>> todos = new ArrayList<>();
+                for (int i = 0; i < 15; i++) {
+                    Map<String, Object> todo = new HashMap<>();
+                    todo.put("id", UUID.randomUUID().toString());
+                    todo.put("text", "Follow up on item " + i + " before the weekly review");
+                    todo.put("completed", i % 3 == 0);
+                    todo.put("createdAt", "2026-02-15T10:00:00Z");
+                    todos.add(todo);
+                }
+                data.put("todos", todos);
+                data.put("filter", "all");
+            }
+            case "notes-widget" -> {
+                data.put("content", "Meeting notes " + index + ": " + "decisions, owners and dates. ".repeat(35));
+                data.put("color", "yellow");
+            }
+            default -> {
+                data.put("title", "Draft " + index);
+                data.put("html", ("<h2>Section</h2><p>Paragraph with <strong>bold</strong> and "
+                        + "<a href=\"https://example.com\">a link</a> in the body text.</p>").repeat(40));
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,44 @@
+package com.creativestudio.jmh;
+
+import com.creativestudio.security.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+// Token issue on login/register and the checks the auth filter runs on a cache miss
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "secret", "mySecretKeyForJWTtokenGeneration12345678901234567890");
+        ReflectionTestUtils.setField(jwtService, "expiration", 86_400_000L);
+        ReflectionTestUtils.invokeMethod(jwtService, "init");
+        token = jwtService.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtService.extractEmail(token);
+    }
+}
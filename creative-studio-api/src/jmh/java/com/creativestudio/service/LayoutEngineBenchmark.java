@@ -0,0 +1,70 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.WidgetPlacement;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// LayoutEngine on a scattered, overlapping dashboard: 20% of the widgets are wide (up to 12 cells).
+// snap and arrange mutate their input, so each call works on a fresh copy (included in the time).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutEngineBenchmark {
+
+    private static final int GRID_SIZE = 40;
+    private static final int CANVAS_WIDTH = 1920;
+
+    @Param({"1000", "10000"})
+    private int widgets;
+
+    private List<WidgetPlacement> layout;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(11);
+        int canvasHeight = widgets * 30;
+        layout = new ArrayList<>(widgets);
+        for (int i = 0; i < widgets; i++) {
+            boolean wide = random.nextInt(5) == 0;
+            layout.add(new WidgetPlacement(UUID.randomUUID(),
+                    random.nextInt(CANVAS_WIDTH), random.nextInt(canvasHeight),
+                    wide ? 200 + random.nextInt(280) : 100 + random.nextInt(200),
+                    80 + random.nextInt(300), i));
+        }
+    }
+
+    @Benchmark
+    public List<WidgetPlacement> snap() {
+        List<WidgetPlacement> widgets = copy();
+        LayoutEngine.snap(widgets, GRID_SIZE);
+        return widgets;
+    }
+
+    @Benchmark
+    public List<WidgetPlacement> arrange() {
+        List<WidgetPlacement> widgets = copy();
+        LayoutEngine.arrange(widgets, GRID_SIZE, CANVAS_WIDTH);
+        return widgets;
+    }
+
+    @Benchmark
+    public List<int[]> overlaps() {
+        return LayoutEngine.overlaps(layout);
+    }
+
+    private List<WidgetPlacement> copy() {
+        List<WidgetPlacement> copy = new ArrayList<>(layout.size());
+        for (WidgetPlacement w : layout) {
+            copy.add(w.toBuilder().build());
+        }
+        return copy;
+    }
+}
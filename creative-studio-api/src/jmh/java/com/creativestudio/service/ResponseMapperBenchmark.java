@@ -0,0 +1,49 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.jmh.Fixtures;
+import com.creativestudio.model.Dashboard;
+import com.creativestudio.model.Widget;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+// Entity -> DTO mapping of WidgetService and DashboardService, with write-behind disabled
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMapperBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int widgets;
+
+    private WidgetService widgetService;
+    private DashboardService dashboardService;
+    private Dashboard dashboard;
+
+    @Setup
+    public void setUp() {
+        WidgetDataWriteBuffer writeBuffer = new WidgetDataWriteBuffer(null, null, null, null, null, null, false, 5000, 1000);
+        widgetService = new WidgetService(null, null, null, null, writeBuffer, null, null, null);
+        dashboardService = new DashboardService(null, null, null, null, writeBuffer, null, null);
+        dashboard = Fixtures.dashboard(widgets);
+    }
+
+    @Benchmark
+    public void widgetToResponse(Blackhole blackhole) {
+        for (Widget widget : dashboard.getWidgets()) {
+            WidgetResponse response = widgetService.toResponse(widget);
+            blackhole.consume(response);
+        }
+    }
+
+    @Benchmark
+    public DashboardResponse dashboardToResponse() {
+        return dashboardService.toResponse(dashboard);
+    }
+}
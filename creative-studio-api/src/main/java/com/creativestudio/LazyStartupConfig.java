@@ -0,0 +1,19 @@
+package com.creativestudio;
+
+import com.creativestudio.controller.AuthController;
+import com.creativestudio.service.WidgetContentStore;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// With lazy initialization (the `lazy` profile) beans are created on first use, so a replica is up
+// sooner. These stay eager: the sign-in path, which pulls in JPA, the repositories and Flyway, so the
+// first login does not pay for them; and the content store, whose blob sweep starts in its constructor.
+@Configuration
+public class LazyStartupConfig {
+
+    @Bean
+    static LazyInitializationExcludeFilter eagerBeans() {
+        return LazyInitializationExcludeFilter.forBeanTypes(AuthController.class, WidgetContentStore.class);
+    }
+}
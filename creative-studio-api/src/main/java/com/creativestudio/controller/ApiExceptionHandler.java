@@ -0,0 +1,48 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.metrics.QueryBudgetExceededException;
+import com.creativestudio.security.AuthThrottledException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    // A stale If-Match or a concurrent write to the same widget: reload and retry
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String, String>> handleConflict(OptimisticLockingFailureException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(Map.of("error", "The widget was changed by another request"));
+    }
+
+    // Only raised with request.query-budget.fail=true: an N+1 or an unbounded load crept in
+    @ExceptionHandler(QueryBudgetExceededException.class)
+    public ResponseEntity<Map<String, String>> handleQueryBudget(QueryBudgetExceededException e) {
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // Sign-in admission control: the caller's rate limit is spent or the hashing pool is full
+    @ExceptionHandler(AuthThrottledException.class)
+    public ResponseEntity<Map<String, String>> handleAuthThrottled(AuthThrottledException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(e.getRetryAfterSeconds()))
+                .body(Map.of("error", e.getMessage()));
+    }
+
+    // No pooled connection within hikari.connection-timeout: the server is saturated, shed the request
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<Map<String, String>> handleOverload(RuntimeException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("error", "The server is busy, retry shortly"));
+    }
+}
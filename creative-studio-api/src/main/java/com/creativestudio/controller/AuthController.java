@@ -3,7 +3,9 @@ package com.creativestudio.controller;
 import com.creativestudio.dto.AuthResponse;
 import com.creativestudio.dto.LoginRequest;
 import com.creativestudio.dto.RegisterRequest;
+import com.creativestudio.security.AuthRateLimiter;
 import com.creativestudio.service.AuthService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -15,14 +17,20 @@ import org.springframework.web.bind.annotation.*;
 public class AuthController {
 
     private final AuthService authService;
+    private final AuthRateLimiter rateLimiter;
 
+    // Rate limits are checked before the body reaches AuthService, so a refused attempt costs no hash
+    // getRemoteAddr is the client behind a trusted proxy (server.forward-headers-strategy=native)
     @PostMapping("/register")
-    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request) {
+    public ResponseEntity<AuthResponse> register(@Valid @RequestBody RegisterRequest request,
+                                                 HttpServletRequest http) {
+        rateLimiter.acquire(http.getRemoteAddr(), request.getEmail());
         return ResponseEntity.ok(authService.register(request));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request) {
+    public ResponseEntity<AuthResponse> login(@Valid @RequestBody LoginRequest request, HttpServletRequest http) {
+        rateLimiter.acquire(http.getRemoteAddr(), request.getEmail());
         return ResponseEntity.ok(authService.login(request));
     }
 }
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.model.User;
+import com.creativestudio.service.WidgetContentStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/content")
+@RequiredArgsConstructor
+public class ContentController {
+
+    private final WidgetContentStore contentStore;
+
+    // Body of a widget whose data carries {"contentRef": hash}, fetched when the widget renders.
+    // The hash names the bytes, so the response never changes and is cached for good. Stored gzipped:
+    // sent as-is to clients that accept gzip, decompressed for the rest. The body is user HTML, so it
+    // goes out as text: opened on the API origin it is never rendered.
+    @GetMapping("/{hash}")
+    public ResponseEntity<byte[]> getContent(
+            @AuthenticationPrincipal User user,
+            @PathVariable String hash,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        byte[] compressed = contentStore.getCompressed(user, hash);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .cacheControl(CacheControl.maxAge(Duration.ofDays(365)).cachePrivate().immutable())
+                .eTag(hash)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding != null && acceptEncoding.contains("gzip")) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(compressed);
+        }
+        return response.body(WidgetContentStore.gunzip(compressed).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,15 +1,29 @@
 package com.creativestudio.controller;
 
+import com.creativestudio.dto.DashboardChangesResponse;
+import com.creativestudio.dto.DashboardImportResponse;
 import com.creativestudio.dto.DashboardRequest;
 import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.dto.DashboardSummaryPage;
+import com.creativestudio.dto.DashboardSummaryResponse;
 import com.creativestudio.model.User;
 import com.creativestudio.service.DashboardService;
+import com.creativestudio.service.DashboardStreamService;
+import com.creativestudio.service.DashboardTransferService;
+import com.creativestudio.service.WidgetDataWriteBuffer;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.UUID;
 
@@ -18,13 +32,26 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class DashboardController {
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final DashboardService dashboardService;
+    private final DashboardStreamService dashboardStreamService;
+    private final DashboardTransferService transferService;
+    private final WidgetDataWriteBuffer writeBuffer;
 
     @GetMapping
     public ResponseEntity<List<DashboardResponse>> getUserDashboards(@AuthenticationPrincipal User user) {
         return ResponseEntity.ok(dashboardService.getUserDashboards(user.getEmail()));
     }
 
+    @GetMapping("/summary")
+    public ResponseEntity<DashboardSummaryPage> getDashboardSummaries(
+            @AuthenticationPrincipal User user,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dashboardService.getDashboardSummaries(user.getEmail(), cursor, limit));
+    }
+
     @PostMapping
     public ResponseEntity<DashboardResponse> createDashboard(
             @AuthenticationPrincipal User user,
@@ -32,11 +59,68 @@ public class DashboardController {
         return ResponseEntity.ok(dashboardService.createDashboard(user.getEmail(), request));
     }
 
+    // Backup of all the user's dashboards and widgets as NDJSON, written while the database cursor is read
+    @GetMapping("/export")
+    public void exportDashboards(
+            @AuthenticationPrincipal User user,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"dashboards.ndjson\"");
+        transferService.exportDashboards(user.getEmail(), response.getOutputStream());
+    }
+
+    // Restores an export (or provisions dashboards in bulk) as new dashboards, parsed line by line
+    @PostMapping(value = "/import", consumes = NDJSON)
+    public ResponseEntity<DashboardImportResponse> importDashboards(
+            @AuthenticationPrincipal User user,
+            InputStream body) throws IOException {
+        return ResponseEntity.ok(transferService.importDashboards(user.getEmail(), body));
+    }
+
+    // Conditional GET: If-None-Match is answered with 304 after checking only the version
     @GetMapping("/{id}")
     public ResponseEntity<DashboardResponse> getDashboard(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID id,
+            WebRequest request) {
+        long version = dashboardService.getDashboardVersion(user.getEmail(), id);
+        // Buffered autosaves are not in the version yet, so the body is sent without a validator
+        if (writeBuffer.hasPending(id)) {
+            return ResponseEntity.ok(dashboardService.getDashboard(user.getEmail(), id));
+        }
+        if (request.checkNotModified(DashboardETag.of(version))) {
+            return null;
+        }
+        DashboardResponse dashboard = dashboardService.getDashboard(user.getEmail(), id);
+        return ResponseEntity.ok().eTag(DashboardETag.of(dashboard.getVersion())).varyBy(HttpHeaders.ACCEPT)
+                .body(dashboard);
+    }
+
+    // Incremental sync: only widgets created, updated or deleted after version `since`
+    @GetMapping("/{id}/changes")
+    public ResponseEntity<DashboardChangesResponse> getChanges(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID id,
+            @RequestParam long since) {
+        return ResponseEntity.ok(dashboardService.getChanges(user.getEmail(), id, since));
+    }
+
+    // Live widget changes of one dashboard as Server-Sent Events
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamDashboard(
             @AuthenticationPrincipal User user,
             @PathVariable UUID id) {
-        return ResponseEntity.ok(dashboardService.getDashboard(user.getEmail(), id));
+        return dashboardStreamService.subscribe(user.getEmail(), id);
+    }
+
+    // Copies the dashboard and its widgets server-side; the body ({"name": ...}) is optional
+    @PostMapping("/{id}/duplicate")
+    public ResponseEntity<DashboardSummaryResponse> duplicateDashboard(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID id,
+            @RequestBody(required = false) DashboardRequest request) {
+        String name = request != null && request.getName() != null && !request.getName().isBlank() ? request.getName() : null;
+        return ResponseEntity.ok(dashboardService.duplicateDashboard(user.getEmail(), id, name));
     }
 
     @PutMapping("/{id}")
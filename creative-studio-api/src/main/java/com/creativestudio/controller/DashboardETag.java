@@ -0,0 +1,15 @@
+package com.creativestudio.controller;
+
+// ETag derived from Dashboard.version - the same value for the dashboard and its widget list.
+// Weak: the body is negotiated (JSON, CBOR, Smile) and compressed, so the bytes differ per client
+// while the content is the same. It is only compared in If-None-Match, where weak matching applies,
+// and Tomcat does not compress responses that carry a strong ETag.
+final class DashboardETag {
+
+    private DashboardETag() {
+    }
+
+    static String of(long version) {
+        return "W/\"v" + version + "\"";
+    }
+}
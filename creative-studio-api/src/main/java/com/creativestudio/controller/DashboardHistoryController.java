@@ -0,0 +1,55 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.dto.DashboardChangesResponse;
+import com.creativestudio.dto.DashboardHistoryEntry;
+import com.creativestudio.model.User;
+import com.creativestudio.service.DashboardHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Undo, redo and restore answer with the widgets they wrote and deleted, like GET /changes
+@RestController
+@RequestMapping("/api/dashboards/{dashboardId}")
+@RequiredArgsConstructor
+public class DashboardHistoryController {
+
+    private final DashboardHistoryService historyService;
+
+    @GetMapping("/history")
+    public ResponseEntity<List<DashboardHistoryEntry>> getHistory(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(historyService.getHistory(user, dashboardId, limit));
+    }
+
+    @PostMapping("/undo")
+    public ResponseEntity<DashboardChangesResponse> undo(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId) {
+        return ResponseEntity.ok(historyService.undo(user, dashboardId));
+    }
+
+    @PostMapping("/redo")
+    public ResponseEntity<DashboardChangesResponse> redo(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId) {
+        return ResponseEntity.ok(historyService.redo(user, dashboardId));
+    }
+
+    // ?at=2026-05-01T14:30:00, server local time like every other timestamp of the API
+    @PostMapping("/restore")
+    public ResponseEntity<DashboardChangesResponse> restore(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        return ResponseEntity.ok(historyService.restore(user, dashboardId, at));
+    }
+}
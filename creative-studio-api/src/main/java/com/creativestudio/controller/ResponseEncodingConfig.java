@@ -0,0 +1,40 @@
+package com.creativestudio.controller;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+import java.util.UUID;
+
+// The CBOR and Smile converters Spring MVC registers on its own build their mappers without the
+// spring.jackson.* settings, so dates went out as arrays of numbers and UUIDs as 16-byte binaries.
+// These replace them with mappers built like the JSON one, so a binary client decodes the same
+// values as a JSON client: ISO date strings and UUID strings.
+@Configuration
+public class ResponseEncodingConfig {
+
+    // The builder is a prototype bean: each converter gets a fresh one
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(binaryMapper(builder, new CBORFactory()));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(binaryMapper(builder, new SmileFactory()));
+    }
+
+    // Also used by DashboardResponseEncodingBenchmark, to measure what is sent
+    public static ObjectMapper binaryMapper(Jackson2ObjectMapperBuilder builder, JsonFactory factory) {
+        ObjectMapper mapper = builder.factory(factory).build();
+        mapper.configOverride(UUID.class).setFormat(JsonFormat.Value.forShape(JsonFormat.Shape.STRING));
+        return mapper;
+    }
+}
@@ -0,0 +1,99 @@
+package com.creativestudio.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Tomcat applies server.compression.min-response-size only to responses whose length it knows,
+// and the message converters flush the body once written, which commits it without a length - so
+// every JSON response was gzipped, however small. Holding those flushes back lets a body that fits
+// the response buffer (8 KB) finish first and go out with a Content-Length; larger bodies commit
+// when the buffer fills, as before. Async responses (SSE) flush as usual.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 3)
+public class ResponseLengthFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        filterChain.doFilter(request, new HeldFlushResponse(request, response));
+    }
+
+    private static final class HeldFlushResponse extends HttpServletResponseWrapper {
+
+        private final HttpServletRequest request;
+        private ServletOutputStream outputStream;
+
+        HeldFlushResponse(HttpServletRequest request, HttpServletResponse response) {
+            super(response);
+            this.request = request;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                outputStream = new HeldFlushOutputStream(super.getOutputStream());
+            }
+            return outputStream;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (request.isAsyncStarted()) {
+                super.flushBuffer();
+            }
+        }
+
+        private final class HeldFlushOutputStream extends ServletOutputStream {
+
+            private final ServletOutputStream delegate;
+
+            HeldFlushOutputStream(ServletOutputStream delegate) {
+                this.delegate = delegate;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                delegate.write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                delegate.write(b, off, len);
+            }
+
+            @Override
+            public void flush() throws IOException {
+                if (request.isAsyncStarted()) {
+                    delegate.flush();
+                }
+            }
+
+            @Override
+            public void close() throws IOException {
+                delegate.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return delegate.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                delegate.setWriteListener(writeListener);
+            }
+        }
+    }
+}
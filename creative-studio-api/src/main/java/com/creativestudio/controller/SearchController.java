@@ -0,0 +1,27 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.dto.SearchHitResponse;
+import com.creativestudio.model.User;
+import com.creativestudio.service.SearchService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/search")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<List<SearchHitResponse>> search(
+            @AuthenticationPrincipal User user,
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(searchService.search(user, q, limit));
+    }
+}
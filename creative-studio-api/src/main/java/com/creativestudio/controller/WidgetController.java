@@ -1,18 +1,28 @@
 package com.creativestudio.controller;
 
+import com.creativestudio.dto.DashboardLayoutResponse;
+import com.creativestudio.dto.JsonPatchOperation;
+import com.creativestudio.dto.WidgetLayoutBatchRequest;
 import com.creativestudio.dto.WidgetRequest;
 import com.creativestudio.dto.WidgetResponse;
 import com.creativestudio.model.User;
+import com.creativestudio.service.DashboardLayoutService;
+import com.creativestudio.service.WidgetDataWriteBuffer;
 import com.creativestudio.service.WidgetService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Supplier;
 
 @RestController
 @RequestMapping("/api/dashboards/{dashboardId}/widgets")
@@ -20,12 +30,30 @@ import java.util.UUID;
 public class WidgetController {
 
     private final WidgetService widgetService;
+    private final DashboardLayoutService layoutService;
+    private final WidgetDataWriteBuffer writeBuffer;
 
+    // Conditional GET: If-None-Match is answered with 304 after checking only the dashboard version
     @GetMapping
     public ResponseEntity<List<WidgetResponse>> getWidgets(
             @AuthenticationPrincipal User user,
-            @PathVariable UUID dashboardId) {
-        return ResponseEntity.ok(widgetService.getWidgets(user.getEmail(), dashboardId));
+            @PathVariable UUID dashboardId,
+            WebRequest request) {
+        return conditional(user, dashboardId, request, () -> widgetService.getWidgets(user, dashboardId));
+    }
+
+    // Panning a large canvas: only the widgets intersecting the visible rectangle
+    @GetMapping(params = {"minX", "minY", "maxX", "maxY"})
+    public ResponseEntity<List<WidgetResponse>> getWidgetsInViewport(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @RequestParam int minX,
+            @RequestParam int minY,
+            @RequestParam int maxX,
+            @RequestParam int maxY,
+            WebRequest request) {
+        return conditional(user, dashboardId, request, () ->
+                widgetService.getWidgetsInViewport(user, dashboardId, minX, minY, maxX, maxY));
     }
 
     @PostMapping
@@ -33,16 +61,54 @@ public class WidgetController {
             @AuthenticationPrincipal User user,
             @PathVariable UUID dashboardId,
             @Valid @RequestBody WidgetRequest request) {
-        return ResponseEntity.ok(widgetService.createWidget(user.getEmail(), dashboardId, request));
+        return ResponseEntity.ok(widgetService.createWidget(user, dashboardId, request));
+    }
+
+    @PutMapping("/layout")
+    public ResponseEntity<Void> updateLayout(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @Valid @RequestBody WidgetLayoutBatchRequest request) {
+        widgetService.updateLayout(user, dashboardId, request.getWidgets());
+        return ResponseEntity.ok().build();
     }
 
+    // Pairs of widgets whose boxes overlap
+    @GetMapping("/layout/overlaps")
+    public ResponseEntity<DashboardLayoutResponse> getOverlaps(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId) {
+        return ResponseEntity.ok(layoutService.getOverlaps(user, dashboardId));
+    }
+
+    // Snaps every widget to the dashboard's grid in one call
+    @PostMapping("/layout/snap")
+    public ResponseEntity<DashboardLayoutResponse> snapToGrid(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId) {
+        return ResponseEntity.ok(layoutService.snapToGrid(user, dashboardId));
+    }
+
+    // Packs every widget into a non-overlapping layout `width` pixels wide in one call; 400 past the largest canvas
+    @PostMapping("/layout/arrange")
+    public ResponseEntity<DashboardLayoutResponse> arrange(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @RequestParam(defaultValue = "1920") @Min(1) @Max(DashboardLayoutService.MAX_CANVAS_WIDTH) int width) {
+        return ResponseEntity.ok(layoutService.arrange(user, dashboardId, width));
+    }
+
+    // Full writes honor If-Match with the widget's ETag ("r<revision>"): 409 if someone else changed it
     @PutMapping("/{widgetId}")
     public ResponseEntity<WidgetResponse> updateWidget(
             @AuthenticationPrincipal User user,
             @PathVariable UUID dashboardId,
             @PathVariable UUID widgetId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody WidgetRequest request) {
-        return ResponseEntity.ok(widgetService.updateWidget(user.getEmail(), dashboardId, widgetId, request));
+        WidgetResponse widget = widgetService.updateWidget(user, dashboardId, widgetId, request,
+                WidgetETag.parse(ifMatch));
+        return ResponseEntity.ok().eTag(WidgetETag.of(widget.getRevision())).body(widget);
     }
 
     @PatchMapping("/{widgetId}/data")
@@ -50,8 +116,32 @@ public class WidgetController {
             @AuthenticationPrincipal User user,
             @PathVariable UUID dashboardId,
             @PathVariable UUID widgetId,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @RequestBody Map<String, Object> data) {
-        return ResponseEntity.ok(widgetService.updateWidgetData(user.getEmail(), dashboardId, widgetId, data));
+        WidgetResponse widget = widgetService.updateWidgetData(user, dashboardId, widgetId, data,
+                WidgetETag.parse(ifMatch));
+        return ResponseEntity.ok().eTag(WidgetETag.of(widget.getRevision())).body(widget);
+    }
+
+    // Delta modes of the same endpoint, selected by Content-Type
+    @PatchMapping(value = "/{widgetId}/data", consumes = "application/merge-patch+json")
+    public ResponseEntity<Void> mergePatchWidgetData(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @PathVariable UUID widgetId,
+            @RequestBody Map<String, Object> patch) {
+        widgetService.mergePatchWidgetData(user, dashboardId, widgetId, patch);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping(value = "/{widgetId}/data", consumes = "application/json-patch+json")
+    public ResponseEntity<Void> jsonPatchWidgetData(
+            @AuthenticationPrincipal User user,
+            @PathVariable UUID dashboardId,
+            @PathVariable UUID widgetId,
+            @RequestBody List<@Valid JsonPatchOperation> operations) {
+        widgetService.jsonPatchWidgetData(user, dashboardId, widgetId, operations);
+        return ResponseEntity.noContent().build();
     }
 
     @DeleteMapping("/{widgetId}")
@@ -59,7 +149,22 @@ public class WidgetController {
             @AuthenticationPrincipal User user,
             @PathVariable UUID dashboardId,
             @PathVariable UUID widgetId) {
-        widgetService.deleteWidget(user.getEmail(), dashboardId, widgetId);
+        widgetService.deleteWidget(user, dashboardId, widgetId);
         return ResponseEntity.ok().build();
     }
-}
\ No newline at end of file
+
+    private ResponseEntity<List<WidgetResponse>> conditional(User user, UUID dashboardId, WebRequest request,
+                                                             Supplier<List<WidgetResponse>> widgets) {
+        // Read before the widgets: if a write lands in between, the ETag is older than the body
+        // and the next request simply gets a 200 again
+        String etag = DashboardETag.of(widgetService.getDashboardVersion(user, dashboardId));
+        // Buffered autosaves are not in the version yet, so the body is sent without a validator
+        if (writeBuffer.hasPending(dashboardId)) {
+            return ResponseEntity.ok(widgets.get());
+        }
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).varyBy(HttpHeaders.ACCEPT).body(widgets.get());
+    }
+}
@@ -0,0 +1,28 @@
+package com.creativestudio.controller;
+
+// Strong ETag derived from Widget.revision, sent back in If-Match on full widget writes
+final class WidgetETag {
+
+    private WidgetETag() {
+    }
+
+    static String of(long revision) {
+        return "\"r" + revision + "\"";
+    }
+
+    // Revision expected by an If-Match header, or null when the write is unconditional
+    static Long parse(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String value = ifMatch.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        try {
+            return Long.parseLong(value.replace("\"", "").replaceFirst("^r", ""));
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid If-Match header");
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.creativestudio.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+// Two pools once spring.datasource.replica.jdbc-url is set: the primary, configured exactly as the
+// single pool was (spring.datasource.*, spring.datasource.hikari.*), and a replica pool
+// (spring.datasource.replica.*, HikariCP property names). JPA and JdbcTemplate get the routing
+// data source; Flyway migrates the primary directly. Both pools report as hikaricp.* tagged pool.
+@Configuration
+@ConditionalOnProperty("spring.datasource.replica.jdbc-url")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @FlywayDataSource
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.replica")
+    HikariDataSource replicaDataSource() {
+        HikariDataSource replica = new HikariDataSource();
+        replica.setPoolName("replica");
+        return replica;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                          ReadYourWrites readYourWrites) {
+        return new LazyConnectionDataSourceProxy(
+                new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, readYourWrites));
+    }
+}
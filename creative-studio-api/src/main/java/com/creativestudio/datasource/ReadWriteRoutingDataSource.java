@@ -0,0 +1,63 @@
+package com.creativestudio.datasource;
+
+import com.creativestudio.model.User;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+import java.util.UUID;
+
+// Picks the pool when a connection is actually opened: read-only transactions go to the replica,
+// everything else to the primary. Needs LazyConnectionDataSourceProxy in front of it, because the
+// transaction manager asks for the connection before the transaction is marked read-only.
+// A read-write transaction of a signed-in user opens their read-your-writes window when it commits;
+// statements outside any transaction also use the primary but open no window.
+class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    enum Pool {
+        PRIMARY, REPLICA
+    }
+
+    private final ReadYourWrites readYourWrites;
+
+    ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReadYourWrites readYourWrites) {
+        this.readYourWrites = readYourWrites;
+        setTargetDataSources(Map.of(Pool.PRIMARY, primary, Pool.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        UUID userId = currentUserId();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (userId != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+                openWindowOnCommit(userId);
+            }
+            return Pool.PRIMARY;
+        }
+        if (readYourWrites.primaryRequested() || (userId != null && readYourWrites.recentlyWrote(userId))) {
+            return Pool.PRIMARY;
+        }
+        return Pool.REPLICA;
+    }
+
+    // Replica lag counts from the commit, so that is when the window starts
+    private void openWindowOnCommit(UUID userId) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                readYourWrites.wrote(userId);
+            }
+        });
+    }
+
+    private static UUID currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
@@ -0,0 +1,61 @@
+package com.creativestudio.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+// Keeps a user's reads on the primary for window-ms after their own committed write, so a replica
+// that is a little behind never shows them a dashboard without the change they just made. Reads
+// that must see the latest row regardless of who wrote it (sign-in lookups) ask for the primary.
+// Without a replica configured nothing is routed and both are no-ops.
+@Component
+public class ReadYourWrites {
+
+    private static final ThreadLocal<Boolean> PRIMARY_REQUESTED = new ThreadLocal<>();
+
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReadYourWrites(@Value("${datasource.read-your-writes.window-ms}") long windowMs,
+                          @Value("${datasource.read-your-writes.max-size}") long maxSize,
+                          MeterRegistry meterRegistry) {
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(windowMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, recentWriters, "datasource.recent-writers");
+    }
+
+    public void wrote(UUID userId) {
+        recentWriters.put(userId, Boolean.TRUE);
+    }
+
+    public boolean recentlyWrote(UUID userId) {
+        return recentWriters.getIfPresent(userId) != null;
+    }
+
+    // Runs the read with every connection it opens taken from the primary
+    public <T> T fromPrimary(Supplier<T> read) {
+        if (primaryRequested()) {
+            return read.get();
+        }
+        PRIMARY_REQUESTED.set(Boolean.TRUE);
+        try {
+            return read.get();
+        } finally {
+            PRIMARY_REQUESTED.remove();
+        }
+    }
+
+    boolean primaryRequested() {
+        return PRIMARY_REQUESTED.get() != null;
+    }
+}
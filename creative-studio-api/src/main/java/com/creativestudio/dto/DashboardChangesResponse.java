@@ -0,0 +1,23 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardChangesResponse {
+    // Pass as ?since= on the next sync
+    private long version;
+    private String name;
+
+    // Widgets created or updated after the requested version
+    private List<WidgetResponse> widgets;
+
+    // Ids of widgets deleted after the requested version
+    private List<UUID> deleted;
+}
@@ -0,0 +1,30 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// One logged action of a dashboard, newest first in GET /history
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardHistoryEntry {
+    // Dashboard version the action produced
+    private long version;
+
+    // edit, restore, undo or redo
+    private String action;
+
+    // Undo and redo: the version of the action they reverted or re-applied
+    private Long targetVersion;
+
+    // Reverted by an undo and not redone since
+    private boolean undone;
+
+    // Widgets the action touched
+    private long widgets;
+
+    private LocalDateTime createdAt;
+}
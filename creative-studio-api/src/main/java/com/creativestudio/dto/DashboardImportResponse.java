@@ -0,0 +1,13 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardImportResponse {
+    private long dashboards;
+    private long widgets;
+}
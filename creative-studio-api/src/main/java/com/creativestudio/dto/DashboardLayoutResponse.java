@@ -0,0 +1,20 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardLayoutResponse {
+    // Dashboard version after the layout was applied
+    private long version;
+    private int gridSize;
+    private List<WidgetPlacement> widgets;
+    // Pairs of widget ids whose boxes overlap
+    private List<List<UUID>> overlaps;
+}
@@ -15,6 +15,7 @@ public class DashboardResponse {
     private UUID id;
     private String name;
     private int gridSize;
+    private long version;
     private List<WidgetResponse> widgets;
     private LocalDateTime createdAt;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardSummaryPage {
+    private List<DashboardSummaryResponse> dashboards;
+
+    // Opaque keyset cursor for the next page, null on the last page
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Home-page row: the widget count is a subquery, no widgets are loaded
+@Data
+@Builder
+@AllArgsConstructor
+public class DashboardSummaryResponse {
+    private UUID id;
+    private String name;
+    private long widgetCount;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,49 @@
+package com.creativestudio.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+import java.util.UUID;
+
+// One line of an NDJSON export/import: a dashboard, followed by the widgets that belong to it
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DashboardTransferLine {
+
+    public static final String DASHBOARD = "dashboard";
+    public static final String WIDGET = "widget";
+
+    private String kind;
+    private UUID id;
+    private UUID dashboardId;
+    private String name;
+    private Integer gridSize;
+    private String type;
+    private Integer x;
+    private Integer y;
+    private Integer width;
+    private Integer height;
+
+    @JsonProperty("zIndex")
+    private Integer zIndex;
+    private Map<String, Object> data;
+
+    // JPQL projection of a dashboard row
+    public DashboardTransferLine(UUID id, String name, int gridSize) {
+        this(DASHBOARD, id, null, name, gridSize, null, null, null, null, null, null, null);
+    }
+
+    // JPQL projection of a widget row
+    public DashboardTransferLine(UUID dashboardId, UUID id, String type, String name,
+                                 int x, int y, int width, int height, int zIndex, Map<String, Object> data) {
+        this(WIDGET, id, dashboardId, name, null, type, x, y, width, height, zIndex, data);
+    }
+}
@@ -0,0 +1,23 @@
+package com.creativestudio.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// One RFC 6902 operation: add, remove, replace, move, copy or test
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JsonPatchOperation {
+
+    @NotBlank(message = "Patch op is required")
+    private String op;
+
+    @NotNull(message = "Patch path is required")
+    private String path;
+
+    private String from;
+    private Object value;
+}
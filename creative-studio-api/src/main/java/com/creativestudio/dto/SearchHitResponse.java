@@ -0,0 +1,22 @@
+package com.creativestudio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.UUID;
+
+// One widget matching a search, best first. The snippet is HTML-escaped text around the matches,
+// with each matched word in <mark>...</mark>.
+@Data
+@Builder
+@AllArgsConstructor
+public class SearchHitResponse {
+    private UUID widgetId;
+    private UUID dashboardId;
+    private String dashboardName;
+    private String type;
+    private String name;
+    private double rank;
+    private String snippet;
+}
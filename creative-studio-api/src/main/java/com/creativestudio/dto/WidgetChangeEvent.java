@@ -0,0 +1,54 @@
+package com.creativestudio.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Compact delta pushed to dashboard subscribers. Only the fields of its type are set:
+//   created / updated -> widget        layout -> x, y, width, height, zIndex
+//   data -> data (full replacement)    patch  -> mergePatch or jsonPatch
+//   deleted -> nothing but the id
+@Data
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class WidgetChangeEvent {
+
+    public static final String CREATED = "created";
+    public static final String UPDATED = "updated";
+    public static final String LAYOUT = "layout";
+    public static final String DATA = "data";
+    public static final String PATCH = "patch";
+    public static final String DELETED = "deleted";
+
+    private String type;
+
+    @JsonIgnore
+    private UUID dashboardId;
+
+    private UUID widgetId;
+
+    // Dashboard version after this change
+    private long version;
+
+    private WidgetResponse widget;
+
+    private Integer x;
+    private Integer y;
+    private Integer width;
+    private Integer height;
+
+    @JsonProperty("zIndex")
+    private Integer zIndex;
+
+    private Map<String, Object> data;
+    private Map<String, Object> mergePatch;
+    private List<JsonPatchOperation> jsonPatch;
+}
@@ -0,0 +1,14 @@
+package com.creativestudio.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class WidgetLayoutBatchRequest {
+
+    @NotEmpty(message = "At least one widget is required")
+    private List<@Valid WidgetLayoutRequest> widgets;
+}
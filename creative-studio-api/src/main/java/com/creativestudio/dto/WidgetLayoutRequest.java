@@ -0,0 +1,22 @@
+package com.creativestudio.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class WidgetLayoutRequest {
+
+    @NotNull(message = "Widget id is required")
+    private UUID id;
+
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+
+    @JsonProperty("zIndex")
+    private int zIndex;
+}
@@ -0,0 +1,26 @@
+package com.creativestudio.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// A widget's box on the dashboard, as read, snapped or arranged by the layout engine.
+// Same shape as WidgetLayoutRequest, so a result can be sent back to PUT /widgets/layout.
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class WidgetPlacement {
+    private UUID id;
+    private int x;
+    private int y;
+    private int width;
+    private int height;
+
+    @JsonProperty("zIndex")
+    private int zIndex;
+}
@@ -21,6 +21,7 @@ public class WidgetResponse {
     private int height;
     private int zIndex;
     private Map<String, Object> data;
+    private long revision;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
\ No newline at end of file
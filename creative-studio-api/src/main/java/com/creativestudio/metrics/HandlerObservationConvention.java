@@ -0,0 +1,28 @@
+package com.creativestudio.metrics;
+
+import io.micrometer.common.KeyValue;
+import io.micrometer.common.KeyValues;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+// Adds a handler tag (e.g. "WidgetController.updateLayout") to http.server.requests, so the
+// timer and its histogram can be read per controller method
+@Component
+public class HandlerObservationConvention extends DefaultServerRequestObservationConvention {
+
+    @Override
+    public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+        return super.getLowCardinalityKeyValues(context).and(handler(context));
+    }
+
+    private KeyValue handler(ServerRequestObservationContext context) {
+        Object handler = context.getCarrier().getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE);
+        if (handler instanceof HandlerMethod method) {
+            return KeyValue.of("handler", method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return KeyValue.of("handler", "none");
+    }
+}
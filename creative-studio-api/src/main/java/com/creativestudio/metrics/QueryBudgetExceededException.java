@@ -0,0 +1,10 @@
+package com.creativestudio.metrics;
+
+// A request ran more SQL statements or loaded more entities than request.query-budget.* allows,
+// and request.query-budget.fail is on (typically in tests)
+public class QueryBudgetExceededException extends RuntimeException {
+
+    public QueryBudgetExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,78 @@
+package com.creativestudio.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Counts the SQL statements and entity loads of each request, records them as
+// request.sql.statements / request.entity.loads per endpoint, and logs requests over
+// request.query-budget.* (or fails them when request.query-budget.fail is on).
+// Runs outside the security filters so the principal lookup is counted too.
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxStatements;
+    private final int maxEntityLoads;
+    private final boolean fail;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry,
+                             @Value("${request.query-budget.max-statements}") int maxStatements,
+                             @Value("${request.query-budget.max-entity-loads}") int maxEntityLoads,
+                             @Value("${request.query-budget.fail}") boolean fail) {
+        this.meterRegistry = meterRegistry;
+        this.maxStatements = maxStatements;
+        this.maxEntityLoads = maxEntityLoads;
+        this.fail = fail;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestQueryCounter counter = RequestQueryCounter.start(maxStatements, maxEntityLoads, fail);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestQueryCounter.stop();
+            record(request, counter);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestQueryCounter counter) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        summary("request.sql.statements", "SQL statements executed per request", request.getMethod(), uri)
+                .record(counter.statements());
+        summary("request.entity.loads", "Entities loaded per request", request.getMethod(), uri)
+                .record(counter.entityLoads());
+
+        if (counter.overBudget()) {
+            log.warn("{} {} ran {} SQL statements (budget {}) and loaded {} entities (budget {})",
+                    request.getMethod(), uri, counter.statements(), maxStatements,
+                    counter.entityLoads(), maxEntityLoads);
+        }
+    }
+
+    private DistributionSummary summary(String name, String description, String method, String uri) {
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry);
+    }
+}
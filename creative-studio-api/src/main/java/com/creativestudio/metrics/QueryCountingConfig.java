@@ -0,0 +1,59 @@
+package com.creativestudio.metrics;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+
+// Feeds RequestQueryCounter: every entity Hibernate materializes, and every SQL statement through
+// the application's data source, wrapped in a StatementCountingDataSource. Statements are counted
+// at the JDBC level because JdbcTemplate repositories (patches, layout, search, history, import)
+// never pass through Hibernate.
+@Configuration
+public class QueryCountingConfig implements HibernatePropertiesCustomizer {
+
+    // The "dataSource" bean is what JPA and JdbcTemplate use: the single pool, or the read/write
+    // routing proxy in front of both pools. Wrapping only it counts each statement once.
+    @Bean
+    static BeanPostProcessor statementCountingDataSource() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && beanName.equals("dataSource")
+                        ? new StatementCountingDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put("hibernate.integrator_provider", (IntegratorProvider) () -> List.of(new EntityLoadIntegrator()));
+    }
+
+    private static final class EntityLoadIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+            sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class)
+                    .appendListeners(EventType.POST_LOAD, (PostLoadEventListener) event ->
+                            RequestQueryCounter.entityLoaded(event.getPersister().getEntityName()));
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.creativestudio.metrics;
+
+// SQL statements and entity loads of the request running on the current thread.
+// Statements are reported by StatementCountingDataSource, entity loads by Hibernate through
+// QueryCountingConfig; work outside a request (the write-behind flush, startup) is not counted.
+public final class RequestQueryCounter {
+
+    private static final ThreadLocal<RequestQueryCounter> CURRENT = new ThreadLocal<>();
+
+    private final int maxStatements;
+    private final int maxEntityLoads;
+    private final boolean fail;
+    private int statements;
+    private int entityLoads;
+
+    private RequestQueryCounter(int maxStatements, int maxEntityLoads, boolean fail) {
+        this.maxStatements = maxStatements;
+        this.maxEntityLoads = maxEntityLoads;
+        this.fail = fail;
+    }
+
+    static RequestQueryCounter start(int maxStatements, int maxEntityLoads, boolean fail) {
+        RequestQueryCounter counter = new RequestQueryCounter(maxStatements, maxEntityLoads, fail);
+        CURRENT.set(counter);
+        return counter;
+    }
+
+    static void stop() {
+        CURRENT.remove();
+    }
+
+    // Null outside a request
+    public static RequestQueryCounter current() {
+        return CURRENT.get();
+    }
+
+    // sql is null for a batch of plain statements
+    static void statementExecuted(String sql) {
+        RequestQueryCounter counter = CURRENT.get();
+        if (counter != null && ++counter.statements == counter.maxStatements + 1 && counter.fail) {
+            // Thrown at the first statement over budget, so the stack trace points at the culprit
+            throw new QueryBudgetExceededException(
+                    "Request exceeded its SQL statement budget of " + counter.maxStatements + ": " + sql);
+        }
+    }
+
+    static void entityLoaded(String entityName) {
+        RequestQueryCounter counter = CURRENT.get();
+        if (counter != null && ++counter.entityLoads == counter.maxEntityLoads + 1 && counter.fail) {
+            throw new QueryBudgetExceededException(
+                    "Request exceeded its entity load budget of " + counter.maxEntityLoads + ": " + entityName);
+        }
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public int entityLoads() {
+        return entityLoads;
+    }
+
+    boolean overBudget() {
+        return statements > maxStatements || entityLoads > maxEntityLoads;
+    }
+}
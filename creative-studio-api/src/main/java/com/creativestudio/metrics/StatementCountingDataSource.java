@@ -0,0 +1,75 @@
+package com.creativestudio.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Feeds RequestQueryCounter.statementExecuted at the JDBC level, so Hibernate, Spring Data and
+// JdbcTemplate statements are all counted; a JDBC batch is one round trip and counts once.
+// Connections opened outside a request are handed out unwrapped and cost nothing.
+final class StatementCountingDataSource extends DelegatingDataSource {
+
+    StatementCountingDataSource(DataSource target) {
+        super(target);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return counted(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return counted(super.getConnection(username, password));
+    }
+
+    private static Connection counted(Connection connection) {
+        return RequestQueryCounter.current() == null ? connection : wrap(Connection.class, connection, null);
+    }
+
+    // sql: the statement text of a prepared statement, null for the connection and plain statements
+    private static <T> T wrap(Class<T> type, T target, String sql) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                default -> {
+                    if (target instanceof Statement && method.getName().startsWith("execute")) {
+                        RequestQueryCounter.statementExecuted(sql != null ? sql : sqlArgument(args));
+                    }
+                }
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements handed out by the connection are wrapped too
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                @SuppressWarnings("unchecked")
+                Class<Statement> statementType = (Class<Statement>) method.getReturnType();
+                return wrap(statementType, statement, sqlArgument(args));
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(StatementCountingDataSource.class.getClassLoader(),
+                new Class<?>[]{type}, handler));
+    }
+
+    // prepareStatement(sql, ...) and execute(sql, ...) take the statement text first
+    private static String sqlArgument(Object[] args) {
+        return args != null && args.length > 0 && args[0] instanceof String sql ? sql : null;
+    }
+}
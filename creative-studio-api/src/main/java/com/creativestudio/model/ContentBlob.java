@@ -0,0 +1,33 @@
+package com.creativestudio.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import java.time.LocalDateTime;
+
+// A large widget content body, gzipped and addressed by the SHA-256 of the original text,
+// so identical bodies (duplicated dashboards, imports, undo) are stored once
+@Entity
+@Table(name = "content_blobs")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ContentBlob {
+
+    // Lowercase hex SHA-256 of the uncompressed UTF-8 text
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+
+    // Uncompressed size in bytes
+    @Column(nullable = false)
+    private int size;
+
+    // The text without HTML tags, for search: the generated search vector and hit snippets (migration V2)
+    @Column(columnDefinition = "text")
+    private String plainText;
+
+    // Last time a write stored or reused this blob; unreferenced blobs are swept after a grace period
+    @Column(nullable = false)
+    private LocalDateTime storedAt;
+}
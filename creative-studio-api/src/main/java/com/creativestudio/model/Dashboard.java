@@ -2,6 +2,7 @@ package com.creativestudio.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 import java.time.LocalDateTime;
@@ -25,8 +26,14 @@ public class Dashboard {
     private String name;
 
     @Column(name = "grid_size")
+    @Builder.Default
     private int gridSize = 40;
 
+    // Bumped by every change to the dashboard or one of its widgets; used as the ETag
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @OneToMany(mappedBy = "dashboard", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<Widget> widgets = new ArrayList<>();
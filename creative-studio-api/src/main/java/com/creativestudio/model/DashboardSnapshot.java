@@ -0,0 +1,40 @@
+package com.creativestudio.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+// Every widget of a dashboard at one version, the starting point for replaying widget_operations
+@Entity
+@Table(name = "dashboard_snapshots")
+@IdClass(DashboardSnapshot.Key.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DashboardSnapshot {
+
+    // No foreign key: snapshots are removed together with their dashboard
+    @Id
+    @Column(name = "dashboard_id")
+    private UUID dashboardId;
+
+    @Id
+    private long version;
+
+    // Widget id -> fields (WidgetStates)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb", nullable = false)
+    private Map<String, Map<String, Object>> widgets;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID dashboardId;
+        private long version;
+    }
+}
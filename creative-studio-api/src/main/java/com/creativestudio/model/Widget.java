@@ -2,6 +2,7 @@ package com.creativestudio.model;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -38,6 +39,17 @@ public class Widget {
     @Column(columnDefinition = "jsonb")
     private Map<String, Object> data;
 
+    // Dashboard version of the widget's last change
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long revision;
+
+    // Optimistic lock: a write based on a stale copy of the row fails instead of overwriting it
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private long version;
+
     @CreationTimestamp
     private LocalDateTime createdAt;
 
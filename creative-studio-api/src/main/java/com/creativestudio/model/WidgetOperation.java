@@ -0,0 +1,65 @@
+package com.creativestudio.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+// One widget's part of a logged action (migration V4): what changed, before and after.
+// Written by WidgetHistoryRepository in batches; read back as projections, never loaded as entities.
+@Entity
+@Table(name = "widget_operations")
+@IdClass(WidgetOperation.Key.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WidgetOperation {
+
+    public static final String EDIT = "edit";
+    public static final String RESTORE = "restore";
+    public static final String UNDO = "undo";
+    public static final String REDO = "redo";
+
+    // No foreign key: history is removed together with its dashboard
+    @Id
+    @Column(name = "dashboard_id")
+    private UUID dashboardId;
+
+    // Dashboard version of the action
+    @Id
+    private long version;
+
+    @Id
+    @Column(name = "widget_id")
+    private UUID widgetId;
+
+    @Column(nullable = false, length = 8)
+    private String action;
+
+    // Undo and redo: the version of the action reverted or re-applied
+    private Long targetVersion;
+
+    @Column(nullable = false)
+    private boolean undone;
+
+    // Changed fields (WidgetStates); null before a creation and after a deletion
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> before;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(columnDefinition = "jsonb")
+    private Map<String, Object> after;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Data @NoArgsConstructor @AllArgsConstructor
+    public static class Key implements Serializable {
+        private UUID dashboardId;
+        private long version;
+        private UUID widgetId;
+    }
+}
@@ -0,0 +1,29 @@
+package com.creativestudio.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Left behind by a deleted widget so incremental sync can report the deletion
+@Entity
+@Table(name = "widget_tombstones")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class WidgetTombstone {
+
+    @Id
+    @Column(name = "widget_id")
+    private UUID widgetId;
+
+    // No foreign key: tombstones are removed together with their dashboard
+    @Column(name = "dashboard_id", nullable = false)
+    private UUID dashboardId;
+
+    // Dashboard version of the deletion
+    @Column(nullable = false)
+    private long revision;
+
+    @CreationTimestamp
+    private LocalDateTime deletedAt;
+}
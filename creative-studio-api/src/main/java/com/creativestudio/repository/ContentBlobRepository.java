@@ -0,0 +1,61 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.model.ContentBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ContentBlobRepository extends JpaRepository<ContentBlob, String> {
+
+    // Content-addressed, so an existing blob is identical and only its stored_at is refreshed.
+    // The refresh locks the row, so a concurrent sweep cannot delete a blob a write is reusing.
+    // The text is only read to fill plain_text (blobs stored before search existed get it on reuse).
+    @Modifying
+    @Query(value = "INSERT INTO content_blobs (hash, data, size, plain_text, stored_at)"
+            + " VALUES (:hash, :data, :size, strip_html(:text), LOCALTIMESTAMP)"
+            + " ON CONFLICT (hash) DO UPDATE SET stored_at = LOCALTIMESTAMP,"
+            + " plain_text = coalesce(content_blobs.plain_text, EXCLUDED.plain_text)", nativeQuery = true)
+    void store(String hash, byte[] data, int size, String text);
+
+    // Only the bytes: no managed entity, so long exports do not fill the persistence context
+    @Query("SELECT b.data FROM ContentBlob b WHERE b.hash = :hash")
+    Optional<byte[]> findDataByHash(String hash);
+
+    // The bytes of many blobs in one statement, for consumers that inline a batch of widgets (export)
+    @Query(value = "SELECT hash, data FROM content_blobs WHERE hash = ANY(:hashes)", nativeQuery = true)
+    List<BlobData> findDataByHashes(String[] hashes);
+
+    // A blob is readable by a user who has a widget referencing it
+    @Query(value = """
+            SELECT EXISTS (SELECT 1 FROM widgets w JOIN dashboards d ON d.id = w.dashboard_id
+                           WHERE d.user_id = :userId AND w.data ->> 'contentRef' = :hash)
+            """, nativeQuery = true)
+    boolean isReferencedByUser(String hash, UUID userId);
+
+    // Blobs no widget references any more (replaced or deleted content), older than the cutoff.
+    // Content the history can bring back (widget_operations, dashboard_snapshots) is kept.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            DELETE FROM content_blobs b
+            WHERE b.stored_at < :cutoff
+              AND NOT EXISTS (SELECT 1 FROM widgets w WHERE w.data ->> 'contentRef' = b.hash)
+              AND NOT EXISTS (SELECT 1 FROM widget_operations o
+                              WHERE (widget_operation_content_refs(o.before) || widget_operation_content_refs(o.after))
+                                    @> ARRAY[b.hash::text])
+              AND NOT EXISTS (SELECT 1 FROM dashboard_snapshots s WHERE s.content_refs @> ARRAY[b.hash::text])
+            """, nativeQuery = true)
+    int deleteUnreferencedStoredBefore(LocalDateTime cutoff);
+
+    interface BlobData {
+        String getHash();
+
+        byte[] getData();
+    }
+}
@@ -0,0 +1,15 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.DashboardTransferLine;
+
+import java.util.List;
+import java.util.UUID;
+
+// Bulk import: rows go to PostgreSQL as JDBC batches, bypassing the persistence context,
+// so an import of any size keeps the same heap footprint. Ids are assigned by the caller.
+public interface DashboardImportRepository {
+
+    void insertDashboards(UUID userId, List<DashboardTransferLine> dashboards);
+
+    void insertWidgets(List<DashboardTransferLine> widgets);
+}
@@ -0,0 +1,60 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.DashboardTransferLine;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class DashboardImportRepositoryImpl implements DashboardImportRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertDashboards(UUID userId, List<DashboardTransferLine> dashboards) {
+        MapSqlParameterSource[] batch = dashboards.stream()
+                .map(d -> new MapSqlParameterSource()
+                        .addValue("id", d.getId())
+                        .addValue("userId", userId)
+                        .addValue("name", d.getName())
+                        .addValue("gridSize", Objects.requireNonNullElse(d.getGridSize(), 40)))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO dashboards (id, user_id, name, grid_size, version, created_at, updated_at)"
+                + " VALUES (:id, :userId, :name, :gridSize, 0, LOCALTIMESTAMP, LOCALTIMESTAMP)", batch);
+    }
+
+    @Override
+    public void insertWidgets(List<DashboardTransferLine> widgets) {
+        MapSqlParameterSource[] batch = widgets.stream()
+                .map(w -> new MapSqlParameterSource()
+                        .addValue("id", w.getId())
+                        .addValue("dashboardId", w.getDashboardId())
+                        .addValue("type", w.getType())
+                        .addValue("name", w.getName())
+                        .addValue("x", Objects.requireNonNullElse(w.getX(), 0))
+                        .addValue("y", Objects.requireNonNullElse(w.getY(), 0))
+                        .addValue("width", Objects.requireNonNullElse(w.getWidth(), 0))
+                        .addValue("height", Objects.requireNonNullElse(w.getHeight(), 0))
+                        .addValue("zIndex", Objects.requireNonNullElse(w.getZIndex(), 0))
+                        .addValue("data", w.getData() == null ? null : toJson(w.getData())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,"
+                + " revision, version, created_at, updated_at) VALUES (:id, :dashboardId, :type, :name, :x, :y, :width,"
+                + " :height, :zIndex, CAST(:data AS jsonb), 0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP)", batch);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid widget data", e);
+        }
+    }
+}
@@ -1,18 +1,119 @@
 package com.creativestudio.repository;
 
+import com.creativestudio.dto.DashboardSummaryResponse;
+import com.creativestudio.dto.DashboardTransferLine;
 import com.creativestudio.model.Dashboard;
 import com.creativestudio.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface DashboardRepository extends JpaRepository<Dashboard, UUID> {
+public interface DashboardRepository extends JpaRepository<Dashboard, UUID>, DashboardImportRepository {
 
     // Find all dashboards belonging to a user
     List<Dashboard> findByUser(User user);
 
     // Find a specific dashboard by id and user (security: user can only access their own)
     Optional<Dashboard> findByIdAndUser(UUID id, User user);
-}
\ No newline at end of file
+
+    // Ownership check for DashboardOwnershipCache - the dashboards row only, users is not joined
+    @Query("SELECT COUNT(d) > 0 FROM Dashboard d WHERE d.id = :id AND d.user.id = :userId")
+    boolean existsByIdAndUserId(UUID id, UUID userId);
+
+    // Version of a dashboard the user owns, for conditional GETs - no widgets are loaded
+    @Query("SELECT d.version FROM Dashboard d WHERE d.id = :id AND d.user.email = :email")
+    Optional<Long> findVersionByIdAndUserEmail(UUID id, String email);
+
+    @Query("SELECT d.version FROM Dashboard d WHERE d.id = :id AND d.user.id = :userId")
+    Optional<Long> findVersionByIdAndUserId(UUID id, UUID userId);
+
+    // Bumps the version after a widget change and returns the new value.
+    // The row lock it takes is held until commit, so concurrent writers to one dashboard are ordered.
+    @Query(value = "UPDATE dashboards SET version = version + 1, updated_at = LOCALTIMESTAMP WHERE id = :id RETURNING version",
+            nativeQuery = true)
+    long incrementVersion(UUID id);
+
+    // One bump per dashboard for a batch of buffered writes; deleted dashboards are skipped.
+    // The owner comes back too: the writer is not signed in on the flush thread.
+    @Query(value = "UPDATE dashboards SET version = version + 1, updated_at = LOCALTIMESTAMP WHERE id IN (:ids)"
+            + " RETURNING id, version, user_id AS \"userId\"", nativeQuery = true)
+    List<DashboardVersion> incrementVersions(Collection<UUID> ids);
+
+    // Server-side clone: the dashboard row and all of its widget rows are copied by one statement into
+    // the dashboard copyId, with the widget UUIDs generated by PostgreSQL, so widget data never leaves
+    // the database. Returns 0 if the user does not own the source dashboard. A null name means
+    // "<source name> (copy)".
+    @Modifying
+    @Transactional
+    @Query(value = """
+            WITH widget_copies AS (
+                INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,
+                                     revision, version, created_at, updated_at)
+                SELECT gen_random_uuid(), :copyId, w.type, w.name, w.x, w.y, w.width, w.height, w.z_index, w.data,
+                       0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP
+                FROM widgets w JOIN dashboards d ON d.id = w.dashboard_id
+                WHERE w.dashboard_id = :id AND d.user_id = :userId
+            )
+            INSERT INTO dashboards (id, user_id, name, grid_size, version, created_at, updated_at)
+            SELECT :copyId, d.user_id, COALESCE(CAST(:name AS varchar), d.name || ' (copy)'), d.grid_size,
+                   0, LOCALTIMESTAMP, LOCALTIMESTAMP
+            FROM dashboards d
+            WHERE d.id = :id AND d.user_id = :userId
+            """, nativeQuery = true)
+    int duplicate(UUID id, UUID copyId, UUID userId, String name);
+
+    @Query("""
+            SELECT new com.creativestudio.dto.DashboardSummaryResponse(d.id, d.name, COUNT(w), d.createdAt, d.updatedAt)
+            FROM Dashboard d LEFT JOIN d.widgets w
+            WHERE d.id = :id
+            GROUP BY d.id, d.name, d.createdAt, d.updatedAt
+            """)
+    Optional<DashboardSummaryResponse> findSummaryById(UUID id);
+
+    // Home-page listing, newest first, keyset-paginated on (updatedAt, id). The page is read from
+    // idx_dashboards_user_updated first; widgets are only counted for the rows it returns.
+    @Query("""
+            SELECT new com.creativestudio.dto.DashboardSummaryResponse(d.id, d.name,
+                   (SELECT COUNT(w) FROM Widget w WHERE w.dashboard = d), d.createdAt, d.updatedAt)
+            FROM Dashboard d
+            WHERE d.user = :user
+            ORDER BY d.updatedAt DESC, d.id DESC
+            """)
+    List<DashboardSummaryResponse> findSummariesByUser(User user, Limit limit);
+
+    @Query("""
+            SELECT new com.creativestudio.dto.DashboardSummaryResponse(d.id, d.name,
+                   (SELECT COUNT(w) FROM Widget w WHERE w.dashboard = d), d.createdAt, d.updatedAt)
+            FROM Dashboard d
+            WHERE d.user = :user
+              AND (d.updatedAt < :updatedAt OR (d.updatedAt = :updatedAt AND d.id < :id))
+            ORDER BY d.updatedAt DESC, d.id DESC
+            """)
+    List<DashboardSummaryResponse> findSummariesByUserAfter(User user, LocalDateTime updatedAt, UUID id, Limit limit);
+
+    // Export: a server-side cursor over the user's dashboards, in the order the widget stream follows.
+    // Projections are not managed entities, so the persistence context stays empty.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.creativestudio.dto.DashboardTransferLine(d.id, d.name, d.gridSize) FROM Dashboard d WHERE d.user = :user ORDER BY d.id")
+    Stream<DashboardTransferLine> streamTransferLinesByUser(User user);
+
+    interface DashboardVersion {
+        UUID getId();
+
+        long getVersion();
+
+        UUID getUserId();
+    }
+}
@@ -0,0 +1,56 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.model.DashboardSnapshot;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Snapshots are read as projections: a managed copy would be dirty-checked widget by widget
+public interface DashboardSnapshotRepository extends JpaRepository<DashboardSnapshot, DashboardSnapshot.Key> {
+
+    String PROJECTION = "new com.creativestudio.model.DashboardSnapshot(s.dashboardId, s.version, s.widgets, s.createdAt)";
+
+    @Query("SELECT " + PROJECTION + """
+             FROM DashboardSnapshot s
+            WHERE s.dashboardId = :dashboardId AND s.createdAt <= :at
+            ORDER BY s.version DESC
+            """)
+    List<DashboardSnapshot> findTakenBy(UUID dashboardId, LocalDateTime at, Limit limit);
+
+    @Query("SELECT " + PROJECTION + " FROM DashboardSnapshot s WHERE s.dashboardId = :dashboardId ORDER BY s.version")
+    List<DashboardSnapshot> findOldest(UUID dashboardId, Limit limit);
+
+    @Query(value = """
+            SELECT version, pg_column_size(widgets)::bigint AS size
+            FROM dashboard_snapshots
+            WHERE dashboard_id = :dashboardId
+            ORDER BY version DESC
+            LIMIT 1
+            """, nativeQuery = true)
+    Optional<SnapshotSize> findLatestSize(UUID dashboardId);
+
+    // Version of the n-th newest snapshot (0 = newest)
+    @Query(value = "SELECT version FROM dashboard_snapshots WHERE dashboard_id = :dashboardId"
+            + " ORDER BY version DESC OFFSET :n LIMIT 1", nativeQuery = true)
+    Optional<Long> findNthNewestVersion(UUID dashboardId, int n);
+
+    @Modifying
+    @Query("DELETE FROM DashboardSnapshot s WHERE s.dashboardId = :dashboardId AND s.version < :version")
+    void deleteBefore(UUID dashboardId, long version);
+
+    @Modifying
+    @Query("DELETE FROM DashboardSnapshot s WHERE s.dashboardId = :dashboardId")
+    void deleteByDashboardId(UUID dashboardId);
+
+    interface SnapshotSize {
+        long getVersion();
+
+        long getSize();
+    }
+}
@@ -2,6 +2,7 @@ package com.creativestudio.repository;
 
 import com.creativestudio.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.Optional;
 
 // JpaRepository gives us free methods: save(), findAll(), findById(), delete()
@@ -9,6 +10,8 @@ import java.util.Optional;
 public interface UserRepository extends JpaRepository<User, Long> {
 
     // Spring auto-generates the SQL: SELECT * FROM users WHERE email = ?
+    // Read-only so the per-token lookup in JwtAuthFilter can be served by a replica
+    @Transactional(readOnly = true)
     Optional<User> findByEmail(String email);
 
     // Spring auto-generates: SELECT COUNT(*) > 0 FROM users WHERE email = ?
@@ -0,0 +1,35 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.JsonPatchOperation;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Delta updates of Widget.data that run inside PostgreSQL, so only the patch
+// travels over the wire and the full document is never loaded into the JVM.
+// Both patch methods return what they changed, for the history (empty = not found / not applied).
+// Every write stamps the widget with the given revision and bumps its optimistic-lock version.
+public interface WidgetDataRepository {
+
+    // RFC 7396 JSON Merge Patch: null removes a key, objects merge recursively
+    Optional<DataChange> mergePatchData(UUID dashboardId, UUID widgetId, Map<String, Object> patch, long revision);
+
+    // RFC 6902 JSON Patch: all operations apply atomically or none do
+    Optional<DataChange> jsonPatchData(UUID dashboardId, UUID widgetId, List<JsonPatchOperation> operations,
+                                       long revision);
+
+    // Full-document writes for many widgets as one JDBC batch (write-behind flushes);
+    // the revision is the current version of each widget's dashboard
+    void replaceData(Map<UUID, Map<String, Object>> dataByWidget);
+
+    // Stored documents of many widgets in one query; missing widgets are left out
+    Map<UUID, Map<String, Object>> findDataByIds(Collection<UUID> widgetIds);
+
+    // A write's change to the document as two JSON Patches, at the paths that changed: the one
+    // that reverts it and the one that makes it (WidgetStates)
+    record DataChange(List<Map<String, Object>> before, List<Map<String, Object>> after) {
+    }
+}
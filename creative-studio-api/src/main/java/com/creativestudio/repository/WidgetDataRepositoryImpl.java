@@ -0,0 +1,305 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.JsonPatchOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Translates JSON patches into jsonb expressions (jsonb_set, ||, -, #-) evaluated by PostgreSQL
+@RequiredArgsConstructor
+public class WidgetDataRepositoryImpl implements WidgetDataRepository {
+
+    private static final String STAMP = "updated_at = LOCALTIMESTAMP, revision = :revision, version = version + 1";
+
+    // The document as it was, locked, so the change can be reported next to the new one
+    private static final String OLD = "old AS (SELECT data AS previous FROM widgets"
+            + " WHERE id = :id AND dashboard_id = :dashboardId FOR UPDATE)";
+    private static final String RETURNING_CHANGE = " RETURNING jsonb_diff(widgets.data, old.previous)::text,"
+            + " jsonb_diff(old.previous, widgets.data)::text";
+
+    // RFC 6901 array index: no sign, no leading zeros (bounded so it always fits the comparison)
+    private static final Pattern ARRAY_INDEX = Pattern.compile("0|[1-9][0-9]{0,8}");
+
+    private static final TypeReference<Map<String, Object>> DOCUMENT = new TypeReference<>() {
+    };
+
+    private static final TypeReference<List<Map<String, Object>>> PATCH = new TypeReference<>() {
+    };
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Optional<DataChange> mergePatchData(UUID dashboardId, UUID widgetId, Map<String, Object> patch,
+                                               long revision) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", widgetId)
+                .addValue("dashboardId", dashboardId)
+                .addValue("revision", revision);
+
+        String sql = "WITH " + OLD + " UPDATE widgets SET data = " + mergeExpression("data", patch, params)
+                + ", " + STAMP + " FROM old WHERE widgets.id = :id" + RETURNING_CHANGE;
+        return change(sql, params);
+    }
+
+    @Override
+    public Optional<DataChange> jsonPatchData(UUID dashboardId, UUID widgetId, List<JsonPatchOperation> operations,
+                                              long revision) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("id", widgetId)
+                .addValue("dashboardId", dashboardId)
+                .addValue("revision", revision);
+
+        // Each operation is one CTE step reading the document produced by the previous step.
+        // A failed precondition (missing path, failed test) empties the chain, so nothing is written.
+        List<String> steps = new ArrayList<>();
+        steps.add("s0 AS (SELECT coalesce(previous, '{}'::jsonb) AS d, NULL::jsonb AS v FROM old)");
+
+        for (JsonPatchOperation operation : operations) {
+            String[] path = parsePointer(operation.getPath());
+            switch (operation.getOp()) {
+                case "add" -> steps.add(addStep(steps.size(), path, bindValue(operation.getValue(), params), params));
+                case "replace" -> steps.add(replaceStep(steps.size(), path, bindValue(operation.getValue(), params), params));
+                case "remove" -> steps.add(removeStep(steps.size(), path, params));
+                case "test" -> {
+                    String p = bind(path, params);
+                    String value = bindValue(operation.getValue(), params);
+                    steps.add(step(steps.size(), "d", "NULL::jsonb", "d #> " + p + " = " + value
+                            + indexConditions(path, path.length, params)));
+                }
+                case "move", "copy" -> {
+                    String[] from = parsePointer(operation.getFrom());
+                    String f = bind(from, params);
+                    String document = operation.getOp().equals("move") ? "d #- " + f : "d";
+                    steps.add(step(steps.size(), document, "d #> " + f, existsCondition(from, params)));
+                    steps.add(addStep(steps.size(), path, "v", params));
+                }
+                default -> throw new RuntimeException("Unsupported patch operation: " + operation.getOp());
+            }
+        }
+
+        String last = "s" + (steps.size() - 1);
+        String sql = "WITH " + OLD + ", " + String.join(", ", steps)
+                + " UPDATE widgets SET data = " + last + ".d, " + STAMP + " FROM " + last + ", old"
+                + " WHERE widgets.id = :id" + RETURNING_CHANGE;
+        return change(sql, params);
+    }
+
+    @Override
+    public void replaceData(Map<UUID, Map<String, Object>> dataByWidget) {
+        MapSqlParameterSource[] batch = dataByWidget.entrySet().stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("id", entry.getKey())
+                        .addValue("data", toJson(entry.getValue())))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("UPDATE widgets SET data = CAST(:data AS jsonb), updated_at = LOCALTIMESTAMP,"
+                + " revision = (SELECT version FROM dashboards WHERE id = widgets.dashboard_id), version = version + 1"
+                + " WHERE id = :id", batch);
+    }
+
+    @Override
+    public Map<UUID, Map<String, Object>> findDataByIds(Collection<UUID> widgetIds) {
+        Map<UUID, Map<String, Object>> documents = new HashMap<>();
+        if (widgetIds.isEmpty()) {
+            return documents;
+        }
+        jdbcTemplate.query("SELECT id, data::text FROM widgets WHERE id IN (:ids)", Map.of("ids", widgetIds),
+                rs -> {
+                    documents.put(rs.getObject(1, UUID.class), fromJson(rs.getString(2)));
+                });
+        return documents;
+    }
+
+    private Optional<DataChange> change(String sql, MapSqlParameterSource params) {
+        return jdbcTemplate.query(sql, params, (rs, row) -> new DataChange(fromJson(rs.getString(1), PATCH),
+                fromJson(rs.getString(2), PATCH))).stream().findFirst();
+    }
+
+    // --- RFC 7396 ---
+
+    // Keys in one merge-patch object never overlap, so each key can be computed from the
+    // original value of its target and the results concatenated - no nesting of the running document.
+    private String mergeExpression(String target, Map<String, Object> patch, MapSqlParameterSource params) {
+        StringBuilder expression = new StringBuilder("(CASE WHEN jsonb_typeof(" + target + ") = 'object' THEN "
+                + target + " ELSE '{}'::jsonb END");
+
+        Map<String, Object> values = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> nested = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : patch.entrySet()) {
+            if (entry.getValue() == null) {
+                expression.append(" - ").append(bindText(entry.getKey(), params));
+            } else if (entry.getValue() instanceof Map<?, ?> child) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> childPatch = (Map<String, Object>) child;
+                nested.put(entry.getKey(), childPatch);
+            } else {
+                values.put(entry.getKey(), entry.getValue());
+            }
+        }
+
+        if (!values.isEmpty()) {
+            expression.append(" || ").append(bindValue(values, params));
+        }
+        for (Map.Entry<String, Map<String, Object>> entry : nested.entrySet()) {
+            String key = bindText(entry.getKey(), params);
+            expression.append(" || jsonb_build_object(").append(key).append(", ")
+                    .append(mergeExpression("(" + target + " -> " + key + ")", entry.getValue(), params))
+                    .append(")");
+        }
+        return expression.append(")").toString();
+    }
+
+    // --- RFC 6902 ---
+
+    private String addStep(int index, String[] path, String value, MapSqlParameterSource params) {
+        if (path.length == 0) {
+            return step(index, value, "NULL::jsonb", "true");
+        }
+        String[] parent = Arrays.copyOf(path, path.length - 1);
+        String last = path[path.length - 1];
+        String p = bind(path, params);
+        String parentPath = bind(parent, params);
+
+        // Arrays insert before the index ("-" appends), objects set or overwrite the member
+        String arrayInsert = last.equals("-")
+                ? "jsonb_insert(d, " + bind(withLast(path, "-1"), params) + ", " + value + ", true)"
+                : "jsonb_insert(d, " + p + ", " + value + ")";
+        String document = "CASE WHEN jsonb_typeof(d #> " + parentPath + ") = 'array' THEN " + arrayInsert
+                + " ELSE jsonb_set(d, " + p + ", " + value + ", true) END";
+
+        // Into an array: "-", or an index up to the length (inserting at the length appends)
+        String notArray = "jsonb_typeof(d #> " + parentPath + ") <> 'array'";
+        String lastCondition;
+        if (last.equals("-")) {
+            lastCondition = "";
+        } else if (ARRAY_INDEX.matcher(last).matches()) {
+            lastCondition = " AND (" + notArray + " OR jsonb_array_length(d #> " + parentPath + ") >= " + last + ")";
+        } else {
+            lastCondition = " AND " + notArray;
+        }
+        return step(index, document, "NULL::jsonb", "d #> " + parentPath + " IS NOT NULL"
+                + indexConditions(path, parent.length, params) + lastCondition);
+    }
+
+    private String replaceStep(int index, String[] path, String value, MapSqlParameterSource params) {
+        if (path.length == 0) {
+            return step(index, value, "NULL::jsonb", "true");
+        }
+        String p = bind(path, params);
+        return step(index, "jsonb_set(d, " + p + ", " + value + ", false)", "NULL::jsonb", existsCondition(path, params));
+    }
+
+    private String removeStep(int index, String[] path, MapSqlParameterSource params) {
+        String p = bind(path, params);
+        return step(index, "d #- " + p, "NULL::jsonb", existsCondition(path, params));
+    }
+
+    // The location exists. #> would also resolve "-1" (from the end) and "01" in an array, which
+    // RFC 6901 does not allow
+    private String existsCondition(String[] path, MapSqlParameterSource params) {
+        return "d #> " + bind(path, params) + " IS NOT NULL" + indexConditions(path, path.length, params);
+    }
+
+    // Each of the first count segments that is not a valid array index must not be applied to an array
+    private String indexConditions(String[] path, int count, MapSqlParameterSource params) {
+        StringBuilder conditions = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (!ARRAY_INDEX.matcher(path[i]).matches()) {
+                conditions.append(" AND jsonb_typeof(d #> ").append(bind(Arrays.copyOf(path, i), params))
+                        .append(") IS DISTINCT FROM 'array'");
+            }
+        }
+        return conditions.toString();
+    }
+
+    private String step(int index, String document, String value, String condition) {
+        return "s" + index + " AS (SELECT " + document + " AS d, " + value + " AS v FROM s" + (index - 1)
+                + " WHERE " + condition + ")";
+    }
+
+    // "/todos/0/text" -> {todos, 0, text}; "" addresses the whole document
+    private String[] parsePointer(String pointer) {
+        if (pointer == null) {
+            throw new RuntimeException("Patch path is required");
+        }
+        if (pointer.isEmpty()) {
+            return new String[0];
+        }
+        if (!pointer.startsWith("/")) {
+            throw new RuntimeException("Invalid patch path: " + pointer);
+        }
+        String[] segments = pointer.substring(1).split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = segments[i].replace("~1", "/").replace("~0", "~");
+        }
+        return segments;
+    }
+
+    private String[] withLast(String[] path, String last) {
+        String[] copy = path.clone();
+        copy[copy.length - 1] = last;
+        return copy;
+    }
+
+    // --- parameters ---
+
+    // Bound as a quoted array literal: named parameters expand Java arrays into IN lists
+    private String bind(String[] path, MapSqlParameterSource params) {
+        StringBuilder literal = new StringBuilder("{");
+        for (int i = 0; i < path.length; i++) {
+            if (i > 0) {
+                literal.append(',');
+            }
+            literal.append('"').append(path[i].replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        String name = "p" + params.getValues().size();
+        params.addValue(name, literal.append('}').toString());
+        return "CAST(:" + name + " AS text[])";
+    }
+
+    private String bindText(String text, MapSqlParameterSource params) {
+        String name = "p" + params.getValues().size();
+        params.addValue(name, text);
+        return "CAST(:" + name + " AS text)";
+    }
+
+    private String bindValue(Object value, MapSqlParameterSource params) {
+        String name = "p" + params.getValues().size();
+        params.addValue(name, toJson(value));
+        return "CAST(:" + name + " AS jsonb)";
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        return fromJson(json, DOCUMENT);
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type) {
+        try {
+            return json == null ? null : objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid widget data", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid patch value", e);
+        }
+    }
+}
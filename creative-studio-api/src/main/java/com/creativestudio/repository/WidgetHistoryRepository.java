@@ -0,0 +1,17 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.model.WidgetOperation;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// History writes as JDBC batches, bypassing the persistence context; created_at is the time of the
+// writing transaction, so everything one action logs carries the same timestamp
+public interface WidgetHistoryRepository {
+
+    void insertOperations(List<WidgetOperation> operations);
+
+    // Widget id -> state (WidgetStates); the blobs they reference are listed for the blob sweep
+    void insertSnapshot(UUID dashboardId, long version, Map<UUID, Map<String, Object>> widgets);
+}
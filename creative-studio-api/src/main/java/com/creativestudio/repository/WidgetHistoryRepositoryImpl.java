@@ -0,0 +1,58 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.model.WidgetOperation;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class WidgetHistoryRepositoryImpl implements WidgetHistoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void insertOperations(List<WidgetOperation> operations) {
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO widget_operations (dashboard_id, version, widget_id, action, target_version, undone,
+                                               before, after, created_at)
+                VALUES (?, ?, ?, ?, ?, false, CAST(? AS jsonb), CAST(? AS jsonb), LOCALTIMESTAMP)
+                """, operations, operations.size(), (ps, operation) -> {
+            ps.setObject(1, operation.getDashboardId());
+            ps.setLong(2, operation.getVersion());
+            ps.setObject(3, operation.getWidgetId());
+            ps.setString(4, operation.getAction());
+            ps.setObject(5, operation.getTargetVersion(), Types.BIGINT);
+            ps.setString(6, toJson(operation.getBefore()));
+            ps.setString(7, toJson(operation.getAfter()));
+        });
+    }
+
+    @Override
+    public void insertSnapshot(UUID dashboardId, long version, Map<UUID, Map<String, Object>> widgets) {
+        jdbcTemplate.update("""
+                INSERT INTO dashboard_snapshots (dashboard_id, version, widgets, content_refs, created_at)
+                VALUES (?, ?, CAST(? AS jsonb), ?, LOCALTIMESTAMP)
+                """, ps -> {
+            ps.setObject(1, dashboardId);
+            ps.setLong(2, version);
+            ps.setString(3, toJson(widgets));
+            ps.setArray(4, ps.getConnection().createArrayOf("text",
+                    WidgetStates.contentRefs(widgets.values()).toArray()));
+        });
+    }
+
+    private String toJson(Object value) {
+        try {
+            return value == null ? null : objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid widget history", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.WidgetPlacement;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface WidgetLayoutRepository {
+
+    // Writes the boxes of many widgets of one dashboard with a single UPDATE ... FROM unnest(...)
+    // statement - one round trip for any number of widgets. Stamps the revision and bumps the
+    // optimistic-lock version of every row it writes.
+    int updatePlacements(UUID dashboardId, List<WidgetPlacement> placements, long revision);
+}
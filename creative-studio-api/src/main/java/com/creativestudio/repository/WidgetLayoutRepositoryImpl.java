@@ -0,0 +1,43 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.WidgetPlacement;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+@RequiredArgsConstructor
+public class WidgetLayoutRepositoryImpl implements WidgetLayoutRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public int updatePlacements(UUID dashboardId, List<WidgetPlacement> placements, long revision) {
+        if (placements.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("""
+                UPDATE widgets w
+                SET x = p.x, y = p.y, width = p.width, height = p.height,
+                    updated_at = LOCALTIMESTAMP, revision = ?, version = w.version + 1
+                FROM unnest(?, ?, ?, ?, ?) AS p(id, x, y, width, height)
+                WHERE w.id = p.id AND w.dashboard_id = ?
+                """, ps -> {
+            Connection connection = ps.getConnection();
+            ps.setLong(1, revision);
+            ps.setArray(2, connection.createArrayOf("uuid", placements.stream().map(WidgetPlacement::getId).toArray()));
+            ps.setArray(3, connection.createArrayOf("int4", ints(placements, WidgetPlacement::getX)));
+            ps.setArray(4, connection.createArrayOf("int4", ints(placements, WidgetPlacement::getY)));
+            ps.setArray(5, connection.createArrayOf("int4", ints(placements, WidgetPlacement::getWidth)));
+            ps.setArray(6, connection.createArrayOf("int4", ints(placements, WidgetPlacement::getHeight)));
+            ps.setObject(7, dashboardId);
+        });
+    }
+
+    private static Integer[] ints(List<WidgetPlacement> placements, ToIntFunction<WidgetPlacement> field) {
+        return placements.stream().map(p -> field.applyAsInt(p)).toArray(Integer[]::new);
+    }
+}
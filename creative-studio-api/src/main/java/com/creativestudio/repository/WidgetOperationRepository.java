@@ -0,0 +1,94 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.DashboardHistoryEntry;
+import com.creativestudio.model.WidgetOperation;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Rows are read as projections: replaying a long tail must not fill the persistence context
+public interface WidgetOperationRepository extends JpaRepository<WidgetOperation, WidgetOperation.Key>,
+        WidgetHistoryRepository {
+
+    String PROJECTION = "new com.creativestudio.model.WidgetOperation(o.dashboardId, o.version, o.widgetId, o.action,"
+            + " o.targetVersion, o.undone, o.before, o.after, o.createdAt)";
+
+    @Query("SELECT " + PROJECTION + " FROM WidgetOperation o WHERE o.dashboardId = :dashboardId AND o.version = :version")
+    List<WidgetOperation> findAction(UUID dashboardId, long version);
+
+    // The action an undo reverts: the newest edit or restore not undone yet
+    @Query("""
+            SELECT max(o.version) FROM WidgetOperation o
+            WHERE o.dashboardId = :dashboardId AND o.action IN ('edit', 'restore') AND o.undone = false
+            """)
+    Optional<Long> findLatestUndoable(UUID dashboardId);
+
+    @Query("SELECT max(o.version) FROM WidgetOperation o WHERE o.dashboardId = :dashboardId AND o.action IN ('edit', 'restore')")
+    Optional<Long> findLatestEdit(UUID dashboardId);
+
+    // The action a redo re-applies: the one reverted by the newest undo since the last edit that has
+    // not been redone already. A new edit starts a new branch, so older undos are not redoable.
+    @Query("""
+            SELECT u.targetVersion FROM WidgetOperation u
+            WHERE u.dashboardId = :dashboardId AND u.action = 'undo' AND u.version > :since
+              AND EXISTS (SELECT 1 FROM WidgetOperation t
+                          WHERE t.dashboardId = :dashboardId AND t.version = u.targetVersion AND t.undone = true)
+            ORDER BY u.version DESC
+            """)
+    List<Long> findRedoable(UUID dashboardId, long since, Limit limit);
+
+    @Modifying
+    @Query("UPDATE WidgetOperation o SET o.undone = :undone WHERE o.dashboardId = :dashboardId AND o.version = :version")
+    void markUndone(UUID dashboardId, long version, boolean undone);
+
+    // Restore, forward from a snapshot: everything after it up to the requested time
+    @Query("SELECT " + PROJECTION + """
+             FROM WidgetOperation o
+            WHERE o.dashboardId = :dashboardId AND o.version > :after AND o.createdAt <= :at
+            ORDER BY o.version, o.widgetId
+            """)
+    List<WidgetOperation> findForwardFrom(UUID dashboardId, long after, LocalDateTime at);
+
+    // Restore, backward from a snapshot (or the present): everything after the requested time, newest first
+    @Query("SELECT " + PROJECTION + """
+             FROM WidgetOperation o
+            WHERE o.dashboardId = :dashboardId AND o.version <= :upTo AND o.createdAt > :at
+            ORDER BY o.version DESC, o.widgetId
+            """)
+    List<WidgetOperation> findBackwardFrom(UUID dashboardId, long upTo, LocalDateTime at);
+
+    @Query("SELECT min(o.createdAt) FROM WidgetOperation o WHERE o.dashboardId = :dashboardId")
+    Optional<LocalDateTime> findFirstCreatedAt(UUID dashboardId);
+
+    @Query("""
+            SELECT new com.creativestudio.dto.DashboardHistoryEntry(o.version, o.action, o.targetVersion, o.undone,
+                COUNT(o), o.createdAt)
+            FROM WidgetOperation o
+            WHERE o.dashboardId = :dashboardId
+            GROUP BY o.version, o.action, o.targetVersion, o.undone, o.createdAt
+            ORDER BY o.version DESC
+            """)
+    List<DashboardHistoryEntry> findHistory(UUID dashboardId, Limit limit);
+
+    // Stored (compressed) size of the log after a version, weighed against the latest snapshot
+    @Query(value = """
+            SELECT coalesce(sum(coalesce(pg_column_size(before), 0) + coalesce(pg_column_size(after), 0)), 0)
+            FROM widget_operations
+            WHERE dashboard_id = :dashboardId AND version > :after
+            """, nativeQuery = true)
+    long sumSizeAfter(UUID dashboardId, long after);
+
+    @Modifying
+    @Query("DELETE FROM WidgetOperation o WHERE o.dashboardId = :dashboardId AND o.version <= :version")
+    void deleteUpTo(UUID dashboardId, long version);
+
+    @Modifying
+    @Query("DELETE FROM WidgetOperation o WHERE o.dashboardId = :dashboardId")
+    void deleteByDashboardId(UUID dashboardId);
+}
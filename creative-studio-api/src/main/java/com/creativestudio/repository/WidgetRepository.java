@@ -1,15 +1,77 @@
 package com.creativestudio.repository;
 
+import com.creativestudio.dto.DashboardTransferLine;
+import com.creativestudio.dto.WidgetPlacement;
 import com.creativestudio.model.Dashboard;
+import com.creativestudio.model.User;
 import com.creativestudio.model.Widget;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-public interface WidgetRepository extends JpaRepository<Widget, UUID> {
+public interface WidgetRepository extends JpaRepository<Widget, UUID>, WidgetDataRepository, WidgetLayoutRepository,
+        WidgetSearchRepository, WidgetStateRepository {
 
     List<Widget> findByDashboard(Dashboard dashboard);
 
     List<Widget> findByDashboardOrderByCreatedAtAsc(Dashboard dashboard);
-}
\ No newline at end of file
+
+    // Loads every widget of a batch layout update in one query
+    List<Widget> findByDashboardAndIdIn(Dashboard dashboard, Collection<UUID> ids);
+
+    boolean existsByIdAndDashboard(UUID id, Dashboard dashboard);
+
+    // The widget only if it is on that dashboard and the dashboard is the user's: the ownership
+    // check and the load in one query, with the dashboard row fetched alongside
+    @Query("""
+            SELECT w FROM Widget w JOIN FETCH w.dashboard d
+            WHERE w.id = :id AND d.id = :dashboardId AND d.user.id = :userId
+            """)
+    Optional<Widget> findOwned(UUID id, UUID dashboardId, UUID userId);
+
+    @Query("SELECT w.data FROM Widget w WHERE w.id = :id")
+    Optional<Map<String, Object>> findDataById(UUID id);
+
+    // Layout engine input: boxes only, no entities, so a 10k-widget dashboard stays cheap to read
+    @Query("""
+            SELECT new com.creativestudio.dto.WidgetPlacement(w.id, w.x, w.y, w.width, w.height, w.zIndex)
+            FROM Widget w
+            WHERE w.dashboard.id = :dashboardId
+            ORDER BY w.createdAt, w.id
+            """)
+    List<WidgetPlacement> findPlacementsByDashboardId(UUID dashboardId);
+
+    // Viewport: widgets whose bounding box intersects the rectangle (edges included), found through
+    // the GiST index idx_widgets_dashboard_bounds (migration V3) - O(log n + visible), not O(all)
+    @Query(value = """
+            SELECT * FROM widgets
+            WHERE dashboard_id = :dashboardId
+              AND box(point(x, y), point(x + width, y + height)) && box(point(:minX, :minY), point(:maxX, :maxY))
+            ORDER BY created_at
+            """, nativeQuery = true)
+    List<Widget> findInViewport(UUID dashboardId, int minX, int minY, int maxX, int maxY);
+
+    // Incremental sync - an index range scan on (dashboard_id, revision)
+    List<Widget> findByDashboardAndRevisionGreaterThanOrderByRevisionAsc(Dashboard dashboard, long revision);
+
+    // Export: a server-side cursor over all of the user's widgets, grouped by dashboard in
+    // DashboardRepository.streamTransferLinesByUser order
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.creativestudio.dto.DashboardTransferLine(
+                w.dashboard.id, w.id, w.type, w.name, w.x, w.y, w.width, w.height, w.zIndex, w.data)
+            FROM Widget w
+            WHERE w.dashboard.user = :user
+            ORDER BY w.dashboard.id, w.revision, w.id
+            """)
+    Stream<DashboardTransferLine> streamTransferLinesByUser(User user);
+}
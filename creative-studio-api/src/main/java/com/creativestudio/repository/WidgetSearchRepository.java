@@ -0,0 +1,14 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.SearchHitResponse;
+
+import java.util.List;
+import java.util.UUID;
+
+// Full-text search over a user's widgets, answered by the GIN indexes on the generated search
+// vectors (migration V2): no widget data is read except to build the snippets of the hits returned.
+public interface WidgetSearchRepository {
+
+    // Web-search syntax ("quoted phrases", or, -excluded), ranked best first
+    List<SearchHitResponse> search(UUID userId, String query, int limit);
+}
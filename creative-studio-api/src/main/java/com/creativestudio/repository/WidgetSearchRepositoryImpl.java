@@ -0,0 +1,70 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.SearchHitResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.List;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class WidgetSearchRepositoryImpl implements WidgetSearchRepository {
+
+    // A widget matches on its own vector (name, notes, todos, inline HTML) or on the vector of the
+    // blob holding its body; both are GIN lookups and the ranks of a widget's matches are summed.
+    // Only the hits on the returned page are read again, to cut their snippets.
+    // The tsquery is written out in each predicate rather than shared through a CTE, so the
+    // planner sees its terms and can estimate how selective the GIN lookups are.
+    private static final String QUERY = "websearch_to_tsquery('simple', :query)";
+    private static final String SEARCH = """
+            WITH hits AS (
+                SELECT w.id, ts_rank(w.search, %1$s) AS rank
+                FROM widgets w
+                WHERE w.search @@ %1$s
+                  AND w.dashboard_id = ANY (ARRAY(SELECT id FROM dashboards WHERE user_id = :userId))
+                UNION ALL
+                SELECT w.id, ts_rank(b.search, %1$s)
+                FROM content_blobs b
+                JOIN widgets w ON w.data ->> 'contentRef' = b.hash
+                WHERE b.search @@ %1$s
+                  AND w.dashboard_id = ANY (ARRAY(SELECT id FROM dashboards WHERE user_id = :userId))
+            ),
+            ranked AS (
+                SELECT id, sum(rank) AS rank
+                FROM hits
+                GROUP BY id
+                ORDER BY rank DESC, id
+                LIMIT :limit
+            )
+            SELECT w.id, w.dashboard_id, d.name AS dashboard_name, w.type, w.name, r.rank,
+                   ts_headline('simple',
+                       replace(replace(replace(left(concat_ws(' ', widget_search_text(w.data), b.plain_text), 262144),
+                           '&', '&amp;'), '<', '&lt;'), '>', '&gt;'),
+                       %1$s, 'MaxFragments=2, MinWords=5, MaxWords=20, StartSel=<mark>, StopSel=</mark>') AS snippet
+            FROM ranked r
+            JOIN widgets w ON w.id = r.id
+            JOIN dashboards d ON d.id = w.dashboard_id
+            LEFT JOIN content_blobs b ON b.hash = w.data ->> 'contentRef'
+            ORDER BY r.rank DESC, r.id
+            """.formatted(QUERY);
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<SearchHitResponse> search(UUID userId, String query, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("userId", userId)
+                .addValue("limit", limit);
+        return jdbcTemplate.query(SEARCH, params, (rs, row) -> SearchHitResponse.builder()
+                .widgetId(rs.getObject("id", UUID.class))
+                .dashboardId(rs.getObject("dashboard_id", UUID.class))
+                .dashboardName(rs.getString("dashboard_name"))
+                .type(rs.getString("type"))
+                .name(rs.getString("name"))
+                .rank(rs.getDouble("rank"))
+                .snippet(rs.getString("snippet"))
+                .build());
+    }
+}
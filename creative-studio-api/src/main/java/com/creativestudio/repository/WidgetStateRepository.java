@@ -0,0 +1,23 @@
+package com.creativestudio.repository;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+// Widgets as history sees them (WidgetStates), read and written without entities, so undoing or
+// restoring hundreds of widgets is a few batched statements and nothing in the persistence context
+public interface WidgetStateRepository {
+
+    Map<UUID, Map<String, Object>> findStates(UUID dashboardId);
+
+    Map<UUID, Map<String, Object>> findStates(UUID dashboardId, Collection<UUID> widgetIds);
+
+    // Deletes the widget and returns what it was; empty if it is not on that dashboard
+    Optional<Map<String, Object>> deleteReturningState(UUID dashboardId, UUID widgetId);
+
+    // Makes the widgets of a dashboard match the given states: a widget mapped to null is deleted
+    // (leaving a tombstone), any other is updated or created again with the id it had. Every row
+    // written is stamped with the revision.
+    void writeStates(UUID dashboardId, long revision, Map<UUID, Map<String, Object>> states);
+}
@@ -0,0 +1,155 @@
+package com.creativestudio.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+@RequiredArgsConstructor
+public class WidgetStateRepositoryImpl implements WidgetStateRepository {
+
+    private static final String COLUMNS = "id, type, name, x, y, width, height, z_index, data::text, created_at";
+
+    private static final TypeReference<Map<String, Object>> DOCUMENT = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public Map<UUID, Map<String, Object>> findStates(UUID dashboardId) {
+        return toMap(jdbcTemplate.query("SELECT " + COLUMNS + " FROM widgets WHERE dashboard_id = ?",
+                this::mapRow, dashboardId));
+    }
+
+    @Override
+    public Map<UUID, Map<String, Object>> findStates(UUID dashboardId, Collection<UUID> widgetIds) {
+        return toMap(jdbcTemplate.query("SELECT " + COLUMNS + " FROM widgets WHERE dashboard_id = ? AND id = ANY(?)",
+                ps -> {
+                    ps.setObject(1, dashboardId);
+                    ps.setArray(2, ps.getConnection().createArrayOf("uuid", widgetIds.toArray()));
+                }, this::mapRow));
+    }
+
+    @Override
+    public Optional<Map<String, Object>> deleteReturningState(UUID dashboardId, UUID widgetId) {
+        return jdbcTemplate.query("DELETE FROM widgets WHERE id = ? AND dashboard_id = ? RETURNING " + COLUMNS,
+                this::mapRow, widgetId, dashboardId).stream().findFirst().map(Map.Entry::getValue);
+    }
+
+    @Override
+    public void writeStates(UUID dashboardId, long revision, Map<UUID, Map<String, Object>> states) {
+        List<Map.Entry<UUID, Map<String, Object>>> upserts = new ArrayList<>();
+        List<UUID> deletes = new ArrayList<>();
+        states.forEach((widgetId, state) -> {
+            if (state == null) {
+                deletes.add(widgetId);
+            } else {
+                upserts.add(Map.entry(widgetId, state));
+            }
+        });
+
+        if (!upserts.isEmpty()) {
+            // One statement for all widgets; a widget of another dashboard with the same id is left alone
+            jdbcTemplate.update("""
+                    INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,
+                                         revision, version, created_at, updated_at)
+                    SELECT s.id, ?, s.type, s.name, s.x, s.y, s.width, s.height, s.z_index, CAST(s.data AS jsonb),
+                           ?, 0, coalesce(s.created_at, LOCALTIMESTAMP), LOCALTIMESTAMP
+                    FROM unnest(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+                        AS s(id, type, name, x, y, width, height, z_index, data, created_at)
+                    ON CONFLICT (id) DO UPDATE SET
+                        type = EXCLUDED.type, name = EXCLUDED.name, x = EXCLUDED.x, y = EXCLUDED.y,
+                        width = EXCLUDED.width, height = EXCLUDED.height, z_index = EXCLUDED.z_index,
+                        data = EXCLUDED.data, revision = EXCLUDED.revision, version = widgets.version + 1,
+                        created_at = EXCLUDED.created_at, updated_at = LOCALTIMESTAMP
+                    WHERE widgets.dashboard_id = EXCLUDED.dashboard_id
+                    """, ps -> {
+                Connection connection = ps.getConnection();
+                List<Map<String, Object>> rows = upserts.stream().map(Map.Entry::getValue).toList();
+                ps.setObject(1, dashboardId);
+                ps.setLong(2, revision);
+                ps.setArray(3, connection.createArrayOf("uuid", upserts.stream().map(Map.Entry::getKey).toArray()));
+                ps.setArray(4, connection.createArrayOf("text", rows.stream().map(s -> s.get(WidgetStates.TYPE)).toArray()));
+                ps.setArray(5, connection.createArrayOf("text", rows.stream().map(s -> s.get(WidgetStates.NAME)).toArray()));
+                ps.setArray(6, connection.createArrayOf("int4", ints(rows, WidgetStates.X)));
+                ps.setArray(7, connection.createArrayOf("int4", ints(rows, WidgetStates.Y)));
+                ps.setArray(8, connection.createArrayOf("int4", ints(rows, WidgetStates.WIDTH)));
+                ps.setArray(9, connection.createArrayOf("int4", ints(rows, WidgetStates.HEIGHT)));
+                ps.setArray(10, connection.createArrayOf("int4", ints(rows, WidgetStates.Z_INDEX)));
+                ps.setArray(11, connection.createArrayOf("text",
+                        rows.stream().map(s -> toJson(WidgetStates.data(s))).toArray()));
+                ps.setArray(12, connection.createArrayOf("timestamp", rows.stream().map(s -> {
+                    LocalDateTime createdAt = WidgetStates.createdAt(s);
+                    return createdAt != null ? Timestamp.valueOf(createdAt) : null;
+                }).toArray()));
+            });
+            // Widgets brought back are no longer deleted for incremental sync
+            jdbcTemplate.update("DELETE FROM widget_tombstones WHERE widget_id = ANY(?)",
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid",
+                            upserts.stream().map(Map.Entry::getKey).toArray())));
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.update("""
+                    WITH deleted AS (DELETE FROM widgets WHERE dashboard_id = ? AND id = ANY(?) RETURNING id)
+                    INSERT INTO widget_tombstones (widget_id, dashboard_id, revision, deleted_at)
+                    SELECT id, ?, ?, LOCALTIMESTAMP FROM deleted
+                    ON CONFLICT (widget_id) DO UPDATE SET revision = EXCLUDED.revision, deleted_at = EXCLUDED.deleted_at
+                    """, ps -> {
+                Connection connection = ps.getConnection();
+                ps.setObject(1, dashboardId);
+                ps.setArray(2, connection.createArrayOf("uuid", deletes.toArray()));
+                ps.setObject(3, dashboardId);
+                ps.setLong(4, revision);
+            });
+        }
+    }
+
+    private Map.Entry<UUID, Map<String, Object>> mapRow(ResultSet rs, int row) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(10);
+        return Map.entry(rs.getObject(1, UUID.class), WidgetStates.of(rs.getString(2), rs.getString(3), rs.getInt(4),
+                rs.getInt(5), rs.getInt(6), rs.getInt(7), rs.getInt(8), fromJson(rs.getString(9)),
+                createdAt != null ? createdAt.toLocalDateTime() : null));
+    }
+
+    private static Integer[] ints(List<Map<String, Object>> states, String field) {
+        return states.stream().map(state -> WidgetStates.intField(state, field)).toArray(Integer[]::new);
+    }
+
+    private static Map<UUID, Map<String, Object>> toMap(List<Map.Entry<UUID, Map<String, Object>>> rows) {
+        Map<UUID, Map<String, Object>> states = new LinkedHashMap<>();
+        rows.forEach(row -> states.put(row.getKey(), row.getValue()));
+        return states;
+    }
+
+    private Map<String, Object> fromJson(String json) {
+        try {
+            return json == null ? null : objectMapper.readValue(json, DOCUMENT);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid widget data", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return value == null ? null : objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Invalid widget data", e);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.WidgetPlacement;
+import com.creativestudio.model.Widget;
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.WidgetDataRepository.DataChange;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+// A widget as history records it: its fields as a map, and patches over such maps that hold only
+// the fields that changed. The "data" of a patch is an RFC 6902 patch of the document down to the
+// deepest paths that changed (the same as jsonb_diff, migration V4), so a small edit to a large
+// document is logged at about its own size. A whole widget is a patch too - the only kind with a
+// type, since the type never changes - so a creation is logged as (null, widget) and a deletion
+// as (widget, null).
+public final class WidgetStates {
+
+    public static final String TYPE = "type";
+    public static final String NAME = "name";
+    public static final String X = "x";
+    public static final String Y = "y";
+    public static final String WIDTH = "width";
+    public static final String HEIGHT = "height";
+    public static final String Z_INDEX = "zIndex";
+    public static final String DATA = "data";
+    public static final String CREATED_AT = "createdAt";
+
+    // WidgetContentStore.CONTENT_REF
+    private static final String CONTENT_REF = "contentRef";
+
+    private WidgetStates() {
+    }
+
+    public static Map<String, Object> of(Widget widget) {
+        return of(widget.getType(), widget.getName(), widget.getX(), widget.getY(), widget.getWidth(),
+                widget.getHeight(), widget.getZIndex(), widget.getData(), widget.getCreatedAt());
+    }
+
+    public static Map<String, Object> of(String type, String name, int x, int y, int width, int height, int zIndex,
+                                         Map<String, Object> data, LocalDateTime createdAt) {
+        Map<String, Object> state = new LinkedHashMap<>(box(x, y, width, height, zIndex));
+        state.put(TYPE, type);
+        state.put(NAME, name);
+        state.put(DATA, data);
+        // As text at the stored precision, so a state read back from JSON or the table compares equal
+        state.put(CREATED_AT, createdAt != null
+                ? DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(createdAt.truncatedTo(ChronoUnit.MICROS))
+                : null);
+        return state;
+    }
+
+    public static Map<String, Object> box(WidgetPlacement p) {
+        return box(p.getX(), p.getY(), p.getWidth(), p.getHeight(), p.getZIndex());
+    }
+
+    public static Map<String, Object> box(int x, int y, int width, int height, int zIndex) {
+        Map<String, Object> box = new LinkedHashMap<>();
+        box.put(X, x);
+        box.put(Y, y);
+        box.put(WIDTH, width);
+        box.put(HEIGHT, height);
+        box.put(Z_INDEX, zIndex);
+        return box;
+    }
+
+    // The operation that turns `from` into `to` (null for no widget), or null if nothing changed.
+    // `to` names the fields that may have changed: a box, a whole widget.
+    public static WidgetOperation change(UUID widgetId, Map<String, Object> from, Map<String, Object> to) {
+        Map<String, Object> after = diffFields(from, to);
+        if (from == null ? to == null : after != null && after.isEmpty()) {
+            return null;
+        }
+        Map<String, Object> before = from == null ? null : to == null ? new LinkedHashMap<>(from) : diffFields(to, from);
+        return WidgetOperation.builder().widgetId(widgetId).before(before).after(after).build();
+    }
+
+    // A change of the document only, as patches applied in PostgreSQL report it
+    public static WidgetOperation change(UUID widgetId, DataChange change) {
+        if (change == null || (change.before().isEmpty() && change.after().isEmpty())) {
+            return null;
+        }
+        Map<String, Object> before = new LinkedHashMap<>();
+        before.put(DATA, change.before());
+        Map<String, Object> after = new LinkedHashMap<>();
+        after.put(DATA, change.after());
+        return WidgetOperation.builder().widgetId(widgetId).before(before).after(after).build();
+    }
+
+    public static DataChange dataChange(Map<String, Object> from, Map<String, Object> to) {
+        return new DataChange(diff(to, from), diff(from, to));
+    }
+
+    // Two document changes of one widget in a row, as one: the second is reverted first
+    public static DataChange compose(DataChange first, DataChange second) {
+        if (first == null || second == null) {
+            return first == null ? second : first;
+        }
+        List<Map<String, Object>> before = new ArrayList<>(second.before());
+        before.addAll(first.before());
+        List<Map<String, Object>> after = new ArrayList<>(first.after());
+        after.addAll(second.after());
+        return new DataChange(before, after);
+    }
+
+    // The widget after the patch; null if the patch deletes it, or updates a widget that is not there
+    public static Map<String, Object> apply(Map<String, Object> state, Map<String, Object> patch) {
+        if (patch == null || (state == null && !patch.containsKey(TYPE))) {
+            return null;
+        }
+        if (patch.containsKey(TYPE)) {
+            return new LinkedHashMap<>(patch);
+        }
+        Map<String, Object> result = new LinkedHashMap<>(state);
+        patch.forEach((field, value) -> {
+            if (field.equals(DATA) && value instanceof List<?> operations) {
+                Object data = state.get(DATA);
+                for (Object operation : operations) {
+                    data = applyOperation(data, (Map<?, ?>) operation);
+                }
+                result.put(DATA, data);
+            } else {
+                result.put(field, value);
+            }
+        });
+        return result;
+    }
+
+    // The document patch that turns `from` into `to`; empty if they are equal
+    public static List<Map<String, Object>> diff(Object from, Object to) {
+        List<Map<String, Object>> operations = new ArrayList<>();
+        diff(from, to, "", operations);
+        return operations;
+    }
+
+    public static Map<String, Object> data(Map<String, Object> state) {
+        return state.get(DATA) == null ? null : document(state.get(DATA));
+    }
+
+    public static int intField(Map<String, Object> state, String field) {
+        return state.get(field) instanceof Number n ? n.intValue() : 0;
+    }
+
+    public static LocalDateTime createdAt(Map<String, Object> state) {
+        return state.get(CREATED_AT) instanceof String text ? LocalDateTime.parse(text) : null;
+    }
+
+    // Content blobs the widgets reference
+    public static Set<String> contentRefs(Collection<Map<String, Object>> states) {
+        Set<String> refs = new HashSet<>();
+        for (Map<String, Object> state : states) {
+            if (document(state.get(DATA)).get(CONTENT_REF) instanceof String ref) {
+                refs.add(ref);
+            }
+        }
+        return refs;
+    }
+
+    private static Map<String, Object> diffFields(Map<String, Object> from, Map<String, Object> to) {
+        if (from == null || to == null) {
+            return to == null ? null : new LinkedHashMap<>(to);
+        }
+        Map<String, Object> patch = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> field : to.entrySet()) {
+            if (field.getKey().equals(DATA)) {
+                List<Map<String, Object>> data = diff(from.get(DATA), field.getValue());
+                if (!data.isEmpty()) {
+                    patch.put(DATA, data);
+                }
+            } else if (!Objects.equals(from.get(field.getKey()), field.getValue())) {
+                patch.put(field.getKey(), field.getValue());
+            }
+        }
+        return patch;
+    }
+
+    // Same as jsonb_diff (migration V4): objects member by member; arrays keep their common head and
+    // tail, diff the elements between pairwise and remove (last first) or add the surplus
+    private static void diff(Object from, Object to, String path, List<Map<String, Object>> operations) {
+        if (Objects.equals(from, to)) {
+            return;
+        }
+        if (from instanceof Map<?, ?> a && to instanceof Map<?, ?> b) {
+            for (Object key : a.keySet()) {
+                if (!b.containsKey(key)) {
+                    operations.add(operation("remove", path + "/" + token(key), null));
+                }
+            }
+            for (Map.Entry<?, ?> member : b.entrySet()) {
+                String memberPath = path + "/" + token(member.getKey());
+                if (a.containsKey(member.getKey())) {
+                    diff(a.get(member.getKey()), member.getValue(), memberPath, operations);
+                } else {
+                    operations.add(operation("add", memberPath, member.getValue()));
+                }
+            }
+        } else if (from instanceof List<?> a && to instanceof List<?> b) {
+            int head = 0;
+            while (head < a.size() && head < b.size() && Objects.equals(a.get(head), b.get(head))) {
+                head++;
+            }
+            int tail = 0;
+            while (tail < a.size() - head && tail < b.size() - head
+                    && Objects.equals(a.get(a.size() - 1 - tail), b.get(b.size() - 1 - tail))) {
+                tail++;
+            }
+            int paired = Math.min(a.size(), b.size()) - head - tail;
+            for (int i = head; i < head + paired; i++) {
+                diff(a.get(i), b.get(i), path + "/" + i, operations);
+            }
+            for (int i = a.size() - tail - 1; i >= head + paired; i--) {
+                operations.add(operation("remove", path + "/" + i, null));
+            }
+            for (int i = head + paired; i < b.size() - tail; i++) {
+                operations.add(operation("add", path + "/" + i, b.get(i)));
+            }
+        } else {
+            operations.add(operation("replace", path, to));
+        }
+    }
+
+    private static Map<String, Object> operation(String op, String path, Object value) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("op", op);
+        operation.put("path", path);
+        if (!op.equals("remove")) {
+            operation.put("value", value);
+        }
+        return operation;
+    }
+
+    private static String token(Object key) {
+        return key.toString().replace("~", "~0").replace("/", "~1");
+    }
+
+    // One logged operation, applied copy-on-write. History is applied to widgets that may have
+    // changed since (an undo keeps later edits), so an operation whose target is gone is skipped.
+    private static Object applyOperation(Object document, Map<?, ?> operation) {
+        String path = (String) operation.get("path");
+        if (path.isEmpty()) {
+            return operation.get("op").equals("remove") ? null : operation.get("value");
+        }
+        String[] tokens = path.substring(1).split("/", -1);
+        for (int i = 0; i < tokens.length; i++) {
+            tokens[i] = tokens[i].replace("~1", "/").replace("~0", "~");
+        }
+        return apply(document, tokens, 0, (String) operation.get("op"), operation.get("value"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Object apply(Object node, String[] tokens, int depth, String op, Object value) {
+        String token = tokens[depth];
+        boolean last = depth == tokens.length - 1;
+        if (node instanceof Map<?, ?> map) {
+            Map<String, Object> copy = new LinkedHashMap<>((Map<String, Object>) map);
+            if (last) {
+                if (op.equals("remove")) {
+                    copy.remove(token);
+                } else {
+                    copy.put(token, value);
+                }
+            } else if (copy.get(token) != null) {
+                copy.put(token, apply(copy.get(token), tokens, depth + 1, op, value));
+            }
+            return copy;
+        }
+        if (node instanceof List<?> list) {
+            List<Object> copy = new ArrayList<>(list);
+            int index = token.equals("-") ? copy.size() : token.matches("0|[1-9][0-9]{0,8}") ? Integer.parseInt(token) : -1;
+            if (index < 0) {
+                return node;
+            }
+            if (last && op.equals("add")) {
+                copy.add(Math.min(index, copy.size()), value);
+            } else if (index < copy.size()) {
+                if (!last) {
+                    copy.set(index, apply(copy.get(index), tokens, depth + 1, op, value));
+                } else if (op.equals("remove")) {
+                    copy.remove(index);
+                } else {
+                    copy.set(index, value);
+                }
+            }
+            return copy;
+        }
+        return node;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> document(Object value) {
+        return value instanceof Map<?, ?> map ? (Map<String, Object>) map : Map.of();
+    }
+}
@@ -0,0 +1,26 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.model.WidgetTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface WidgetTombstoneRepository extends JpaRepository<WidgetTombstone, UUID> {
+
+    // Plain INSERT: save() would SELECT first because the id is assigned
+    @Modifying
+    @Query(value = "INSERT INTO widget_tombstones (widget_id, dashboard_id, revision, deleted_at)"
+            + " VALUES (:widgetId, :dashboardId, :revision, LOCALTIMESTAMP)", nativeQuery = true)
+    void insert(UUID widgetId, UUID dashboardId, long revision);
+
+    // Widgets of a dashboard deleted after the given revision
+    @Query("SELECT t.widgetId FROM WidgetTombstone t WHERE t.dashboardId = :dashboardId AND t.revision > :since")
+    List<UUID> findWidgetIdsDeletedSince(UUID dashboardId, long since);
+
+    @Modifying
+    @Query("DELETE FROM WidgetTombstone t WHERE t.dashboardId = :dashboardId")
+    void deleteByDashboardId(UUID dashboardId);
+}
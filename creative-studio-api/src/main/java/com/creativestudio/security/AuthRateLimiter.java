@@ -0,0 +1,51 @@
+package com.creativestudio.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Admission control for login and register, checked before any password is hashed: one token
+// bucket per client address (a scripted storm from one source) and one per account email
+// (guessing against one account from many sources). Either limit answers 429.
+@Component
+public class AuthRateLimiter {
+
+    private final StripedTokenBuckets byAddress;
+    private final StripedTokenBuckets byAccount;
+    private final Counter addressRejections;
+    private final Counter accountRejections;
+
+    public AuthRateLimiter(@Value("${auth.rate-limit.stripes}") int stripes,
+                           @Value("${auth.rate-limit.address.burst}") int addressBurst,
+                           @Value("${auth.rate-limit.address.per-minute}") int addressPerMinute,
+                           @Value("${auth.rate-limit.account.burst}") int accountBurst,
+                           @Value("${auth.rate-limit.account.per-minute}") int accountPerMinute,
+                           MeterRegistry meterRegistry) {
+        this.byAddress = new StripedTokenBuckets(stripes, addressBurst, addressPerMinute);
+        this.byAccount = new StripedTokenBuckets(stripes, accountBurst, accountPerMinute);
+        this.addressRejections = meterRegistry.counter("auth.rate-limit.rejections", "limit", "address");
+        this.accountRejections = meterRegistry.counter("auth.rate-limit.rejections", "limit", "account");
+    }
+
+    public void acquire(String remoteAddress, String email) {
+        long wait = byAddress.tryAcquire(remoteAddress);
+        if (wait > 0) {
+            addressRejections.increment();
+            throw throttled(wait);
+        }
+        wait = byAccount.tryAcquire(email.toLowerCase(Locale.ROOT));
+        if (wait > 0) {
+            accountRejections.increment();
+            throw throttled(wait);
+        }
+    }
+
+    private static AuthThrottledException throttled(long waitNanos) {
+        long seconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        return new AuthThrottledException("Too many sign-in attempts, retry later", seconds);
+    }
+}
@@ -0,0 +1,16 @@
+package com.creativestudio.security;
+
+import lombok.Getter;
+
+// A sign-in or registration turned away before any password was hashed: the caller's rate limit
+// is spent, or the hashing pool is saturated. Answered with 429 and Retry-After.
+@Getter
+public class AuthThrottledException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AuthThrottledException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
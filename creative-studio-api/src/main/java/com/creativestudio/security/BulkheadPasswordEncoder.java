@@ -0,0 +1,77 @@
+package com.creativestudio.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Bulkhead for password hashing. BCrypt is deliberately CPU-bound, so a burst of sign-ins run on
+// request threads takes every core and stalls dashboard and widget traffic. Here hashes run on a
+// fixed pool of `threads` threads with at most `queueCapacity` waiting; the request thread waits
+// for its result, and a hash that finds the queue full is refused at once (429) instead of queueing
+// behind seconds of work. The encoder itself (and its cost) is unchanged.
+public class BulkheadPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+
+    public BulkheadPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofPlatform().name("password-hashing-", 0).daemon().factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.prestartAllCoreThreads();
+
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "password.hashing");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return run(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return run(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    // Called by Spring on context close
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> T run(Callable<T> task) {
+        Future<T> result;
+        try {
+            result = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new AuthThrottledException("Too many sign-ins in progress, retry shortly", 1);
+        }
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing a password", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
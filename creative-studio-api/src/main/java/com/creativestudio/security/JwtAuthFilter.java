@@ -1,6 +1,9 @@
 package com.creativestudio.security;
 
+import com.creativestudio.datasource.ReadYourWrites;
+import com.creativestudio.model.User;
 import com.creativestudio.repository.UserRepository;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -20,7 +23,9 @@ import java.util.ArrayList;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
+    private final JwtPrincipalCache principalCache;
     private final UserRepository userRepository;
+    private final ReadYourWrites readYourWrites;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request,
@@ -39,19 +44,31 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         // 3. Extract token (remove "Bearer " prefix)
         String token = authHeader.substring(7);
 
-        // 4. Validate token and get email
-        if (jwtService.isTokenValid(token)) {
-            String email = jwtService.extractEmail(token);
-
-            // 5. Check user exists in database
-            userRepository.findByEmail(email).ifPresent(user -> {
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
-            });
+        // 4. Already verified recently? Then no parsing and no database lookup
+        User user = principalCache.get(token);
+
+        // 5. Otherwise validate the token once and check the user exists in the database
+        //    (a signed token for a user the replica does not have yet is looked up on the primary)
+        if (user == null) {
+            Claims claims = jwtService.parseValidClaims(token);
+            if (claims != null) {
+                String email = claims.getSubject();
+                user = userRepository.findByEmail(email)
+                        .or(() -> readYourWrites.fromPrimary(() -> userRepository.findByEmail(email)))
+                        .orElse(null);
+                if (user != null) {
+                    principalCache.put(token, user, claims.getExpiration());
+                }
+            }
+        }
+
+        if (user != null) {
+            UsernamePasswordAuthenticationToken authToken =
+                    new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+            authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            SecurityContextHolder.getContext().setAuthentication(authToken);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+}
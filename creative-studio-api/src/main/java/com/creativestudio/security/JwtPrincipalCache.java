@@ -0,0 +1,97 @@
+package com.creativestudio.security;
+
+import com.creativestudio.model.User;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+// Bounded cache of already verified tokens -> authenticated user.
+// Keys are SHA-256 digests so raw tokens are never kept in memory. An entry lives for a few minutes
+// at most, never past the token's "exp": a hit skips the signature check and the user query, and a
+// changed or removed account is picked up on the next miss. Only the identity is kept, not the entity.
+@Component
+public class JwtPrincipalCache {
+
+    private final Cache<String, CachedPrincipal> cache;
+    private final long ttlMs;
+
+    @Autowired
+    public JwtPrincipalCache(@Value("${jwt.principal-cache.max-size}") long maxSize,
+                             @Value("${jwt.principal-cache.ttl-ms}") long ttlMs,
+                             MeterRegistry meterRegistry) {
+        this(maxSize, ttlMs, meterRegistry, Ticker.systemTicker());
+    }
+
+    JwtPrincipalCache(long maxSize, long ttlMs, MeterRegistry meterRegistry, Ticker ticker) {
+        this.ttlMs = ttlMs;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ExpireAfterLifetime())
+                .ticker(ticker)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+        Gauge.builder("jwt.principals.hit.ratio", cache, c -> c.stats().hitRate())
+                .description("Share of authenticated requests served without parsing the token or querying the user")
+                .register(meterRegistry);
+    }
+
+    public User get(String token) {
+        CachedPrincipal principal = cache.getIfPresent(digest(token));
+        return principal == null ? null : principal.user();
+    }
+
+    public void put(String token, User user, Date expiresAt) {
+        long lifetimeMs = Math.min(ttlMs, expiresAt.getTime() - System.currentTimeMillis());
+        if (lifetimeMs <= 0) {
+            return;
+        }
+        User principal = User.builder().id(user.getId()).email(user.getEmail()).username(user.getUsername()).build();
+        cache.put(digest(token), new CachedPrincipal(principal, TimeUnit.MILLISECONDS.toNanos(lifetimeMs)));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private record CachedPrincipal(User user, long lifetimeNanos) {
+    }
+
+    private static class ExpireAfterLifetime implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, CachedPrincipal value, long currentTime) {
+            return value.lifetimeNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, CachedPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
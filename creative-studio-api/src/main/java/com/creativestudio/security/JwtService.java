@@ -1,8 +1,11 @@
 package com.creativestudio.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -18,13 +21,23 @@ public class JwtService {
     @Value("${jwt.expiration}")
     private long expiration;
 
+    // Key and parser are immutable and thread-safe, so they are built once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
+
     // Creates a JWT token for a user
     public String generateToken(String email) {
         return Jwts.builder()
                 .subject(email)
                 .issuedAt(new Date())
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
@@ -35,23 +48,19 @@ public class JwtService {
 
     // Checks if token is still valid (not expired)
     public boolean isTokenValid(String token) {
+        return parseValidClaims(token) != null;
+    }
+
+    // Verifies the signature and expiry once and returns the claims, or null if the token is invalid
+    public Claims parseValidClaims(String token) {
         try {
-            extractClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+            return extractClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
         }
     }
 
     private Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-    }
-
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes());
+        return parser.parseSignedClaims(token).getPayload();
     }
-}
\ No newline at end of file
+}
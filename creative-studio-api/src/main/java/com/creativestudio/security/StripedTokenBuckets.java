@@ -0,0 +1,61 @@
+package com.creativestudio.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+// Token buckets for an open-ended set of keys in a fixed amount of memory, without locks.
+//
+// Keys hash onto a power-of-two number of stripes; each stripe is one bucket held as a single long,
+// its "theoretical arrival time" (GCRA): the instant the bucket would be full again. Taking a token
+// moves it one interval later, and is refused if that would put it more than `burst` intervals
+// ahead of now. This is a token bucket of `burst` tokens refilled at one per interval, updated with
+// one CAS. Keys that share a stripe share its bucket, so with enough stripes a collision can only
+// make a limit slightly stricter, never looser.
+final class StripedTokenBuckets {
+
+    private final AtomicLongArray arrivals;
+    private final int mask;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final LongSupplier nanoTime;
+    // Measured from startup, so a zeroed stripe is a full bucket
+    private final long origin;
+
+    StripedTokenBuckets(int stripes, int burst, int perMinute) {
+        this(stripes, burst, perMinute, System::nanoTime);
+    }
+
+    StripedTokenBuckets(int stripes, int burst, int perMinute, LongSupplier nanoTime) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.arrivals = new AtomicLongArray(size);
+        this.mask = size - 1;
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / perMinute;
+        this.burstNanos = intervalNanos * burst;
+        this.nanoTime = nanoTime;
+        this.origin = nanoTime.getAsLong();
+    }
+
+    // Takes one token for the key: 0 if it was granted, else the nanoseconds until one is available
+    long tryAcquire(Object key) {
+        int stripe = spread(key.hashCode()) & mask;
+        long now = nanoTime.getAsLong() - origin;
+        while (true) {
+            long arrival = arrivals.get(stripe);
+            long next = Math.max(arrival, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivals.compareAndSet(stripe, arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    private static int spread(int h) {
+        h ^= h >>> 16;
+        h *= 0x45d9f3b;
+        return h ^ (h >>> 16);
+    }
+}
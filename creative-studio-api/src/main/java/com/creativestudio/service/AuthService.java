@@ -1,5 +1,6 @@
 package com.creativestudio.service;
 
+import com.creativestudio.datasource.ReadYourWrites;
 import com.creativestudio.dto.AuthResponse;
 import com.creativestudio.dto.LoginRequest;
 import com.creativestudio.dto.RegisterRequest;
@@ -17,9 +18,11 @@ public class AuthService {
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
+    private final ReadYourWrites readYourWrites;
 
+    // Sign-in reads go to the primary: an account registered a moment ago may not be on a replica yet
     public AuthResponse register(RegisterRequest request) {
-        if (userRepository.existsByEmail(request.getEmail())) {
+        if (readYourWrites.fromPrimary(() -> userRepository.existsByEmail(request.getEmail()))) {
             throw new RuntimeException("Email already exists");
         }
 
@@ -42,7 +45,7 @@ public class AuthService {
     }
 
     public AuthResponse login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
+        User user = readYourWrites.fromPrimary(() -> userRepository.findByEmail(request.getEmail()))
                 .orElseThrow(() -> new RuntimeException("Invalid email or password"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
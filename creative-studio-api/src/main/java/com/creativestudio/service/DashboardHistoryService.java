@@ -0,0 +1,212 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardChangesResponse;
+import com.creativestudio.dto.DashboardHistoryEntry;
+import com.creativestudio.dto.WidgetChangeEvent;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.DashboardSnapshot;
+import com.creativestudio.model.User;
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.DashboardSnapshotRepository;
+import com.creativestudio.repository.WidgetOperationRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.creativestudio.repository.WidgetStates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+// Undo, redo and restore-to-a-time over WidgetOperationLog. Each is an action of its own: it bumps
+// the dashboard version, writes the widgets back in batches (WidgetStateRepository), is logged, and
+// reaches live subscribers as ordinary widget events, so it can be undone in turn and every client
+// converges. Undo and redo are linear: an edit after an undo discards what could have been redone.
+@Service
+@RequiredArgsConstructor
+public class DashboardHistoryService {
+
+    private static final int MAX_HISTORY_SIZE = 200;
+
+    private final DashboardRepository dashboardRepository;
+    private final WidgetRepository widgetRepository;
+    private final WidgetOperationRepository operationRepository;
+    private final DashboardSnapshotRepository snapshotRepository;
+    private final WidgetOperationLog operationLog;
+    private final WidgetDataWriteBuffer writeBuffer;
+    private final DashboardOwnershipCache ownership;
+    private final ApplicationEventPublisher events;
+    private final TransactionTemplate transactionTemplate;
+
+    @Transactional(readOnly = true)
+    public List<DashboardHistoryEntry> getHistory(User user, UUID dashboardId, int limit) {
+        ownership.check(dashboardId, user);
+        return operationRepository.findHistory(dashboardId, Limit.of(Math.clamp(limit, 1, MAX_HISTORY_SIZE)));
+    }
+
+    public DashboardChangesResponse undo(User user, UUID dashboardId) {
+        return write(user, dashboardId, version -> {
+            long target = operationRepository.findLatestUndoable(dashboardId)
+                    .orElseThrow(() -> new RuntimeException("Nothing to undo"));
+            operationRepository.markUndone(dashboardId, target, true);
+            return revisit(dashboardId, version, WidgetOperation.UNDO, target);
+        });
+    }
+
+    public DashboardChangesResponse redo(User user, UUID dashboardId) {
+        return write(user, dashboardId, version -> {
+            long since = operationRepository.findLatestEdit(dashboardId).orElse(0L);
+            long target = operationRepository.findRedoable(dashboardId, since, Limit.of(1)).stream().findFirst()
+                    .orElseThrow(() -> new RuntimeException("Nothing to redo"));
+            operationRepository.markUndone(dashboardId, target, false);
+            return revisit(dashboardId, version, WidgetOperation.REDO, target);
+        });
+    }
+
+    // Every widget back to how it was at the given time, widgets created since then deleted
+    public DashboardChangesResponse restore(User user, UUID dashboardId, LocalDateTime at) {
+        return write(user, dashboardId, version -> {
+            Map<UUID, Map<String, Object>> current = widgetRepository.findStates(dashboardId);
+            Map<UUID, Map<String, Object>> wanted = statesAt(dashboardId, at, current);
+            current.keySet().forEach(widgetId -> wanted.putIfAbsent(widgetId, null));
+            return writeBack(dashboardId, version, WidgetOperation.RESTORE, null, current, wanted);
+        });
+    }
+
+    // Buffered autosaves are part of the present the history is applied to, so they are written
+    // first, outside the transaction like any flush
+    private DashboardChangesResponse write(User user, UUID dashboardId, LongFunction<DashboardChangesResponse> action) {
+        ownership.check(dashboardId, user);
+        if (writeBuffer.hasPending(dashboardId)) {
+            writeBuffer.flushAll();
+        }
+        return transactionTemplate.execute(status -> action.apply(dashboardRepository.incrementVersion(dashboardId)));
+    }
+
+    // Undo (the widgets of the target action as they were before it) or redo (as it left them).
+    // Fields changed by later actions are kept.
+    private DashboardChangesResponse revisit(UUID dashboardId, long version, String action, long target) {
+        List<WidgetOperation> operations = operationRepository.findAction(dashboardId, target);
+        Map<UUID, Map<String, Object>> current = widgetRepository.findStates(dashboardId,
+                operations.stream().map(WidgetOperation::getWidgetId).toList());
+        Map<UUID, Map<String, Object>> wanted = new LinkedHashMap<>();
+        for (WidgetOperation operation : operations) {
+            Map<String, Object> patch = action.equals(WidgetOperation.UNDO) ? operation.getBefore() : operation.getAfter();
+            wanted.put(operation.getWidgetId(), WidgetStates.apply(current.get(operation.getWidgetId()), patch));
+        }
+        return writeBack(dashboardId, version, action, target, current, wanted);
+    }
+
+    // The widgets at a time: the latest snapshot taken by then with the log after it replayed
+    // forward or, before the first snapshot, the first snapshot (or the present, if there is none
+    // yet) with the log replayed backward. Either way one stretch between two snapshots is read.
+    private Map<UUID, Map<String, Object>> statesAt(UUID dashboardId, LocalDateTime at,
+                                                    Map<UUID, Map<String, Object>> current) {
+        DashboardSnapshot base = snapshotRepository.findTakenBy(dashboardId, at, Limit.of(1)).stream()
+                .findFirst().orElse(null);
+        if (base != null) {
+            Map<UUID, Map<String, Object>> states = toStates(base);
+            for (WidgetOperation operation : operationRepository.findForwardFrom(dashboardId, base.getVersion(), at)) {
+                replay(states, operation.getWidgetId(), operation.getAfter());
+            }
+            return states;
+        }
+
+        LocalDateTime start = operationRepository.findFirstCreatedAt(dashboardId).orElse(null);
+        if (start == null || at.isBefore(start)) {
+            throw new RuntimeException("History does not go back to " + at);
+        }
+        DashboardSnapshot next = snapshotRepository.findOldest(dashboardId, Limit.of(1)).stream()
+                .findFirst().orElse(null);
+        Map<UUID, Map<String, Object>> states = next != null ? toStates(next) : new LinkedHashMap<>(current);
+        long upTo = next != null ? next.getVersion() : Long.MAX_VALUE;
+        for (WidgetOperation operation : operationRepository.findBackwardFrom(dashboardId, upTo, at)) {
+            replay(states, operation.getWidgetId(), operation.getBefore());
+        }
+        return states;
+    }
+
+    private static void replay(Map<UUID, Map<String, Object>> states, UUID widgetId, Map<String, Object> patch) {
+        Map<String, Object> state = WidgetStates.apply(states.get(widgetId), patch);
+        if (state != null) {
+            states.put(widgetId, state);
+        } else {
+            states.remove(widgetId);
+        }
+    }
+
+    private static Map<UUID, Map<String, Object>> toStates(DashboardSnapshot snapshot) {
+        Map<UUID, Map<String, Object>> states = new LinkedHashMap<>();
+        snapshot.getWidgets().forEach((widgetId, state) -> states.put(UUID.fromString(widgetId), state));
+        return states;
+    }
+
+    // Writes the widgets whose wanted state differs from the current one and logs the action.
+    // Undo and redo log every widget of their target, changed or not, so a redo finds its undo.
+    private DashboardChangesResponse writeBack(UUID dashboardId, long version, String action, Long target,
+                                               Map<UUID, Map<String, Object>> current,
+                                               Map<UUID, Map<String, Object>> wanted) {
+        Map<UUID, Map<String, Object>> changed = new LinkedHashMap<>();
+        List<WidgetOperation> operations = new ArrayList<>();
+        wanted.forEach((widgetId, state) -> {
+            WidgetOperation operation = WidgetStates.change(widgetId, current.get(widgetId), state);
+            if (operation != null) {
+                changed.put(widgetId, state);
+                operations.add(operation);
+            } else if (target != null) {
+                operations.add(WidgetOperation.builder().widgetId(widgetId).before(Map.of()).after(Map.of()).build());
+            }
+        });
+        widgetRepository.writeStates(dashboardId, version, changed);
+        operationLog.record(dashboardId, version, action, target, operations);
+
+        List<WidgetResponse> widgets = new ArrayList<>();
+        List<UUID> deleted = new ArrayList<>();
+        changed.forEach((widgetId, state) -> {
+            WidgetChangeEvent.WidgetChangeEventBuilder event = WidgetChangeEvent.builder()
+                    .dashboardId(dashboardId).widgetId(widgetId).version(version);
+            if (state == null) {
+                deleted.add(widgetId);
+                event.type(WidgetChangeEvent.DELETED);
+            } else {
+                WidgetResponse response = toResponse(widgetId, state, version);
+                widgets.add(response);
+                event.type(current.containsKey(widgetId) ? WidgetChangeEvent.UPDATED : WidgetChangeEvent.CREATED)
+                        .widget(response);
+            }
+            // Delivered to DashboardStreamService once the surrounding transaction commits
+            events.publishEvent(event.build());
+        });
+        return DashboardChangesResponse.builder()
+                .version(version)
+                .widgets(widgets)
+                .deleted(deleted)
+                .build();
+    }
+
+    private static WidgetResponse toResponse(UUID widgetId, Map<String, Object> state, long version) {
+        return WidgetResponse.builder()
+                .id(widgetId)
+                .type((String) state.get(WidgetStates.TYPE))
+                .name((String) state.get(WidgetStates.NAME))
+                .x(WidgetStates.intField(state, WidgetStates.X))
+                .y(WidgetStates.intField(state, WidgetStates.Y))
+                .width(WidgetStates.intField(state, WidgetStates.WIDTH))
+                .height(WidgetStates.intField(state, WidgetStates.HEIGHT))
+                .zIndex(WidgetStates.intField(state, WidgetStates.Z_INDEX))
+                .data(WidgetStates.data(state))
+                .revision(version)
+                .createdAt(WidgetStates.createdAt(state))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+}
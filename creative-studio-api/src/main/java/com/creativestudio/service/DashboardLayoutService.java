@@ -0,0 +1,120 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardLayoutResponse;
+import com.creativestudio.dto.WidgetChangeEvent;
+import com.creativestudio.dto.WidgetPlacement;
+import com.creativestudio.model.Dashboard;
+import com.creativestudio.model.User;
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.creativestudio.repository.WidgetStates;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Server-side layout of a whole dashboard: overlap checks, snap-to-grid and auto-arrange.
+// Boxes are read as projections, computed by LayoutEngine and the moved ones written back with
+// one statement, so arranging thousands of widgets is one request and one UPDATE.
+@Service
+@RequiredArgsConstructor
+public class DashboardLayoutService {
+
+    // Bounds on the grid LayoutEngine.arrange allocates and scans per widget: a 8K canvas, 8px cells
+    public static final int MAX_CANVAS_WIDTH = 7680;
+    public static final int MIN_GRID_SIZE = 8;
+
+    // Dashboards created before gridSize had a default were stored with 0
+    private static final int DEFAULT_GRID_SIZE = 40;
+
+    private final DashboardRepository dashboardRepository;
+    private final DashboardOwnershipCache ownership;
+    private final WidgetRepository widgetRepository;
+    private final ApplicationEventPublisher events;
+    private final WidgetOperationLog operationLog;
+
+    @Transactional(readOnly = true)
+    public DashboardLayoutResponse getOverlaps(User user, UUID dashboardId) {
+        Dashboard dashboard = findDashboard(user, dashboardId);
+        return toResponse(dashboard.getVersion(), gridSize(dashboard),
+                widgetRepository.findPlacementsByDashboardId(dashboardId));
+    }
+
+    // Remaining overlaps are reported, not resolved: snapping keeps every widget where it was
+    @Transactional
+    public DashboardLayoutResponse snapToGrid(User user, UUID dashboardId) {
+        Dashboard dashboard = findDashboard(user, dashboardId);
+        int gridSize = gridSize(dashboard);
+        return apply(dashboardId, gridSize, widgets -> LayoutEngine.snap(widgets, gridSize));
+    }
+
+    @Transactional
+    public DashboardLayoutResponse arrange(User user, UUID dashboardId, int canvasWidth) {
+        Dashboard dashboard = findDashboard(user, dashboardId);
+        int gridSize = gridSize(dashboard);
+        if (canvasWidth < gridSize || canvasWidth > MAX_CANVAS_WIDTH) {
+            throw new RuntimeException("Canvas width must be between one grid cell and " + MAX_CANVAS_WIDTH);
+        }
+        return apply(dashboardId, gridSize, widgets -> LayoutEngine.arrange(widgets, gridSize, canvasWidth));
+    }
+
+    private DashboardLayoutResponse apply(UUID dashboardId, int gridSize, Consumer<List<WidgetPlacement>> layout) {
+        // Locks the dashboard first, like every widget writer, so the boxes read below are current
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        List<WidgetPlacement> widgets = widgetRepository.findPlacementsByDashboardId(dashboardId);
+        List<WidgetPlacement> before = widgets.stream().map(w -> w.toBuilder().build()).toList();
+
+        layout.accept(widgets);
+
+        List<WidgetPlacement> moved = new ArrayList<>();
+        for (int i = 0; i < widgets.size(); i++) {
+            if (!widgets.get(i).equals(before.get(i))) {
+                moved.add(widgets.get(i));
+            }
+        }
+        widgetRepository.updatePlacements(dashboardId, moved, version);
+        List<WidgetOperation> changes = new ArrayList<>();
+        for (int i = 0; i < widgets.size(); i++) {
+            changes.add(WidgetStates.change(widgets.get(i).getId(), WidgetStates.box(before.get(i)),
+                    WidgetStates.box(widgets.get(i))));
+        }
+        operationLog.edit(dashboardId, version, changes);
+
+        for (WidgetPlacement w : moved) {
+            events.publishEvent(WidgetChangeEvent.builder().type(WidgetChangeEvent.LAYOUT)
+                    .dashboardId(dashboardId).widgetId(w.getId()).version(version)
+                    .x(w.getX()).y(w.getY()).width(w.getWidth()).height(w.getHeight()).zIndex(w.getZIndex())
+                    .build());
+        }
+        return toResponse(version, gridSize, widgets);
+    }
+
+    private DashboardLayoutResponse toResponse(long version, int gridSize, List<WidgetPlacement> widgets) {
+        List<List<UUID>> overlaps = LayoutEngine.overlaps(widgets).stream()
+                .map(pair -> List.of(widgets.get(pair[0]).getId(), widgets.get(pair[1]).getId()))
+                .toList();
+        return DashboardLayoutResponse.builder()
+                .version(version)
+                .gridSize(gridSize)
+                .widgets(widgets)
+                .overlaps(overlaps)
+                .build();
+    }
+
+    private static int gridSize(Dashboard dashboard) {
+        return dashboard.getGridSize() > 0 ? Math.max(MIN_GRID_SIZE, dashboard.getGridSize()) : DEFAULT_GRID_SIZE;
+    }
+
+    // Ownership through the cache, like the widget calls; the row itself is needed for its grid and version
+    private Dashboard findDashboard(User user, UUID dashboardId) {
+        ownership.check(dashboardId, user);
+        return dashboardRepository.findById(dashboardId)
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.creativestudio.service;
+
+import com.creativestudio.model.User;
+import com.creativestudio.repository.DashboardRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+// Short-lived record of (dashboard, user) pairs already checked, so the widget calls of an editing
+// session skip the ownership query. Only grants are cached: a denied or unknown pair is asked again.
+// Dashboards never change owner, so a grant can only go stale by the dashboard being deleted; the
+// deleting instance evicts it once the delete commits, and on any other instance later widget writes
+// find no dashboard row.
+@Component
+public class DashboardOwnershipCache {
+
+    private final DashboardRepository dashboardRepository;
+    private final Cache<Ownership, Boolean> granted;
+
+    public DashboardOwnershipCache(DashboardRepository dashboardRepository,
+                                   @Value("${dashboard.ownership-cache.ttl-ms}") long ttlMs,
+                                   @Value("${dashboard.ownership-cache.max-size}") long maxSize,
+                                   MeterRegistry meterRegistry) {
+        this.dashboardRepository = dashboardRepository;
+        this.granted = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, granted, "dashboard.ownership");
+    }
+
+    public void check(UUID dashboardId, User user) {
+        Ownership key = new Ownership(dashboardId, user.getId());
+        if (granted.getIfPresent(key) != null) {
+            return;
+        }
+        if (!dashboardRepository.existsByIdAndUserId(dashboardId, user.getId())) {
+            throw new RuntimeException("Dashboard not found");
+        }
+        granted.put(key, Boolean.TRUE);
+    }
+
+    // Inside a transaction the grant goes when it commits: a rolled-back delete keeps the dashboard
+    public void evict(UUID dashboardId, User user) {
+        Ownership key = new Ownership(dashboardId, user.getId());
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            granted.invalidate(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                granted.invalidate(key);
+            }
+        });
+    }
+
+    private record Ownership(UUID dashboardId, UUID userId) {
+    }
+}
@@ -1,15 +1,26 @@
 package com.creativestudio.service;
 
+import com.creativestudio.dto.DashboardChangesResponse;
 import com.creativestudio.dto.DashboardRequest;
 import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.dto.DashboardSummaryPage;
+import com.creativestudio.dto.DashboardSummaryResponse;
 import com.creativestudio.dto.WidgetResponse;
 import com.creativestudio.model.Dashboard;
 import com.creativestudio.model.User;
+import com.creativestudio.model.Widget;
 import com.creativestudio.repository.DashboardRepository;
 import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.creativestudio.repository.WidgetTombstoneRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -18,9 +29,17 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DashboardService {
 
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final DashboardRepository dashboardRepository;
     private final UserRepository userRepository;
+    private final WidgetRepository widgetRepository;
+    private final WidgetTombstoneRepository tombstoneRepository;
+    private final WidgetDataWriteBuffer writeBuffer;
+    private final DashboardOwnershipCache ownershipCache;
+    private final WidgetOperationLog operationLog;
 
+    @Transactional(readOnly = true)
     public List<DashboardResponse> getUserDashboards(String email) {
         User user = findUserByEmail(email);
         return dashboardRepository.findByUser(user).stream()
@@ -28,6 +47,35 @@ public class DashboardService {
                 .collect(Collectors.toList());
     }
 
+    // Home-page listing: id, name, widget count and timestamps from a single aggregate query
+    @Transactional(readOnly = true)
+    public DashboardSummaryPage getDashboardSummaries(String email, String cursor, int limit) {
+        User user = findUserByEmail(email);
+        int pageSize = Math.clamp(limit, 1, MAX_PAGE_SIZE);
+
+        // Fetch one extra row to know whether there is a next page
+        Limit fetch = Limit.of(pageSize + 1);
+        List<DashboardSummaryResponse> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = dashboardRepository.findSummariesByUser(user, fetch);
+        } else {
+            Cursor position = decodeCursor(cursor);
+            rows = dashboardRepository.findSummariesByUserAfter(user, position.updatedAt(), position.id(), fetch);
+        }
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            DashboardSummaryResponse last = rows.get(pageSize - 1);
+            nextCursor = encodeCursor(last.getUpdatedAt(), last.getId());
+        }
+
+        return DashboardSummaryPage.builder()
+                .dashboards(rows)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
     public DashboardResponse createDashboard(String email, DashboardRequest request) {
         User user = findUserByEmail(email);
 
@@ -40,6 +88,7 @@ public class DashboardService {
         return toResponse(dashboard);
     }
 
+    @Transactional(readOnly = true)
     public DashboardResponse getDashboard(String email, UUID dashboardId) {
         User user = findUserByEmail(email);
         Dashboard dashboard = dashboardRepository.findByIdAndUser(dashboardId, user)
@@ -47,21 +96,73 @@ public class DashboardService {
         return toResponse(dashboard);
     }
 
+    // Cheap freshness check for conditional GETs: one indexed lookup, no widgets
+    @Transactional(readOnly = true)
+    public long getDashboardVersion(String email, UUID dashboardId) {
+        return dashboardRepository.findVersionByIdAndUserEmail(dashboardId, email)
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+    }
+
+    // Incremental sync: index range scans on (dashboard_id, revision) for widgets and tombstones.
+    // The version is read first, so a change racing with this call is reported now or next time.
+    @Transactional(readOnly = true)
+    public DashboardChangesResponse getChanges(String email, UUID dashboardId, long since) {
+        User user = findUserByEmail(email);
+        Dashboard dashboard = dashboardRepository.findByIdAndUser(dashboardId, user)
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+
+        List<WidgetResponse> widgets = widgetRepository
+                .findByDashboardAndRevisionGreaterThanOrderByRevisionAsc(dashboard, since).stream()
+                .map(this::toWidgetResponse)
+                .collect(Collectors.toList());
+
+        return DashboardChangesResponse.builder()
+                .version(dashboard.getVersion())
+                .name(dashboard.getName())
+                .widgets(widgets)
+                .deleted(tombstoneRepository.findWidgetIdsDeletedSince(dashboardId, since))
+                .build();
+    }
+
+    // Clones a dashboard with all its widgets inside PostgreSQL (one INSERT ... SELECT statement).
+    // Buffered autosaves are written first, in a transaction of their own, so the copy includes them.
+    @Transactional
+    public DashboardSummaryResponse duplicateDashboard(String email, UUID dashboardId, String name) {
+        User user = findUserByEmail(email);
+        if (writeBuffer.hasPending(dashboardId)) {
+            writeBuffer.flushAll();
+        }
+        UUID copyId = UUID.randomUUID();
+        if (dashboardRepository.duplicate(dashboardId, copyId, user.getId(), name) == 0) {
+            throw new RuntimeException("Dashboard not found");
+        }
+        return dashboardRepository.findSummaryById(copyId)
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+    }
+
+    @Transactional
     public DashboardResponse updateDashboard(String email, UUID dashboardId, DashboardRequest request) {
         User user = findUserByEmail(email);
         Dashboard dashboard = dashboardRepository.findByIdAndUser(dashboardId, user)
                 .orElseThrow(() -> new RuntimeException("Dashboard not found"));
 
+        // The same locked bump as widget writes, so a concurrent one is neither lost nor shares the
+        // new version; the entity is given the bumped value so its update writes it back unchanged
+        dashboard.setVersion(dashboardRepository.incrementVersion(dashboardId));
         dashboard.setName(request.getName());
         dashboardRepository.save(dashboard);
         return toResponse(dashboard);
     }
 
+    @Transactional
     public void deleteDashboard(String email, UUID dashboardId) {
         User user = findUserByEmail(email);
         Dashboard dashboard = dashboardRepository.findByIdAndUser(dashboardId, user)
                 .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+        tombstoneRepository.deleteByDashboardId(dashboardId);
+        operationLog.forget(dashboardId);
         dashboardRepository.delete(dashboard);
+        ownershipCache.evict(dashboardId, user);
     }
 
     private User findUserByEmail(String email) {
@@ -69,27 +170,51 @@ public class DashboardService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    private DashboardResponse toResponse(Dashboard dashboard) {
+    private String encodeCursor(LocalDateTime updatedAt, UUID id) {
+        String position = updatedAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Cursor decodeCursor(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+            return new Cursor(LocalDateTime.parse(position[0]), UUID.fromString(position[1]));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private record Cursor(LocalDateTime updatedAt, UUID id) {
+    }
+
+    private WidgetResponse toWidgetResponse(Widget w) {
+        return WidgetResponse.builder()
+                .id(w.getId())
+                .type(w.getType())
+                .name(w.getName())
+                .x(w.getX())
+                .y(w.getY())
+                .width(w.getWidth())
+                .height(w.getHeight())
+                .zIndex(w.getZIndex())
+                .data(writeBuffer.currentData(w))
+                .revision(w.getRevision())
+                .createdAt(w.getCreatedAt())
+                .updatedAt(w.getUpdatedAt())
+                .build();
+    }
+
+    // Package-private for the JMH mapper benchmark
+    DashboardResponse toResponse(Dashboard dashboard) {
         List<WidgetResponse> widgetResponses = dashboard.getWidgets().stream()
-                .map(w -> WidgetResponse.builder()
-                        .id(w.getId())
-                        .type(w.getType())
-                        .name(w.getName())
-                        .x(w.getX())
-                        .y(w.getY())
-                        .width(w.getWidth())
-                        .height(w.getHeight())
-                        .zIndex(w.getZIndex())
-                        .data(w.getData())
-                        .createdAt(w.getCreatedAt())
-                        .updatedAt(w.getUpdatedAt())
-                        .build())
+                .map(this::toWidgetResponse)
                 .collect(Collectors.toList());
 
         return DashboardResponse.builder()
                 .id(dashboard.getId())
                 .name(dashboard.getName())
                 .gridSize(dashboard.getGridSize())
+                .version(dashboard.getVersion())
                 .widgets(widgetResponses)
                 .createdAt(dashboard.getCreatedAt())
                 .build();
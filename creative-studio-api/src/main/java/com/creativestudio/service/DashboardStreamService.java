@@ -0,0 +1,231 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.WidgetChangeEvent;
+import com.creativestudio.repository.DashboardRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pushes widget changes to every open tab/device of a dashboard over Server-Sent Events.
+//
+// Changes are queued per dashboard and flushed every flush interval as one SSE message, with
+// bursts coalesced per widget (a drag only sends its last position). Idle subscribers hold no
+// thread - just an async request - and sends run on virtual threads, one drain at a time per
+// subscriber, so a slow client never blocks the flusher or the other subscribers.
+@Service
+public class DashboardStreamService {
+
+    private final DashboardRepository dashboardRepository;
+    private final ObjectMapper objectMapper;
+    private final long timeoutMs;
+    private final int maxPendingMessages;
+
+    private final Map<UUID, Channel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("dashboard-stream-flusher").daemon().factory());
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public DashboardStreamService(DashboardRepository dashboardRepository,
+                                  ObjectMapper objectMapper,
+                                  @Value("${dashboard.stream.flush-interval-ms}") long flushIntervalMs,
+                                  @Value("${dashboard.stream.heartbeat-interval-ms}") long heartbeatIntervalMs,
+                                  @Value("${dashboard.stream.timeout-ms}") long timeoutMs,
+                                  @Value("${dashboard.stream.max-pending-messages}") int maxPendingMessages) {
+        this.dashboardRepository = dashboardRepository;
+        this.objectMapper = objectMapper;
+        this.timeoutMs = timeoutMs;
+        this.maxPendingMessages = maxPendingMessages;
+
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public SseEmitter subscribe(String email, UUID dashboardId) {
+        long version = dashboardRepository.findVersionByIdAndUserEmail(dashboardId, email)
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter);
+        Channel channel = channels.compute(dashboardId, (id, existing) -> {
+            Channel c = existing != null ? existing : new Channel();
+            c.subscribers.add(subscriber);
+            return c;
+        });
+
+        Runnable unsubscribe = () -> removeSubscriber(dashboardId, channel, subscriber);
+        emitter.onCompletion(unsubscribe);
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+
+        // Tells the client which version the stream starts from
+        subscriber.send(SseEmitter.event().name("ready").id(Long.toString(version)).data(Map.of("version", version)));
+        return emitter;
+    }
+
+    // Runs after the writing transaction commits, so subscribers never see rolled-back changes
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWidgetChange(WidgetChangeEvent event) {
+        Channel channel = channels.get(event.getDashboardId());
+        if (channel != null) {
+            channel.enqueue(event);
+        }
+    }
+
+    public int subscriberCount() {
+        return channels.values().stream().mapToInt(c -> c.subscribers.size()).sum();
+    }
+
+    private void flush() {
+        channels.forEach((dashboardId, channel) -> {
+            List<WidgetChangeEvent> events = channel.drain();
+            if (events.isEmpty()) {
+                return;
+            }
+            String json;
+            try {
+                json = objectMapper.writeValueAsString(events);
+            } catch (JsonProcessingException e) {
+                return;
+            }
+            String lastVersion = Long.toString(events.get(events.size() - 1).getVersion());
+            for (Subscriber subscriber : channel.subscribers) {
+                subscriber.send(SseEmitter.event().name("changes").id(lastVersion).data(json));
+            }
+        });
+    }
+
+    // Keeps proxies from closing idle streams and detects clients that went away
+    private void heartbeat() {
+        channels.values().forEach(channel ->
+                channel.subscribers.forEach(subscriber -> subscriber.send(SseEmitter.event().comment("ping"))));
+    }
+
+    private void removeSubscriber(UUID dashboardId, Channel channel, Subscriber subscriber) {
+        channel.subscribers.remove(subscriber);
+        channels.computeIfPresent(dashboardId, (id, c) -> c.subscribers.isEmpty() ? null : c);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(s -> s.emitter.complete()));
+        senders.shutdown();
+    }
+
+    // Events of one dashboard waiting for the next flush. Events arrive in commit order, which for
+    // concurrent writers is not always version order: an event is dropped when a queued one of the
+    // same widget with a higher version supersedes it, and a flush sends them in version order.
+    static final class Channel {
+
+        private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+        private List<WidgetChangeEvent> pending = new ArrayList<>();
+
+        synchronized void enqueue(WidgetChangeEvent event) {
+            UUID widgetId = event.getWidgetId();
+            long version = event.getVersion();
+            String type = event.getType();
+            boolean stale = pending.stream().anyMatch(e -> e.getWidgetId().equals(widgetId)
+                    && e.getVersion() > version && supersedes(e.getType(), type));
+            if (stale) {
+                return;
+            }
+            // A widget created and deleted within one window is never sent
+            boolean createdInWindow = type.equals(WidgetChangeEvent.DELETED) && pending.stream().anyMatch(e ->
+                    e.getWidgetId().equals(widgetId) && e.getType().equals(WidgetChangeEvent.CREATED)
+                            && e.getVersion() <= version);
+            pending.removeIf(e -> e.getWidgetId().equals(widgetId) && e.getVersion() <= version
+                    && supersedes(type, e.getType()));
+            if (!createdInWindow) {
+                pending.add(event);
+            }
+        }
+
+        synchronized List<WidgetChangeEvent> drain() {
+            if (pending.isEmpty()) {
+                return List.of();
+            }
+            List<WidgetChangeEvent> drained = pending;
+            pending = new ArrayList<>();
+            drained.sort(Comparator.comparingLong(WidgetChangeEvent::getVersion));
+            return drained;
+        }
+
+        // Whether a change of the later type makes an earlier change of the same widget redundant:
+        // only the last position of a drag and the last full data save of a typing burst matter,
+        // full state covers everything but the creation, and nothing is sent for a deleted widget.
+        // Patches are never superseded by a patch, since each applies on top of the previous one.
+        private static boolean supersedes(String later, String earlier) {
+            return switch (later) {
+                case WidgetChangeEvent.LAYOUT -> earlier.equals(WidgetChangeEvent.LAYOUT);
+                case WidgetChangeEvent.DATA -> earlier.equals(WidgetChangeEvent.DATA) || earlier.equals(WidgetChangeEvent.PATCH);
+                case WidgetChangeEvent.UPDATED -> !earlier.equals(WidgetChangeEvent.CREATED);
+                case WidgetChangeEvent.DELETED -> true;
+                default -> false;
+            };
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Queue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final AtomicBoolean draining = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void send(SseEmitter.SseEventBuilder event) {
+            // A client this far behind has to reconnect and resync rather than buffer forever
+            if (queued.incrementAndGet() > maxPendingMessages) {
+                emitter.complete();
+                return;
+            }
+            outbox.add(event);
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while ((event = outbox.poll()) != null) {
+                    queued.decrementAndGet();
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event may have been queued after the last poll but before draining was cleared
+            if (!outbox.isEmpty() && draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardImportResponse;
+import com.creativestudio.dto.DashboardTransferLine;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+// NDJSON backup/migration of all of a user's dashboards: one dashboard line followed by its widget lines.
+// Both directions stream - export walks two server-side cursors, import parses line by line and
+// inserts in JDBC batches - so memory use does not depend on the size of the workspace.
+@Service
+@RequiredArgsConstructor
+public class DashboardTransferService {
+
+    private static final int IMPORT_BATCH_SIZE = 500;
+    // Lines held back so the content-store bodies of their widgets are loaded with one query
+    private static final int EXPORT_BATCH_SIZE = 500;
+
+    private final DashboardRepository dashboardRepository;
+    private final WidgetRepository widgetRepository;
+    private final UserRepository userRepository;
+    private final WidgetDataWriteBuffer writeBuffer;
+    private final WidgetContentStore contentStore;
+    private final ObjectMapper objectMapper;
+
+    // The widget cursor is ordered by dashboard like the dashboard cursor, so both are merged in one pass.
+    // Both cursors have to see the same snapshot: under READ COMMITTED a dashboard created between the
+    // two queries would leave widgets with no dashboard line, and the merge would stop at them.
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void exportDashboards(String email, OutputStream out) throws IOException {
+        User user = findUserByEmail(email);
+        // Flushing per line would turn every row into a network write; the servlet buffer decides instead
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n");
+
+        try (Stream<DashboardTransferLine> dashboards = dashboardRepository.streamTransferLinesByUser(user);
+             Stream<DashboardTransferLine> widgets = widgetRepository.streamTransferLinesByUser(user);
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+             SequenceWriter lines = writer.writeValues(generator)) {
+
+            List<DashboardTransferLine> batch = new ArrayList<>();
+            Iterator<DashboardTransferLine> widgetIterator = widgets.iterator();
+            DashboardTransferLine widget = widgetIterator.hasNext() ? widgetIterator.next() : null;
+            for (Iterator<DashboardTransferLine> it = dashboards.iterator(); it.hasNext(); ) {
+                DashboardTransferLine dashboard = it.next();
+                batch.add(dashboard);
+                // Widgets of a dashboard that sorts before this one have no dashboard line and are skipped
+                while (widget != null && compare(widget.getDashboardId(), dashboard.getId()) <= 0) {
+                    if (widget.getDashboardId().equals(dashboard.getId())) {
+                        widget.setData(writeBuffer.currentData(widget.getId(), widget.getData()));
+                        batch.add(widget);
+                        if (batch.size() >= EXPORT_BATCH_SIZE) {
+                            writeInlined(batch, lines);
+                        }
+                    }
+                    widget = widgetIterator.hasNext() ? widgetIterator.next() : null;
+                }
+            }
+            writeInlined(batch, lines);
+            generator.writeRaw('\n');
+        }
+    }
+
+    // All or nothing: the import runs in one transaction. Every dashboard and widget gets a new id,
+    // so importing an export into the same account duplicates it instead of clashing.
+    @Transactional
+    public DashboardImportResponse importDashboards(String email, InputStream in) throws IOException {
+        User user = findUserByEmail(email);
+        List<DashboardTransferLine> dashboards = new ArrayList<>();
+        List<DashboardTransferLine> widgets = new ArrayList<>();
+        long dashboardCount = 0;
+        long widgetCount = 0;
+        UUID sourceDashboardId = null;
+        UUID currentDashboardId = null;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(in);
+             MappingIterator<DashboardTransferLine> lines = objectMapper.readerFor(DashboardTransferLine.class)
+                     .readValues(parser)) {
+            while (lines.hasNextValue()) {
+                DashboardTransferLine line = lines.nextValue();
+                if (DashboardTransferLine.DASHBOARD.equals(line.getKind())) {
+                    if (line.getGridSize() != null && line.getGridSize() < DashboardLayoutService.MIN_GRID_SIZE) {
+                        throw new RuntimeException("Dashboard line " + lines.getCurrentLocation().getLineNr()
+                                + " has a grid size below " + DashboardLayoutService.MIN_GRID_SIZE);
+                    }
+                    sourceDashboardId = line.getId();
+                    currentDashboardId = UUID.randomUUID();
+                    line.setId(currentDashboardId);
+                    dashboards.add(line);
+                    dashboardCount++;
+                } else if (DashboardTransferLine.WIDGET.equals(line.getKind())) {
+                    if (currentDashboardId == null
+                            || (line.getDashboardId() != null && !line.getDashboardId().equals(sourceDashboardId))) {
+                        throw new RuntimeException("Widget line " + lines.getCurrentLocation().getLineNr()
+                                + " does not follow its dashboard");
+                    }
+                    if (line.getType() == null) {
+                        throw new RuntimeException("Widget line " + lines.getCurrentLocation().getLineNr()
+                                + " has no type");
+                    }
+                    line.setId(UUID.randomUUID());
+                    line.setDashboardId(currentDashboardId);
+                    line.setData(contentStore.offload(line.getData(), null));
+                    widgets.add(line);
+                    widgetCount++;
+                } else {
+                    throw new RuntimeException("Unknown line kind: " + line.getKind());
+                }
+
+                if (dashboards.size() + widgets.size() >= IMPORT_BATCH_SIZE) {
+                    flush(user, dashboards, widgets);
+                }
+            }
+        }
+        flush(user, dashboards, widgets);
+
+        return DashboardImportResponse.builder()
+                .dashboards(dashboardCount)
+                .widgets(widgetCount)
+                .build();
+    }
+
+    // Dashboards first: the widgets of this batch may reference them
+    private void flush(User user, List<DashboardTransferLine> dashboards, List<DashboardTransferLine> widgets) {
+        if (!dashboards.isEmpty()) {
+            dashboardRepository.insertDashboards(user.getId(), dashboards);
+            dashboards.clear();
+        }
+        if (!widgets.isEmpty()) {
+            dashboardRepository.insertWidgets(widgets);
+            widgets.clear();
+        }
+    }
+
+    // Bodies in the content store are written inline, so an export restores anywhere
+    private void writeInlined(List<DashboardTransferLine> batch, SequenceWriter lines) throws IOException {
+        List<DashboardTransferLine> widgets = batch.stream()
+                .filter(line -> DashboardTransferLine.WIDGET.equals(line.getKind()))
+                .toList();
+        List<Map<String, Object>> data = contentStore.inline(widgets.stream().map(DashboardTransferLine::getData).toList());
+        for (int i = 0; i < widgets.size(); i++) {
+            widgets.get(i).setData(data.get(i));
+        }
+        for (DashboardTransferLine line : batch) {
+            lines.write(line);
+        }
+        batch.clear();
+    }
+
+    // PostgreSQL orders uuid as unsigned bytes; UUID.compareTo compares signed longs
+    static int compare(UUID a, UUID b) {
+        int high = Long.compareUnsigned(a.getMostSignificantBits(), b.getMostSignificantBits());
+        return high != 0 ? high : Long.compareUnsigned(a.getLeastSignificantBits(), b.getLeastSignificantBits());
+    }
+
+    private User findUserByEmail(String email) {
+        return userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+    }
+}
@@ -0,0 +1,152 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.WidgetPlacement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Pure layout computations over widget boxes (pixels, on a grid of gridSize pixels).
+// No I/O: DashboardLayoutService loads the boxes and persists the result.
+final class LayoutEngine {
+
+    private LayoutEngine() {
+    }
+
+    // Positions to the nearest grid line (never negative), sizes to the nearest whole number of cells (at least one)
+    static void snap(List<WidgetPlacement> widgets, int gridSize) {
+        for (WidgetPlacement w : widgets) {
+            w.setX(Math.max(0, Math.floorDiv(w.getX() + gridSize / 2, gridSize) * gridSize));
+            w.setY(Math.max(0, Math.floorDiv(w.getY() + gridSize / 2, gridSize) * gridSize));
+            w.setWidth(cells(w.getWidth(), gridSize) * gridSize);
+            w.setHeight(cells(w.getHeight(), gridSize) * gridSize);
+        }
+    }
+
+    // Packs the widgets without overlaps into canvasWidth, skyline style: tallest first, each at the
+    // lowest position its width fits, leftmost on ties. The skyline is kept per grid column and the
+    // lowest run of columns is found with a sliding-window maximum, so each widget costs O(columns).
+    // Sizes are snapped to whole cells; a widget wider than the canvas gets a row of its own.
+    static void arrange(List<WidgetPlacement> widgets, int gridSize, int canvasWidth) {
+        int columns = Math.max(1, canvasWidth / gridSize);
+        int[] skyline = new int[columns];
+        int[] window = new int[columns];
+
+        // Tallest first, then widest, then in their original order - sorted as primitive keys
+        long[] order = new long[widgets.size()];
+        for (int i = 0; i < order.length; i++) {
+            WidgetPlacement w = widgets.get(i);
+            long height = 0xFFFF - Math.min(cells(w.getHeight(), gridSize), 0xFFFF);
+            long width = 0xFFFF - Math.min(cells(w.getWidth(), gridSize), 0xFFFF);
+            order[i] = height << 48 | width << 32 | i;
+        }
+        Arrays.sort(order);
+
+        for (long key : order) {
+            WidgetPlacement w = widgets.get((int) key);
+            int widthCells = cells(w.getWidth(), gridSize);
+            int heightCells = cells(w.getHeight(), gridSize);
+            int span = Math.min(widthCells, columns);
+
+            int bestColumn = 0;
+            int bestTop = Integer.MAX_VALUE;
+            int head = 0;
+            int tail = 0;
+            for (int c = 0; c < columns; c++) {
+                while (tail > head && skyline[window[tail - 1]] <= skyline[c]) {
+                    tail--;
+                }
+                window[tail++] = c;
+                if (window[head] <= c - span) {
+                    head++;
+                }
+                if (c >= span - 1 && skyline[window[head]] < bestTop) {
+                    bestTop = skyline[window[head]];
+                    bestColumn = c - span + 1;
+                }
+            }
+
+            Arrays.fill(skyline, bestColumn, bestColumn + span, bestTop + heightCells);
+            w.setX(bestColumn * gridSize);
+            w.setY(bestTop * gridSize);
+            w.setWidth(widthCells * gridSize);
+            w.setHeight(heightCells * gridSize);
+        }
+    }
+
+    // Index pairs {i, j}, i < j, of widgets whose boxes overlap (touching edges do not count).
+    // Spatial hash: each widget is entered in every cell it covers and only widgets sharing a cell
+    // are compared. A pair is reported only by the cell holding the top-left corner of the two
+    // boxes' intersection, so it is found once however many cells they share.
+    static List<int[]> overlaps(List<WidgetPlacement> widgets) {
+        int cellSize = cellSize(widgets);
+        Map<Long, IntList> cells = new HashMap<>();
+        for (int i = 0; i < widgets.size(); i++) {
+            WidgetPlacement w = widgets.get(i);
+            if (w.getWidth() <= 0 || w.getHeight() <= 0) {
+                continue;
+            }
+            int x0 = Math.floorDiv(w.getX(), cellSize);
+            int x1 = Math.floorDiv(w.getX() + w.getWidth() - 1, cellSize);
+            int y0 = Math.floorDiv(w.getY(), cellSize);
+            int y1 = Math.floorDiv(w.getY() + w.getHeight() - 1, cellSize);
+            for (int cx = x0; cx <= x1; cx++) {
+                for (int cy = y0; cy <= y1; cy++) {
+                    cells.computeIfAbsent(key(cx, cy), k -> new IntList()).add(i);
+                }
+            }
+        }
+
+        List<int[]> pairs = new ArrayList<>();
+        for (Map.Entry<Long, IntList> cell : cells.entrySet()) {
+            int cx = (int) (cell.getKey() >> 32);
+            int cy = (int) (long) cell.getKey();
+            IntList members = cell.getValue();
+            for (int m = 0; m < members.size; m++) {
+                WidgetPlacement a = widgets.get(members.values[m]);
+                for (int n = m + 1; n < members.size; n++) {
+                    WidgetPlacement b = widgets.get(members.values[n]);
+                    if (a.getX() < b.getX() + b.getWidth() && b.getX() < a.getX() + a.getWidth()
+                            && a.getY() < b.getY() + b.getHeight() && b.getY() < a.getY() + a.getHeight()
+                            && Math.floorDiv(Math.max(a.getX(), b.getX()), cellSize) == cx
+                            && Math.floorDiv(Math.max(a.getY(), b.getY()), cellSize) == cy) {
+                        pairs.add(new int[]{members.values[m], members.values[n]});
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    // Number of grid cells a size snaps to
+    private static int cells(int size, int gridSize) {
+        return Math.max(1, (size + gridSize / 2) / gridSize);
+    }
+
+    // About one typical widget per cell: the mean of the widgets' larger sides
+    private static int cellSize(List<WidgetPlacement> widgets) {
+        long total = 0;
+        for (WidgetPlacement w : widgets) {
+            total += Math.max(w.getWidth(), w.getHeight());
+        }
+        return (int) Math.max(1, widgets.isEmpty() ? 1 : total / widgets.size());
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xffffffffL);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
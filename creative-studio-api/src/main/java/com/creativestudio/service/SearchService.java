@@ -0,0 +1,29 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.SearchHitResponse;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.WidgetRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// Search across all of a user's dashboards: notes text, todo items and editor HTML (tags stripped),
+// plus widget names, which rank higher. Saves held by the write-behind buffer are found once flushed.
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    private static final int MAX_HITS = 50;
+
+    private final WidgetRepository widgetRepository;
+
+    @Transactional(readOnly = true)
+    public List<SearchHitResponse> search(User user, String query, int limit) {
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+        return widgetRepository.search(user.getId(), query.strip(), Math.clamp(limit, 1, MAX_HITS));
+    }
+}
@@ -0,0 +1,207 @@
+package com.creativestudio.service;
+
+import com.creativestudio.model.User;
+import com.creativestudio.repository.ContentBlobRepository;
+import com.creativestudio.repository.ContentBlobRepository.BlobData;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Keeps large widget bodies (a content-editor's HTML) out of the widgets table.
+//
+// A "content" string over threshold-bytes is gzipped into content_blobs under its SHA-256 and
+// replaced in the widget's data by {"contentRef": "<hash>"}, so dashboard and widget loads only
+// carry the reference and the body is fetched from /api/content/{hash} when the widget renders.
+// Identical bodies are stored once. Blobs no widget references any more are swept periodically.
+//
+// Reading a blob only needs a widget that references it, so a reference is never taken from a
+// client: a write keeps the one the widget already held, or none.
+@Slf4j
+@Service
+public class WidgetContentStore {
+
+    public static final String CONTENT = "content";
+    public static final String CONTENT_REF = "contentRef";
+
+    private final ContentBlobRepository blobRepository;
+    private final int thresholdBytes;
+    private final long sweepIntervalMs;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("content-blob-sweeper").daemon().factory());
+
+    public WidgetContentStore(ContentBlobRepository blobRepository,
+                              @Value("${widget.content-store.threshold-bytes}") int thresholdBytes,
+                              @Value("${widget.content-store.sweep-interval-ms}") long sweepIntervalMs) {
+        this.blobRepository = blobRepository;
+        this.thresholdBytes = thresholdBytes;
+        this.sweepIntervalMs = sweepIntervalMs;
+    }
+
+    @PostConstruct
+    void startSweeper() {
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    // The document to store for a widget whose current document is `current` (null for a new widget).
+    // Inline content always replaces an older reference, so a client that fetched the body, edited
+    // it and saved the whole document is not overridden; a reference the widget did not hold is dropped.
+    @Transactional
+    public Map<String, Object> offload(Map<String, Object> data, Map<String, Object> current) {
+        if (data == null || !(data.get(CONTENT) instanceof String content)) {
+            if (data == null || !data.containsKey(CONTENT_REF)
+                    || (current != null && Objects.equals(data.get(CONTENT_REF), current.get(CONTENT_REF)))) {
+                return data;
+            }
+            Map<String, Object> kept = new LinkedHashMap<>(data);
+            kept.remove(CONTENT_REF);
+            return kept;
+        }
+        byte[] text = content.getBytes(StandardCharsets.UTF_8);
+        if (text.length <= thresholdBytes) {
+            if (!data.containsKey(CONTENT_REF)) {
+                return data;
+            }
+            Map<String, Object> inline = new LinkedHashMap<>(data);
+            inline.remove(CONTENT_REF);
+            return inline;
+        }
+
+        String hash = sha256(text);
+        blobRepository.store(hash, gzip(text), text.length, content);
+
+        Map<String, Object> stored = new LinkedHashMap<>();
+        data.forEach((key, value) -> {
+            if (key.equals(CONTENT)) {
+                stored.put(CONTENT_REF, hash);
+            } else if (!key.equals(CONTENT_REF)) {
+                stored.put(key, value);
+            }
+        });
+        return stored;
+    }
+
+    // The document with its stored body put back, for consumers that need it whole (export, JSON patch)
+    public Map<String, Object> inline(Map<String, Object> data) {
+        if (data == null || data.containsKey(CONTENT) || !(data.get(CONTENT_REF) instanceof String hash)) {
+            return data;
+        }
+        Map<String, Object> inline = new LinkedHashMap<>(data);
+        inline.remove(CONTENT_REF);
+        inline.put(CONTENT, gunzip(load(hash)));
+        return inline;
+    }
+
+    public static boolean isOffloaded(Map<String, Object> data) {
+        return data != null && !data.containsKey(CONTENT) && data.get(CONTENT_REF) instanceof String;
+    }
+
+    // The gzipped body, for a user who owns a widget that references it
+    @Transactional(readOnly = true)
+    public byte[] getCompressed(User user, String hash) {
+        if (!blobRepository.isReferencedByUser(hash, user.getId())) {
+            throw new RuntimeException("Content not found");
+        }
+        return load(hash);
+    }
+
+    public static String gunzip(byte[] compressed) {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sweeper.shutdownNow();
+    }
+
+    // The grace period covers writes that stored a blob but have not committed the widget yet
+    private void sweep() {
+        try {
+            int deleted = blobRepository.deleteUnreferencedStoredBefore(
+                    LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(sweepIntervalMs)));
+            if (deleted > 0) {
+                log.info("Swept {} unreferenced content blobs", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Content blob sweep failed, retrying on the next tick", e);
+        }
+    }
+
+    // inline for a batch of documents, with every referenced body loaded in one query
+    public List<Map<String, Object>> inline(List<Map<String, Object>> documents) {
+        String[] hashes = documents.stream()
+                .filter(data -> data != null && !data.containsKey(CONTENT) && data.get(CONTENT_REF) instanceof String)
+                .map(data -> (String) data.get(CONTENT_REF))
+                .distinct()
+                .toArray(String[]::new);
+        if (hashes.length == 0) {
+            return documents;
+        }
+        Map<String, byte[]> bodies = blobRepository.findDataByHashes(hashes).stream()
+                .collect(Collectors.toMap(BlobData::getHash, BlobData::getData));
+        return documents.stream().map(data -> {
+            if (data == null || data.containsKey(CONTENT) || !(data.get(CONTENT_REF) instanceof String hash)) {
+                return data;
+            }
+            byte[] body = bodies.get(hash);
+            if (body == null) {
+                throw new RuntimeException("Content not found");
+            }
+            Map<String, Object> inline = new LinkedHashMap<>(data);
+            inline.remove(CONTENT_REF);
+            inline.put(CONTENT, gunzip(body));
+            return inline;
+        }).toList();
+    }
+
+    private byte[] load(String hash) {
+        return blobRepository.findDataByHash(hash)
+                .orElseThrow(() -> new RuntimeException("Content not found"));
+    }
+
+    private static byte[] gzip(byte[] text) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(text.length / 4);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sha256(byte[] text) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(text));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
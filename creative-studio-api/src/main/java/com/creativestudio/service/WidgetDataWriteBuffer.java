@@ -0,0 +1,215 @@
+package com.creativestudio.service;
+
+import com.creativestudio.datasource.ReadYourWrites;
+import com.creativestudio.model.Widget;
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.creativestudio.repository.WidgetStates;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Opt-in write-behind for full-document autosaves (widget.write-behind.enabled).
+//
+// Saves land in a per-widget, last-writer-wins map and reach the database as one JDBC batch,
+// once the oldest unwritten save of a widget is max-staleness-ms old or the buffer holds
+// max-buffered-widgets widgets. A typing session then costs one UPDATE per widget per staleness
+// window instead of one per debounce. Reads overlay the buffer, pending saves are written on
+// shutdown, and writes that bypass the buffer (full update, delta patch, delete) take the
+// widget's pending save out first so nothing older lands on top of them. A flush is a write of
+// the dashboards' owners, so it opens their read-your-writes window when it commits.
+@Slf4j
+@Service
+public class WidgetDataWriteBuffer {
+
+    private final WidgetRepository widgetRepository;
+    private final DashboardRepository dashboardRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final WidgetContentStore contentStore;
+    private final WidgetOperationLog operationLog;
+    private final ReadYourWrites readYourWrites;
+    private final boolean enabled;
+    private final long maxStalenessMs;
+    private final int maxBufferedWidgets;
+
+    private final Map<UUID, Pending> pending = new ConcurrentHashMap<>();
+    // Serializes flushes and take(), so a write in flight is never overtaken by an older one
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService scheduler;
+
+    public WidgetDataWriteBuffer(WidgetRepository widgetRepository,
+                                 DashboardRepository dashboardRepository,
+                                 TransactionTemplate transactionTemplate,
+                                 WidgetContentStore contentStore,
+                                 WidgetOperationLog operationLog,
+                                 ReadYourWrites readYourWrites,
+                                 @Value("${widget.write-behind.enabled}") boolean enabled,
+                                 @Value("${widget.write-behind.max-staleness-ms}") long maxStalenessMs,
+                                 @Value("${widget.write-behind.max-buffered-widgets}") int maxBufferedWidgets) {
+        this.widgetRepository = widgetRepository;
+        this.dashboardRepository = dashboardRepository;
+        // A flush commits on its own even when called inside a transaction (duplication flushes first):
+        // the buffer is cleared and read-your-writes opened as soon as the template returns
+        this.transactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.contentStore = contentStore;
+        this.operationLog = operationLog;
+        this.readYourWrites = readYourWrites;
+        this.enabled = enabled;
+        this.maxStalenessMs = maxStalenessMs;
+        this.maxBufferedWidgets = maxBufferedWidgets;
+
+        if (enabled) {
+            long tick = Math.max(maxStalenessMs / 10, 10);
+            scheduler = Executors.newSingleThreadScheduledExecutor(
+                    Thread.ofPlatform().name("widget-write-behind").daemon().factory());
+            scheduler.scheduleWithFixedDelay(() -> flush(false), tick, tick, TimeUnit.MILLISECONDS);
+        } else {
+            scheduler = null;
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void put(UUID dashboardId, UUID widgetId, Map<String, Object> data) {
+        long now = System.currentTimeMillis();
+        // Staleness counts from the first unwritten save, so steady typing cannot postpone the write
+        pending.compute(widgetId, (id, previous) ->
+                new Pending(dashboardId, data, previous != null ? previous.since() : now));
+        if (pending.size() >= maxBufferedWidgets) {
+            scheduler.execute(this::flushAll);
+        }
+    }
+
+    // Read-your-writes: the newest buffered document of a widget, else the stored one
+    public Map<String, Object> currentData(Widget widget) {
+        return currentData(widget.getId(), widget.getData());
+    }
+
+    public Map<String, Object> currentData(UUID widgetId, Map<String, Object> stored) {
+        Pending p = pending.isEmpty() ? null : pending.get(widgetId);
+        return p != null ? p.data() : stored;
+    }
+
+    // Buffered state is not reflected in the dashboard version, so conditional GETs must not answer 304
+    public boolean hasPending(UUID dashboardId) {
+        return !pending.isEmpty() && pending.values().stream().anyMatch(p -> p.dashboardId().equals(dashboardId));
+    }
+
+    // Removes the pending save of a widget for a caller that is about to write the widget itself.
+    // If the caller's transaction rolls back, the save goes back into the buffer.
+    public Map<String, Object> take(UUID widgetId) {
+        if (pending.isEmpty()) {
+            return null;
+        }
+        Pending taken;
+        flushLock.lock();
+        try {
+            taken = pending.remove(widgetId);
+        } finally {
+            flushLock.unlock();
+        }
+        if (taken != null && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        pending.putIfAbsent(widgetId, taken);
+                    }
+                }
+            });
+        }
+        return taken != null ? taken.data() : null;
+    }
+
+    // Writes every pending save now, regardless of age
+    public void flushAll() {
+        flush(true);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        flushAll();
+    }
+
+    private void flush(boolean all) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            Map<UUID, Pending> batch = new HashMap<>();
+            pending.forEach((widgetId, p) -> {
+                if (all || now - p.since() >= maxStalenessMs) {
+                    batch.put(widgetId, p);
+                }
+            });
+            if (batch.isEmpty()) {
+                return;
+            }
+
+            Set<UUID> owners = new HashSet<>();
+            transactionTemplate.executeWithoutResult(status -> {
+                // Versions first, like every writer: the dashboards are locked before their widgets are read
+                Map<UUID, Long> versions = new HashMap<>();
+                dashboardRepository.incrementVersions(batch.values().stream().map(Pending::dashboardId)
+                        .collect(Collectors.toSet())).forEach(v -> {
+                    versions.put(v.getId(), v.getVersion());
+                    owners.add(v.getUserId());
+                });
+                Map<UUID, Map<String, Object>> stored = widgetRepository.findDataByIds(batch.keySet());
+
+                Map<UUID, Map<String, Object>> dataByWidget = new HashMap<>();
+                Map<UUID, List<WidgetOperation>> changes = new HashMap<>();
+                batch.forEach((widgetId, p) -> {
+                    Map<String, Object> data = contentStore.offload(p.data(), stored.get(widgetId));
+                    dataByWidget.put(widgetId, data);
+                    if (stored.containsKey(widgetId) && versions.containsKey(p.dashboardId())) {
+                        changes.computeIfAbsent(p.dashboardId(), d -> new ArrayList<>()).add(
+                                WidgetStates.change(widgetId, WidgetStates.dataChange(stored.get(widgetId), data)));
+                    }
+                });
+                widgetRepository.replaceData(dataByWidget);
+                changes.forEach((dashboardId, operations) ->
+                        operationLog.edit(dashboardId, versions.get(dashboardId), operations));
+            });
+            // The reads after this come from the replica, which may not have the flush yet
+            owners.forEach(readYourWrites::wrote);
+            // A save that arrived during the flush replaced its entry and stays for the next one
+            batch.forEach(pending::remove);
+        } catch (RuntimeException e) {
+            log.warn("Write-behind flush of {} widgets failed, retrying on the next tick", pending.size(), e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private record Pending(UUID dashboardId, Map<String, Object> data, long since) {
+    }
+}
@@ -0,0 +1,114 @@
+package com.creativestudio.service;
+
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.DashboardSnapshotRepository;
+import com.creativestudio.repository.DashboardSnapshotRepository.SnapshotSize;
+import com.creativestudio.repository.WidgetOperationRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+// The append-only history behind undo, redo and restore (migration V4).
+//
+// Every widget writer hands over what its action changed (WidgetStates.change) inside its own
+// transaction, and only the difference is stored. Every snapshot-check-every dashboard versions the
+// log since the latest snapshot is weighed against that snapshot (counted from the last check, so
+// versions that log nothing, like renames, never make one be skipped); once the log is the larger, the
+// dashboard is snapshotted and everything older than the snapshots-kept newest snapshots is
+// compacted away. Storage so grows with the edits, not with dashboard size times edit count, and a
+// restore never replays more than about one snapshot's worth of log.
+@Component
+public class WidgetOperationLog {
+
+    private final WidgetOperationRepository operationRepository;
+    private final DashboardSnapshotRepository snapshotRepository;
+    private final WidgetRepository widgetRepository;
+    private final int snapshotCheckEvery;
+    private final int snapshotsKept;
+    // Dashboard version of the last snapshot check
+    private final Cache<UUID, Long> checkedAt;
+
+    public WidgetOperationLog(WidgetOperationRepository operationRepository,
+                              DashboardSnapshotRepository snapshotRepository,
+                              WidgetRepository widgetRepository,
+                              @Value("${dashboard.history.snapshot-check-every}") int snapshotCheckEvery,
+                              @Value("${dashboard.history.snapshots-kept}") int snapshotsKept,
+                              @Value("${dashboard.history.checked-max-size}") long checkedMaxSize,
+                              MeterRegistry meterRegistry) {
+        this.operationRepository = operationRepository;
+        this.snapshotRepository = snapshotRepository;
+        this.widgetRepository = widgetRepository;
+        this.snapshotCheckEvery = snapshotCheckEvery;
+        this.snapshotsKept = Math.max(snapshotsKept, 1);
+        this.checkedAt = Caffeine.newBuilder()
+                .maximumSize(checkedMaxSize)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, checkedAt, "dashboard.history.checked");
+    }
+
+    // One widget's change; null if the action left it as it was
+    public void edit(UUID dashboardId, long version, WidgetOperation change) {
+        edit(dashboardId, version, change == null ? List.of() : List.of(change));
+    }
+
+    public void edit(UUID dashboardId, long version, List<WidgetOperation> changes) {
+        record(dashboardId, version, WidgetOperation.EDIT, null, changes);
+    }
+
+    // Null changes (widgets the action left as they were) are skipped; an action that changed
+    // nothing is not logged
+    public void record(UUID dashboardId, long version, String action, Long targetVersion,
+                       List<WidgetOperation> changes) {
+        List<WidgetOperation> operations = changes.stream().filter(Objects::nonNull).toList();
+        if (operations.isEmpty()) {
+            return;
+        }
+        for (WidgetOperation operation : operations) {
+            operation.setDashboardId(dashboardId);
+            operation.setVersion(version);
+            operation.setAction(action);
+            operation.setTargetVersion(targetVersion);
+        }
+        operationRepository.insertOperations(operations);
+
+        // Writers of one dashboard are serialized by its row lock, so this is not raced. A dashboard
+        // not seen since startup is taken as checked at the last multiple of snapshot-check-every.
+        long checked = checkedAt.get(dashboardId, id -> (version - 1) / snapshotCheckEvery * snapshotCheckEvery);
+        if (version - checked >= snapshotCheckEvery) {
+            checkedAt.put(dashboardId, version);
+            snapshotIfDue(dashboardId, version);
+        }
+    }
+
+    public void forget(UUID dashboardId) {
+        checkedAt.invalidate(dashboardId);
+        operationRepository.deleteByDashboardId(dashboardId);
+        snapshotRepository.deleteByDashboardId(dashboardId);
+    }
+
+    private void snapshotIfDue(UUID dashboardId, long version) {
+        Optional<SnapshotSize> latest = snapshotRepository.findLatestSize(dashboardId);
+        long logged = operationRepository.sumSizeAfter(dashboardId, latest.map(SnapshotSize::getVersion).orElse(0L));
+        if (latest.isPresent() && logged < latest.get().getSize()) {
+            return;
+        }
+        operationRepository.insertSnapshot(dashboardId, version, widgetRepository.findStates(dashboardId));
+
+        // Nothing can be restored from before the oldest snapshot kept, so the log up to it goes too
+        snapshotRepository.findNthNewestVersion(dashboardId, snapshotsKept - 1).ifPresent(oldest -> {
+            snapshotRepository.deleteBefore(dashboardId, oldest);
+            operationRepository.deleteUpTo(dashboardId, oldest);
+        });
+    }
+}
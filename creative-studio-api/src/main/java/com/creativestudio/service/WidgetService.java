@@ -1,16 +1,27 @@
 package com.creativestudio.service;
 
+import com.creativestudio.dto.JsonPatchOperation;
+import com.creativestudio.dto.WidgetChangeEvent;
+import com.creativestudio.dto.WidgetLayoutRequest;
 import com.creativestudio.dto.WidgetRequest;
 import com.creativestudio.dto.WidgetResponse;
 import com.creativestudio.model.Dashboard;
 import com.creativestudio.model.User;
 import com.creativestudio.model.Widget;
+import com.creativestudio.model.WidgetOperation;
 import com.creativestudio.repository.DashboardRepository;
-import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetDataRepository.DataChange;
 import com.creativestudio.repository.WidgetRepository;
+import com.creativestudio.repository.WidgetStates;
+import com.creativestudio.repository.WidgetTombstoneRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -22,17 +33,44 @@ public class WidgetService {
 
     private final WidgetRepository widgetRepository;
     private final DashboardRepository dashboardRepository;
-    private final UserRepository userRepository;
+    private final ApplicationEventPublisher events;
+    private final WidgetTombstoneRepository tombstoneRepository;
+    private final WidgetDataWriteBuffer writeBuffer;
+    private final WidgetContentStore contentStore;
+    private final DashboardOwnershipCache ownership;
+    private final WidgetOperationLog operationLog;
 
-    public List<WidgetResponse> getWidgets(String email, UUID dashboardId) {
-        Dashboard dashboard = findDashboard(email, dashboardId);
+    @Transactional(readOnly = true)
+    public List<WidgetResponse> getWidgets(User user, UUID dashboardId) {
+        Dashboard dashboard = ownedDashboard(user, dashboardId);
         return widgetRepository.findByDashboardOrderByCreatedAtAsc(dashboard).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
-    public WidgetResponse createWidget(String email, UUID dashboardId, WidgetRequest request) {
-        Dashboard dashboard = findDashboard(email, dashboardId);
+    @Transactional(readOnly = true)
+    public List<WidgetResponse> getWidgetsInViewport(User user, UUID dashboardId,
+                                                     int minX, int minY, int maxX, int maxY) {
+        if (minX > maxX || minY > maxY) {
+            throw new RuntimeException("Invalid viewport");
+        }
+        ownership.check(dashboardId, user);
+        return widgetRepository.findInViewport(dashboardId, minX, minY, maxX, maxY).stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    // Cheap freshness check for conditional GETs: one indexed lookup, no widgets
+    @Transactional(readOnly = true)
+    public long getDashboardVersion(User user, UUID dashboardId) {
+        return dashboardRepository.findVersionByIdAndUserId(dashboardId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+    }
+
+    @Transactional
+    public WidgetResponse createWidget(User user, UUID dashboardId, WidgetRequest request) {
+        Dashboard dashboard = ownedDashboard(user, dashboardId);
+        long version = dashboardRepository.incrementVersion(dashboardId);
 
         Widget widget = Widget.builder()
                 .dashboard(dashboard)
@@ -42,54 +80,253 @@ public class WidgetService {
                 .y(request.getY())
                 .width(request.getWidth())
                 .height(request.getHeight())
-                .data(request.getData())
+                .data(contentStore.offload(request.getData(), null))
+                .revision(version)
                 .build();
 
-        widgetRepository.save(widget);
-        return toResponse(widget);
+        // Flushed now so the creation timestamp is set before the widget is logged
+        widgetRepository.saveAndFlush(widget);
+        operationLog.edit(dashboardId, version, WidgetStates.change(widget.getId(), null, WidgetStates.of(widget)));
+
+        WidgetResponse response = toResponse(widget);
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.CREATED)
+                .dashboardId(dashboardId).widgetId(widget.getId()).version(version).widget(response));
+        return response;
     }
 
-    public WidgetResponse updateWidget(String email, UUID dashboardId, UUID widgetId, WidgetRequest request) {
-        findDashboard(email, dashboardId);
-        Widget widget = widgetRepository.findById(widgetId)
-                .orElseThrow(() -> new RuntimeException("Widget not found"));
+    @Transactional
+    public WidgetResponse updateWidget(User user, UUID dashboardId, UUID widgetId, WidgetRequest request,
+                                       Long expectedRevision) {
+        ownership.check(dashboardId, user);
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        Widget widget = findOwnedWidget(user, dashboardId, widgetId);
+        checkRevision(widget, expectedRevision);
+        Map<String, Object> before = WidgetStates.of(widget);
+        Map<String, Object> stored = widget.getData();
 
+        // The full document below replaces any autosave still waiting in the write-behind buffer
+        writeBuffer.take(widgetId);
         widget.setName(request.getName());
         widget.setX(request.getX());
         widget.setY(request.getY());
         widget.setWidth(request.getWidth());
         widget.setHeight(request.getHeight());
-        widget.setData(request.getData());
+        widget.setData(contentStore.offload(request.getData(), stored));
+        widget.setRevision(version);
 
         widgetRepository.save(widget);
-        return toResponse(widget);
+        operationLog.edit(dashboardId, version, WidgetStates.change(widgetId, before, WidgetStates.of(widget)));
+
+        WidgetResponse response = toResponse(widget);
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.UPDATED)
+                .dashboardId(dashboardId).widgetId(widgetId).version(version).widget(response));
+        return response;
     }
 
-    public WidgetResponse updateWidgetData(String email, UUID dashboardId, UUID widgetId, Map<String, Object> data) {
-        findDashboard(email, dashboardId);
-        Widget widget = widgetRepository.findById(widgetId)
-                .orElseThrow(() -> new RuntimeException("Widget not found"));
+    // Applies a multi-widget drag in one transaction: one ownership check, one
+    // SELECT for all rows, and the UPDATEs flushed as a single JDBC batch.
+    @Transactional
+    public void updateLayout(User user, UUID dashboardId, List<WidgetLayoutRequest> layout) {
+        Dashboard dashboard = ownedDashboard(user, dashboardId);
+
+        Map<UUID, WidgetLayoutRequest> layoutById = layout.stream()
+                .collect(Collectors.toMap(WidgetLayoutRequest::getId, l -> l, (first, last) -> last));
+
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        List<Widget> widgets = widgetRepository.findByDashboardAndIdIn(dashboard, layoutById.keySet());
+        if (widgets.size() != layoutById.size()) {
+            throw new RuntimeException("Widget not found");
+        }
+
+        List<WidgetOperation> changes = new ArrayList<>();
+        for (Widget widget : widgets) {
+            WidgetLayoutRequest l = layoutById.get(widget.getId());
+            Map<String, Object> before = box(widget);
+            widget.setX(l.getX());
+            widget.setY(l.getY());
+            widget.setWidth(l.getWidth());
+            widget.setHeight(l.getHeight());
+            widget.setZIndex(l.getZIndex());
+            widget.setRevision(version);
+            changes.add(WidgetStates.change(widget.getId(), before, box(widget)));
+        }
+        operationLog.edit(dashboardId, version, changes);
+
+        for (Widget widget : widgets) {
+            publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.LAYOUT)
+                    .dashboardId(dashboardId).widgetId(widget.getId()).version(version)
+                    .x(widget.getX()).y(widget.getY())
+                    .width(widget.getWidth()).height(widget.getHeight())
+                    .zIndex(widget.getZIndex()));
+        }
+    }
 
-        widget.setData(data);
+    @Transactional
+    public WidgetResponse updateWidgetData(User user, UUID dashboardId, UUID widgetId, Map<String, Object> data,
+                                           Long expectedRevision) {
+        // Write-behind: nothing is written now, the buffer flushes the last save in a later batch.
+        // Buffered saves are last-writer-wins, so If-Match only applies to direct writes.
+        if (writeBuffer.isEnabled()) {
+            Widget widget = findOwnedWidget(user, dashboardId, widgetId);
+            writeBuffer.put(dashboardId, widgetId, data);
+            publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.DATA)
+                    .dashboardId(dashboardId).widgetId(widgetId).version(widget.getDashboard().getVersion()).data(data));
+            return toResponse(widget);
+        }
+
+        ownership.check(dashboardId, user);
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        Widget widget = findOwnedWidget(user, dashboardId, widgetId);
+        checkRevision(widget, expectedRevision);
+        Map<String, Object> before = widget.getData();
+        widget.setData(contentStore.offload(data, before));
+        widget.setRevision(version);
         widgetRepository.save(widget);
+        operationLog.edit(dashboardId, version, WidgetStates.change(widgetId,
+                WidgetStates.dataChange(before, widget.getData())));
+
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.DATA)
+                .dashboardId(dashboardId).widgetId(widgetId).version(version).data(widget.getData()));
         return toResponse(widget);
     }
 
-    public void deleteWidget(String email, UUID dashboardId, UUID widgetId) {
-        findDashboard(email, dashboardId);
-        Widget widget = widgetRepository.findById(widgetId)
+    // Delta autosave (RFC 7396): the merge runs in PostgreSQL, the document never reaches the JVM
+    @Transactional
+    public void mergePatchWidgetData(User user, UUID dashboardId, UUID widgetId, Map<String, Object> patch) {
+        ownership.check(dashboardId, user);
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        DataChange buffered = writeThroughBuffered(widgetId);
+        // A patch may drop the reference but never set one: the widget keeps the body it holds.
+        // New inline content replaces a stored body, so its reference goes with the same merge.
+        if (patch.get(WidgetContentStore.CONTENT_REF) != null
+                || (patch.containsKey(WidgetContentStore.CONTENT) && !patch.containsKey(WidgetContentStore.CONTENT_REF))) {
+            patch = new LinkedHashMap<>(patch);
+            patch.remove(WidgetContentStore.CONTENT_REF);
+            if (patch.containsKey(WidgetContentStore.CONTENT)) {
+                patch.put(WidgetContentStore.CONTENT_REF, null);
+            }
+        }
+        DataChange merged = widgetRepository.mergePatchData(dashboardId, widgetId, patch, version)
                 .orElseThrow(() -> new RuntimeException("Widget not found"));
-        widgetRepository.delete(widget);
+        operationLog.edit(dashboardId, version, WidgetStates.change(widgetId,
+                WidgetStates.compose(buffered, merged)));
+
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.PATCH)
+                .dashboardId(dashboardId).widgetId(widgetId).version(version).mergePatch(patch));
     }
 
-    private Dashboard findDashboard(String email, UUID dashboardId) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return dashboardRepository.findByIdAndUser(dashboardId, user)
-                .orElseThrow(() -> new RuntimeException("Dashboard not found"));
+    // Delta autosave (RFC 6902): applied atomically in PostgreSQL, nothing is written if any operation fails
+    @Transactional
+    public void jsonPatchWidgetData(User user, UUID dashboardId, UUID widgetId, List<JsonPatchOperation> operations) {
+        Dashboard dashboard = ownedDashboard(user, dashboardId);
+        if (operations.stream().anyMatch(WidgetService::setsContentRef)) {
+            throw new RuntimeException("Patch could not be applied");
+        }
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        DataChange written = writeThroughBuffered(widgetId);
+        if (operations.stream().anyMatch(WidgetService::touchesContent)) {
+            written = WidgetStates.compose(written, inlineStoredContent(widgetId));
+        }
+        DataChange patched = widgetRepository.jsonPatchData(dashboardId, widgetId, operations, version)
+                .orElseThrow(() -> new RuntimeException(widgetRepository.existsByIdAndDashboard(widgetId, dashboard)
+                        ? "Patch could not be applied"
+                        : "Widget not found"));
+        operationLog.edit(dashboardId, version, WidgetStates.change(widgetId,
+                WidgetStates.compose(written, patched)));
+
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.PATCH)
+                .dashboardId(dashboardId).widgetId(widgetId).version(version).jsonPatch(operations));
+    }
+
+    @Transactional
+    public void deleteWidget(User user, UUID dashboardId, UUID widgetId) {
+        ownership.check(dashboardId, user);
+        long version = dashboardRepository.incrementVersion(dashboardId);
+        writeBuffer.take(widgetId);
+        Map<String, Object> deleted = widgetRepository.deleteReturningState(dashboardId, widgetId)
+                .orElseThrow(() -> new RuntimeException("Widget not found"));
+        tombstoneRepository.insert(widgetId, dashboardId, version);
+        operationLog.edit(dashboardId, version, WidgetStates.change(widgetId, deleted, null));
+
+        publish(WidgetChangeEvent.builder().type(WidgetChangeEvent.DELETED)
+                .dashboardId(dashboardId).widgetId(widgetId).version(version));
+    }
+
+    // If-Match on a full write: the client must have seen the widget's latest revision.
+    // Writers bump the dashboard version (and so lock its row) before loading widgets, so the
+    // rows they read are current; Widget.version catches any writer that does not.
+    private void checkRevision(Widget widget, Long expectedRevision) {
+        if (expectedRevision != null && expectedRevision != widget.getRevision()) {
+            throw new ObjectOptimisticLockingFailureException(Widget.class, widget.getId());
+        }
+    }
+
+    // A delta patch applies to the stored document, so a buffered save has to be written first.
+    // It becomes part of the patch's action in the history.
+    private DataChange writeThroughBuffered(UUID widgetId) {
+        Map<String, Object> buffered = writeBuffer.take(widgetId);
+        if (buffered == null) {
+            return null;
+        }
+        Map<String, Object> stored = widgetRepository.findDataById(widgetId).orElse(null);
+        Map<String, Object> data = contentStore.offload(buffered, stored);
+        widgetRepository.replaceData(Map.of(widgetId, data));
+        return WidgetStates.dataChange(stored, data);
+    }
+
+    // A JSON patch addresses the stored document, so a body kept in the content store is put back
+    // first; it stays inline until the next full save offloads it again
+    private DataChange inlineStoredContent(UUID widgetId) {
+        Map<String, Object> stored = widgetRepository.findDataById(widgetId).orElse(null);
+        if (!WidgetContentStore.isOffloaded(stored)) {
+            return null;
+        }
+        Map<String, Object> data = contentStore.inline(stored);
+        widgetRepository.replaceData(Map.of(widgetId, data));
+        return WidgetStates.dataChange(stored, data);
+    }
+
+    private static Map<String, Object> box(Widget widget) {
+        return WidgetStates.box(widget.getX(), widget.getY(), widget.getWidth(), widget.getHeight(), widget.getZIndex());
+    }
+
+    private static boolean touchesContent(JsonPatchOperation operation) {
+        return isContentPath(operation.getPath()) || isContentPath(operation.getFrom());
+    }
+
+    // Only the store sets a reference; a patch may remove it or test it
+    private static boolean setsContentRef(JsonPatchOperation operation) {
+        boolean atRef = operation.getPath().equals("/" + WidgetContentStore.CONTENT_REF)
+                || (operation.getPath().isEmpty() && operation.getValue() instanceof Map<?, ?> document
+                && document.containsKey(WidgetContentStore.CONTENT_REF));
+        return atRef && !"remove".equals(operation.getOp()) && !"test".equals(operation.getOp());
+    }
+
+    private static boolean isContentPath(String pointer) {
+        String content = "/" + WidgetContentStore.CONTENT;
+        return pointer != null && (pointer.equals(content) || pointer.startsWith(content + "/"));
+    }
+
+    // Delivered to DashboardStreamService once the surrounding transaction commits
+    private void publish(WidgetChangeEvent.WidgetChangeEventBuilder event) {
+        events.publishEvent(event.build());
+    }
+
+    // The authenticated principal is already loaded, so ownership is one cached lookup on the
+    // dashboards row; queries that take a Dashboard get a reference, not a loaded entity
+    private Dashboard ownedDashboard(User user, UUID dashboardId) {
+        ownership.check(dashboardId, user);
+        return dashboardRepository.getReferenceById(dashboardId);
+    }
+
+    // Loaded together with its dashboard, and only if both belong to the user
+    private Widget findOwnedWidget(User user, UUID dashboardId, UUID widgetId) {
+        return widgetRepository.findOwned(widgetId, dashboardId, user.getId())
+                .orElseThrow(() -> new RuntimeException("Widget not found"));
     }
 
-    private WidgetResponse toResponse(Widget widget) {
+    // Package-private for the JMH mapper benchmark
+    WidgetResponse toResponse(Widget widget) {
         return WidgetResponse.builder()
                 .id(widget.getId())
                 .type(widget.getType())
@@ -99,7 +336,8 @@ public class WidgetService {
                 .width(widget.getWidth())
                 .height(widget.getHeight())
                 .zIndex(widget.getZIndex())
-                .data(widget.getData())
+                .data(writeBuffer.currentData(widget))
+                .revision(widget.getRevision())
                 .createdAt(widget.getCreatedAt())
                 .updatedAt(widget.getUpdatedAt())
                 .build();
@@ -0,0 +1,45 @@
+-- Baseline: the schema exactly as Hibernate's ddl-auto=update built it from the original User,
+-- Dashboard and Widget entities, generated constraint names included. A database created that way
+-- is marked as this version on first start (spring.flyway.baseline-on-migrate) and only receives
+-- the migrations after it, so nothing the application added since may go here.
+
+CREATE TABLE dashboards (
+    id         uuid NOT NULL,
+    created_at timestamp(6),
+    grid_size  integer,
+    name       varchar(255),
+    updated_at timestamp(6),
+    user_id    uuid NOT NULL,
+    CONSTRAINT dashboards_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    id            uuid         NOT NULL,
+    created_at    timestamp(6),
+    email         varchar(255) NOT NULL,
+    password_hash varchar(255) NOT NULL,
+    updated_at    timestamp(6),
+    username      varchar(255) NOT NULL,
+    CONSTRAINT users_pkey PRIMARY KEY (id)
+);
+
+CREATE TABLE widgets (
+    id           uuid         NOT NULL,
+    created_at   timestamp(6),
+    data         jsonb,
+    height       integer      NOT NULL,
+    name         varchar(255),
+    type         varchar(255) NOT NULL,
+    updated_at   timestamp(6),
+    width        integer      NOT NULL,
+    x            integer      NOT NULL,
+    y            integer      NOT NULL,
+    z_index      integer,
+    dashboard_id uuid         NOT NULL,
+    CONSTRAINT widgets_pkey PRIMARY KEY (id)
+);
+
+ALTER TABLE users ADD CONSTRAINT uk6dotkott2kjsp8vw4d0m25fb7 UNIQUE (email);
+ALTER TABLE users ADD CONSTRAINT ukr43af9ap4edm43mmtq01oddj6 UNIQUE (username);
+ALTER TABLE dashboards ADD CONSTRAINT fkreklrpwl67skqlbp05mxd24dj FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE widgets ADD CONSTRAINT fkrmv42172j0f5io72clhaba2ad FOREIGN KEY (dashboard_id) REFERENCES dashboards;
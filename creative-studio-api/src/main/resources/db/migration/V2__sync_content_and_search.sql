@@ -0,0 +1,76 @@
+-- What the application added to the baseline schema: change versions for ETags and incremental
+-- sync, deletion tombstones, the content store, viewport and full-text search. Tightens the two
+-- nullable ints of the baseline the entities map to primitives, filling gaps with the entity defaults.
+-- The indexes on widgets, the largest table, are built concurrently by V3 instead of here.
+
+-- Bumped by every change to the dashboard or one of its widgets; used as the ETag
+ALTER TABLE dashboards ADD COLUMN version bigint NOT NULL DEFAULT 0;
+UPDATE dashboards SET grid_size = 40 WHERE grid_size IS NULL;
+ALTER TABLE dashboards ALTER COLUMN grid_size SET NOT NULL;
+
+-- Keyset pagination of the home-page listing; its leading column also serves lookups by user
+CREATE INDEX idx_dashboards_user_updated ON dashboards (user_id, updated_at, id);
+
+ALTER TABLE widgets
+    -- Dashboard version of the widget's last change
+    ADD COLUMN revision bigint NOT NULL DEFAULT 0,
+    -- Optimistic lock
+    ADD COLUMN version  bigint NOT NULL DEFAULT 0;
+UPDATE widgets SET z_index = 0 WHERE z_index IS NULL;
+ALTER TABLE widgets ALTER COLUMN z_index SET NOT NULL;
+
+-- Left behind by a deleted widget so incremental sync can report the deletion.
+-- No foreign key: tombstones are removed together with their dashboard.
+CREATE TABLE widget_tombstones (
+    widget_id    uuid   NOT NULL,
+    dashboard_id uuid   NOT NULL,
+    revision     bigint NOT NULL,
+    deleted_at   timestamp(6),
+    CONSTRAINT widget_tombstones_pkey PRIMARY KEY (widget_id)
+);
+
+CREATE INDEX idx_widget_tombstones_dashboard_revision ON widget_tombstones (dashboard_id, revision);
+
+-- Large widget content bodies, gzipped and addressed by the SHA-256 of the original text
+CREATE TABLE content_blobs (
+    hash       varchar(64)  NOT NULL,
+    data       bytea        NOT NULL,
+    size       integer      NOT NULL,
+    plain_text text,
+    stored_at  timestamp(6) NOT NULL,
+    CONSTRAINT content_blobs_pkey PRIMARY KEY (hash)
+);
+
+-- uuid equality in GiST, for the viewport index V3 builds (an extension cannot be created
+-- in V3's non-transactional script)
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+-- Full-text search. The searchable text of a widget is its notes text, its todo items and its
+-- editor HTML without tags; an offloaded body is indexed once, on its blob. The vectors are
+-- generated columns, so every writer (entities, jsonb patches, imports, duplication) keeps them
+-- current, and PostgreSQL only recomputes them when name, data or plain_text change.
+-- Text is capped at 256 KB per vector, well under the 1 MB a tsvector can hold.
+--
+-- Adding a stored generated column rewrites the table: widgets is locked against reads and writes
+-- while every row's vector is computed, about as long as a full update of the table. Deploy this
+-- version in a maintenance window on a large database; the rest of V2 only touches the catalog
+-- (constant defaults) or the rows with a null z_index.
+CREATE FUNCTION strip_html(html text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    RETURN regexp_replace(html, '<[^>]*>|&[#a-zA-Z0-9]+;', ' ', 'g');
+
+CREATE FUNCTION widget_search_text(data jsonb) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    RETURN concat_ws(' ',
+        data ->> 'text',
+        (SELECT string_agg(todo, ' ')
+         FROM jsonb_array_elements_text(jsonb_path_query_array(data, '$.todos[*].text')) todo),
+        strip_html(data ->> 'content'));
+
+ALTER TABLE widgets ADD COLUMN search tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', coalesce(name, '')), 'A')
+        || setweight(to_tsvector('simple', left(widget_search_text(data), 262144)), 'B')) STORED;
+
+ALTER TABLE content_blobs ADD COLUMN search tsvector GENERATED ALWAYS AS (
+    setweight(to_tsvector('simple', left(coalesce(plain_text, ''), 262144)), 'B')) STORED;
+CREATE INDEX idx_content_blobs_search ON content_blobs USING gin (search);
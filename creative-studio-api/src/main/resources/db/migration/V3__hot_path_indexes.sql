@@ -0,0 +1,27 @@
+-- Indexes on widgets, the table that grows with use. Built CONCURRENTLY so a large widgets table
+-- keeps taking reads and writes while they build; Flyway runs this script outside a transaction,
+-- which CONCURRENTLY requires, so each index commits on its own.
+-- A build that is interrupted leaves an INVALID index behind and the migration marked failed:
+-- drop that index, remove the failed row from flyway_schema_history (flyway repair) and start
+-- again; the indexes already built are skipped.
+
+-- Incremental sync: the widgets of one dashboard changed after a given revision
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_widgets_dashboard_revision ON widgets (dashboard_id, revision);
+
+-- Loading a dashboard: widgets of one dashboard in creation order (findByDashboardOrderByCreatedAtAsc,
+-- the viewport and layout reads)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_widgets_dashboard_created ON widgets (dashboard_id, created_at);
+
+-- Viewport queries: widgets of one dashboard whose bounding box intersects a rectangle.
+-- btree_gist (installed by V2) lets the uuid equality and the box overlap share one GiST index.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_widgets_dashboard_bounds
+    ON widgets USING gist (dashboard_id, box(point(x, y), point(x + width, y + height)));
+
+-- Widgets whose body is in the content store, by blob (search hits, access checks, the blob sweep)
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_widgets_content_ref ON widgets ((data ->> 'contentRef'));
+
+-- Full-text search over the vectors V2 generates
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_widgets_search ON widgets USING gin (search);
+
+-- Dashboards by user (findByUser, the listing, ownership checks) need no index of their own:
+-- idx_dashboards_user_updated (V2) leads with user_id
@@ -0,0 +1,126 @@
+-- Widget history: undo/redo and restoring a dashboard to a point in time.
+--
+-- Every widget write appends one row per widget it changed, holding only what changed: the fields
+-- before and after, and of the widget document the RFC 6902 patch that made the change ("after")
+-- and the one that reverts it ("before"), down to the deepest path that changed: editing one todo's
+-- text logs that text, not the whole todos array twice. A row is about the size of the edit, not
+-- of the widget or dashboard. A creation has no "before" and a deletion no "after"; both carry the
+-- whole widget, with its document as an object.
+-- All rows of one request share the dashboard version it bumped: that is one action. Undo, redo
+-- and restore are logged as actions of their own, so replaying the log forward always reproduces
+-- the dashboard. No foreign key: history is removed together with its dashboard.
+CREATE TABLE widget_operations (
+    dashboard_id   uuid         NOT NULL,
+    version        bigint       NOT NULL,
+    widget_id      uuid         NOT NULL,
+    -- edit, restore, undo or redo
+    action         varchar(8)   NOT NULL,
+    -- Undo and redo rows: the version of the action they reverted or re-applied
+    target_version bigint,
+    -- Edit and restore rows: reverted by an undo and not redone since
+    undone         boolean      NOT NULL DEFAULT false,
+    before         jsonb,
+    after          jsonb,
+    created_at     timestamp(6) NOT NULL,
+    CONSTRAINT widget_operations_pkey PRIMARY KEY (dashboard_id, version, widget_id)
+);
+
+-- Content blobs a history row's fields reference, which an undo, redo or restore can bring back
+-- and the blob sweep keeps: the contentRef of a whole widget's document, or every value a patch
+-- writes at /contentRef
+CREATE FUNCTION widget_operation_content_refs(fields jsonb) RETURNS text[]
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    RETURN CASE jsonb_typeof(fields -> 'data')
+               WHEN 'object' THEN array_remove(ARRAY[fields -> 'data' ->> 'contentRef'], NULL)
+               WHEN 'array' THEN ARRAY(SELECT op ->> 'value'
+                                       FROM jsonb_array_elements(fields -> 'data') op
+                                       WHERE op ->> 'path' = '/contentRef' AND jsonb_typeof(op -> 'value') = 'string')
+               ELSE '{}'::text[]
+           END;
+
+CREATE INDEX idx_widget_operations_content_refs ON widget_operations
+    USING gin ((widget_operation_content_refs(before) || widget_operation_content_refs(after)));
+
+-- A whole dashboard at one version, as {widget id: fields}. Restoring to a time replays the log
+-- from the nearest snapshot, so only a bounded tail is read. A snapshot is taken once the log since
+-- the previous one has outgrown it, which keeps snapshots to at most the size of the log itself;
+-- older snapshots and the log before them are compacted away (dashboard.history.snapshots-kept).
+CREATE TABLE dashboard_snapshots (
+    dashboard_id uuid         NOT NULL,
+    version      bigint       NOT NULL,
+    widgets      jsonb        NOT NULL,
+    -- Blobs the widgets reference, kept by the blob sweep
+    content_refs text[]       NOT NULL DEFAULT '{}',
+    created_at   timestamp(6) NOT NULL,
+    CONSTRAINT dashboard_snapshots_pkey PRIMARY KEY (dashboard_id, version)
+);
+
+CREATE INDEX idx_dashboard_snapshots_content_refs ON dashboard_snapshots USING gin (content_refs);
+
+-- RFC 6901 reference token of an object key
+CREATE FUNCTION jsonb_pointer_token(key text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE
+    RETURN replace(replace(key, '~', '~0'), '/', '~1');
+
+-- The JSON Patch (add, remove and replace only) that turns a into b, at path; patches applied
+-- inside PostgreSQL log one for each direction. Objects are compared member by member and arrays
+-- element by element: an array's common head and tail are kept, the elements between are diffed
+-- pairwise and the surplus removed (last first) or added. Anything else that differs is replaced
+-- whole. WidgetStates.diff builds the same patch in Java.
+CREATE FUNCTION jsonb_diff(a jsonb, b jsonb, path text DEFAULT '') RETURNS jsonb
+    LANGUAGE plpgsql IMMUTABLE PARALLEL SAFE AS
+$$
+DECLARE
+    ops     jsonb := '[]';
+    k       text;
+    a_len   int;
+    b_len   int;
+    head    int := 0;
+    tail    int := 0;
+    paired  int;
+    i       int;
+BEGIN
+    IF a IS NOT DISTINCT FROM b THEN
+        RETURN ops;
+    END IF;
+
+    IF jsonb_typeof(a) = 'object' AND jsonb_typeof(b) = 'object' THEN
+        FOR k IN SELECT jsonb_object_keys(a) EXCEPT SELECT jsonb_object_keys(b) LOOP
+            ops := ops || jsonb_build_object('op', 'remove', 'path', path || '/' || jsonb_pointer_token(k));
+        END LOOP;
+        FOR k IN SELECT jsonb_object_keys(b) LOOP
+            IF a ? k THEN
+                ops := ops || jsonb_diff(a -> k, b -> k, path || '/' || jsonb_pointer_token(k));
+            ELSE
+                ops := ops || jsonb_build_object('op', 'add', 'path', path || '/' || jsonb_pointer_token(k),
+                                                 'value', b -> k);
+            END IF;
+        END LOOP;
+        RETURN ops;
+    END IF;
+
+    IF jsonb_typeof(a) = 'array' AND jsonb_typeof(b) = 'array' THEN
+        a_len := jsonb_array_length(a);
+        b_len := jsonb_array_length(b);
+        WHILE head < a_len AND head < b_len AND a -> head = b -> head LOOP
+            head := head + 1;
+        END LOOP;
+        WHILE tail < a_len - head AND tail < b_len - head AND a -> (a_len - 1 - tail) = b -> (b_len - 1 - tail) LOOP
+            tail := tail + 1;
+        END LOOP;
+        paired := least(a_len, b_len) - head - tail;
+        FOR i IN head .. head + paired - 1 LOOP
+            ops := ops || jsonb_diff(a -> i, b -> i, path || '/' || i);
+        END LOOP;
+        FOR i IN REVERSE a_len - tail - 1 .. head + paired LOOP
+            ops := ops || jsonb_build_object('op', 'remove', 'path', path || '/' || i);
+        END LOOP;
+        FOR i IN head + paired .. b_len - tail - 1 LOOP
+            ops := ops || jsonb_build_object('op', 'add', 'path', path || '/' || i, 'value', b -> i);
+        END LOOP;
+        RETURN ops;
+    END IF;
+
+    RETURN jsonb_build_array(jsonb_build_object('op', 'replace', 'path', path, 'value', b));
+END
+$$;
@@ -0,0 +1,70 @@
+package com.creativestudio.benchmark;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Tag;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.util.Map;
+import java.util.UUID;
+
+// Shared plumbing for the benchmarks: they boot the full app against the database
+// configured in application.properties and only run with `mvn test -Pbenchmark`.
+// Requests over the query budget fail, so an N+1 shows up as a failed benchmark. Every client
+// connects from the loopback address, so the per-address sign-in limit is lifted.
+@Tag("benchmark")
+@SpringBootTest(
+        webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"request.query-budget.fail=true", "auth.rate-limit.address.per-minute=6000000",
+                "auth.rate-limit.address.burst=1000000"})
+abstract class ApiBenchmarkSupport {
+
+    @Autowired
+    protected TestRestTemplate rest;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    protected Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Registers a throwaway user and returns its bearer token
+    @SuppressWarnings("unchecked")
+    protected String registerUser() {
+        String email = "bench-" + UUID.randomUUID() + "@example.com";
+        Map<String, Object> body = rest.postForObject("/api/auth/register",
+                Map.of("name", email, "email", email, "password", "password123"), Map.class);
+        return (String) body.get("token");
+    }
+
+    @SuppressWarnings("unchecked")
+    protected UUID createDashboard(String token, String name) {
+        Map<String, Object> body = exchange(token, HttpMethod.POST, "/api/dashboards",
+                Map.of("name", name), Map.class).getBody();
+        return UUID.fromString((String) body.get("id"));
+    }
+
+    @SuppressWarnings("unchecked")
+    protected UUID createWidget(String token, UUID dashboardId, Map<String, Object> widget) {
+        Map<String, Object> body = exchange(token, HttpMethod.POST,
+                "/api/dashboards/" + dashboardId + "/widgets", widget, Map.class).getBody();
+        return UUID.fromString((String) body.get("id"));
+    }
+
+    protected <T> ResponseEntity<T> exchange(String token, HttpMethod method, String url,
+                                             Object body, Class<T> responseType) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return rest.exchange(url, method, new HttpEntity<>(body, headers), responseType);
+    }
+}
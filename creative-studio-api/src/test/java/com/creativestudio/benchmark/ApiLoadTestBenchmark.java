@@ -0,0 +1,332 @@
+package com.creativestudio.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// End-to-end load test of the api-tests.http flows against a seeded database.
+//
+// Each client repeats a session: login, list dashboards, load one dashboard, then a run of
+// edits - drags (batch layout) and full-document autosaves. Latency is measured client side,
+// SQL statements per request server side at the JDBC level. The report is printed and written
+// to target/loadtest-report.json.
+//
+//   mvn test -Pbenchmark -Dtest=ApiLoadTestBenchmark
+//   -Dloadtest.users=10000 -Dloadtest.dashboards-per-user=20 -Dloadtest.widgets-per-dashboard=30
+//   -Dloadtest.clients=64 -Dloadtest.warmup-seconds=10 -Dloadtest.duration-seconds=60
+//   -Dloadtest.edits-per-session=20 -Dloadtest.drag-ratio=0.6
+//   -Dloadtest.jdbc-url=jdbc:postgresql://... to use an existing server instead of embedded PostgreSQL
+@Import(ApiLoadTestBenchmark.SqlCounting.class)
+// Logging every statement to stdout would dominate the latencies
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class ApiLoadTestBenchmark extends ApiBenchmarkSupport {
+
+    private static final int USERS = Integer.getInteger("loadtest.users", 200);
+    private static final int DASHBOARDS_PER_USER = Integer.getInteger("loadtest.dashboards-per-user", 20);
+    private static final int WIDGETS_PER_DASHBOARD = Integer.getInteger("loadtest.widgets-per-dashboard", 30);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+    private static final int WARMUP_SECONDS = Integer.getInteger("loadtest.warmup-seconds", 10);
+    private static final int DURATION_SECONDS = Integer.getInteger("loadtest.duration-seconds", 60);
+    private static final int EDITS_PER_SESSION = Integer.getInteger("loadtest.edits-per-session", 20);
+    private static final double DRAG_RATIO = Double.parseDouble(System.getProperty("loadtest.drag-ratio", "0.6"));
+
+    private static final String PASSWORD = "password123";
+    private static final String USER_PATTERN = "load-%@example.com";
+
+    private static final String LOGIN = "POST /api/auth/login";
+    private static final String LIST = "GET /api/dashboards/summary";
+    private static final String LOAD = "GET /api/dashboards/{id}";
+    private static final String DRAG = "PUT /api/dashboards/{dashboardId}/widgets/layout";
+    private static final String AUTOSAVE = "PATCH /api/dashboards/{dashboardId}/widgets/{widgetId}/data";
+
+    static final EndpointStats STATS = new EndpointStats();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private HttpClient http;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) {
+        LoadTestDatabase.register(registry);
+    }
+
+    @Test
+    void mixedEditingWorkload() throws Exception {
+        seed();
+        http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        long start = System.nanoTime();
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long end = measureFrom + TimeUnit.SECONDS.toNanos(DURATION_SECONDS);
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        session(end);
+                    }
+                });
+            }
+            TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+            STATS.recording(true);
+            TimeUnit.NANOSECONDS.sleep(end - System.nanoTime());
+            STATS.recording(false);
+        }
+
+        Map<String, Map<String, Object>> endpoints = STATS.report(DURATION_SECONDS);
+        print(endpoints);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", USERS);
+        report.put("dashboardsPerUser", DASHBOARDS_PER_USER);
+        report.put("widgetsPerDashboard", WIDGETS_PER_DASHBOARD);
+        report.put("clients", CLIENTS);
+        report.put("durationSeconds", DURATION_SECONDS);
+        report.put("endpoints", endpoints);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(new File("target/loadtest-report.json"), report);
+
+        assertThat(endpoints).containsKeys(LOGIN, LIST, LOAD, DRAG, AUTOSAVE);
+        endpoints.values().forEach(row -> assertThat((long) row.get("errors")).isZero());
+    }
+
+    // --- workload ---
+
+    @SuppressWarnings("unchecked")
+    private void session(long end) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String email = "load-" + random.nextInt(USERS) + "@example.com";
+
+        Map<String, Object> auth = call(LOGIN, "POST", "/api/auth/login", null, Map.of("email", email, "password", PASSWORD));
+        if (auth == null) {
+            return;
+        }
+        String token = (String) auth.get("token");
+
+        Map<String, Object> page = call(LIST, "GET", "/api/dashboards/summary?limit=20", token, null);
+        if (page == null) {
+            return;
+        }
+        List<Map<String, Object>> dashboards = (List<Map<String, Object>>) page.get("dashboards");
+        String dashboardId = (String) dashboards.get(random.nextInt(dashboards.size())).get("id");
+
+        Map<String, Object> dashboard = call(LOAD, "GET", "/api/dashboards/" + dashboardId, token, null);
+        if (dashboard == null) {
+            return;
+        }
+        List<Map<String, Object>> widgets = (List<Map<String, Object>>) dashboard.get("widgets");
+
+        for (int edit = 0; edit < EDITS_PER_SESSION && System.nanoTime() < end; edit++) {
+            if (random.nextDouble() < DRAG_RATIO) {
+                drag(token, dashboardId, widgets, random);
+            } else {
+                autosave(token, dashboardId, widgets.get(random.nextInt(widgets.size())), edit);
+            }
+        }
+    }
+
+    private void drag(String token, String dashboardId, List<Map<String, Object>> widgets, ThreadLocalRandom random) {
+        List<Map<String, Object>> layout = new ArrayList<>();
+        int count = 1 + random.nextInt(Math.min(3, widgets.size()));
+        for (int i = 0; i < count; i++) {
+            Map<String, Object> widget = widgets.get(random.nextInt(widgets.size()));
+            if (layout.stream().noneMatch(l -> l.get("id").equals(widget.get("id")))) {
+                layout.add(Map.of("id", widget.get("id"), "x", random.nextInt(2000), "y", random.nextInt(2000),
+                        "width", widget.get("width"), "height", widget.get("height"), "zIndex", i));
+            }
+        }
+        call(DRAG, "PUT", "/api/dashboards/" + dashboardId + "/widgets/layout", token, Map.of("widgets", layout));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void autosave(String token, String dashboardId, Map<String, Object> widget, int edit) {
+        Map<String, Object> data = new HashMap<>((Map<String, Object>) widget.get("data"));
+        data.put("editedAt", edit);
+        call(AUTOSAVE, "PATCH", "/api/dashboards/" + dashboardId + "/widgets/" + widget.get("id") + "/data", token, data);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> call(String endpoint, String method, String path, String token, Object body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(30));
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            boolean success = response.statusCode() / 100 == 2;
+            STATS.recordLatency(endpoint, System.nanoTime() - start, success);
+
+            if (!success) {
+                return null;
+            }
+            return response.body().length == 0 ? Map.of() : objectMapper.readValue(response.body(), Map.class);
+        } catch (Exception e) {
+            STATS.recordLatency(endpoint, 0, false);
+            return null;
+        }
+    }
+
+    // --- data ---
+
+    // Users load-0..load-(N-1) with the same password, their dashboards and widgets, generated
+    // inside PostgreSQL. Reused when a previous run left the same scale behind.
+    private void seed() throws Exception {
+        Integer users = jdbcTemplate.queryForObject("SELECT count(*) FROM users WHERE email LIKE ?", Integer.class, USER_PATTERN);
+        Integer widgets = jdbcTemplate.queryForObject("SELECT count(*) FROM widgets w JOIN dashboards d ON d.id = w.dashboard_id"
+                + " JOIN users u ON u.id = d.user_id WHERE u.email LIKE ?", Integer.class, USER_PATTERN);
+        if (users == USERS && widgets == (long) USERS * DASHBOARDS_PER_USER * WIDGETS_PER_DASHBOARD) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        String owned = "SELECT d.id FROM dashboards d JOIN users u ON u.id = d.user_id WHERE u.email LIKE ?";
+        jdbcTemplate.update("DELETE FROM widgets WHERE dashboard_id IN (" + owned + ")", USER_PATTERN);
+        jdbcTemplate.update("DELETE FROM widget_tombstones WHERE dashboard_id IN (" + owned + ")", USER_PATTERN);
+        jdbcTemplate.update("DELETE FROM dashboards WHERE id IN (" + owned + ")", USER_PATTERN);
+        jdbcTemplate.update("DELETE FROM users WHERE email LIKE ?", USER_PATTERN);
+
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, username, password_hash, created_at, updated_at)
+                SELECT gen_random_uuid(), 'load-' || u || '@example.com', 'load-' || u, ?, now(), now()
+                FROM generate_series(0, ? - 1) u
+                """, passwordEncoder.encode(PASSWORD), USERS);
+        jdbcTemplate.update("""
+                INSERT INTO dashboards (id, user_id, name, grid_size, version, created_at, updated_at)
+                SELECT gen_random_uuid(), u.id, 'Dashboard ' || d, 40, 0, now(), now() - d * interval '1 minute'
+                FROM users u CROSS JOIN generate_series(1, ?) d
+                WHERE u.email LIKE ?
+                """, DASHBOARDS_PER_USER, USER_PATTERN);
+        jdbcTemplate.update("""
+                INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,
+                                     revision, version, created_at, updated_at)
+                SELECT gen_random_uuid(), d.id, (ARRAY['todo-list', 'notes-widget', 'content-editor'])[1 + w % 3],
+                       'Widget ' || w, (w % 6) * 420, (w / 6) * 420, 400, 400, w,
+                       CASE w % 3 WHEN 0 THEN CAST(? AS jsonb) WHEN 1 THEN CAST(? AS jsonb) ELSE CAST(? AS jsonb) END,
+                       0, 0, now(), now()
+                FROM dashboards d JOIN users u ON u.id = d.user_id CROSS JOIN generate_series(0, ? - 1) w
+                WHERE u.email LIKE ?
+                """, todoDocument(), notesDocument(), contentDocument(), WIDGETS_PER_DASHBOARD, USER_PATTERN);
+        jdbcTemplate.execute("ANALYZE users");
+        jdbcTemplate.execute("ANALYZE dashboards");
+        jdbcTemplate.execute("ANALYZE widgets");
+
+        System.out.printf("%nSeeded %d users x %d dashboards x %d widgets in %d s%n", USERS, DASHBOARDS_PER_USER,
+                WIDGETS_PER_DASHBOARD, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private String todoDocument() throws Exception {
+        List<Map<String, Object>> todos = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            todos.add(Map.of("id", "todo-" + i, "text", "Follow up on item " + i + " before the weekly review",
+                    "completed", i % 3 == 0, "createdAt", "2026-02-15T10:00:00Z"));
+        }
+        return objectMapper.writeValueAsString(Map.of("todos", todos, "filter", "all"));
+    }
+
+    private String notesDocument() throws Exception {
+        return objectMapper.writeValueAsString(Map.of("content", "Decisions, owners and dates. ".repeat(30), "color", "yellow"));
+    }
+
+    private String contentDocument() throws Exception {
+        return objectMapper.writeValueAsString(Map.of("title", "Draft",
+                "html", "<h2>Section</h2><p>Paragraph with <strong>bold</strong> text.</p>".repeat(40)));
+    }
+
+    // --- report ---
+
+    private void print(Map<String, Map<String, Object>> endpoints) {
+        System.out.printf("%n=== Load test: %d users x %d dashboards x %d widgets, %d clients, %d s ===%n",
+                USERS, DASHBOARDS_PER_USER, WIDGETS_PER_DASHBOARD, CLIENTS, DURATION_SECONDS);
+        System.out.printf("%-62s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "SQL/req");
+        endpoints.forEach((endpoint, row) -> System.out.printf("%-62s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f%n",
+                endpoint, row.get("requests"), row.get("errors"), row.get("throughputPerSecond"),
+                row.get("p50Ms"), row.get("p95Ms"), row.get("p99Ms"), row.get("sqlPerRequest")));
+    }
+
+    // Counts JDBC statements per request, attributed to the matched handler pattern
+    @TestConfiguration
+    static class SqlCounting {
+
+        @Bean
+        static BeanPostProcessor sqlStatementCountingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SqlStatementCounter)
+                            ? new SqlStatementCounter(dataSource)
+                            : bean;
+                }
+            };
+        }
+
+        @Bean
+        FilterRegistrationBean<Filter> sqlPerRequestFilter() {
+            FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>((request, response, chain) -> {
+                SqlStatementCounter.reset();
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    HttpServletRequest servletRequest = (HttpServletRequest) request;
+                    Object pattern = servletRequest.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+                    STATS.recordSql(servletRequest.getMethod() + " "
+                            + (pattern != null ? pattern : servletRequest.getRequestURI()), SqlStatementCounter.current());
+                }
+            });
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+            return registration;
+        }
+    }
+}
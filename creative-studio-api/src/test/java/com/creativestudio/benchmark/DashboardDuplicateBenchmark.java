@@ -0,0 +1,78 @@
+package com.creativestudio.benchmark;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Clones a 500-widget dashboard the way the client used to (read it, POST every widget back)
+// and with POST /api/dashboards/{id}/duplicate, which copies the rows inside PostgreSQL.
+class DashboardDuplicateBenchmark extends ApiBenchmarkSupport {
+
+    private static final int WIDGETS = 500;
+    private static final int ROUNDS = 5;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void cloneFiveHundredWidgets() {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "duplicate-benchmark");
+        for (int i = 0; i < WIDGETS; i++) {
+            createWidget(token, dashboardId, Map.of(
+                    "type", "content-editor", "name", "w" + i,
+                    "x", i * 10, "y", 0, "width", 400, "height", 300,
+                    "data", Map.of("content", "<p>" + "paragraph ".repeat(100) + i + "</p>")));
+        }
+
+        Statistics stats = statistics();
+
+        stats.clear();
+        long start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            Map<String, Object> source = exchange(token, HttpMethod.GET, "/api/dashboards/" + dashboardId, null, Map.class).getBody();
+            UUID copyId = createDashboard(token, "client-copy-" + round);
+            for (Map<String, Object> widget : (List<Map<String, Object>>) source.get("widgets")) {
+                createWidget(token, copyId, Map.of(
+                        "type", widget.get("type"), "name", widget.get("name"),
+                        "x", widget.get("x"), "y", widget.get("y"),
+                        "width", widget.get("width"), "height", widget.get("height"),
+                        "data", widget.get("data")));
+            }
+        }
+        Result client = new Result(ROUNDS * (WIDGETS + 2L), stats, System.nanoTime() - start);
+
+        stats.clear();
+        start = System.nanoTime();
+        for (int round = 0; round < ROUNDS; round++) {
+            Map<String, Object> copy = exchange(token, HttpMethod.POST, "/api/dashboards/" + dashboardId + "/duplicate",
+                    Map.of("name", "server-copy-" + round), Map.class).getBody();
+            assertThat(((Number) copy.get("widgetCount")).intValue()).isEqualTo(WIDGETS);
+        }
+        Result server = new Result(ROUNDS, stats, System.nanoTime() - start);
+
+        System.out.printf("%n=== Clone of a %d-widget dashboard (avg over %d clones) ===%n", WIDGETS, ROUNDS);
+        System.out.printf("%-12s %12s %14s %14s %12s%n", "mode", "round trips", "statements", "entity loads", "ms");
+        client.print("client-side");
+        server.print("duplicate");
+
+        assertThat(server.statements()).isLessThan(client.statements());
+    }
+
+    private record Result(long requests, long statements, long loads, long nanos) {
+
+        Result(long requests, Statistics stats, long nanos) {
+            this(requests, stats.getPrepareStatementCount(), stats.getEntityLoadCount(), nanos);
+        }
+
+        void print(String mode) {
+            System.out.printf("%-12s %12d %14.1f %14.1f %12.2f%n", mode,
+                    requests / ROUNDS, (double) statements / ROUNDS, (double) loads / ROUNDS,
+                    nanos / 1_000_000.0 / ROUNDS);
+        }
+    }
+}
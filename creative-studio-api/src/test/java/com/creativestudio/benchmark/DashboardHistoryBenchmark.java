@@ -0,0 +1,182 @@
+package com.creativestudio.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Widget history on a dashboard of 1 000 widgets (-Dhistory.widgets=N) after 500 random edits
+// (-Dhistory.edits=N): moves, merge patches, full data saves, creations and deletions.
+// Reports the stored size of a logged edit next to a full copy of the dashboard, how long undo, redo
+// and restore take, and checks that a restore brings back exactly the widgets read at that time and
+// that undoing it brings back the present. Reading 1 000 widgets is over the default entity-load
+// budget, so it is raised here.
+@TestPropertySource(properties = "request.query-budget.max-entity-loads=100000")
+class DashboardHistoryBenchmark extends ApiBenchmarkSupport {
+
+    private static final int WIDGETS = Integer.getInteger("history.widgets", 1000);
+    private static final int EDITS = Integer.getInteger("history.edits", 500);
+    private static final int UNDOS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Random random = new Random(42);
+
+    @Test
+    void undoRedoRestore() throws Exception {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "history-benchmark");
+        String url = "/api/dashboards/" + dashboardId;
+        jdbcTemplate.update("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,"
+                + " revision, version, created_at, updated_at)"
+                + " SELECT gen_random_uuid(), ?, 'notes-widget', 'w' || g, (g % 20) * 100, (g / 20) * 100, 90, 90, g,"
+                + " jsonb_build_object('text', repeat('note ' || g || ' ', 20), 'color', 'yellow', 'pinned', false),"
+                + " 0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP FROM generate_series(1, ?) g", dashboardId, WIDGETS);
+        List<UUID> ids = new ArrayList<>(jdbcTemplate.queryForList(
+                "SELECT id FROM widgets WHERE dashboard_id = ?", UUID.class, dashboardId));
+
+        // The history starts with the first logged edit
+        edit(token, dashboardId, ids);
+        LocalDateTime checkpointAt = null;
+        Map<String, Map<String, Object>> checkpoint = null;
+        for (int i = 0; i < EDITS; i++) {
+            if (i == EDITS / 2) {
+                checkpointAt = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+                checkpoint = widgets(token, url);
+            }
+            edit(token, dashboardId, ids);
+        }
+        Map<String, Map<String, Object>> present = widgets(token, url);
+
+        long start = System.nanoTime();
+        post(token, url + "/restore?at=" + checkpointAt);
+        double restoreMs = (System.nanoTime() - start) / 1_000_000.0;
+        assertThat(widgets(token, url)).isEqualTo(checkpoint);
+
+        start = System.nanoTime();
+        post(token, url + "/undo");
+        double undoRestoreMs = (System.nanoTime() - start) / 1_000_000.0;
+        assertThat(widgets(token, url)).isEqualTo(present);
+
+        double undoMs = 0;
+        for (int i = 0; i < UNDOS; i++) {
+            start = System.nanoTime();
+            post(token, url + "/undo");
+            undoMs += (System.nanoTime() - start) / 1_000_000.0;
+        }
+        double redoMs = 0;
+        for (int i = 0; i < UNDOS; i++) {
+            start = System.nanoTime();
+            post(token, url + "/redo");
+            redoMs += (System.nanoTime() - start) / 1_000_000.0;
+        }
+        assertThat(widgets(token, url)).isEqualTo(present);
+
+        Map<String, Object> sizes = jdbcTemplate.queryForMap("""
+                SELECT (SELECT avg(bytes) FROM (SELECT sum(coalesce(pg_column_size(before), 0)
+                                                           + coalesce(pg_column_size(after), 0)) AS bytes
+                                                FROM widget_operations
+                                                WHERE dashboard_id = ? AND action = 'edit' GROUP BY version) e)::bigint AS edit,
+                       (SELECT pg_column_size(jsonb_agg(to_jsonb(w))) FROM widgets w WHERE dashboard_id = ?) AS copy,
+                       (SELECT coalesce(sum(coalesce(pg_column_size(before), 0) + coalesce(pg_column_size(after), 0)), 0)
+                        FROM widget_operations WHERE dashboard_id = ?) AS log,
+                       (SELECT count(*) FROM dashboard_snapshots WHERE dashboard_id = ?) AS snapshots,
+                       (SELECT coalesce(sum(pg_column_size(widgets)), 0) FROM dashboard_snapshots WHERE dashboard_id = ?) AS snapshot_bytes
+                """, dashboardId, dashboardId, dashboardId, dashboardId, dashboardId);
+
+        System.out.printf("%n=== Widget history, %d widgets after %d edits ===%n", WIDGETS, EDITS + 1);
+        System.out.printf("%-34s %12s%n", "stored bytes per edit", sizes.get("edit"));
+        System.out.printf("%-34s %12s%n", "full dashboard copy bytes", sizes.get("copy"));
+        System.out.printf("%-34s %12s%n", "log bytes (after compaction)", sizes.get("log"));
+        System.out.printf("%-34s %12s%n", "snapshots kept", sizes.get("snapshots"));
+        System.out.printf("%-34s %12s%n", "snapshot bytes", sizes.get("snapshot_bytes"));
+        System.out.printf("%-34s %12.2f%n", "restore to mid-session ms", restoreMs);
+        System.out.printf("%-34s %12.2f%n", "undo of that restore ms", undoRestoreMs);
+        System.out.printf("%-34s %12.2f%n", "undo ms (avg of " + UNDOS + ")", undoMs / UNDOS);
+        System.out.printf("%-34s %12.2f%n", "redo ms (avg of " + UNDOS + ")", redoMs / UNDOS);
+    }
+
+    private void edit(String token, UUID dashboardId, List<UUID> ids) throws Exception {
+        String url = "/api/dashboards/" + dashboardId;
+        UUID widgetId = ids.get(random.nextInt(ids.size()));
+        switch (random.nextInt(10)) {
+            case 0, 1, 2 -> {
+                List<Map<String, Object>> moved = new ArrayList<>();
+                for (int i = 0; i <= random.nextInt(5); i++) {
+                    moved.add(Map.of("id", ids.get(random.nextInt(ids.size())), "x", random.nextInt(2000),
+                            "y", random.nextInt(5000), "width", 90 + random.nextInt(200), "height", 90,
+                            "zIndex", random.nextInt(WIDGETS)));
+                }
+                assertThat(exchange(token, HttpMethod.PUT, url + "/widgets/layout", Map.of("widgets", moved),
+                        Void.class).getStatusCode().is2xxSuccessful()).isTrue();
+            }
+            case 3, 4, 5 -> patch(token, url + "/widgets/" + widgetId + "/data",
+                    MediaType.valueOf("application/merge-patch+json"),
+                    Map.of("text", "edited " + random.nextInt(), "pinned", random.nextBoolean()));
+            case 6, 7 -> {
+                Map<String, Object> data = new HashMap<>();
+                data.put("text", "rewritten " + random.nextInt());
+                data.put("color", "blue");
+                patch(token, url + "/widgets/" + widgetId + "/data", MediaType.APPLICATION_JSON, data);
+            }
+            case 8 -> ids.add(createWidget(token, dashboardId,
+                    Map.of("type", "notes-widget", "name", "new", "x", random.nextInt(2000), "y", random.nextInt(5000),
+                            "width", 120, "height", 120, "data", Map.of("text", "new note"))));
+            default -> {
+                ids.remove(widgetId);
+                assertThat(exchange(token, HttpMethod.DELETE, url + "/widgets/" + widgetId, null, Void.class)
+                        .getStatusCode().is2xxSuccessful()).isTrue();
+            }
+        }
+    }
+
+    private void patch(String token, String url, MediaType contentType, Object body) throws Exception {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        headers.setContentType(contentType);
+        ResponseEntity<byte[]> response = rest.exchange(url, HttpMethod.PATCH,
+                new HttpEntity<>(objectMapper.writeValueAsBytes(body), headers), byte[].class);
+        assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+    }
+
+    private void post(String token, String url) {
+        ResponseEntity<Map> response = exchange(token, HttpMethod.POST, url, null, Map.class);
+        assertThat(response.getStatusCode().value()).isEqualTo(200);
+    }
+
+    // The widgets by id, without what every write stamps (revision, updatedAt)
+    @SuppressWarnings("unchecked")
+    private Map<String, Map<String, Object>> widgets(String token, String url) {
+        List<Map<String, Object>> widgets = exchange(token, HttpMethod.GET, url + "/widgets", null, List.class)
+                .getBody();
+        Map<String, Map<String, Object>> byId = new LinkedHashMap<>();
+        for (Map<String, Object> widget : widgets) {
+            Map<String, Object> fields = new LinkedHashMap<>(widget);
+            fields.remove("revision");
+            fields.remove("updatedAt");
+            byId.put((String) widget.get("id"), fields);
+        }
+        return byId;
+    }
+}
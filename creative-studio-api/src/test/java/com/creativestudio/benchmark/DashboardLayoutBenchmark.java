@@ -0,0 +1,80 @@
+package com.creativestudio.benchmark;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Snap-to-grid and auto-arrange of a whole dashboard of scattered, overlapping widgets
+// (default 1k and 10k widgets, -Dlayout.widgets=...), each one request. Arranging must leave no
+// overlaps and writes one UPDATE however many widgets move (the statement column counts the JPA
+// reads; the UPDATE goes through JdbcTemplate). The projection read of 10k boxes is over the
+// default entity-load budget, so it is raised here.
+@TestPropertySource(properties = "request.query-budget.max-entity-loads=100000")
+class DashboardLayoutBenchmark extends ApiBenchmarkSupport {
+
+    private static final int[] WIDGETS = Arrays.stream(System.getProperty("layout.widgets", "1000,10000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int CANVAS_WIDTH = 1920;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void arrangeDashboard() {
+        List<String> rows = new ArrayList<>();
+        for (int widgets : WIDGETS) {
+            String token = registerUser();
+            UUID dashboardId = createDashboard(token, "layout-benchmark");
+            jdbcTemplate.update("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,"
+                    + " revision, version, created_at, updated_at)"
+                    + " SELECT gen_random_uuid(), ?, 'notes-widget', 'w' || g, (random() * ?)::int, (random() * ?)::int,"
+                    + " 100 + (random() * 380)::int, 80 + (random() * 300)::int, g, '{}'::jsonb, 0, 0,"
+                    + " LOCALTIMESTAMP, LOCALTIMESTAMP FROM generate_series(1, ?) g",
+                    dashboardId, CANVAS_WIDTH, widgets * 30, widgets);
+            String url = "/api/dashboards/" + dashboardId + "/widgets/layout";
+
+            long start = System.nanoTime();
+            ResponseEntity<Map> before = exchange(token, HttpMethod.GET, url + "/overlaps", null, Map.class);
+            double overlapsMs = (System.nanoTime() - start) / 1_000_000.0;
+            assertThat(before.getStatusCode().value()).isEqualTo(200);
+            int overlapsBefore = ((List<Object>) before.getBody().get("overlaps")).size();
+
+            start = System.nanoTime();
+            ResponseEntity<Map> snapped = exchange(token, HttpMethod.POST, url + "/snap", null, Map.class);
+            double snapMs = (System.nanoTime() - start) / 1_000_000.0;
+            assertThat(snapped.getStatusCode().value()).isEqualTo(200);
+
+            Statistics stats = statistics();
+            stats.clear();
+            start = System.nanoTime();
+            ResponseEntity<Map> arranged = exchange(token, HttpMethod.POST, url + "/arrange?width=" + CANVAS_WIDTH, null, Map.class);
+            double arrangeMs = (System.nanoTime() - start) / 1_000_000.0;
+            long statements = stats.getPrepareStatementCount();
+            assertThat(arranged.getStatusCode().value()).isEqualTo(200);
+            assertThat((List<Object>) arranged.getBody().get("overlaps")).isEmpty();
+            assertThat((List<Object>) exchange(token, HttpMethod.GET, url + "/overlaps", null, Map.class)
+                    .getBody().get("overlaps")).isEmpty();
+
+            rows.add(String.format("%9d %16d %12.2f %10.2f %12.2f %18d", widgets, overlapsBefore, overlapsMs, snapMs,
+                    arrangeMs, statements));
+        }
+
+        System.out.printf("%n=== Server-side layout, one request each (%dpx canvas) ===%n", CANVAS_WIDTH);
+        System.out.printf("%9s %16s %12s %10s %12s %18s%n", "widgets", "overlaps before", "overlaps ms", "snap ms",
+                "arrange ms", "arrange statements");
+        rows.forEach(System.out::println);
+    }
+}
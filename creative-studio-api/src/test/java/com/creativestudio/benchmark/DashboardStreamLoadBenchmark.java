@@ -0,0 +1,148 @@
+package com.creativestudio.benchmark;
+
+import com.creativestudio.service.DashboardStreamService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpMethod;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Holds N concurrent SSE subscribers on one dashboard (default 10k, -Dstream.subscribers=...),
+// then drags a widget through 20 positions and measures fan-out. Client and server share this
+// JVM, so the memory figure is an upper bound for the server side. Needs a file-descriptor
+// limit above 2 x N (ulimit -n).
+class DashboardStreamLoadBenchmark extends ApiBenchmarkSupport {
+
+    private static final int SUBSCRIBERS = Integer.getInteger("stream.subscribers", 10_000);
+    private static final int DRAG_STEPS = 20;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private DashboardStreamService streamService;
+
+    @Test
+    void tenThousandIdleSubscribers() throws Exception {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "stream-benchmark");
+        UUID widgetId = createWidget(token, dashboardId, Map.of("type", "notes-widget", "name", "dragged",
+                "x", 0, "y", 0, "width", 400, "height", 400, "data", Map.of()));
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        int threadsBefore = Thread.activeCount();
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest subscribe = HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + port + "/api/dashboards/" + dashboardId + "/stream"))
+                .header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofMinutes(10))
+                .build();
+
+        CountDownLatch firstChange = new CountDownLatch(SUBSCRIBERS);
+        AtomicInteger changeMessages = new AtomicInteger();
+        long subscribeStart = System.nanoTime();
+        List<CountingSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            CountingSubscriber subscriber = new CountingSubscriber(firstChange, changeMessages);
+            subscribers.add(subscriber);
+            client.sendAsync(subscribe, HttpResponse.BodyHandlers.fromLineSubscriber(subscriber));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(2);
+        while (streamService.subscriberCount() < SUBSCRIBERS) {
+            assertThat(System.nanoTime()).as("all subscribers connected").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+        long subscribeMillis = (System.nanoTime() - subscribeStart) / 1_000_000;
+
+        System.gc();
+        long heapAfter = memory.getHeapMemoryUsage().getUsed();
+        int threadsAfter = Thread.activeCount();
+
+        String layoutUrl = "/api/dashboards/" + dashboardId + "/widgets/layout";
+        long dragStart = System.nanoTime();
+        for (int step = 1; step <= DRAG_STEPS; step++) {
+            exchange(token, HttpMethod.PUT, layoutUrl, Map.of("widgets", List.of(Map.of(
+                    "id", widgetId, "x", step * 10, "y", step * 10, "width", 400, "height", 400, "zIndex", 1))),
+                    Void.class);
+        }
+        boolean delivered = firstChange.await(60, TimeUnit.SECONDS);
+        long fanOutMillis = (System.nanoTime() - dragStart) / 1_000_000;
+        Thread.sleep(500);
+
+        System.out.printf("%n=== SSE change stream, %d subscribers ===%n", SUBSCRIBERS);
+        System.out.printf("subscribe all:                 %d ms%n", subscribeMillis);
+        System.out.printf("heap per subscriber (c + s):   %d bytes%n", (heapAfter - heapBefore) / SUBSCRIBERS);
+        System.out.printf("extra JVM threads:             %d%n", threadsAfter - threadsBefore);
+        System.out.printf("drag of %d steps -> all got it: %d ms%n", DRAG_STEPS, fanOutMillis);
+        System.out.printf("messages per subscriber:       %.2f (coalesced from %d changes)%n",
+                (double) changeMessages.get() / SUBSCRIBERS, DRAG_STEPS);
+
+        assertThat(delivered).isTrue();
+        assertThat(changeMessages.get()).isLessThan(SUBSCRIBERS * DRAG_STEPS);
+        subscribers.forEach(CountingSubscriber::cancel);
+    }
+
+    private static final class CountingSubscriber implements Flow.Subscriber<String> {
+
+        private final CountDownLatch firstChange;
+        private final AtomicInteger changeMessages;
+        private Flow.Subscription subscription;
+        private boolean seenChange;
+
+        CountingSubscriber(CountDownLatch firstChange, AtomicInteger changeMessages) {
+            this.firstChange = firstChange;
+            this.changeMessages = changeMessages;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (line.equals("event:changes")) {
+                changeMessages.incrementAndGet();
+                if (!seenChange) {
+                    seenChange = true;
+                    firstChange.countDown();
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+        }
+
+        void cancel() {
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+    }
+}
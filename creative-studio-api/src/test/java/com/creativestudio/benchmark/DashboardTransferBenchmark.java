@@ -0,0 +1,139 @@
+package com.creativestudio.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Exports and re-imports one user's dashboards as NDJSON at several sizes (default 10k and 1M
+// widgets, -Dtransfer.widgets=...), 100 widgets per dashboard. A sampler forces a GC every
+// 500 ms and keeps the largest heap still in use afterwards, so the retained heap of a
+// streaming transfer should stay flat as the number of widgets grows. An import sends one JDBC
+// batch per 500 lines, so its statement count grows with the file and is exempt from the budget.
+@TestPropertySource(properties = "request.query-budget.max-statements=1000000")
+class DashboardTransferBenchmark extends ApiBenchmarkSupport {
+
+    private static final int[] WIDGETS = Arrays.stream(System.getProperty("transfer.widgets", "10000,1000000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int WIDGETS_PER_DASHBOARD = 100;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void exportAndImport() throws Exception {
+        HttpClient http = HttpClient.newHttpClient();
+        List<String> rows = new ArrayList<>();
+        long baseline = retainedHeap();
+        for (int widgets : WIDGETS) {
+            String token = registerUser();
+            UUID userId = seed(token, widgets);
+            Path file = Files.createTempFile("dashboards", ".ndjson");
+            try {
+                HttpRequest export = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/dashboards/export"))
+                        .header("Authorization", "Bearer " + token)
+                        .build();
+                Sample exported = measure(() -> assertThat(http.send(export, HttpResponse.BodyHandlers.ofFile(file))
+                        .statusCode()).isEqualTo(200));
+
+                HttpRequest importRequest = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/dashboards/import"))
+                        .header("Authorization", "Bearer " + token)
+                        .header("Content-Type", "application/x-ndjson")
+                        .POST(HttpRequest.BodyPublishers.ofFile(file))
+                        .build();
+                Sample imported = measure(() -> {
+                    HttpResponse<String> response = http.send(importRequest, HttpResponse.BodyHandlers.ofString());
+                    assertThat(response.statusCode()).isEqualTo(200);
+                    assertThat(response.body()).contains("\"widgets\":" + widgets);
+                });
+
+                rows.add(String.format("%9d %9d %10.1f %12d %10.1f %12d", widgets, Files.size(file) >> 20,
+                        exported.seconds(), exported.retainedHeap() >> 20,
+                        imported.seconds(), imported.retainedHeap() >> 20));
+            } finally {
+                Files.deleteIfExists(file);
+                jdbcTemplate.update("DELETE FROM widgets WHERE dashboard_id IN (SELECT id FROM dashboards WHERE user_id = ?)", userId);
+                jdbcTemplate.update("DELETE FROM dashboards WHERE user_id = ?", userId);
+            }
+        }
+
+        System.out.printf("%n=== NDJSON export/import, retained heap after GC (baseline %d MB) ===%n", baseline >> 20);
+        System.out.printf("%9s %9s %10s %12s %10s %12s%n", "widgets", "file MB",
+                "export s", "export MB", "import s", "import MB");
+        rows.forEach(System.out::println);
+    }
+
+    // One dashboard through the API, the rest and all widgets with INSERT ... SELECT
+    private UUID seed(String token, int widgets) {
+        UUID first = createDashboard(token, "transfer-0");
+        UUID userId = jdbcTemplate.queryForObject("SELECT user_id FROM dashboards WHERE id = ?", UUID.class, first);
+        int dashboards = Math.max(1, widgets / WIDGETS_PER_DASHBOARD);
+        jdbcTemplate.update("INSERT INTO dashboards (id, user_id, name, grid_size, version, created_at, updated_at)"
+                + " SELECT gen_random_uuid(), ?, 'transfer-' || g, 40, 0, LOCALTIMESTAMP, LOCALTIMESTAMP"
+                + " FROM generate_series(1, ?) g", userId, dashboards - 1);
+        jdbcTemplate.update("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,"
+                + " revision, version, created_at, updated_at)"
+                + " SELECT gen_random_uuid(), d.id, 'notes-widget', 'w' || g, g * 10, 0, 200, 100, g,"
+                + " jsonb_build_object('text', repeat('note ', 40)), 0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP"
+                + " FROM dashboards d CROSS JOIN generate_series(1, ?) g WHERE d.user_id = ?",
+                WIDGETS_PER_DASHBOARD, userId);
+        return userId;
+    }
+
+    private Sample measure(Transfer transfer) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong peak = new AtomicLong();
+        Thread sampler = Thread.ofPlatform().daemon().start(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(retainedHeap(), Math::max);
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        long start = System.nanoTime();
+        try {
+            transfer.run();
+        } finally {
+            running.set(false);
+            sampler.join();
+        }
+        return new Sample((System.nanoTime() - start) / 1e9, peak.get());
+    }
+
+    private static long retainedHeap() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private interface Transfer {
+        void run() throws Exception;
+    }
+
+    private record Sample(double seconds, long retainedHeap) {
+    }
+}
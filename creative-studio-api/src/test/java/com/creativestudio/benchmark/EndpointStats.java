@@ -0,0 +1,75 @@
+package com.creativestudio.benchmark;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Per-endpoint latency histogram (client side) and SQL statement count (server side),
+// keyed by "METHOD /path/{pattern}" so both sides agree on the label
+final class EndpointStats {
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private volatile boolean recording;
+
+    void recording(boolean recording) {
+        this.recording = recording;
+    }
+
+    void recordLatency(String endpoint, long nanos, boolean success) {
+        if (recording) {
+            Endpoint e = endpoint(endpoint);
+            e.latency.recordValue(Math.max(1, TimeUnit.NANOSECONDS.toMicros(nanos)));
+            if (!success) {
+                e.errors.increment();
+            }
+        }
+    }
+
+    void recordSql(String endpoint, int statements) {
+        if (recording) {
+            Endpoint e = endpoint(endpoint);
+            e.serverRequests.increment();
+            e.statements.add(statements);
+        }
+    }
+
+    private Endpoint endpoint(String name) {
+        return endpoints.computeIfAbsent(name, n -> new Endpoint());
+    }
+
+    // One row per endpoint, ready to print or serialize
+    Map<String, Map<String, Object>> report(double seconds) {
+        Map<String, Map<String, Object>> report = new LinkedHashMap<>();
+        endpoints.entrySet().stream()
+                .filter(entry -> entry.getValue().latency.getTotalCount() > 0)
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> {
+                    Endpoint e = entry.getValue();
+                    Histogram h = e.latency;
+                    long server = e.serverRequests.sum();
+                    Map<String, Object> row = new LinkedHashMap<>();
+                    row.put("requests", h.getTotalCount());
+                    row.put("errors", e.errors.sum());
+                    row.put("throughputPerSecond", h.getTotalCount() / seconds);
+                    row.put("p50Ms", h.getValueAtPercentile(50) / 1000.0);
+                    row.put("p95Ms", h.getValueAtPercentile(95) / 1000.0);
+                    row.put("p99Ms", h.getValueAtPercentile(99) / 1000.0);
+                    row.put("maxMs", h.getMaxValue() / 1000.0);
+                    row.put("sqlPerRequest", server == 0 ? 0.0 : (double) e.statements.sum() / server);
+                    report.put(entry.getKey(), row);
+                });
+        return report;
+    }
+
+    private static final class Endpoint {
+        private final Histogram latency = new ConcurrentHistogram(3);
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder serverRequests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+    }
+}
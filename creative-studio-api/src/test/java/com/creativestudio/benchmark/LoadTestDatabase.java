@@ -0,0 +1,45 @@
+package com.creativestudio.benchmark;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Database of the load test: a throwaway embedded PostgreSQL started once per JVM, or an
+// existing server when -Dloadtest.jdbc-url is set (with -Dloadtest.username/-Dloadtest.password).
+final class LoadTestDatabase {
+
+    private static EmbeddedPostgres embedded;
+
+    private LoadTestDatabase() {
+    }
+
+    static synchronized void register(DynamicPropertyRegistry registry) {
+        String url = System.getProperty("loadtest.jdbc-url");
+        if (url != null) {
+            registry.add("spring.datasource.url", () -> url);
+            registry.add("spring.datasource.username", () -> System.getProperty("loadtest.username", "studio_admin"));
+            registry.add("spring.datasource.password", () -> System.getProperty("loadtest.password", "studio123"));
+            return;
+        }
+
+        if (embedded == null) {
+            try {
+                embedded = EmbeddedPostgres.builder().start();
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not start embedded PostgreSQL", e);
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    embedded.close();
+                } catch (IOException ignored) {
+                }
+            }));
+        }
+        String embeddedUrl = embedded.getJdbcUrl("postgres", "postgres");
+        registry.add("spring.datasource.url", () -> embeddedUrl);
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+}
@@ -0,0 +1,185 @@
+package com.creativestudio.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Dashboard and widget latency while a login storm runs. A few editors load and autosave widgets
+// first on their own, then with `loginstorm.clients` clients signing in as fast as they can
+// (pausing 50 ms after a 429). BCrypt runs on the hashing bulkhead, so editing latency should
+// barely move while surplus sign-ins are refused at once.
+//
+//   mvn test -Pbenchmark -Dtest=LoginStormBenchmark -Dloginstorm.clients=64 -Dloginstorm.seconds=20
+//
+// For the unbounded behaviour (hashing on request threads), run it again with
+//   -Dauth.password-hashing.threads=200 -Dauth.password-hashing.queue-capacity=100000
+@TestPropertySource(properties = "spring.jpa.show-sql=false")
+class LoginStormBenchmark extends ApiBenchmarkSupport {
+
+    private static final int EDITORS = Integer.getInteger("loginstorm.editors", 4);
+    private static final int STORM_CLIENTS = Integer.getInteger("loginstorm.clients", 64);
+    private static final int STORM_ACCOUNTS = Integer.getInteger("loginstorm.accounts", 1000);
+    private static final int SECONDS = Integer.getInteger("loginstorm.seconds", 20);
+    private static final int WIDGETS = 30;
+    private static final String PASSWORD = "password123";
+
+    private static final String LOAD = "GET /api/dashboards/{dashboardId}/widgets";
+    private static final String AUTOSAVE = "PATCH /api/dashboards/{dashboardId}/widgets/{widgetId}/data";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+    @Test
+    void editingLatencyDuringLoginStorm() throws Exception {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "login-storm");
+        List<UUID> widgets = new ArrayList<>();
+        for (int i = 0; i < WIDGETS; i++) {
+            widgets.add(createWidget(token, dashboardId, Map.of("type", "notes-widget", "name", "n" + i,
+                    "x", i * 10, "y", 0, "width", 200, "height", 200, "data", Map.of("text", "note " + i))));
+        }
+        String storm = "storm-" + UUID.randomUUID() + "-";
+        jdbcTemplate.update("""
+                INSERT INTO users (id, email, username, password_hash, created_at, updated_at)
+                SELECT gen_random_uuid(), ? || u || '@example.com', ? || u, ?, now(), now()
+                FROM generate_series(0, ? - 1) u
+                """, storm, storm, passwordEncoder.encode(PASSWORD), STORM_ACCOUNTS);
+
+        EndpointStats quiet = run(token, dashboardId, widgets, null);
+        LoginCounts logins = new LoginCounts();
+        EndpointStats loaded = run(token, dashboardId, widgets, () -> login(storm, logins));
+
+        Map<String, Map<String, Object>> before = quiet.report(SECONDS);
+        Map<String, Map<String, Object>> during = loaded.report(SECONDS);
+        System.out.printf("%n=== Editing latency, %d editors, %d s per phase ===%n", EDITORS, SECONDS);
+        System.out.printf("%-16s %-62s %9s %7s %9s %9s %9s%n", "phase", "endpoint", "requests", "errors",
+                "p50 ms", "p95 ms", "p99 ms");
+        print("quiet", before);
+        print(STORM_CLIENTS + "-client storm", during);
+        System.out.printf("%nLogins during the storm: %d ok (%.1f/s), %d refused with 429, %d other%n",
+                logins.ok.sum(), logins.ok.sum() / (double) SECONDS, logins.throttled.sum(), logins.other.sum());
+
+        during.values().forEach(row -> assertThat((long) row.get("errors")).isZero());
+        assertThat(logins.ok.sum()).isPositive();
+    }
+
+    private EndpointStats run(String token, UUID dashboardId, List<UUID> widgets, Runnable login)
+            throws InterruptedException {
+        EndpointStats stats = new EndpointStats();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < EDITORS; i++) {
+                clients.submit(() -> {
+                    int edit = 0;
+                    while (System.nanoTime() < end) {
+                        UUID widgetId = widgets.get(ThreadLocalRandom.current().nextInt(widgets.size()));
+                        String base = "/api/dashboards/" + dashboardId + "/widgets";
+                        call(stats, LOAD, "GET", base, token, null);
+                        call(stats, AUTOSAVE, "PATCH", base + "/" + widgetId + "/data", token,
+                                Map.of("text", "edit " + edit++));
+                    }
+                });
+            }
+            for (int i = 0; login != null && i < STORM_CLIENTS; i++) {
+                clients.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        login.run();
+                    }
+                });
+            }
+            stats.recording(true);
+            TimeUnit.NANOSECONDS.sleep(end - System.nanoTime());
+            stats.recording(false);
+        }
+        return stats;
+    }
+
+    private void login(String storm, LoginCounts counts) {
+        String email = storm + ThreadLocalRandom.current().nextInt(STORM_ACCOUNTS) + "@example.com";
+        int status = send("POST", "/api/auth/login", null, Map.of("email", email, "password", PASSWORD)).statusCode();
+        if (status == 200) {
+            counts.ok.increment();
+        } else if (status == 429) {
+            counts.throttled.increment();
+            try {
+                TimeUnit.MILLISECONDS.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        } else {
+            counts.other.increment();
+        }
+    }
+
+    private void call(EndpointStats stats, String endpoint, String method, String path, String token, Object body) {
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response = send(method, path, token, body);
+        stats.recordLatency(endpoint, System.nanoTime() - start, response.statusCode() / 100 == 2);
+    }
+
+    private HttpResponse<byte[]> send(String method, String path, String token, Object body) {
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                    .timeout(Duration.ofSeconds(60));
+            if (token != null) {
+                request.header("Authorization", "Bearer " + token);
+            }
+            if (body != null) {
+                request.header("Content-Type", "application/json")
+                        .method(method, HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)));
+            } else {
+                request.method(method, HttpRequest.BodyPublishers.noBody());
+            }
+            return http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void print(String phase, Map<String, Map<String, Object>> endpoints) {
+        endpoints.forEach((endpoint, row) -> System.out.printf("%-16s %-62s %9d %7d %9.2f %9.2f %9.2f%n",
+                phase, endpoint, row.get("requests"), row.get("errors"), row.get("p50Ms"), row.get("p95Ms"),
+                row.get("p99Ms")));
+    }
+
+    private static final class LoginCounts {
+        private final LongAdder ok = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder other = new LongAdder();
+    }
+}
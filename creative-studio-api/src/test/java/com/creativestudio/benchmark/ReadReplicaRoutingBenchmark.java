@@ -0,0 +1,100 @@
+package com.creativestudio.benchmark;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Read/write routing with one PostgreSQL and two pools: the replica pool points at the same database,
+// so every routing decision shows up as a connection taken from the "primary" or "replica" pool.
+// Counts connections per pool for dashboard and widget loads right after the user's own write
+// (read-your-writes: primary), once the window has passed (replica), and for the writes themselves.
+@TestPropertySource(properties = {
+        "spring.datasource.replica.jdbc-url=${spring.datasource.url}",
+        "datasource.read-your-writes.window-ms=" + ReadReplicaRoutingBenchmark.WINDOW_MS})
+class ReadReplicaRoutingBenchmark extends ApiBenchmarkSupport {
+
+    static final long WINDOW_MS = 1000;
+    private static final int WIDGETS = 20;
+    private static final int READS = Integer.getInteger("replica.reads", 200);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void readsGoToTheReplica() throws Exception {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "replica-benchmark");
+        String url = "/api/dashboards/" + dashboardId;
+        UUID widgetId = null;
+        for (int i = 0; i < WIDGETS; i++) {
+            widgetId = createWidget(token, dashboardId, Map.of("type", "notes-widget", "name", "w" + i,
+                    "x", i * 100, "y", 0, "width", 90, "height", 90, "data", Map.of("text", "note " + i)));
+        }
+        Thread.sleep(WINDOW_MS + 200);
+
+        Map<String, long[]> phases = new LinkedHashMap<>();
+        long[] before = acquisitions();
+        read(token, url, READS);
+        phases.put("reads", delta(before));
+
+        before = acquisitions();
+        exchange(token, HttpMethod.PUT, url + "/widgets/" + widgetId, Map.of("type", "notes-widget", "name", "edited",
+                "x", 0, "y", 0, "width", 90, "height", 90, "data", Map.of("text", "edited")), Map.class);
+        phases.put("write", delta(before));
+
+        before = acquisitions();
+        List<Map<String, Object>> widgets = read(token, url, 1);
+        phases.put("read after own write", delta(before));
+        assertThat(widgets).anySatisfy(widget -> assertThat(widget.get("name")).isEqualTo("edited"));
+
+        Thread.sleep(WINDOW_MS + 200);
+        before = acquisitions();
+        read(token, url, 1);
+        phases.put("read after the window", delta(before));
+
+        System.out.printf("%n=== Read/write routing, %d widgets, read-your-writes window %d ms ===%n", WIDGETS, WINDOW_MS);
+        System.out.printf("%-24s %10s %10s%n", "phase", "primary", "replica");
+        phases.forEach((phase, counts) -> System.out.printf("%-24s %10d %10d%n", phase, counts[0], counts[1]));
+
+        assertThat(phases.get("reads")[0]).isZero();
+        assertThat(phases.get("reads")[1]).isGreaterThanOrEqualTo(READS);
+        assertThat(phases.get("write")[1]).isZero();
+        assertThat(phases.get("read after own write")[1]).isZero();
+        assertThat(phases.get("read after the window")[0]).isZero();
+    }
+
+    // GET dashboard and GET widgets, count times; returns the last widget list
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> read(String token, String url, int count) {
+        List<Map<String, Object>> widgets = null;
+        for (int i = 0; i < count; i++) {
+            assertThat(exchange(token, HttpMethod.GET, url, null, Map.class).getStatusCode().value()).isEqualTo(200);
+            widgets = exchange(token, HttpMethod.GET, url + "/widgets", null, List.class).getBody();
+        }
+        return widgets;
+    }
+
+    private long[] acquisitions() {
+        return new long[]{acquisitions("primary"), acquisitions("replica")};
+    }
+
+    private long acquisitions(String pool) {
+        Timer timer = meterRegistry.find("hikaricp.connections.acquire").tag("pool", pool).timer();
+        return timer == null ? 0 : timer.count();
+    }
+
+    private long[] delta(long[] before) {
+        long[] now = acquisitions();
+        return new long[]{now[0] - before[0], now[1] - before[1]};
+    }
+}
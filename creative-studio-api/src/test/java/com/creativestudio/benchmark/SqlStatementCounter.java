@@ -0,0 +1,67 @@
+package com.creativestudio.benchmark;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+// Counts statements executed by the current thread at the JDBC level, so Hibernate, Spring Data
+// and NamedParameterJdbcTemplate are all included. A JDBC batch counts as one round trip.
+final class SqlStatementCounter extends DelegatingDataSource {
+
+    private static final ThreadLocal<int[]> COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    SqlStatementCounter(DataSource target) {
+        super(target);
+    }
+
+    static void reset() {
+        COUNT.get()[0] = 0;
+    }
+
+    static int current() {
+        return COUNT.get()[0];
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(Connection.class, super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(Connection.class, super.getConnection(username, password));
+    }
+
+    private static <T> T wrap(Class<T> type, T target) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (target instanceof Statement && isExecute(method)) {
+                COUNT.get()[0]++;
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // Statements handed out by the connection are wrapped too
+            if (result instanceof Statement statement && method.getReturnType().isInterface()) {
+                @SuppressWarnings("unchecked")
+                Class<Statement> statementType = (Class<Statement>) method.getReturnType();
+                return wrap(statementType, statement);
+            }
+            return result;
+        };
+        return type.cast(Proxy.newProxyInstance(SqlStatementCounter.class.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static boolean isExecute(Method method) {
+        return method.getName().startsWith("execute");
+    }
+}
@@ -0,0 +1,61 @@
+package com.creativestudio.benchmark;
+
+import com.creativestudio.CreativeStudioApiApplication;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Time to a started application against the configured (already migrated) database: Hibernate
+// diffing the entities against the live schema (ddl-auto=update, Flyway off) versus Flyway checking
+// its history table plus ddl-auto=validate. Modes alternate so neither gets a warmer JVM or page
+// cache; the first round of each is discarded. -Dstartup.runs=N rounds (default 5).
+@Tag("benchmark")
+class StartupTimeBenchmark {
+
+    private static final int RUNS = Integer.getInteger("startup.runs", 5);
+
+    private static final Map<String, List<String>> MODES = new LinkedHashMap<>();
+
+    static {
+        MODES.put("ddl-auto=update", List.of("--spring.flyway.enabled=false", "--spring.jpa.hibernate.ddl-auto=update"));
+        MODES.put("flyway + validate", List.of());
+    }
+
+    @Test
+    void startupTime() {
+        Map<String, List<Long>> times = new LinkedHashMap<>();
+        for (int run = 0; run <= RUNS; run++) {
+            for (Map.Entry<String, List<String>> mode : MODES.entrySet()) {
+                long elapsed = start(mode.getValue());
+                if (run > 0) {
+                    times.computeIfAbsent(mode.getKey(), m -> new ArrayList<>()).add(elapsed);
+                }
+            }
+        }
+
+        System.out.printf("%n=== Startup time, %d runs per mode ===%n", RUNS);
+        System.out.printf("%-20s %9s %9s %9s%n", "mode", "min ms", "median ms", "max ms");
+        times.forEach((mode, samples) -> {
+            List<Long> sorted = samples.stream().sorted().toList();
+            System.out.printf("%-20s %9d %9d %9d%n", mode, sorted.getFirst(), sorted.get(sorted.size() / 2),
+                    sorted.getLast());
+        });
+    }
+
+    private static long start(List<String> mode) {
+        List<String> args = new ArrayList<>(List.of("--server.port=0", "--spring.jpa.show-sql=false"));
+        args.addAll(mode);
+        long start = System.nanoTime();
+        try (ConfigurableApplicationContext ignored = new SpringApplicationBuilder(CreativeStudioApiApplication.class)
+                .run(args.toArray(String[]::new))) {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+    }
+}
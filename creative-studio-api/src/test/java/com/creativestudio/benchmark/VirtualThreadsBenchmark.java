@@ -0,0 +1,189 @@
+package com.creativestudio.benchmark;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// N concurrent clients (default 200, 2000 and 20000, -Dvt.clients=...) each load a dashboard,
+// think for 1 s and repeat, against Tomcat's platform-thread pool (the default) and the
+// virtual-threads profile. Each level is measured for 30 s after a 5 s ramp-up; each mode first
+// runs 30 s unmeasured so the mode that runs first does not pay for JIT warmup. Reports
+// throughput, latency, errors (503s once the pool sheds load), peak platform threads, peak heap
+// and RSS. Client and server share this JVM, so memory is an upper bound for the server side.
+// Needs a file-descriptor limit above 2 x N (ulimit -n); levels above it are skipped.
+// -Djdk.tracePinnedThreads=short prints any virtual thread that blocks while pinned to its carrier.
+class VirtualThreadsBenchmark {
+
+    private static final int[] CLIENTS = Arrays.stream(System.getProperty("vt.clients", "200,2000,20000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int WARMUP_SECONDS = Integer.getInteger("vt.warmup-seconds", 30);
+    private static final int RAMP_SECONDS = 5;
+    private static final int DURATION_SECONDS = Integer.getInteger("vt.duration-seconds", 30);
+    private static final long THINK_MS = Long.getLong("vt.think-ms", 1000);
+    private static final int DASHBOARDS = 10;
+    private static final int WIDGETS_PER_DASHBOARD = 20;
+    private static final String LOAD = "GET /api/dashboards/{id}";
+
+    @Nested
+    class PlatformThreads extends ConcurrentClients {
+    }
+
+    @Nested
+    @ActiveProfiles("virtual-threads")
+    class VirtualThreads extends ConcurrentClients {
+    }
+
+    abstract static class ConcurrentClients extends ApiBenchmarkSupport {
+
+        @LocalServerPort
+        private int port;
+
+        @Test
+        void concurrentClients() throws Exception {
+            String token = registerUser();
+            List<UUID> dashboards = new ArrayList<>();
+            for (int d = 0; d < DASHBOARDS; d++) {
+                UUID dashboardId = createDashboard(token, "threads-benchmark-" + d);
+                for (int w = 0; w < WIDGETS_PER_DASHBOARD; w++) {
+                    createWidget(token, dashboardId, Map.of("type", "notes-widget", "name", "w" + w,
+                            "x", w * 10, "y", 0, "width", 100, "height", 100, "data", Map.of("text", "note " + w)));
+                }
+                dashboards.add(dashboardId);
+            }
+
+            boolean virtual = getClass().getSimpleName().startsWith("Virtual");
+            long fileLimit = fileDescriptorLimit();
+            HttpClient http = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            drive(http, token, dashboards, 200, WARMUP_SECONDS, new EndpointStats());
+            List<String> rows = new ArrayList<>();
+            for (int clients : CLIENTS) {
+                if (fileLimit > 0 && 2L * clients + 1000 > fileLimit) {
+                    rows.add(String.format("%-9s %8d   skipped: ulimit -n is %d", mode(virtual), clients, fileLimit));
+                    continue;
+                }
+                rows.add(run(http, token, dashboards, clients, virtual));
+            }
+
+            System.out.printf("%n=== %s, %d s per level, %d ms think time ===%n",
+                    virtual ? "Virtual threads" : "Platform threads", DURATION_SECONDS, THINK_MS);
+            System.out.printf("%-9s %8s %8s %9s %9s %8s %9s %9s %8s%n", "mode", "clients", "req/s",
+                    "p50 ms", "p99 ms", "errors", "threads", "heap MB", "RSS MB");
+            rows.forEach(System.out::println);
+        }
+
+        private String run(HttpClient http, String token, List<UUID> dashboards, int clients, boolean virtual)
+                throws Exception {
+            EndpointStats stats = new EndpointStats();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(RAMP_SECONDS + DURATION_SECONDS);
+            List<Thread> threads = start(http, token, dashboards, clients, deadline, stats);
+            Thread.sleep(TimeUnit.SECONDS.toMillis(RAMP_SECONDS));
+            stats.recording(true);
+
+            MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+            ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+            AtomicLong peakHeap = new AtomicLong();
+            int peakThreads = 0;
+            while (System.nanoTime() < deadline) {
+                peakHeap.accumulateAndGet(memory.getHeapMemoryUsage().getUsed(), Math::max);
+                peakThreads = Math.max(peakThreads, threadBean.getThreadCount());
+                Thread.sleep(200);
+            }
+            stats.recording(false);
+            long rss = residentSetBytes();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            Map<String, Object> row = stats.report(DURATION_SECONDS).get(LOAD);
+            assertThat(row).as("requests completed at %d clients", clients).isNotNull();
+            return String.format("%-9s %8d %8.1f %9.2f %9.2f %8d %9d %9d %8d", mode(virtual), clients,
+                    (double) row.get("throughputPerSecond"), (double) row.get("p50Ms"), (double) row.get("p99Ms"),
+                    (long) row.get("errors"), peakThreads, peakHeap.get() >> 20, rss >> 20);
+        }
+
+        private void drive(HttpClient http, String token, List<UUID> dashboards, int clients, int seconds,
+                           EndpointStats stats) throws InterruptedException {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            for (Thread thread : start(http, token, dashboards, clients, deadline, stats)) {
+                thread.join();
+            }
+        }
+
+        private List<Thread> start(HttpClient http, String token, List<UUID> dashboards, int clients, long deadline,
+                                   EndpointStats stats) {
+            List<Thread> threads = new ArrayList<>(clients);
+            for (int c = 0; c < clients; c++) {
+                threads.add(Thread.ofVirtual().start(() -> client(http, token, dashboards, deadline, stats)));
+            }
+            return threads;
+        }
+
+        private void client(HttpClient http, String token, List<UUID> dashboards, long deadline, EndpointStats stats) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            try {
+                // Spread the first requests over one think time instead of connecting all at once
+                Thread.sleep(random.nextLong(THINK_MS + 1));
+                while (System.nanoTime() < deadline) {
+                    UUID dashboardId = dashboards.get(random.nextInt(dashboards.size()));
+                    HttpRequest request = HttpRequest.newBuilder(
+                                    URI.create("http://localhost:" + port + "/api/dashboards/" + dashboardId))
+                            .header("Authorization", "Bearer " + token)
+                            .timeout(Duration.ofSeconds(30))
+                            .build();
+                    long sent = System.nanoTime();
+                    boolean success;
+                    try {
+                        success = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+                    } catch (IOException e) {
+                        success = false;
+                    }
+                    stats.recordLatency(LOAD, System.nanoTime() - sent, success);
+                    Thread.sleep(THINK_MS);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private static String mode(boolean virtual) {
+            return virtual ? "virtual" : "platform";
+        }
+
+        private static long residentSetBytes() throws Exception {
+            return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")) * 1024)
+                    .findFirst().orElse(0);
+        }
+
+        private static long fileDescriptorLimit() throws Exception {
+            return Files.readAllLines(Path.of("/proc/self/limits")).stream()
+                    .filter(line -> line.startsWith("Max open files"))
+                    .mapToLong(line -> Long.parseLong(line.split("\\s+")[3]))
+                    .findFirst().orElse(0);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.creativestudio.benchmark;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Loads a dashboard of 20 content-editor widgets with ~200 KB of HTML each, with the bodies kept
+// inline in widgets.data (threshold above any body) and with the default content-store threshold,
+// where loads only carry contentRef and each body is one extra request when its widget renders.
+class WidgetContentStoreBenchmark {
+
+    private static final int WIDGETS = 20;
+    private static final int BODY_BYTES = 200_000;
+    private static final int LOADS = 50;
+
+    @Nested
+    @TestPropertySource(properties = "widget.content-store.threshold-bytes=2147483647")
+    class Inline extends DashboardLoads {
+    }
+
+    @Nested
+    class Offloaded extends DashboardLoads {
+    }
+
+    abstract static class DashboardLoads extends ApiBenchmarkSupport {
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void loadDashboard() {
+            String token = registerUser();
+            UUID dashboardId = createDashboard(token, "content-store-benchmark");
+            SplittableRandom random = new SplittableRandom(42);
+            for (int i = 0; i < WIDGETS; i++) {
+                createWidget(token, dashboardId, Map.of(
+                        "type", "content-editor", "name", "doc " + i,
+                        "x", i * 10, "y", 0, "width", 400, "height", 400,
+                        "data", Map.of("content", html(random))));
+            }
+            String url = "/api/dashboards/" + dashboardId;
+
+            for (int i = 0; i < 5; i++) {
+                exchange(token, HttpMethod.GET, url, null, String.class);
+            }
+            long bytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < LOADS; i++) {
+                bytes = exchange(token, HttpMethod.GET, url, null, String.class).getBody().length();
+            }
+            double loadMs = (System.nanoTime() - start) / 1_000_000.0 / LOADS;
+
+            // Rendering every widget once: the bodies that are not in the load come from /api/content
+            Map<String, Object> dashboard = exchange(token, HttpMethod.GET, url, null, Map.class).getBody();
+            List<String> refs = new ArrayList<>();
+            for (Map<String, Object> widget : (List<Map<String, Object>>) dashboard.get("widgets")) {
+                Object ref = ((Map<String, Object>) widget.get("data")).get("contentRef");
+                if (ref != null) {
+                    refs.add((String) ref);
+                }
+            }
+            for (String ref : refs) {
+                exchange(token, HttpMethod.GET, "/api/content/" + ref, null, String.class);
+            }
+            start = System.nanoTime();
+            for (String ref : refs) {
+                assertThat(exchange(token, HttpMethod.GET, "/api/content/" + ref, null, String.class).getBody())
+                        .hasSizeGreaterThan(BODY_BYTES / 2);
+            }
+            double renderMs = (System.nanoTime() - start) / 1_000_000.0;
+
+            System.out.printf("%n=== %s bodies, %d widgets x %d KB ===%n", getClass().getSimpleName(), WIDGETS, BODY_BYTES / 1000);
+            System.out.printf("%-10s %14s %12s %14s %16s%n", "mode", "load bytes", "load ms", "body fetches", "all bodies ms");
+            System.out.printf("%-10s %14d %12.2f %14d %16.2f%n", getClass().getSimpleName(), bytes, loadMs, refs.size(), renderMs);
+        }
+
+        // Prose from a small vocabulary, so it compresses about as well as real editor HTML
+        private static String html(SplittableRandom random) {
+            String[] words = {"dashboard", "widget", "layout", "the", "a", "of", "and", "design", "review", "sprint",
+                    "colour", "grid", "notes", "meeting", "client", "draft", "final", "image", "caption", "summary"};
+            StringBuilder html = new StringBuilder(BODY_BYTES + 100);
+            while (html.length() < BODY_BYTES) {
+                html.append("<p>");
+                for (int w = 0; w < 40; w++) {
+                    html.append(words[random.nextInt(words.length)]).append(random.nextInt(1000)).append(' ');
+                }
+                html.append("</p>");
+            }
+            return html.toString();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.creativestudio.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.IntFunction;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Autosave of a one-item change in todo-list documents of 1 KB, 100 KB and 1 MB:
+// full-document PATCH vs RFC 6902 JSON Patch vs RFC 7396 merge patch.
+class WidgetDataPatchBenchmark extends ApiBenchmarkSupport {
+
+    private static final int[] DOCUMENT_SIZES = {1_000, 100_000, 1_000_000};
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void autosaveOfOneTodo() throws Exception {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "patch-benchmark");
+
+        System.out.printf("%n=== Autosave of one todo (avg over %d saves) ===%n", ROUNDS);
+        System.out.printf("%-10s %-12s %14s %14s %14s %10s%n",
+                "document", "mode", "request bytes", "response bytes", "WAL bytes", "ms");
+
+        for (int size : DOCUMENT_SIZES) {
+            Map<String, Object> data = todoDocument(size);
+            String widgetUrl = "/api/dashboards/" + dashboardId + "/widgets/"
+                    + createWidget(token, dashboardId, Map.of("type", "todo-list", "name", "todos",
+                    "x", 0, "y", 0, "width", 400, "height", 400, "data", data));
+            String label = (size / 1000) + " KB";
+
+            run(label, "full", token, widgetUrl, MediaType.APPLICATION_JSON, round -> {
+                todo(data, 0).put("completed", round % 2 == 0);
+                return data;
+            });
+            run(label, "json-patch", token, widgetUrl, MediaType.valueOf("application/json-patch+json"),
+                    round -> List.of(Map.of("op", "replace", "path", "/todos/0/completed", "value", round % 2 == 0)));
+            run(label, "merge-patch", token, widgetUrl, MediaType.valueOf("application/merge-patch+json"),
+                    round -> Map.of("filter", round % 2 == 0 ? "all" : "active"));
+
+            Map<?, ?> stored = storedData(token, dashboardId, widgetUrl);
+            assertThat(stored.get("filter")).isEqualTo(ROUNDS % 2 == 0 ? "all" : "active");
+            assertThat(((List<?>) stored.get("todos"))).hasSameSizeAs((List<?>) data.get("todos"));
+        }
+    }
+
+    private Map<?, ?> storedData(String token, UUID dashboardId, String widgetUrl) {
+        List<?> widgets = exchange(token, HttpMethod.GET,
+                "/api/dashboards/" + dashboardId + "/widgets", null, List.class).getBody();
+        for (Object widget : widgets) {
+            Map<?, ?> w = (Map<?, ?>) widget;
+            if (widgetUrl.endsWith((String) w.get("id"))) {
+                return (Map<?, ?>) w.get("data");
+            }
+        }
+        throw new IllegalStateException("Widget not found");
+    }
+
+    private void run(String label, String mode, String token, String url, MediaType contentType,
+                     IntFunction<Object> body) throws Exception {
+        long requestBytes = 0;
+        long responseBytes = 0;
+        long start = System.nanoTime();
+        String walStart = jdbcTemplate.queryForObject("SELECT pg_current_wal_insert_lsn()::text", String.class);
+
+        for (int round = 1; round <= ROUNDS; round++) {
+            byte[] payload = objectMapper.writeValueAsBytes(body.apply(round));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setBearerAuth(token);
+            headers.setContentType(contentType);
+            ResponseEntity<byte[]> response = rest.exchange(url + "/data", HttpMethod.PATCH,
+                    new HttpEntity<>(payload, headers), byte[].class);
+            assertThat(response.getStatusCode().is2xxSuccessful()).isTrue();
+            requestBytes += payload.length;
+            responseBytes += response.getBody() == null ? 0 : response.getBody().length;
+        }
+
+        long nanos = System.nanoTime() - start;
+        Long walBytes = jdbcTemplate.queryForObject(
+                "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint", Long.class, walStart);
+        System.out.printf("%-10s %-12s %14d %14d %14d %10.2f%n", label, mode,
+                requestBytes / ROUNDS, responseBytes / ROUNDS, walBytes / ROUNDS, nanos / 1_000_000.0 / ROUNDS);
+    }
+
+    private Map<String, Object> todoDocument(int targetBytes) {
+        List<Map<String, Object>> todos = new ArrayList<>();
+        int bytes = 0;
+        while (bytes < targetBytes) {
+            Map<String, Object> todo = new HashMap<>();
+            todo.put("id", UUID.randomUUID().toString());
+            todo.put("text", "Follow up on item " + todos.size() + " before the weekly review");
+            todo.put("completed", false);
+            todo.put("createdAt", "2026-02-15T10:00:00Z");
+            todos.add(todo);
+            bytes += 140;
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("todos", todos);
+        data.put("filter", "all");
+        return data;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> todo(Map<String, Object> data, int index) {
+        return ((List<Map<String, Object>>) data.get("todos")).get(index);
+    }
+}
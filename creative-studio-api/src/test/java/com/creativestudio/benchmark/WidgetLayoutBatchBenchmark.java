@@ -0,0 +1,90 @@
+package com.creativestudio.benchmark;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Compares one drag of 50 widgets sent as 50 single-widget PUTs against one batch layout PUT.
+class WidgetLayoutBatchBenchmark extends ApiBenchmarkSupport {
+
+    private static final int WIDGETS = 50;
+    private static final int ROUNDS = 20;
+
+    @Test
+    void dragOfFiftyWidgets() {
+        String token = registerUser();
+        UUID dashboardId = createDashboard(token, "layout-benchmark");
+        List<UUID> widgetIds = new ArrayList<>();
+        for (int i = 0; i < WIDGETS; i++) {
+            widgetIds.add(createWidget(token, dashboardId, Map.of(
+                    "type", "notes-widget", "name", "w" + i,
+                    "x", 0, "y", 0, "width", 400, "height", 400,
+                    "data", Map.of("text", "note " + i))));
+        }
+        String widgetsUrl = "/api/dashboards/" + dashboardId + "/widgets";
+
+        Statistics stats = statistics();
+
+        stats.clear();
+        long start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            for (int i = 0; i < WIDGETS; i++) {
+                exchange(token, HttpMethod.PUT, widgetsUrl + "/" + widgetIds.get(i), Map.of(
+                        "type", "notes-widget", "name", "w" + i,
+                        "x", round * 10, "y", i * 10, "width", 400, "height", 400,
+                        "data", Map.of("text", "note " + i)), Void.class);
+            }
+        }
+        Result single = new Result(ROUNDS * WIDGETS, stats, System.nanoTime() - start);
+
+        stats.clear();
+        start = System.nanoTime();
+        for (int round = 1; round <= ROUNDS; round++) {
+            List<Map<String, Object>> layout = new ArrayList<>();
+            for (int i = 0; i < WIDGETS; i++) {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("id", widgetIds.get(i));
+                entry.put("x", round * 20);
+                entry.put("y", i * 10);
+                entry.put("width", 400);
+                entry.put("height", 400);
+                entry.put("zIndex", i);
+                layout.add(entry);
+            }
+            exchange(token, HttpMethod.PUT, widgetsUrl + "/layout", Map.of("widgets", layout), Void.class);
+        }
+        Result batch = new Result(ROUNDS, stats, System.nanoTime() - start);
+
+        System.out.printf("%n=== Drag of %d widgets (avg over %d drags) ===%n", WIDGETS, ROUNDS);
+        System.out.printf("%-12s %12s %14s %14s %12s%n", "mode", "round trips", "statements", "rows updated", "ms");
+        single.print("per-widget");
+        batch.print("batch");
+
+        assertThat(batch.statementsPerDrag()).isLessThan(single.statementsPerDrag());
+    }
+
+    private record Result(long requests, long statements, long updates, long nanos) {
+
+        Result(long requests, Statistics stats, long nanos) {
+            this(requests, stats.getPrepareStatementCount(), stats.getEntityUpdateCount(), nanos);
+        }
+
+        double statementsPerDrag() {
+            return (double) statements / ROUNDS;
+        }
+
+        void print(String mode) {
+            System.out.printf("%-12s %12d %14.1f %14.1f %12.2f%n", mode,
+                    requests / ROUNDS, statementsPerDrag(), (double) updates / ROUNDS,
+                    nanos / 1_000_000.0 / ROUNDS);
+        }
+    }
+}
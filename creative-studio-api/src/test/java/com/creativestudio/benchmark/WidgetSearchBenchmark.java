@@ -0,0 +1,113 @@
+package com.creativestudio.benchmark;
+
+import com.creativestudio.repository.WidgetRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Searches one user's notes and todo widgets (default 10k and 100k widgets over 10 dashboards,
+// -Dsearch.widgets=...) for a word in ~2% of the widgets, a word in 10 of them and a phrase in 20%,
+// through /api/search and as the bare query, and compares each with a scan of the same user's
+// jsonb (ILIKE on data::text). The search must be answered by the GIN index on the search vectors.
+class WidgetSearchBenchmark extends ApiBenchmarkSupport {
+
+    private static final int[] WIDGETS = Arrays.stream(System.getProperty("search.widgets", "10000,100000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int DASHBOARDS = 10;
+    private static final int SEARCHES = 20;
+    private static final String[][] QUERIES = {{"client", "client"}, {"zephyr", "zephyr"},
+            {"\"invoice draft\"", "invoice draft"}};
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WidgetRepository widgetRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void search() {
+        List<String> rows = new ArrayList<>();
+        for (int widgets : WIDGETS) {
+            String token = registerUser();
+            List<UUID> dashboards = new ArrayList<>();
+            for (int i = 0; i < DASHBOARDS; i++) {
+                dashboards.add(createDashboard(token, "search-benchmark " + i));
+            }
+            // Notes of 40 words from a 1000-word vocabulary (2% mention a client), every 5th widget a todo list
+            for (UUID dashboardId : dashboards) {
+                jdbcTemplate.update("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index,"
+                        + " data, revision, version, created_at, updated_at)"
+                        + " SELECT gen_random_uuid(), ?, CASE WHEN g % 5 = 0 THEN 'todo-list' ELSE 'notes-widget' END,"
+                        + " 'widget ' || g, 0, 0, 200, 150, g, CASE WHEN g % 5 = 0"
+                        + " THEN jsonb_build_object('todos', jsonb_build_array("
+                        + "   jsonb_build_object('id', '1', 'text', 'send invoice draft ' || g, 'completed', false),"
+                        + "   jsonb_build_object('id', '2', 'text', 'review word' || (g % 1000), 'completed', true)))"
+                        + " ELSE jsonb_build_object('text', (SELECT string_agg(CASE WHEN random() < 0.0005 THEN 'client'"
+                        + "   ELSE 'word' || floor(random() * 1000)::int END, ' ') FROM generate_series(1, 40) WHERE g > 0))"
+                        + " END, 0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP FROM generate_series(1, ?) g",
+                        dashboardId, widgets / DASHBOARDS);
+            }
+            jdbcTemplate.update("UPDATE widgets SET data = jsonb_build_object('text', 'a note about a zephyr ' || name)"
+                    + " WHERE id IN (SELECT id FROM widgets WHERE dashboard_id = ? AND type = 'notes-widget' LIMIT 10)",
+                    dashboards.getFirst());
+            jdbcTemplate.execute("ANALYZE widgets");
+            jdbcTemplate.execute("ANALYZE content_blobs");
+
+            String plan = String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN SELECT id FROM widgets WHERE search @@ websearch_to_tsquery('simple', 'zephyr')", String.class));
+            assertThat(plan).contains("idx_widgets_search");
+
+            UUID userId = jdbcTemplate.queryForObject("SELECT user_id FROM dashboards WHERE id = ?", UUID.class,
+                    dashboards.getFirst());
+            for (String[] query : QUERIES) {
+                String url = "/api/search?q=" + query[0] + "&limit=20";
+                for (int i = 0; i < 5; i++) {
+                    exchange(token, HttpMethod.GET, url, null, List.class);
+                }
+                int hits = 0;
+                long start = System.nanoTime();
+                for (int i = 0; i < SEARCHES; i++) {
+                    ResponseEntity<List> response = exchange(token, HttpMethod.GET, url, null, List.class);
+                    assertThat(response.getStatusCode().value()).isEqualTo(200);
+                    hits = response.getBody().size();
+                }
+                double searchMs = (System.nanoTime() - start) / 1_000_000.0 / SEARCHES;
+                assertThat(hits).isPositive();
+
+                // The same search without HTTP, comparable with the scan below
+                start = System.nanoTime();
+                for (int i = 0; i < SEARCHES; i++) {
+                    widgetRepository.search(userId, query[0], 20);
+                }
+                double sqlMs = (System.nanoTime() - start) / 1_000_000.0 / SEARCHES;
+
+                start = System.nanoTime();
+                int scanned = 0;
+                for (int i = 0; i < SEARCHES; i++) {
+                    scanned = jdbcTemplate.queryForObject("SELECT count(*) FROM widgets w"
+                            + " JOIN dashboards d ON d.id = w.dashboard_id"
+                            + " WHERE d.user_id = ? AND w.data::text ILIKE ?", Integer.class, userId, "%" + query[1] + "%");
+                }
+                double scanMs = (System.nanoTime() - start) / 1_000_000.0 / SEARCHES;
+
+                rows.add(String.format("%9d %-18s %6d %11.2f %8.2f %13d %9.2f", widgets, query[0], hits, searchMs, sqlMs,
+                        scanned, scanMs));
+            }
+        }
+
+        System.out.printf("%n=== /api/search vs a jsonb scan (avg over %d searches) ===%n", SEARCHES);
+        System.out.printf("%9s %-18s %6s %11s %8s %13s %9s%n", "widgets", "query", "hits", "search ms", "sql ms",
+                "scan matches", "scan ms");
+        rows.forEach(System.out::println);
+    }
+}
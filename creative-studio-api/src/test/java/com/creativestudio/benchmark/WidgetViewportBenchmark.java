@@ -0,0 +1,87 @@
+package com.creativestudio.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Pans a 1920x1080 viewport over a 40000x40000 canvas of 200x150 widgets (default 1k and 10k
+// widgets, -Dviewport.widgets=...) and compares it with loading every widget of the dashboard.
+// The viewport query must use the GiST index on the widgets' bounding boxes. Full loads of this
+// size are over the default entity-load budget, so it is raised here.
+@TestPropertySource(properties = "request.query-budget.max-entity-loads=100000")
+class WidgetViewportBenchmark extends ApiBenchmarkSupport {
+
+    private static final int[] WIDGETS = Arrays.stream(System.getProperty("viewport.widgets", "1000,10000").split(","))
+            .mapToInt(Integer::parseInt).toArray();
+    private static final int CANVAS = 40_000;
+    private static final int VIEW_WIDTH = 1920;
+    private static final int VIEW_HEIGHT = 1080;
+    private static final int PANS = 50;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void panViewport() {
+        List<String> rows = new ArrayList<>();
+        for (int widgets : WIDGETS) {
+            String token = registerUser();
+            UUID dashboardId = createDashboard(token, "viewport-benchmark");
+            jdbcTemplate.update("INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data,"
+                    + " revision, version, created_at, updated_at)"
+                    + " SELECT gen_random_uuid(), ?, 'notes-widget', 'w' || g, (random() * ?)::int, (random() * ?)::int,"
+                    + " 200, 150, g, jsonb_build_object('text', 'note ' || g), 0, 0, LOCALTIMESTAMP, LOCALTIMESTAMP"
+                    + " FROM generate_series(1, ?) g", dashboardId, CANVAS, CANVAS, widgets);
+            jdbcTemplate.execute("ANALYZE widgets");
+
+            String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN SELECT * FROM widgets"
+                    + " WHERE dashboard_id = '" + dashboardId + "'"
+                    + " AND box(point(x, y), point(x + width, y + height)) && box(point(0, 0), point(1920, 1080))", String.class));
+            assertThat(plan).contains("idx_widgets_dashboard_bounds");
+
+            String url = "/api/dashboards/" + dashboardId + "/widgets";
+            for (int i = 0; i < 5; i++) {
+                exchange(token, HttpMethod.GET, url, null, String.class);
+            }
+            long allBytes = 0;
+            long start = System.nanoTime();
+            for (int i = 0; i < PANS; i++) {
+                ResponseEntity<String> all = exchange(token, HttpMethod.GET, url, null, String.class);
+                assertThat(all.getStatusCode().value()).isEqualTo(200);
+                allBytes = all.getBody().length();
+            }
+            double allMs = (System.nanoTime() - start) / 1_000_000.0 / PANS;
+
+            SplittableRandom random = new SplittableRandom(7);
+            long viewportBytes = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < PANS; i++) {
+                int minX = random.nextInt(CANVAS - VIEW_WIDTH);
+                int minY = random.nextInt(CANVAS - VIEW_HEIGHT);
+                ResponseEntity<String> visible = exchange(token, HttpMethod.GET, url + "?minX=" + minX + "&minY=" + minY
+                        + "&maxX=" + (minX + VIEW_WIDTH) + "&maxY=" + (minY + VIEW_HEIGHT), null, String.class);
+                assertThat(visible.getStatusCode().value()).isEqualTo(200);
+                viewportBytes += visible.getBody().length();
+            }
+            double viewportMs = (System.nanoTime() - start) / 1_000_000.0 / PANS;
+
+            rows.add(String.format("%9d %12d %10.2f %14d %13.2f", widgets, allBytes, allMs, viewportBytes / PANS, viewportMs));
+        }
+
+        System.out.printf("%n=== %dx%d viewport over a %dx%d canvas (avg over %d pans) ===%n",
+                VIEW_WIDTH, VIEW_HEIGHT, CANVAS, CANVAS, PANS);
+        System.out.printf("%9s %12s %10s %14s %13s%n", "widgets", "all bytes", "all ms", "viewport bytes", "viewport ms");
+        rows.forEach(System.out::println);
+    }
+}
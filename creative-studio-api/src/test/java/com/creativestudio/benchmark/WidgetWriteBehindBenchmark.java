@@ -0,0 +1,91 @@
+package com.creativestudio.benchmark;
+
+import com.creativestudio.service.WidgetDataWriteBuffer;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpMethod;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// An editing session: 4 widgets autosaving their full document 50 times, 100 ms apart,
+// written through (the default) vs buffered with the default 5 s maximum staleness.
+class WidgetWriteBehindBenchmark {
+
+    private static final int WIDGETS = 4;
+    private static final int SAVES_PER_WIDGET = 50;
+    private static final long DEBOUNCE_MS = 100;
+
+    @Nested
+    class WriteThrough extends Session {
+    }
+
+    @Nested
+    @TestPropertySource(properties = "widget.write-behind.enabled=true")
+    class WriteBehind extends Session {
+    }
+
+    abstract static class Session extends ApiBenchmarkSupport {
+
+        @Autowired
+        private JdbcTemplate jdbcTemplate;
+
+        @Autowired
+        private WidgetDataWriteBuffer writeBuffer;
+
+        @Test
+        void editingSession() throws Exception {
+            String token = registerUser();
+            UUID dashboardId = createDashboard(token, "write-behind-benchmark");
+            List<String> widgetUrls = new ArrayList<>();
+            for (int i = 0; i < WIDGETS; i++) {
+                widgetUrls.add("/api/dashboards/" + dashboardId + "/widgets/" + createWidget(token, dashboardId,
+                        Map.of("type", "content-editor", "name", "doc " + i,
+                                "x", 0, "y", 0, "width", 400, "height", 400, "data", document(0))));
+            }
+
+            String walStart = jdbcTemplate.queryForObject("SELECT pg_current_wal_insert_lsn()::text", String.class);
+            long start = System.nanoTime();
+            for (int save = 1; save <= SAVES_PER_WIDGET; save++) {
+                for (String url : widgetUrls) {
+                    exchange(token, HttpMethod.PATCH, url + "/data", document(save), Map.class);
+                }
+                Thread.sleep(DEBOUNCE_MS);
+            }
+            long millis = (System.nanoTime() - start) / 1_000_000;
+
+            // Read-your-writes: the last save is visible before it reached the database
+            Map<?, ?> firstWidget = (Map<?, ?>) exchange(token, HttpMethod.GET,
+                    "/api/dashboards/" + dashboardId + "/widgets", null, List.class).getBody().get(0);
+            assertThat(((Map<?, ?>) firstWidget.get("data")).get("revision")).isEqualTo(SAVES_PER_WIDGET);
+
+            writeBuffer.flushAll();
+            Long walBytes = jdbcTemplate.queryForObject(
+                    "SELECT pg_wal_lsn_diff(pg_current_wal_insert_lsn(), ?::pg_lsn)::bigint", Long.class, walStart);
+            Long stored = jdbcTemplate.queryForObject(
+                    "SELECT count(*) FROM widgets WHERE dashboard_id = ? AND (data ->> 'revision')::int = ?",
+                    Long.class, dashboardId, SAVES_PER_WIDGET);
+
+            System.out.printf("%n=== Editing session, %s: %d saves in %d ms ===%n",
+                    writeBuffer.isEnabled() ? "write-behind" : "write-through", WIDGETS * SAVES_PER_WIDGET, millis);
+            System.out.printf("WAL bytes:          %d%n", walBytes);
+            System.out.printf("WAL bytes per save: %d%n", walBytes / (WIDGETS * SAVES_PER_WIDGET));
+            assertThat(stored).isEqualTo(WIDGETS);
+        }
+
+        private Map<String, Object> document(int revision) {
+            Map<String, Object> data = new HashMap<>();
+            data.put("revision", revision);
+            data.put("html", "<p>" + UUID.randomUUID().toString().repeat(100) + "</p>");
+            return data;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.dto.DashboardResponse;
+import com.creativestudio.service.DashboardService;
+import com.creativestudio.service.DashboardStreamService;
+import com.creativestudio.service.DashboardTransferService;
+import com.creativestudio.service.WidgetDataWriteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Conditional GET of a dashboard at version 7, with the services mocked
+class DashboardControllerTest {
+
+    private final DashboardService dashboardService = mock(DashboardService.class);
+    private final WidgetDataWriteBuffer writeBuffer = mock(WidgetDataWriteBuffer.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new DashboardController(dashboardService, mock(DashboardStreamService.class),
+                    mock(DashboardTransferService.class), writeBuffer))
+            .build();
+    private final UUID dashboardId = UUID.randomUUID();
+
+    @BeforeEach
+    void dashboardAtVersion7() {
+        when(dashboardService.getDashboardVersion(any(), eq(dashboardId))).thenReturn(7L);
+        when(dashboardService.getDashboard(any(), eq(dashboardId))).thenReturn(DashboardResponse.builder()
+                .id(dashboardId).name("d").gridSize(40).version(7).widgets(List.of()).build());
+    }
+
+    @Test
+    void firstRequestGetsTheBodyWithAWeakETag() throws Exception {
+        mvc.perform(get("/api/dashboards/{id}", dashboardId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v7\""))
+                .andExpect(jsonPath("$.version").value(7));
+    }
+
+    @Test
+    void matchingIfNoneMatchIsAnsweredWithoutLoadingTheDashboard() throws Exception {
+        mvc.perform(get("/api/dashboards/{id}", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v7\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v7\""));
+
+        verify(dashboardService, never()).getDashboard(any(), any());
+    }
+
+    @Test
+    void olderETagGetsTheBody() throws Exception {
+        mvc.perform(get("/api/dashboards/{id}", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v6\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v7\""));
+    }
+
+    @Test
+    void pendingAutosavesAreNeverAnsweredWith304() throws Exception {
+        when(writeBuffer.hasPending(dashboardId)).thenReturn(true);
+
+        mvc.perform(get("/api/dashboards/{id}", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v7\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.id").value(dashboardId.toString()));
+    }
+}
@@ -0,0 +1,166 @@
+package com.creativestudio.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.dataformat.smile.databind.SmileMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// What goes over the wire, through the real server: the dashboard as JSON, CBOR and Smile, gzip
+// above server.compression.min-response-size (2 KB), and an event stream that is neither compressed
+// nor held back. A raw HTTP client, so nothing is decoded or decompressed on the way.
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class ResponseEncodingTest {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+    private String email;
+    private String token;
+    private UUID dashboardId;
+
+    @BeforeEach
+    void createDashboard() throws Exception {
+        email = "encoding-" + UUID.randomUUID() + "@example.com";
+        token = (String) post("/api/auth/register", Map.of("name", email, "email", email, "password", "password123"))
+                .get("token");
+        dashboardId = UUID.fromString((String) post("/api/dashboards", Map.of("name", "encoding")).get("id"));
+    }
+
+    @AfterEach
+    void deleteUser() throws Exception {
+        client.send(authorized("/api/dashboards/" + dashboardId).DELETE().build(), HttpResponse.BodyHandlers.discarding());
+        jdbcTemplate.update("DELETE FROM users WHERE email = ?", email);
+    }
+
+    @Test
+    void dashboardIsTheSameInEveryEncoding() throws Exception {
+        addWidgets(3);
+
+        HttpResponse<byte[]> json = get("application/json", null);
+        HttpResponse<byte[]> cbor = get("application/cbor", null);
+        HttpResponse<byte[]> smile = get("application/x-jackson-smile", null);
+
+        assertThat(cbor.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/cbor");
+        assertThat(smile.headers().firstValue(HttpHeaders.CONTENT_TYPE)).hasValue("application/x-jackson-smile");
+        Map<?, ?> expected = JSON.readValue(json.body(), Map.class);
+        assertThat(((List<?>) expected.get("widgets"))).hasSize(3);
+        assertThat(new CBORMapper().readValue(cbor.body(), Map.class)).isEqualTo(expected);
+        assertThat(new SmileMapper().readValue(smile.body(), Map.class)).isEqualTo(expected);
+        assertThat(cbor.body().length).isLessThan(json.body().length);
+        assertThat(smile.body().length).isLessThan(json.body().length);
+        // One ETag for all of them, so caches must keep the encodings apart
+        assertThat(cbor.headers().firstValue(HttpHeaders.ETAG)).isEqualTo(json.headers().firstValue(HttpHeaders.ETAG));
+        assertThat(json.headers().allValues(HttpHeaders.VARY)).anySatisfy(vary -> assertThat(vary).contains("Accept"));
+    }
+
+    @Test
+    void largeDashboardIsGzippedForClientsThatAcceptIt() throws Exception {
+        addWidgets(20);
+
+        HttpResponse<byte[]> plain = get("application/json", null);
+        HttpResponse<byte[]> gzipped = get("application/json", "gzip");
+        HttpResponse<byte[]> cbor = get("application/cbor", "gzip");
+
+        assertThat(plain.body().length).isGreaterThan(2048);
+        assertThat(plain.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+        assertThat(gzipped.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(gzipped.body().length).isLessThan(plain.body().length);
+        assertThat(JSON.readValue(gunzip(gzipped.body()), Map.class)).isEqualTo(JSON.readValue(plain.body(), Map.class));
+        assertThat(cbor.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).hasValue("gzip");
+        assertThat(new CBORMapper().readValue(gunzip(cbor.body()), Map.class))
+                .isEqualTo(JSON.readValue(plain.body(), Map.class));
+    }
+
+    @Test
+    void smallDashboardIsNotCompressed() throws Exception {
+        HttpResponse<byte[]> response = get("application/json", "gzip");
+
+        assertThat(response.body().length).isLessThan(2048);
+        assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+    }
+
+    @Test
+    void eventStreamIsNotHeldBack() throws Exception {
+        HttpRequest request = authorized("/api/dashboards/" + dashboardId + "/stream")
+                .header(HttpHeaders.ACCEPT, "text/event-stream").header(HttpHeaders.ACCEPT_ENCODING, "gzip").build();
+        HttpResponse<Stream<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        try (Stream<String> lines = response.body()) {
+            Iterator<String> events = lines.filter(line -> line.startsWith("event:")).iterator();
+            assertThat(response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)).isEmpty();
+            assertThat(CompletableFuture.supplyAsync(events::next).get(10, TimeUnit.SECONDS)).isEqualTo("event:ready");
+
+            addWidgets(1);
+
+            assertThat(CompletableFuture.supplyAsync(events::next).get(10, TimeUnit.SECONDS)).isEqualTo("event:changes");
+        }
+    }
+
+    private void addWidgets(int count) throws Exception {
+        for (int i = 0; i < count; i++) {
+            post("/api/dashboards/" + dashboardId + "/widgets", Map.of("type", "notes-widget", "name", "note " + i,
+                    "x", i * 40, "y", 0, "data", Map.of("text", "Quick notes: review the pull request " + i + ". ".repeat(10))));
+        }
+    }
+
+    private HttpResponse<byte[]> get(String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = authorized("/api/dashboards/" + dashboardId).header(HttpHeaders.ACCEPT, accept);
+        if (acceptEncoding != null) {
+            request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return response;
+    }
+
+    private Map<?, ?> post(String path, Map<String, Object> body) throws Exception {
+        HttpRequest request = authorized(path)
+                .header(HttpHeaders.CONTENT_TYPE, "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                .build();
+        HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        assertThat(response.statusCode()).isEqualTo(200);
+        return JSON.readValue(response.body(), Map.class);
+    }
+
+    private HttpRequest.Builder authorized(String path) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path));
+        return token == null ? request : request.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+    }
+
+    private static byte[] gunzip(byte[] body) throws IOException {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.creativestudio.controller;
+
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.service.DashboardLayoutService;
+import com.creativestudio.service.WidgetDataWriteBuffer;
+import com.creativestudio.service.WidgetService;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Request handling in front of the services, which are mocked
+class WidgetControllerTest {
+
+    private final WidgetService widgetService = mock(WidgetService.class);
+    private final DashboardLayoutService layoutService = mock(DashboardLayoutService.class);
+    private final WidgetDataWriteBuffer writeBuffer = mock(WidgetDataWriteBuffer.class);
+    private final MockMvc mvc = MockMvcBuilders
+            .standaloneSetup(new WidgetController(widgetService, layoutService, writeBuffer))
+            .build();
+    private final UUID dashboardId = UUID.randomUUID();
+
+    @Test
+    void arrangeAcceptsTheLargestCanvas() throws Exception {
+        mvc.perform(post("/api/dashboards/{id}/widgets/layout/arrange", dashboardId)
+                        .param("width", String.valueOf(DashboardLayoutService.MAX_CANVAS_WIDTH)))
+                .andExpect(status().isOk());
+
+        verify(layoutService).arrange(any(), eq(dashboardId), eq(DashboardLayoutService.MAX_CANVAS_WIDTH));
+    }
+
+    @Test
+    void arrangeRejectsAWiderCanvasBeforeLayingOut() throws Exception {
+        mvc.perform(post("/api/dashboards/{id}/widgets/layout/arrange", dashboardId)
+                        .param("width", String.valueOf(DashboardLayoutService.MAX_CANVAS_WIDTH + 1)))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/dashboards/{id}/widgets/layout/arrange", dashboardId).param("width", "0"))
+                .andExpect(status().isBadRequest());
+
+        verify(layoutService, never()).arrange(any(), any(), anyInt());
+    }
+
+    @Test
+    void widgetListMatchingIfNoneMatchIsAnsweredWithoutLoadingTheWidgets() throws Exception {
+        when(widgetService.getDashboardVersion(any(), eq(dashboardId))).thenReturn(3L);
+
+        mvc.perform(get("/api/dashboards/{id}/widgets", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v3\""))
+                .andExpect(status().isNotModified());
+        mvc.perform(get("/api/dashboards/{id}/widgets", dashboardId)
+                        .params(viewport()).header(HttpHeaders.IF_NONE_MATCH, "W/\"v3\""))
+                .andExpect(status().isNotModified());
+
+        verify(widgetService, never()).getWidgets(any(), any());
+        verify(widgetService, never()).getWidgetsInViewport(any(), any(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void widgetListAfterAWriteGetsTheBodyWithTheNewETag() throws Exception {
+        when(widgetService.getDashboardVersion(any(), eq(dashboardId))).thenReturn(4L);
+        when(widgetService.getWidgets(any(), eq(dashboardId))).thenReturn(List.of(widget()));
+
+        mvc.perform(get("/api/dashboards/{id}/widgets", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "W/\"v4\""))
+                .andExpect(jsonPath("$[0].type").value("notes-widget"));
+    }
+
+    @Test
+    void widgetListWithPendingAutosavesIsNeverAnsweredWith304() throws Exception {
+        when(widgetService.getDashboardVersion(any(), eq(dashboardId))).thenReturn(3L);
+        when(widgetService.getWidgets(any(), eq(dashboardId))).thenReturn(List.of(widget()));
+        when(writeBuffer.hasPending(dashboardId)).thenReturn(true);
+
+        mvc.perform(get("/api/dashboards/{id}/widgets", dashboardId).header(HttpHeaders.IF_NONE_MATCH, "W/\"v3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$[0].type").value("notes-widget"));
+    }
+
+    private static MultiValueMap<String, String> viewport() {
+        MultiValueMap<String, String> params = new LinkedMultiValueMap<>();
+        params.add("minX", "0");
+        params.add("minY", "0");
+        params.add("maxX", "800");
+        params.add("maxY", "600");
+        return params;
+    }
+
+    private static WidgetResponse widget() {
+        return WidgetResponse.builder().id(UUID.randomUUID()).type("notes-widget").width(400).height(300).build();
+    }
+}
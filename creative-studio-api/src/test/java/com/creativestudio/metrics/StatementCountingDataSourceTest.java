@@ -0,0 +1,96 @@
+package com.creativestudio.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+// Statement counting against mocked JDBC objects, driven through JdbcTemplate as the repositories do
+class StatementCountingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final Connection connection = mock(Connection.class);
+    private final PreparedStatement prepared = mock(PreparedStatement.class);
+    private final Statement statement = mock(Statement.class);
+    private final DataSource dataSource = new StatementCountingDataSource(target);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(target.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenReturn(prepared);
+        when(connection.createStatement()).thenReturn(statement);
+        when(prepared.executeQuery()).thenReturn(mock(ResultSet.class));
+        when(prepared.executeBatch()).thenReturn(new int[]{1, 1, 1});
+        when(statement.executeBatch()).thenReturn(new int[]{1, 1});
+        DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+        when(metaData.supportsBatchUpdates()).thenReturn(true);
+        when(connection.getMetaData()).thenReturn(metaData);
+        when(prepared.getConnection()).thenReturn(connection);
+        when(statement.getConnection()).thenReturn(connection);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestQueryCounter.stop();
+    }
+
+    @Test
+    void jdbcTemplateStatementsAreCounted() {
+        RequestQueryCounter counter = RequestQueryCounter.start(25, 1000, false);
+        NamedParameterJdbcTemplate jdbc = new NamedParameterJdbcTemplate(dataSource);
+
+        jdbc.update("UPDATE widgets SET data = :data WHERE id = :id",
+                new MapSqlParameterSource("data", "{}").addValue("id", 1));
+        jdbc.queryForList("SELECT id FROM widgets WHERE dashboard_id = :id", new MapSqlParameterSource("id", 1));
+
+        assertThat(counter.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void batchCountsAsOneRoundTrip() {
+        RequestQueryCounter counter = RequestQueryCounter.start(25, 1000, false);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+
+        jdbc.batchUpdate("UPDATE widgets SET x = ? WHERE id = ?",
+                List.of(new Object[]{1, 1}, new Object[]{2, 2}, new Object[]{3, 3}));
+        jdbc.batchUpdate("DELETE FROM a", "DELETE FROM b");
+
+        assertThat(counter.statements()).isEqualTo(2);
+    }
+
+    @Test
+    void statementOverBudgetFailsNamingItsSql() {
+        RequestQueryCounter.start(1, 1000, true);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("UPDATE dashboards SET version = version + 1");
+
+        assertThatThrownBy(() -> jdbc.update("UPDATE widgets SET revision = 1"))
+                .isInstanceOf(QueryBudgetExceededException.class)
+                .hasMessageEndingWith("UPDATE widgets SET revision = 1");
+    }
+
+    @Test
+    void connectionsOutsideARequestAreNotWrapped() throws Exception {
+        assertThat(dataSource.getConnection()).isSameAs(connection);
+
+        RequestQueryCounter.start(25, 1000, false);
+        Connection counted = dataSource.getConnection();
+        assertThat(counted).isNotSameAs(connection).isEqualTo(counted).isNotEqualTo(connection);
+    }
+}
@@ -0,0 +1,130 @@
+package com.creativestudio.repository;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The migrations applied to a database the original application built: the statements Hibernate's
+// ddl-auto=update ran for the original entities, with a few rows. Flyway adopts it as V1, as
+// application.properties configures it, and the later migrations must leave it with the same schema
+// as a new database and its rows intact. Runs on a throwaway embedded PostgreSQL.
+class FlywayBaselineTest {
+
+    private static final String ORIGINAL_SCHEMA = """
+            create table dashboards (id uuid not null, created_at timestamp(6), grid_size integer, name varchar(255), updated_at timestamp(6), user_id uuid not null, primary key (id));
+            create table users (id uuid not null, created_at timestamp(6), email varchar(255) not null, password_hash varchar(255) not null, updated_at timestamp(6), username varchar(255) not null, primary key (id));
+            create table widgets (id uuid not null, created_at timestamp(6), data jsonb, height integer not null, name varchar(255), type varchar(255) not null, updated_at timestamp(6), width integer not null, x integer not null, y integer not null, z_index integer, dashboard_id uuid not null, primary key (id));
+            alter table if exists users drop constraint if exists UK6dotkott2kjsp8vw4d0m25fb7;
+            alter table if exists users add constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email);
+            alter table if exists users drop constraint if exists UKr43af9ap4edm43mmtq01oddj6;
+            alter table if exists users add constraint UKr43af9ap4edm43mmtq01oddj6 unique (username);
+            alter table if exists dashboards add constraint FKreklrpwl67skqlbp05mxd24dj foreign key (user_id) references users;
+            alter table if exists widgets add constraint FKrmv42172j0f5io72clhaba2ad foreign key (dashboard_id) references dashboards;
+            """;
+
+    // As init.sql seeded it; rows written outside the entities may leave grid_size and z_index null
+    private static final String ORIGINAL_ROWS = """
+            INSERT INTO users (id, email, username, password_hash, created_at, updated_at)
+            VALUES ('a1b2c3d4-e5f6-7890-abcd-ef1234567890', 'test@example.com', 'testuser', 'x', NOW(), NOW());
+            INSERT INTO dashboards (id, user_id, name, grid_size, created_at, updated_at)
+            VALUES ('d1a2b3c4-e5f6-7890-abcd-ef1234567890', 'a1b2c3d4-e5f6-7890-abcd-ef1234567890', 'My Workspace', 40, NOW(), NOW()),
+                   ('d2a2b3c4-e5f6-7890-abcd-ef1234567890', 'a1b2c3d4-e5f6-7890-abcd-ef1234567890', 'Imported', NULL, NOW(), NOW());
+            INSERT INTO widgets (id, dashboard_id, type, x, y, width, height, z_index, data, created_at, updated_at)
+            VALUES ('e1000000-0000-0000-0000-000000000001', 'd1a2b3c4-e5f6-7890-abcd-ef1234567890', 'notes-widget',
+                    0, 340, 400, 300, 3, '{"text": "Quick notes: review PR"}', NOW(), NOW()),
+                   ('e2000000-0000-0000-0000-000000000002', 'd1a2b3c4-e5f6-7890-abcd-ef1234567890', 'todo-list',
+                    440, 0, 400, 300, NULL, '{"todos": [{"id": "t1", "text": "Build REST API", "completed": true}]}', NOW(), NOW());
+            """;
+
+    private static EmbeddedPostgres postgres;
+
+    @BeforeAll
+    static void start() throws IOException {
+        postgres = EmbeddedPostgres.builder().start();
+    }
+
+    @AfterAll
+    static void stop() throws IOException {
+        postgres.close();
+    }
+
+    @Test
+    void originalDatabaseMigratesToTheCurrentSchema() {
+        DataSource original = database("original");
+        new JdbcTemplate(original).execute(ORIGINAL_SCHEMA + ORIGINAL_ROWS);
+        DataSource created = database("created");
+
+        flyway(original).migrate();
+        flyway(created).migrate();
+
+        MigrationInfo[] applied = flyway(original).info().applied();
+        assertThat(applied[0].getType().isBaseline()).isTrue();
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo("1");
+        assertThat(applied).hasSameSizeAs(flyway(created).info().applied());
+        assertThat(schema(original)).isEqualTo(schema(created));
+
+        JdbcTemplate jdbc = new JdbcTemplate(original);
+        assertThat(jdbc.queryForList("SELECT name, grid_size, version FROM dashboards ORDER BY name"))
+                .containsExactly(Map.of("name", "Imported", "grid_size", 40, "version", 0L),
+                        Map.of("name", "My Workspace", "grid_size", 40, "version", 0L));
+        assertThat(jdbc.queryForList("SELECT type, z_index, revision FROM widgets ORDER BY type"))
+                .containsExactly(Map.of("type", "notes-widget", "z_index", 3, "revision", 0L),
+                        Map.of("type", "todo-list", "z_index", 0, "revision", 0L));
+        assertThat(jdbc.queryForList("SELECT type FROM widgets WHERE search @@ to_tsquery('simple', 'review & notes')",
+                String.class)).containsExactly("notes-widget");
+    }
+
+    private static DataSource database(String name) {
+        new JdbcTemplate(postgres.getPostgresDatabase()).execute("CREATE DATABASE " + name);
+        return postgres.getDatabase("postgres", name);
+    }
+
+    private static Flyway flyway(DataSource dataSource) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .configuration(Map.of("flyway.postgresql.transactional.lock", "false"))
+                .load();
+    }
+
+    // Tables, columns, constraints, indexes and functions, as definitions independent of creation order
+    private static List<String> schema(DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        List<String> schema = new ArrayList<>();
+        schema.addAll(jdbc.queryForList("""
+                SELECT table_name || '.' || column_name || ' ' || data_type || ' ' || is_nullable
+                       || ' ' || coalesce(column_default, '') || ' ' || coalesce(generation_expression, '')
+                FROM information_schema.columns
+                WHERE table_schema = 'public' AND table_name <> 'flyway_schema_history'
+                """, String.class));
+        schema.addAll(jdbc.queryForList("""
+                SELECT conrelid::regclass || ' ' || conname || ' ' || pg_get_constraintdef(oid)
+                FROM pg_constraint
+                WHERE connamespace = 'public'::regnamespace AND conrelid <> 'flyway_schema_history'::regclass
+                """, String.class));
+        schema.addAll(jdbc.queryForList("""
+                SELECT indexdef FROM pg_indexes WHERE schemaname = 'public' AND tablename <> 'flyway_schema_history'
+                """, String.class));
+        schema.addAll(jdbc.queryForList("""
+                SELECT pg_get_functiondef(p.oid)
+                FROM pg_proc p
+                WHERE p.pronamespace = 'public'::regnamespace
+                  AND NOT EXISTS (SELECT 1 FROM pg_depend d WHERE d.objid = p.oid AND d.deptype = 'e')
+                """, String.class));
+        schema.sort(null);
+        return schema;
+    }
+}
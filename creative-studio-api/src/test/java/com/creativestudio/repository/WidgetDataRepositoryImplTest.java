@@ -0,0 +1,238 @@
+package com.creativestudio.repository;
+
+import com.creativestudio.dto.JsonPatchOperation;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.flipkart.zjsonpatch.CompatibilityFlags;
+import com.flipkart.zjsonpatch.JsonPatch;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.JdbcTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The jsonb translation of RFC 6902 and RFC 7396 patches, run against the migrated schema and compared
+// with a reference implementation applied to the same document in memory: a patch the reference
+// rejects must leave the stored document untouched. Rolled back after each test.
+@JdbcTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+class WidgetDataRepositoryImplTest {
+
+    private static final String DOCUMENT = """
+            {"text": "note", "n": 1, "o": {"x": 1, "inner": {"deep": [1, 2]}}, "t": [1, 2, 3],
+             "todos": [{"id": 1, "text": "a", "completed": false}, {"id": 2, "text": "b", "completed": true}],
+             "a/b": "slash", "m~n": "tilde", "~1": "escaped tilde one", "": "empty key"}
+            """;
+
+    private static final TypeReference<List<JsonPatchOperation>> OPERATIONS = new TypeReference<>() {
+    };
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private WidgetDataRepositoryImpl repository;
+    private UUID dashboardId;
+    private UUID widgetId;
+
+    @BeforeEach
+    void seed() {
+        repository = new WidgetDataRepositoryImpl(new NamedParameterJdbcTemplate(jdbcTemplate), objectMapper);
+        UUID userId = UUID.randomUUID();
+        dashboardId = UUID.randomUUID();
+        widgetId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, email, username, password_hash) VALUES (?, ?, ?, 'x')",
+                userId, userId + "@example.com", userId.toString());
+        jdbcTemplate.update("INSERT INTO dashboards (id, user_id, name, grid_size) VALUES (?, ?, 'd', 40)",
+                dashboardId, userId);
+        jdbcTemplate.update("""
+                INSERT INTO widgets (id, dashboard_id, type, name, x, y, width, height, z_index, data)
+                VALUES (?, ?, 'notes-widget', 'w', 0, 0, 90, 90, 0, CAST(? AS jsonb))
+                """, widgetId, dashboardId, DOCUMENT);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            add member                  | [{"op": "add", "path": "/b", "value": 2}]
+            add overwrites member       | [{"op": "add", "path": "/n", "value": {"k": [true, null]}}]
+            add nested member           | [{"op": "add", "path": "/o/y", "value": "y"}]
+            add to missing parent       | [{"op": "add", "path": "/missing/x", "value": 1}]
+            add array index             | [{"op": "add", "path": "/t/1", "value": 9}]
+            add array first             | [{"op": "add", "path": "/t/0", "value": 9}]
+            add array end index         | [{"op": "add", "path": "/t/3", "value": 9}]
+            add array past end          | [{"op": "add", "path": "/t/4", "value": 9}]
+            add array dash              | [{"op": "add", "path": "/t/-", "value": 9}]
+            add array negative index    | [{"op": "add", "path": "/t/-1", "value": 9}]
+            add array leading zero      | [{"op": "add", "path": "/t/01", "value": 9}]
+            add array non-numeric index | [{"op": "add", "path": "/t/x", "value": 9}]
+            add nested array            | [{"op": "add", "path": "/o/inner/deep/1", "value": 7}]
+            add object member dash      | [{"op": "add", "path": "/o/-", "value": 9}]
+            add object member digits    | [{"op": "add", "path": "/o/0", "value": 9}]
+            add whole document          | [{"op": "add", "path": "", "value": {"z": 1}}]
+            add empty key               | [{"op": "add", "path": "/", "value": "set"}]
+            remove member               | [{"op": "remove", "path": "/text"}]
+            remove nested member        | [{"op": "remove", "path": "/o/inner/deep"}]
+            remove array element        | [{"op": "remove", "path": "/t/0"}]
+            remove last array element   | [{"op": "remove", "path": "/t/2"}]
+            remove array past end       | [{"op": "remove", "path": "/t/3"}]
+            remove array negative index | [{"op": "remove", "path": "/t/-1"}]
+            remove missing member       | [{"op": "remove", "path": "/missing"}]
+            remove in todo              | [{"op": "remove", "path": "/todos/1/text"}]
+            replace member              | [{"op": "replace", "path": "/text", "value": "new"}]
+            replace with null           | [{"op": "replace", "path": "/text", "value": null}]
+            replace array element       | [{"op": "replace", "path": "/t/1", "value": [4, 5]}]
+            replace array past end      | [{"op": "replace", "path": "/t/3", "value": 9}]
+            replace array negative      | [{"op": "replace", "path": "/t/-1", "value": 9}]
+            replace missing member      | [{"op": "replace", "path": "/missing", "value": 9}]
+            replace todo field          | [{"op": "replace", "path": "/todos/0/completed", "value": true}]
+            replace whole document      | [{"op": "replace", "path": "", "value": {"z": 1}}]
+            move member                 | [{"op": "move", "from": "/text", "path": "/moved"}]
+            move into nested object     | [{"op": "move", "from": "/n", "path": "/o/n"}]
+            move array element to end   | [{"op": "move", "from": "/t/0", "path": "/t/-"}]
+            move array element forward  | [{"op": "move", "from": "/t/0", "path": "/t/2"}]
+            move todo between arrays    | [{"op": "move", "from": "/todos/0", "path": "/t/1"}]
+            move missing                | [{"op": "move", "from": "/missing", "path": "/moved"}]
+            move to missing parent      | [{"op": "move", "from": "/text", "path": "/missing/x"}]
+            copy member                 | [{"op": "copy", "from": "/o", "path": "/o2"}]
+            copy array element          | [{"op": "copy", "from": "/todos/1", "path": "/todos/0"}]
+            copy missing                | [{"op": "copy", "from": "/missing", "path": "/copied"}]
+            test passes                 | [{"op": "test", "path": "/o", "value": {"inner": {"deep": [1, 2]}, "x": 1}}, {"op": "replace", "path": "/n", "value": 2}]
+            test fails                  | [{"op": "test", "path": "/n", "value": 2}, {"op": "replace", "path": "/n", "value": 3}]
+            test missing path           | [{"op": "test", "path": "/missing", "value": null}]
+            test array element          | [{"op": "test", "path": "/t/2", "value": 3}, {"op": "remove", "path": "/t/2"}]
+            test string vs number       | [{"op": "test", "path": "/n", "value": "1"}]
+            later op fails              | [{"op": "replace", "path": "/n", "value": 5}, {"op": "remove", "path": "/missing"}]
+            ops see earlier ops         | [{"op": "add", "path": "/t/-", "value": 4}, {"op": "replace", "path": "/t/3", "value": 5}, {"op": "copy", "from": "/t", "path": "/t2"}]
+            escaped slash               | [{"op": "replace", "path": "/a~1b", "value": 10}]
+            escaped tilde               | [{"op": "remove", "path": "/m~0n"}]
+            key with quote              | [{"op": "add", "path": "/say \\"hi\\"", "value": 1}]
+            key with backslash          | [{"op": "add", "path": "/back\\\\slash", "value": 1}]
+            """)
+    void jsonPatchMatchesReference(String name, String patch) throws Exception {
+        JsonNode expected;
+        try {
+            expected = JsonPatch.apply(objectMapper.readTree(patch), objectMapper.readTree(DOCUMENT),
+                    EnumSet.of(CompatibilityFlags.FORBID_REMOVE_MISSING_OBJECT));
+        } catch (RuntimeException e) {
+            expected = null;
+        }
+
+        Optional<WidgetDataRepository.DataChange> change = repository.jsonPatchData(dashboardId, widgetId,
+                objectMapper.readValue(patch, OPERATIONS), 1);
+
+        if (expected == null) {
+            assertThat(change).as("rejected by the reference").isEmpty();
+            assertThat(stored()).isEqualTo(objectMapper.readTree(DOCUMENT));
+        } else {
+            assertThat(change).as("applied by the reference").isPresent();
+            assertThat(stored()).isEqualTo(expected);
+            assertLoggedChange(change.get(), objectMapper.readTree(DOCUMENT), expected);
+        }
+    }
+
+    // Where the reference departs from the RFCs: it decodes "~01" as "/" and ignores removing "-"
+    @Test
+    void pointerEdgeCasesFollowTheRfc() throws Exception {
+        assertThat(repository.jsonPatchData(dashboardId, widgetId, List.of(
+                new JsonPatchOperation("replace", "/~01", null, "unescaped once")), 1)).isPresent();
+        assertThat(stored().get("~1").asText()).isEqualTo("unescaped once");
+
+        assertThat(repository.jsonPatchData(dashboardId, widgetId, List.of(
+                new JsonPatchOperation("remove", "/t/-", null, null)), 1)).isEmpty();
+        assertThat(stored().get("t")).isEqualTo(objectMapper.readTree("[1, 2, 3]"));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource(delimiter = '|', textBlock = """
+            set members          | {"n": 2, "new": [1]}
+            remove with null     | {"text": null, "missing": null}
+            merge nested         | {"o": {"x": null, "inner": {"deep": "flat", "more": true}}}
+            object over scalar   | {"n": {"k": 1}}
+            scalar over object   | {"o": 5}
+            arrays are replaced  | {"t": [9], "todos": []}
+            escaped-looking keys | {"a/b": null, "m~n": 3}
+            """)
+    void mergePatchMatchesReference(String name, String patch) throws Exception {
+        JsonNode expected = mergePatch(objectMapper.readTree(DOCUMENT), objectMapper.readTree(patch));
+
+        Optional<WidgetDataRepository.DataChange> change = repository.mergePatchData(dashboardId, widgetId,
+                objectMapper.readValue(patch, new TypeReference<Map<String, Object>>() {
+                }), 1);
+
+        assertThat(change).isPresent();
+        assertThat(stored()).isEqualTo(expected);
+        assertLoggedChange(change.get(), objectMapper.readTree(DOCUMENT), expected);
+    }
+
+    @Test
+    void patchOfAnotherDashboardsWidgetIsNotApplied() throws Exception {
+        List<JsonPatchOperation> patch = List.of(new JsonPatchOperation("replace", "/n", null, 2));
+
+        assertThat(repository.jsonPatchData(UUID.randomUUID(), widgetId, patch, 1)).isEmpty();
+        assertThat(repository.mergePatchData(UUID.randomUUID(), widgetId, Map.of("n", 2), 1)).isEmpty();
+        assertThat(stored()).isEqualTo(objectMapper.readTree(DOCUMENT));
+    }
+
+    // The change history logs, as jsonb_diff reports it: the patches lead from one document to the
+    // other both ways when applied by WidgetStates, and are the ones WidgetStates.diff builds
+    private void assertLoggedChange(WidgetDataRepository.DataChange change, JsonNode from, JsonNode to) {
+        assertThat(applied(from, change.after())).isEqualTo(to);
+        assertThat(applied(to, change.before())).isEqualTo(from);
+        assertThat(nodes(change.after())).containsExactlyInAnyOrderElementsOf(
+                nodes(WidgetStates.diff(document(from), document(to))));
+        assertThat(nodes(change.before())).containsExactlyInAnyOrderElementsOf(
+                nodes(WidgetStates.diff(document(to), document(from))));
+    }
+
+    private JsonNode applied(JsonNode document, List<Map<String, Object>> patch) {
+        Map<String, Object> state = WidgetStates.apply(Map.of(WidgetStates.DATA, document(document)),
+                Map.of(WidgetStates.DATA, patch));
+        return objectMapper.valueToTree(state.get(WidgetStates.DATA));
+    }
+
+    private Map<String, Object> document(JsonNode node) {
+        return objectMapper.convertValue(node, new TypeReference<>() {
+        });
+    }
+
+    private List<JsonNode> nodes(List<Map<String, Object>> patch) {
+        return patch.stream().<JsonNode>map(objectMapper::valueToTree).toList();
+    }
+
+    private JsonNode stored() throws Exception {
+        return objectMapper.readTree(jdbcTemplate.queryForObject("SELECT data::text FROM widgets WHERE id = ?",
+                String.class, widgetId));
+    }
+
+    // RFC 7396, section 2
+    private static JsonNode mergePatch(JsonNode target, JsonNode patch) {
+        if (!patch.isObject()) {
+            return patch;
+        }
+        ObjectNode result = target.isObject() ? ((ObjectNode) target).deepCopy() : JsonNodeFactory.instance.objectNode();
+        patch.properties().forEach(member -> {
+            if (member.getValue().isNull()) {
+                result.remove(member.getKey());
+            } else {
+                result.set(member.getKey(), mergePatch(result.path(member.getKey()), member.getValue()));
+            }
+        });
+        return result;
+    }
+}
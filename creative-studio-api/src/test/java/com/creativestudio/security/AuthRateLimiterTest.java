@@ -0,0 +1,58 @@
+package com.creativestudio.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Both limits with a one-per-minute refill, so a refused attempt waits close to a minute
+class AuthRateLimiterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Address: burst 3; account: burst 2
+    private final AuthRateLimiter limiter = new AuthRateLimiter(1024, 3, 1, 2, 1, meterRegistry);
+
+    @Test
+    void addressBurstIsGrantedThenRefusedWithRetryAfter() {
+        limiter.acquire("10.0.0.1", "a@example.com");
+        limiter.acquire("10.0.0.1", "b@example.com");
+        limiter.acquire("10.0.0.1", "c@example.com");
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "d@example.com"))
+                .isInstanceOfSatisfying(AuthThrottledException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(59L, 60L));
+        assertThat(rejections("address")).isEqualTo(1);
+        assertThat(rejections("account")).isZero();
+    }
+
+    @Test
+    void accountLimitHoldsAcrossAddressesAndEmailCase() {
+        limiter.acquire("10.0.0.1", "victim@example.com");
+        limiter.acquire("10.0.0.2", "Victim@Example.com");
+
+        assertThatThrownBy(() -> limiter.acquire("10.0.0.3", "VICTIM@example.com"))
+                .isInstanceOfSatisfying(AuthThrottledException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isBetween(59L, 60L));
+        assertThat(rejections("account")).isEqualTo(1);
+        limiter.acquire("10.0.0.3", "other@example.com");
+    }
+
+    @Test
+    void attemptRefusedByAddressDoesNotSpendTheAccount() {
+        for (int i = 0; i < 3; i++) {
+            limiter.acquire("10.0.0.1", "user" + i + "@example.com");
+        }
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> limiter.acquire("10.0.0.1", "victim@example.com"))
+                    .isInstanceOf(AuthThrottledException.class);
+        }
+
+        limiter.acquire("10.0.0.2", "victim@example.com");
+        limiter.acquire("10.0.0.2", "victim@example.com");
+    }
+
+    private double rejections(String limit) {
+        return meterRegistry.get("auth.rate-limit.rejections").tag("limit", limit).counter().count();
+    }
+}
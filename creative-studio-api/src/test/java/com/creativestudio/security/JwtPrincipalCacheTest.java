@@ -0,0 +1,74 @@
+package com.creativestudio.security;
+
+import com.creativestudio.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Five-minute entries on a manual clock; tokens valid for a day unless a test says otherwise
+class JwtPrincipalCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final JwtPrincipalCache cache = new JwtPrincipalCache(100, TTL.toMillis(), new SimpleMeterRegistry(), nanos::get);
+    private final User user = User.builder().id(UUID.randomUUID()).email("user@example.com").username("user")
+            .passwordHash("hash").build();
+
+    @Test
+    void verifiedTokenIsServedWithItsIdentityOnly() {
+        cache.put("token", user, inHours(24));
+
+        User cached = cache.get("token");
+        assertThat(cached.getId()).isEqualTo(user.getId());
+        assertThat(cached.getEmail()).isEqualTo(user.getEmail());
+        assertThat(cached.getPasswordHash()).isNull();
+    }
+
+    @Test
+    void entryExpiresAfterTheTtlThoughTheTokenIsStillValid() {
+        cache.put("token", user, inHours(24));
+
+        advance(TTL.minusSeconds(1));
+        assertThat(cache.get("token")).isNotNull();
+        advance(Duration.ofSeconds(1));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void entryExpiresWithATokenThatExpiresFirst() {
+        cache.put("token", user, new Date(System.currentTimeMillis() + Duration.ofMinutes(1).toMillis()));
+
+        advance(Duration.ofMinutes(1));
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void expiredTokenIsNotCached() {
+        cache.put("token", user, new Date(System.currentTimeMillis() - 1));
+
+        assertThat(cache.get("token")).isNull();
+    }
+
+    @Test
+    void anotherTokenIsNotServedFromTheCache() {
+        cache.put("token", user, inHours(24));
+
+        assertThat(cache.get("token2")).isNull();
+        assertThat(cache.get("Token")).isNull();
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+
+    private static Date inHours(int hours) {
+        return new Date(System.currentTimeMillis() + Duration.ofHours(hours).toMillis());
+    }
+}
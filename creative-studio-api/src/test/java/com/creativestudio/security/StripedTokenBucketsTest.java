@@ -0,0 +1,79 @@
+package com.creativestudio.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// GCRA buckets on a manual clock: 5 tokens of burst, refilled at 60 per minute (one per second)
+class StripedTokenBucketsTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(1_000 * SECOND);
+    private final StripedTokenBuckets buckets = new StripedTokenBuckets(1024, 5, 60, clock::get);
+
+    @Test
+    void fullBucketGrantsTheBurstThenReportsTheWait() {
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("a")).isZero();
+        }
+
+        assertThat(buckets.tryAcquire("a")).isEqualTo(SECOND);
+        clock.addAndGet(SECOND / 4);
+        assertThat(buckets.tryAcquire("a")).isEqualTo(3 * SECOND / 4);
+    }
+
+    @Test
+    void refusedAttemptsDoNotPushTheRefillBack() {
+        drain("a");
+        for (int i = 0; i < 100; i++) {
+            buckets.tryAcquire("a");
+        }
+
+        clock.addAndGet(SECOND);
+        assertThat(buckets.tryAcquire("a")).isZero();
+    }
+
+    @Test
+    void refillsOneTokenPerIntervalUpToTheBurst() {
+        drain("a");
+
+        clock.addAndGet(2 * SECOND);
+        assertThat(buckets.tryAcquire("a")).isZero();
+        assertThat(buckets.tryAcquire("a")).isZero();
+        assertThat(buckets.tryAcquire("a")).isPositive();
+
+        // Idle for far longer than the burst takes to refill: still only the burst
+        clock.addAndGet(3_600 * SECOND);
+        for (int i = 0; i < 5; i++) {
+            assertThat(buckets.tryAcquire("a")).isZero();
+        }
+        assertThat(buckets.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void keysHaveSeparateBuckets() {
+        drain("a");
+
+        assertThat(buckets.tryAcquire("b")).isZero();
+        assertThat(buckets.tryAcquire("a")).isPositive();
+    }
+
+    @Test
+    void stripesRoundUpToAPowerOfTwo() {
+        StripedTokenBuckets one = new StripedTokenBuckets(1, 1, 60, clock::get);
+
+        // A single stripe: every key shares the one bucket
+        assertThat(one.tryAcquire("a")).isZero();
+        assertThat(one.tryAcquire("b")).isPositive();
+    }
+
+    private void drain(String key) {
+        while (buckets.tryAcquire(key) == 0) {
+            // spend the burst
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardRequest;
+import com.creativestudio.dto.JsonPatchOperation;
+import com.creativestudio.dto.WidgetRequest;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.User;
+import com.creativestudio.model.WidgetOperation;
+import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetOperationRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Undo, redo and restore against the migrated schema. Every action commits on its own, as it does
+// behind the API: history is stamped with the transaction time, so one test transaction would put
+// every action at the same instant.
+@SpringBootTest
+@TestPropertySource(properties = "dashboard.history.snapshot-check-every=" + DashboardHistoryServiceTest.CHECK_EVERY)
+class DashboardHistoryServiceTest {
+
+    static final int CHECK_EVERY = 3;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private DashboardHistoryService historyService;
+
+    @Autowired
+    private WidgetOperationRepository operationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private UUID dashboardId;
+
+    @BeforeEach
+    void createDashboard() {
+        String name = "history-" + UUID.randomUUID();
+        user = userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+        DashboardRequest request = new DashboardRequest();
+        request.setName("history");
+        dashboardId = dashboardService.createDashboard(user.getEmail(), request).getId();
+    }
+
+    @AfterEach
+    void deleteDashboard() {
+        dashboardService.deleteDashboard(user.getEmail(), dashboardId);
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void undoOfADeletionBringsTheWidgetBackForSyncingClients() {
+        UUID widgetId = createWidget(Map.of("text", "a")).getId();
+        widgetService.deleteWidget(user, dashboardId, widgetId);
+        assertThat(dashboardService.getChanges(user.getEmail(), dashboardId, 1).getDeleted()).containsExactly(widgetId);
+
+        historyService.undo(user, dashboardId);
+
+        assertThat(widgetService.getWidgets(user, dashboardId)).extracting(WidgetResponse::getId).containsExactly(widgetId);
+        assertThat(dashboardService.getChanges(user.getEmail(), dashboardId, 1).getDeleted()).isEmpty();
+        assertThat(dashboardService.getChanges(user.getEmail(), dashboardId, 1).getWidgets())
+                .extracting(WidgetResponse::getId).containsExactly(widgetId);
+    }
+
+    @Test
+    void newEditAfterAnUndoDiscardsTheRedo() {
+        UUID widgetId = createWidget(Map.of("text", "a")).getId();
+        setText(widgetId, "b");
+        historyService.undo(user, dashboardId);
+        assertThat(text()).isEqualTo("a");
+
+        setText(widgetId, "c");
+
+        assertThatThrownBy(() -> historyService.redo(user, dashboardId)).hasMessage("Nothing to redo");
+        assertThat(text()).isEqualTo("c");
+    }
+
+    @Test
+    void restoreBeforeTheOldestSnapshotReplaysTheLogBackward() throws Exception {
+        LocalDateTime beforeHistory = now();
+        UUID widgetId = createWidget(Map.of("text", "a")).getId();
+        LocalDateTime atA = now();
+        setText(widgetId, "b");
+        setText(widgetId, "c");
+        assertThat(snapshotVersions()).containsExactly((long) CHECK_EVERY);
+        LocalDateTime atC = now();
+        setText(widgetId, "d");
+
+        assertThatThrownBy(() -> historyService.restore(user, dashboardId, beforeHistory))
+                .hasMessageStartingWith("History does not go back to");
+        historyService.restore(user, dashboardId, atC);
+        assertThat(text()).isEqualTo("c");
+        historyService.restore(user, dashboardId, atA);
+        assertThat(text()).isEqualTo("a");
+    }
+
+    @Test
+    void versionsThatLogNothingDoNotSkipTheSnapshotCheck() {
+        UUID widgetId = createWidget(Map.of("text", "a")).getId();
+        setText(widgetId, "b");
+        DashboardRequest rename = new DashboardRequest();
+        rename.setName("renamed");
+        dashboardService.updateDashboard(user.getEmail(), dashboardId, rename);
+        assertThat(snapshotVersions()).isEmpty();
+
+        setText(widgetId, "c");
+
+        assertThat(snapshotVersions()).containsExactly((long) CHECK_EVERY + 1);
+    }
+
+    @Test
+    void nestedEditIsLoggedAtItsPathAndUndone() {
+        List<Map<String, Object>> todos = List.of(
+                Map.of("id", 1, "text", "first", "completed", false),
+                Map.of("id", 2, "text", "second", "completed", false));
+        UUID widgetId = createWidget(Map.of("text", "x".repeat(1000), "todos", todos)).getId();
+
+        widgetService.jsonPatchWidgetData(user, dashboardId, widgetId,
+                List.of(new JsonPatchOperation("replace", "/todos/1/completed", null, true)));
+
+        long version = widgetService.getDashboardVersion(user, dashboardId);
+        List<WidgetOperation> logged = operationRepository.findAction(dashboardId, version);
+        assertThat(logged).singleElement().satisfies(operation -> {
+            assertThat(operation.getAfter()).isEqualTo(Map.of("data",
+                    List.of(Map.of("op", "replace", "path", "/todos/1/completed", "value", true))));
+            assertThat(operation.getBefore()).isEqualTo(Map.of("data",
+                    List.of(Map.of("op", "replace", "path", "/todos/1/completed", "value", false))));
+        });
+
+        historyService.undo(user, dashboardId);
+
+        assertThat(widgetService.getWidgets(user, dashboardId)).singleElement()
+                .satisfies(widget -> assertThat(widget.getData().get("todos")).isEqualTo(todos));
+    }
+
+    @Test
+    void saveThatChangesNothingIsNotLogged() {
+        UUID widgetId = createWidget(Map.of("text", "a")).getId();
+
+        widgetService.updateWidgetData(user, dashboardId, widgetId, Map.of("text", "a"), null);
+
+        assertThat(historyService.getHistory(user, dashboardId, 10)).hasSize(1);
+    }
+
+    private WidgetResponse createWidget(Map<String, Object> data) {
+        WidgetRequest request = new WidgetRequest();
+        request.setType("notes-widget");
+        request.setName("w");
+        request.setData(data);
+        return widgetService.createWidget(user, dashboardId, request);
+    }
+
+    private void setText(UUID widgetId, String text) {
+        widgetService.mergePatchWidgetData(user, dashboardId, widgetId, Map.of("text", text));
+    }
+
+    private Object text() {
+        return widgetService.getWidgets(user, dashboardId).getFirst().getData().get("text");
+    }
+
+    private List<Long> snapshotVersions() {
+        return jdbcTemplate.queryForList("SELECT version FROM dashboard_snapshots WHERE dashboard_id = ? ORDER BY version",
+                Long.class, dashboardId);
+    }
+
+    // Between two actions: history is stamped with LOCALTIMESTAMP, at microsecond precision
+    private LocalDateTime now() throws InterruptedException {
+        Thread.sleep(2);
+        LocalDateTime now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        Thread.sleep(2);
+        return now;
+    }
+}
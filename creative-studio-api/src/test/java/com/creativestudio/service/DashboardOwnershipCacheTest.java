@@ -0,0 +1,96 @@
+package com.creativestudio.service;
+
+import com.creativestudio.model.User;
+import com.creativestudio.repository.DashboardRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// Grants against a mocked repository; transactions are simulated with TransactionSynchronizationManager
+class DashboardOwnershipCacheTest {
+
+    private final DashboardRepository dashboardRepository = mock(DashboardRepository.class);
+    private final DashboardOwnershipCache cache =
+            new DashboardOwnershipCache(dashboardRepository, 60_000, 100, new SimpleMeterRegistry());
+    private final User owner = User.builder().id(UUID.randomUUID()).build();
+    private final User other = User.builder().id(UUID.randomUUID()).build();
+    private final UUID dashboardId = UUID.randomUUID();
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void grantIsCheckedOnce() {
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(true);
+
+        cache.check(dashboardId, owner);
+        cache.check(dashboardId, owner);
+
+        verify(dashboardRepository, times(1)).existsByIdAndUserId(dashboardId, owner.getId());
+    }
+
+    @Test
+    void nonOwnerIsDeniedEveryTime() {
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(true);
+        cache.check(dashboardId, owner);
+
+        assertThatThrownBy(() -> cache.check(dashboardId, other)).hasMessage("Dashboard not found");
+        assertThatThrownBy(() -> cache.check(dashboardId, other)).hasMessage("Dashboard not found");
+
+        verify(dashboardRepository, times(2)).existsByIdAndUserId(dashboardId, other.getId());
+    }
+
+    @Test
+    void deleteEvictsTheGrantWhenItCommits() {
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(true);
+        cache.check(dashboardId, owner);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(dashboardId, owner);
+        cache.check(dashboardId, owner);
+        verify(dashboardRepository, times(1)).existsByIdAndUserId(dashboardId, owner.getId());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(false);
+        assertThatThrownBy(() -> cache.check(dashboardId, owner)).hasMessage("Dashboard not found");
+    }
+
+    @Test
+    void rolledBackDeleteKeepsTheGrant() {
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(true);
+        cache.check(dashboardId, owner);
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evict(dashboardId, owner);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        cache.check(dashboardId, owner);
+
+        verify(dashboardRepository, times(1)).existsByIdAndUserId(dashboardId, owner.getId());
+    }
+
+    @Test
+    void evictOutsideATransactionIsImmediate() {
+        when(dashboardRepository.existsByIdAndUserId(dashboardId, owner.getId())).thenReturn(true);
+        cache.check(dashboardId, owner);
+
+        cache.evict(dashboardId, owner);
+        cache.check(dashboardId, owner);
+
+        verify(dashboardRepository, times(2)).existsByIdAndUserId(dashboardId, owner.getId());
+    }
+}
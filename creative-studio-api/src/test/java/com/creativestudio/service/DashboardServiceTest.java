@@ -0,0 +1,191 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardChangesResponse;
+import com.creativestudio.dto.DashboardRequest;
+import com.creativestudio.dto.DashboardSummaryPage;
+import com.creativestudio.dto.DashboardSummaryResponse;
+import com.creativestudio.dto.WidgetRequest;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Dashboard reads and writes against the migrated schema, for a user of their own
+@SpringBootTest
+class DashboardServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        String name = "dashboards-" + UUID.randomUUID();
+        user = userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+    }
+
+    @AfterEach
+    void deleteUser() {
+        // Through the service, which also removes the tombstones and history of each dashboard
+        for (UUID id : jdbcTemplate.queryForList("SELECT id FROM dashboards WHERE user_id = ?", UUID.class, user.getId())) {
+            dashboardService.deleteDashboard(user.getEmail(), id);
+        }
+        jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+    }
+
+    @Test
+    void summaryPagesFollowEachOtherAndTheLastHasNoCursor() {
+        // Five dashboards, two of them updated at the same instant so the id has to break the tie
+        LocalDateTime now = LocalDateTime.now().withNano(0);
+        for (int i = 0; i < 5; i++) {
+            UUID id = createDashboard("d" + i);
+            for (int w = 0; w < i; w++) {
+                createWidget(id);
+            }
+            jdbcTemplate.update("UPDATE dashboards SET updated_at = ? WHERE id = ?",
+                    now.minusMinutes(i == 2 ? 1 : i), id);
+        }
+        List<UUID> newestFirst = jdbcTemplate.queryForList(
+                "SELECT id FROM dashboards WHERE user_id = ? ORDER BY updated_at DESC, id DESC", UUID.class, user.getId());
+
+        List<DashboardSummaryResponse> listed = new ArrayList<>();
+        List<String> cursors = new ArrayList<>();
+        String cursor = null;
+        do {
+            DashboardSummaryPage page = dashboardService.getDashboardSummaries(user.getEmail(), cursor, 2);
+            assertThat(page.getDashboards()).hasSizeBetween(1, 2);
+            listed.addAll(page.getDashboards());
+            cursor = page.getNextCursor();
+            cursors.add(cursor);
+        } while (cursor != null);
+
+        assertThat(cursors).hasSize(3).endsWith((String) null);
+        assertThat(listed).extracting(DashboardSummaryResponse::getId)
+                .containsExactlyElementsOf(newestFirst);
+        assertThat(listed).extracting(DashboardSummaryResponse::getName, DashboardSummaryResponse::getWidgetCount)
+                .contains(tuple("d0", 0L), tuple("d2", 2L), tuple("d4", 4L));
+    }
+
+    @Test
+    void pageHoldingTheLastDashboardExactlyHasNoCursor() {
+        createDashboard("a");
+        createDashboard("b");
+
+        DashboardSummaryPage page = dashboardService.getDashboardSummaries(user.getEmail(), null, 2);
+
+        assertThat(page.getDashboards()).hasSize(2);
+        assertThat(page.getNextCursor()).isNull();
+    }
+
+    @Test
+    void changesSinceAVersionAreTheLaterWritesAndDeletions() {
+        UUID dashboardId = createDashboard("sync");
+        UUID unchanged = createWidget(dashboardId);
+        UUID updated = createWidget(dashboardId);
+        UUID deleted = createWidget(dashboardId);
+        UUID deletedEarlier = createWidget(dashboardId);
+        widgetService.deleteWidget(user, dashboardId, deletedEarlier);
+        long since = dashboardService.getDashboardVersion(user.getEmail(), dashboardId);
+
+        WidgetRequest update = new WidgetRequest();
+        update.setType("notes-widget");
+        update.setName("renamed");
+        update.setData(Map.of("text", "edited"));
+        widgetService.updateWidget(user, dashboardId, updated, update, null);
+        widgetService.deleteWidget(user, dashboardId, deleted);
+        UUID created = createWidget(dashboardId);
+
+        DashboardChangesResponse changes = dashboardService.getChanges(user.getEmail(), dashboardId, since);
+
+        assertThat(changes.getVersion()).isEqualTo(since + 3);
+        assertThat(changes.getWidgets()).extracting(WidgetResponse::getId, WidgetResponse::getName)
+                .containsExactly(tuple(updated, "renamed"), tuple(created, "w"));
+        assertThat(changes.getWidgets()).extracting(WidgetResponse::getRevision)
+                .allMatch(revision -> revision > since);
+        assertThat(changes.getDeleted()).containsExactly(deleted);
+        assertThat(changes.getWidgets()).extracting(WidgetResponse::getId).doesNotContain(unchanged);
+
+        DashboardChangesResponse upToDate = dashboardService.getChanges(user.getEmail(), dashboardId, changes.getVersion());
+        assertThat(upToDate.getWidgets()).isEmpty();
+        assertThat(upToDate.getDeleted()).isEmpty();
+
+        DashboardChangesResponse everything = dashboardService.getChanges(user.getEmail(), dashboardId, 0);
+        assertThat(everything.getWidgets()).extracting(WidgetResponse::getId).containsExactly(unchanged, updated, created);
+        assertThat(everything.getDeleted()).containsExactlyInAnyOrder(deleted, deletedEarlier);
+    }
+
+    @Test
+    void duplicateCopiesEveryWidgetUnderNewIds() {
+        UUID sourceId = createDashboard("source");
+        List<UUID> sourceWidgets = List.of(createWidget(sourceId), createWidget(sourceId), createWidget(sourceId));
+        jdbcTemplate.update("UPDATE widgets SET x = 40, data = '{\"text\": \"moved\"}' WHERE id = ?", sourceWidgets.get(1));
+
+        DashboardSummaryResponse copy = dashboardService.duplicateDashboard(user.getEmail(), sourceId, null);
+
+        assertThat(copy.getId()).isNotEqualTo(sourceId);
+        assertThat(copy.getName()).isEqualTo("source (copy)");
+        assertThat(copy.getWidgetCount()).isEqualTo(3);
+        List<WidgetResponse> copied = widgetService.getWidgets(user, copy.getId());
+        List<WidgetResponse> source = widgetService.getWidgets(user, sourceId);
+        assertThat(copied).extracting(WidgetResponse::getId).doesNotContainAnyElementsOf(sourceWidgets).doesNotHaveDuplicates();
+        assertThat(copied).extracting(WidgetResponse::getType, WidgetResponse::getX, WidgetResponse::getData)
+                .containsExactlyInAnyOrderElementsOf(source.stream()
+                        .map(widget -> tuple(widget.getType(), widget.getX(), widget.getData())).toList());
+        assertThat(source).extracting(WidgetResponse::getId).containsExactlyInAnyOrderElementsOf(sourceWidgets);
+    }
+
+    @Test
+    void duplicateOfAnotherUsersDashboardCopiesNothing() {
+        UUID sourceId = createDashboard("source");
+        createWidget(sourceId);
+        String name = "intruder-" + UUID.randomUUID();
+        User intruder = userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+        try {
+            assertThatThrownBy(() -> dashboardService.duplicateDashboard(intruder.getEmail(), sourceId, "mine"))
+                    .hasMessage("Dashboard not found");
+            assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM dashboards WHERE user_id = ?",
+                    Long.class, intruder.getId())).isZero();
+        } finally {
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", intruder.getId());
+        }
+    }
+
+    private UUID createDashboard(String name) {
+        DashboardRequest request = new DashboardRequest();
+        request.setName(name);
+        return dashboardService.createDashboard(user.getEmail(), request).getId();
+    }
+
+    private UUID createWidget(UUID dashboardId) {
+        WidgetRequest request = new WidgetRequest();
+        request.setType("notes-widget");
+        request.setName("w");
+        request.setData(Map.of("text", "note"));
+        return widgetService.createWidget(user, dashboardId, request).getId();
+    }
+}
@@ -0,0 +1,145 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.WidgetChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Coalescing of the events one flush sends for a dashboard
+class DashboardStreamChannelTest {
+
+    private final DashboardStreamService.Channel channel = new DashboardStreamService.Channel();
+    private final UUID widget = UUID.randomUUID();
+    private final UUID other = UUID.randomUUID();
+
+    @Test
+    void dragSendsOnlyTheLastPosition() {
+        channel.enqueue(layout(widget, 1, 10));
+        channel.enqueue(layout(widget, 2, 20));
+        channel.enqueue(layout(widget, 3, 30));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getVersion, WidgetChangeEvent::getX)
+                .containsExactly(tuple(3L, 30));
+    }
+
+    @Test
+    void positionCommittedLaterButOlderIsDropped() {
+        channel.enqueue(layout(widget, 3, 30));
+        channel.enqueue(layout(widget, 2, 20));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getVersion, WidgetChangeEvent::getX)
+                .containsExactly(tuple(3L, 30));
+    }
+
+    @Test
+    void typingBurstSendsOnlyTheLastDataSave() {
+        channel.enqueue(data(widget, 1, "a"));
+        channel.enqueue(patch(widget, 2));
+        channel.enqueue(data(widget, 3, "abc"));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType, WidgetChangeEvent::getVersion)
+                .containsExactly(tuple(WidgetChangeEvent.DATA, 3L));
+    }
+
+    @Test
+    void dataSaveCommittedLaterButOlderIsDropped() {
+        channel.enqueue(data(widget, 5, "newer"));
+        channel.enqueue(data(widget, 4, "older"));
+
+        assertThat(channel.drain()).extracting(e -> e.getData().get("text")).containsExactly("newer");
+    }
+
+    @Test
+    void patchesAreAllSentInVersionOrder() {
+        channel.enqueue(data(widget, 1, "a"));
+        channel.enqueue(patch(widget, 3));
+        channel.enqueue(patch(widget, 2));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType, WidgetChangeEvent::getVersion)
+                .containsExactly(tuple(WidgetChangeEvent.DATA, 1L), tuple(WidgetChangeEvent.PATCH, 2L),
+                        tuple(WidgetChangeEvent.PATCH, 3L));
+    }
+
+    @Test
+    void fullStateSupersedesMovesAndDataButNotTheCreation() {
+        channel.enqueue(event(WidgetChangeEvent.CREATED, widget, 1));
+        channel.enqueue(layout(widget, 2, 20));
+        channel.enqueue(data(widget, 3, "a"));
+        channel.enqueue(event(WidgetChangeEvent.UPDATED, widget, 4));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType)
+                .containsExactly(WidgetChangeEvent.CREATED, WidgetChangeEvent.UPDATED);
+    }
+
+    @Test
+    void moveNewerThanFullStateIsKept() {
+        channel.enqueue(layout(widget, 5, 50));
+        channel.enqueue(event(WidgetChangeEvent.UPDATED, widget, 4));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType, WidgetChangeEvent::getVersion)
+                .containsExactly(tuple(WidgetChangeEvent.UPDATED, 4L), tuple(WidgetChangeEvent.LAYOUT, 5L));
+    }
+
+    @Test
+    void widgetCreatedAndDeletedInOneWindowIsNotSent() {
+        channel.enqueue(event(WidgetChangeEvent.CREATED, widget, 1));
+        channel.enqueue(data(widget, 2, "a"));
+        channel.enqueue(event(WidgetChangeEvent.DELETED, widget, 3));
+
+        assertThat(channel.drain()).isEmpty();
+    }
+
+    @Test
+    void deletionSupersedesEverythingBeforeIt() {
+        channel.enqueue(layout(widget, 1, 10));
+        channel.enqueue(patch(widget, 2));
+        channel.enqueue(event(WidgetChangeEvent.DELETED, widget, 3));
+        channel.enqueue(data(widget, 2, "late"));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType)
+                .containsExactly(WidgetChangeEvent.DELETED);
+    }
+
+    @Test
+    void olderDeletionDoesNotRemoveALaterRecreation() {
+        channel.enqueue(event(WidgetChangeEvent.CREATED, widget, 5));
+        channel.enqueue(event(WidgetChangeEvent.DELETED, widget, 4));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getType, WidgetChangeEvent::getVersion)
+                .containsExactly(tuple(WidgetChangeEvent.DELETED, 4L), tuple(WidgetChangeEvent.CREATED, 5L));
+    }
+
+    @Test
+    void otherWidgetsAreLeftAloneAndSentInVersionOrder() {
+        channel.enqueue(layout(widget, 2, 20));
+        channel.enqueue(data(other, 1, "a"));
+        channel.enqueue(event(WidgetChangeEvent.DELETED, widget, 3));
+
+        assertThat(channel.drain()).extracting(WidgetChangeEvent::getWidgetId, WidgetChangeEvent::getType)
+                .containsExactly(tuple(other, WidgetChangeEvent.DATA), tuple(widget, WidgetChangeEvent.DELETED));
+        assertThat(channel.drain()).isEmpty();
+    }
+
+    private static WidgetChangeEvent layout(UUID widgetId, long version, int x) {
+        return WidgetChangeEvent.builder().type(WidgetChangeEvent.LAYOUT).widgetId(widgetId).version(version)
+                .x(x).y(0).width(90).height(90).zIndex(0).build();
+    }
+
+    private static WidgetChangeEvent data(UUID widgetId, long version, String text) {
+        return WidgetChangeEvent.builder().type(WidgetChangeEvent.DATA).widgetId(widgetId).version(version)
+                .data(Map.of("text", text)).build();
+    }
+
+    private static WidgetChangeEvent patch(UUID widgetId, long version) {
+        return WidgetChangeEvent.builder().type(WidgetChangeEvent.PATCH).widgetId(widgetId).version(version)
+                .mergePatch(Map.of("pinned", true)).build();
+    }
+
+    private static WidgetChangeEvent event(String type, UUID widgetId, long version) {
+        return WidgetChangeEvent.builder().type(type).widgetId(widgetId).version(version).build();
+    }
+}
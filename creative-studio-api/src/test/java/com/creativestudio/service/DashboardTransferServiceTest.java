@@ -0,0 +1,167 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardTransferLine;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.ContentBlobRepository;
+import com.creativestudio.repository.ContentBlobRepository.BlobData;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.AdditionalAnswers.returnsSecondArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The export merge of the dashboard and widget cursors, both in PostgreSQL uuid order, and the import checks
+class DashboardTransferServiceTest {
+
+    // Ascending as PostgreSQL sorts them; the last one is negative as a Java long, so sorts first in Java
+    private static final UUID FIRST = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    private static final UUID CREATED_DURING_EXPORT = UUID.fromString("7fffffff-0000-0000-0000-000000000000");
+    private static final UUID LAST = UUID.fromString("80000000-0000-0000-0000-000000000000");
+
+    private final DashboardRepository dashboardRepository = mock(DashboardRepository.class);
+    private final WidgetRepository widgetRepository = mock(WidgetRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final User user = User.builder().id(UUID.randomUUID()).email("user@example.com").build();
+
+    private DashboardTransferService service;
+
+    @BeforeEach
+    void setUp() {
+        WidgetContentStore contentStore = mock(WidgetContentStore.class);
+        when(contentStore.inline(anyList())).then(returnsFirstArg());
+        service = service(contentStore);
+    }
+
+    @Test
+    void dashboardsSortingAboveTheSignBitKeepTheirWidgets() throws Exception {
+        exporting(List.of(dashboard(FIRST), dashboard(LAST)),
+                List.of(widget(FIRST, "a"), widget(LAST, "b"), widget(LAST, "c")));
+
+        assertThat(export()).extracting(line -> line.getKind() + " " + line.getName())
+                .containsExactly("dashboard " + FIRST, "widget a", "dashboard " + LAST, "widget b", "widget c");
+    }
+
+    @Test
+    void widgetsWithoutADashboardLineAreSkipped() throws Exception {
+        exporting(List.of(dashboard(FIRST), dashboard(LAST)),
+                List.of(widget(FIRST, "a"), widget(CREATED_DURING_EXPORT, "orphan"), widget(LAST, "b")));
+
+        assertThat(export()).extracting(line -> line.getKind() + " " + line.getName())
+                .containsExactly("dashboard " + FIRST, "widget a", "dashboard " + LAST, "widget b");
+    }
+
+    @Test
+    void zIndexIsWrittenUnderTheNameImportReads() throws Exception {
+        exporting(List.of(dashboard(FIRST)), List.of(widget(FIRST, "a")));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportDashboards(user.getEmail(), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).contains("\"zIndex\":7").doesNotContain("zindex");
+        assertThat(export().get(1).getZIndex()).isEqualTo(7);
+    }
+
+    @Test
+    void importRejectsAGridBelowTheFloor() {
+        String lines = "{\"kind\":\"dashboard\",\"id\":\"" + FIRST + "\",\"name\":\"a\",\"gridSize\":1}\n";
+
+        assertThatThrownBy(() -> service.importDashboards(user.getEmail(),
+                new ByteArrayInputStream(lines.getBytes(StandardCharsets.UTF_8))))
+                .hasMessage("Dashboard line 1 has a grid size below " + DashboardLayoutService.MIN_GRID_SIZE);
+    }
+
+    @Test
+    void storedBodiesOfAnExportAreLoadedInOneQuery() throws Exception {
+        ContentBlobRepository blobRepository = mock(ContentBlobRepository.class);
+        List<BlobData> blobs = List.of(blob("h1", "first"), blob("h2", "second"));
+        when(blobRepository.findDataByHashes(any())).thenReturn(blobs);
+        service = service(new WidgetContentStore(blobRepository, 16384, 60_000));
+        exporting(List.of(dashboard(FIRST), dashboard(LAST)), List.of(
+                widget(FIRST, "a", Map.of("contentRef", "h1")),
+                widget(LAST, "b", Map.of("contentRef", "h2")),
+                widget(LAST, "c", Map.of("contentRef", "h1"))));
+
+        assertThat(export()).filteredOn(line -> line.getKind().equals("widget"))
+                .extracting(line -> line.getData().get("content"))
+                .containsExactly("first", "second", "first");
+        verify(blobRepository).findDataByHashes(new String[] {"h1", "h2"});
+        verify(blobRepository, never()).findDataByHash(any());
+    }
+
+    private DashboardTransferService service(WidgetContentStore contentStore) {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        WidgetDataWriteBuffer writeBuffer = mock(WidgetDataWriteBuffer.class);
+        when(writeBuffer.currentData(any(UUID.class), any())).then(returnsSecondArg());
+        return new DashboardTransferService(dashboardRepository, widgetRepository, userRepository,
+                writeBuffer, contentStore, objectMapper);
+    }
+
+    private static BlobData blob(String hash, String text) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        BlobData blob = mock(BlobData.class);
+        when(blob.getHash()).thenReturn(hash);
+        when(blob.getData()).thenReturn(bytes.toByteArray());
+        return blob;
+    }
+
+    private void exporting(List<DashboardTransferLine> dashboards, List<DashboardTransferLine> widgets) {
+        when(dashboardRepository.streamTransferLinesByUser(user)).then(invocation -> dashboards.stream());
+        when(widgetRepository.streamTransferLinesByUser(user)).then(invocation -> widgets.stream());
+    }
+
+    private List<DashboardTransferLine> export() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.exportDashboards(user.getEmail(), out);
+        try (Stream<String> lines = out.toString(StandardCharsets.UTF_8).lines()) {
+            return lines.filter(line -> !line.isBlank()).map(this::parse).toList();
+        }
+    }
+
+    private DashboardTransferLine parse(String line) {
+        try {
+            return objectMapper.readValue(line, DashboardTransferLine.class);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static DashboardTransferLine dashboard(UUID id) {
+        return new DashboardTransferLine(id, id.toString(), 40);
+    }
+
+    private static DashboardTransferLine widget(UUID dashboardId, String name) {
+        return widget(dashboardId, name, Map.of("text", name));
+    }
+
+    private static DashboardTransferLine widget(UUID dashboardId, String name, Map<String, Object> data) {
+        return new DashboardTransferLine(dashboardId, UUID.randomUUID(), "notes-widget", name,
+                0, 0, 90, 90, 7, data);
+    }
+}
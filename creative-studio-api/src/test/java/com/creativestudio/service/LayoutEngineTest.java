@@ -0,0 +1,143 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.WidgetPlacement;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+// Snapping, packing and overlap detection; each algorithm is also checked against a brute-force
+// version on random layouts
+class LayoutEngineTest {
+
+    private static final int GRID = 40;
+
+    @Test
+    void snapRoundsPositionsToGridLinesAndSizesToWholeCells() {
+        List<WidgetPlacement> widgets = List.of(box(19, 20, 59, 60), box(-30, 101, 10, 0));
+
+        LayoutEngine.snap(widgets, GRID);
+
+        assertThat(widgets).extracting(WidgetPlacement::getX, WidgetPlacement::getY,
+                        WidgetPlacement::getWidth, WidgetPlacement::getHeight)
+                .containsExactly(tuple(0, 40, 40, 80), tuple(0, 120, 40, 40));
+    }
+
+    @Test
+    void arrangePacksTallestFirstIntoTheLowestLeftmostGap() {
+        List<WidgetPlacement> widgets = List.of(box(500, 500, 80, 40), box(500, 500, 80, 120),
+                box(500, 500, 40, 40), box(500, 500, 120, 80));
+
+        LayoutEngine.arrange(widgets, GRID, 200);
+
+        // 120 high at column 0, 80 high beside it, then the two 40 high ones on the lowest columns
+        assertThat(widgets).extracting(WidgetPlacement::getX, WidgetPlacement::getY)
+                .containsExactly(tuple(80, 80), tuple(0, 0), tuple(160, 80), tuple(80, 0));
+    }
+
+    @Test
+    void arrangeKeepsTheOriginalOrderBetweenEqualBoxes() {
+        List<WidgetPlacement> widgets = List.of(box(300, 0, 40, 40), box(0, 300, 40, 40), box(90, 90, 40, 40));
+
+        LayoutEngine.arrange(widgets, GRID, 120);
+
+        assertThat(widgets).extracting(WidgetPlacement::getX, WidgetPlacement::getY)
+                .containsExactly(tuple(0, 0), tuple(40, 0), tuple(80, 0));
+    }
+
+    @Test
+    void widgetWiderThanTheCanvasGetsARowOfItsOwn() {
+        List<WidgetPlacement> widgets = List.of(box(0, 0, 40, 40), box(0, 0, 400, 40), box(0, 0, 40, 40));
+
+        LayoutEngine.arrange(widgets, GRID, 160);
+
+        assertThat(widgets).extracting(WidgetPlacement::getX, WidgetPlacement::getY, WidgetPlacement::getWidth)
+                .containsExactly(tuple(0, 40, 40), tuple(0, 0, 400), tuple(40, 40, 40));
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void arrangeLeavesNoOverlapsAndNoGapUnderAWidget(long seed) {
+        List<WidgetPlacement> widgets = randomLayout(new Random(seed), 200, 1200);
+        int canvasWidth = 1200;
+
+        LayoutEngine.arrange(widgets, GRID, canvasWidth);
+
+        assertThat(bruteForceOverlaps(widgets)).isEmpty();
+        for (WidgetPlacement w : widgets) {
+            assertThat(w.getX() % GRID).isZero();
+            assertThat(w.getY() % GRID).isZero();
+            assertThat(w.getX() + Math.min(w.getWidth(), canvasWidth)).isLessThanOrEqualTo(canvasWidth);
+            // Compacted: every widget off the top rests on another one
+            if (w.getY() > 0) {
+                assertThat(widgets.stream().anyMatch(below -> below.getY() + below.getHeight() == w.getY()
+                        && below.getX() < w.getX() + w.getWidth() && w.getX() < below.getX() + below.getWidth()))
+                        .as("widget at %d,%d rests on another", w.getX(), w.getY()).isTrue();
+            }
+        }
+    }
+
+    @Test
+    void overlapsIgnoreTouchingEdgesAndEmptyBoxes() {
+        List<WidgetPlacement> widgets = List.of(box(0, 0, 40, 40), box(40, 0, 40, 40), box(0, 40, 40, 40),
+                box(10, 10, 0, 100), box(39, 39, 2, 2));
+
+        assertThat(LayoutEngine.overlaps(widgets)).extracting(pair -> pair[0] + "-" + pair[1])
+                .containsExactlyInAnyOrder("0-4", "1-4", "2-4");
+    }
+
+    @Test
+    void pairSharingManyCellsIsReportedOnce() {
+        List<WidgetPlacement> widgets = new ArrayList<>(List.of(box(0, 0, 1000, 1000), box(5, 5, 990, 990)));
+        for (int i = 0; i < 20; i++) {
+            widgets.add(box(2000 + i * 10, 2000, 10, 10));
+        }
+
+        assertThat(LayoutEngine.overlaps(widgets)).extracting(pair -> pair[0] + "-" + pair[1])
+                .containsExactly("0-1");
+    }
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 4, 5})
+    void overlapsMatchBruteForce(long seed) {
+        List<WidgetPlacement> widgets = randomLayout(new Random(seed), 300, 2000);
+
+        assertThat(LayoutEngine.overlaps(widgets)).extracting(pair -> pair[0] + "-" + pair[1])
+                .containsExactlyInAnyOrderElementsOf(bruteForceOverlaps(widgets));
+    }
+
+    // Widgets of mixed sizes, some off-grid and some at negative positions
+    private static List<WidgetPlacement> randomLayout(Random random, int count, int extent) {
+        List<WidgetPlacement> widgets = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            widgets.add(box(random.nextInt(extent) - 50, random.nextInt(extent) - 50,
+                    10 + random.nextInt(random.nextInt(10) == 0 ? 600 : 200), 10 + random.nextInt(200)));
+        }
+        return widgets;
+    }
+
+    private static List<String> bruteForceOverlaps(List<WidgetPlacement> widgets) {
+        List<String> pairs = new ArrayList<>();
+        for (int i = 0; i < widgets.size(); i++) {
+            for (int j = i + 1; j < widgets.size(); j++) {
+                WidgetPlacement a = widgets.get(i);
+                WidgetPlacement b = widgets.get(j);
+                if (a.getX() < b.getX() + b.getWidth() && b.getX() < a.getX() + a.getWidth()
+                        && a.getY() < b.getY() + b.getHeight() && b.getY() < a.getY() + a.getHeight()) {
+                    pairs.add(i + "-" + j);
+                }
+            }
+        }
+        return pairs;
+    }
+
+    private static WidgetPlacement box(int x, int y, int width, int height) {
+        return WidgetPlacement.builder().x(x).y(y).width(width).height(height).build();
+    }
+}
@@ -0,0 +1,155 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardRequest;
+import com.creativestudio.dto.SearchHitResponse;
+import com.creativestudio.dto.WidgetRequest;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Search against the migrated schema. Each test searches for a word of its own, so rows other
+// tests left in the database never match; editor HTML over 64 bytes goes to the content store.
+@SpringBootTest
+@TestPropertySource(properties = "widget.content-store.threshold-bytes=64")
+class SearchServiceTest {
+
+    @Autowired
+    private SearchService searchService;
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private User user;
+    private UUID dashboardId;
+    private String word;
+
+    @BeforeEach
+    void createDashboard() {
+        user = user();
+        dashboardId = dashboard(user);
+        word = "w" + UUID.randomUUID().toString().replace("-", "");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        for (User owner : users) {
+            for (UUID id : jdbcTemplate.queryForList("SELECT id FROM dashboards WHERE user_id = ?", UUID.class,
+                    owner.getId())) {
+                dashboardService.deleteDashboard(owner.getEmail(), id);
+            }
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+        }
+    }
+
+    @Test
+    void nameMatchRanksAboveBodyMatch() {
+        UUID inText = widget(user, dashboardId, "notes-widget", "notes", Map.of("text", "about " + word + " today"));
+        UUID inName = widget(user, dashboardId, "notes-widget", word + " plan", Map.of("text", "nothing here"));
+        UUID inTodo = widget(user, dashboardId, "todo-list", "todos",
+                Map.of("todos", List.of(Map.of("id", "t1", "text", "ship " + word, "completed", false))));
+        widget(user, dashboardId, "notes-widget", "unrelated", Map.of("text", "something else"));
+
+        List<SearchHitResponse> hits = searchService.search(user, word, 10);
+
+        assertThat(hits).extracting(SearchHitResponse::getWidgetId).hasSize(3).startsWith(inName)
+                .containsExactlyInAnyOrder(inName, inText, inTodo);
+        assertThat(hits).extracting(SearchHitResponse::getRank).isSortedAccordingTo((a, b) -> Double.compare(b, a));
+        assertThat(hits.get(0).getRank()).isGreaterThan(hits.get(1).getRank());
+        assertThat(hits).allSatisfy(hit -> assertThat(hit.getDashboardId()).isEqualTo(dashboardId));
+    }
+
+    @Test
+    void moreMatchesRankHigher() {
+        UUID once = widget(user, dashboardId, "notes-widget", "a", Map.of("text", word + " once"));
+        UUID thrice = widget(user, dashboardId, "notes-widget", "b", Map.of("text", word + " and " + word + " and " + word));
+
+        assertThat(searchService.search(user, word, 10)).extracting(SearchHitResponse::getWidgetId)
+                .containsExactly(thrice, once);
+    }
+
+    @Test
+    void otherUsersWidgetsAreNeverFound() {
+        UUID mine = widget(user, dashboardId, "notes-widget", "mine", Map.of("text", word));
+        User other = user();
+        UUID otherDashboard = dashboard(other);
+        widget(other, otherDashboard, "notes-widget", word, Map.of("text", word + " " + word));
+
+        assertThat(searchService.search(user, word, 10)).extracting(SearchHitResponse::getWidgetId)
+                .containsExactly(mine);
+        assertThat(searchService.search(other, word, 10)).extracting(SearchHitResponse::getDashboardId)
+                .containsExactly(otherDashboard);
+    }
+
+    @Test
+    void offloadedBodyIsFoundOnlyThroughTheOwnersWidget() {
+        String html = "<p class=\"" + word + "x\">" + "filler ".repeat(20) + "<b>" + word + "</b></p>";
+        UUID mine = widget(user, dashboardId, "text-widget", "editor", Map.of("content", html));
+        User other = user();
+        UUID theirs = widget(other, dashboard(other), "text-widget", "editor", Map.of("content", html));
+
+        List<SearchHitResponse> hits = searchService.search(user, word, 10);
+
+        assertThat(hits).extracting(SearchHitResponse::getWidgetId).containsExactly(mine);
+        assertThat(hits.get(0).getSnippet()).contains("<mark>" + word + "</mark>").doesNotContain("<p");
+        assertThat(searchService.search(other, word, 10)).extracting(SearchHitResponse::getWidgetId)
+                .containsExactly(theirs);
+        // Markup is not text
+        assertThat(searchService.search(user, word + "x", 10)).isEmpty();
+    }
+
+    @Test
+    void limitKeepsTheBestHits() {
+        UUID best = widget(user, dashboardId, "notes-widget", word, Map.of("text", word));
+        for (int i = 0; i < 4; i++) {
+            widget(user, dashboardId, "notes-widget", "n" + i, Map.of("text", word));
+        }
+
+        assertThat(searchService.search(user, word, 1)).extracting(SearchHitResponse::getWidgetId).containsExactly(best);
+        assertThat(searchService.search(user, word, 3)).hasSize(3);
+        assertThat(searchService.search(user, "  ", 10)).isEmpty();
+    }
+
+    private User user() {
+        String name = "search-" + UUID.randomUUID();
+        User created = userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+        users.add(created);
+        return created;
+    }
+
+    private UUID dashboard(User owner) {
+        DashboardRequest request = new DashboardRequest();
+        request.setName("search");
+        return dashboardService.createDashboard(owner.getEmail(), request).getId();
+    }
+
+    private UUID widget(User owner, UUID dashboard, String type, String name, Map<String, Object> data) {
+        WidgetRequest request = new WidgetRequest();
+        request.setType(type);
+        request.setName(name);
+        request.setData(data);
+        return widgetService.createWidget(owner, dashboard, request).getId();
+    }
+}
@@ -0,0 +1,167 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardRequest;
+import com.creativestudio.dto.JsonPatchOperation;
+import com.creativestudio.dto.WidgetRequest;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.UserRepository;
+import com.creativestudio.repository.WidgetRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// A blob is readable by whoever has a widget referencing it, so no write may take a reference
+// from the client. User A owns the blob; user B knows its hash and tries every way of storing it.
+@SpringBootTest
+@TestPropertySource(properties = "widget.content-store.threshold-bytes=64")
+class WidgetContentStoreTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private WidgetContentStore contentStore;
+
+    @Autowired
+    private WidgetRepository widgetRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User other;
+    private UUID otherDashboardId;
+    private String hash;
+
+    @BeforeEach
+    void storeOwnersContent() {
+        owner = user();
+        other = user();
+        UUID ownerDashboardId = dashboard(owner);
+        otherDashboardId = dashboard(other);
+        UUID widgetId = createWidget(owner, ownerDashboardId, Map.of("content", "<p>" + "private ".repeat(20) + "</p>"));
+        hash = (String) data(widgetId).get(WidgetContentStore.CONTENT_REF);
+        assertThat(hash).isNotNull();
+        assertThat(WidgetContentStore.gunzip(contentStore.getCompressed(owner, hash))).contains("private");
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        for (User user : List.of(owner, other)) {
+            jdbcTemplate.update("DELETE FROM widgets WHERE dashboard_id IN (SELECT id FROM dashboards WHERE user_id = ?)",
+                    user.getId());
+            jdbcTemplate.update("DELETE FROM dashboards WHERE user_id = ?", user.getId());
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", user.getId());
+        }
+    }
+
+    @Test
+    void createdWidgetDoesNotKeepAReferenceFromTheClient() {
+        UUID widgetId = createWidget(other, otherDashboardId, Map.of("contentRef", hash, "title", "t"));
+
+        assertThat(data(widgetId)).isEqualTo(Map.of("title", "t"));
+        assertNotReadableByOther();
+    }
+
+    @Test
+    void fullSaveDoesNotTakeAReferenceTheWidgetDidNotHold() {
+        UUID widgetId = createWidget(other, otherDashboardId, Map.of("title", "t"));
+
+        widgetService.updateWidgetData(other, otherDashboardId, widgetId, Map.of("contentRef", hash), null);
+
+        assertThat(data(widgetId)).isEmpty();
+        assertNotReadableByOther();
+    }
+
+    @Test
+    void mergePatchDoesNotSetAReference() {
+        UUID widgetId = createWidget(other, otherDashboardId, Map.of("title", "t"));
+
+        widgetService.mergePatchWidgetData(other, otherDashboardId, widgetId, Map.of("contentRef", hash));
+
+        assertThat(data(widgetId)).isEqualTo(Map.of("title", "t"));
+        assertNotReadableByOther();
+    }
+
+    @Test
+    void jsonPatchThatSetsAReferenceIsRejected() {
+        UUID widgetId = createWidget(other, otherDashboardId, Map.of("title", "t"));
+
+        assertThatThrownBy(() -> widgetService.jsonPatchWidgetData(other, otherDashboardId, widgetId,
+                List.of(new JsonPatchOperation("add", "/contentRef", null, hash))))
+                .hasMessage("Patch could not be applied");
+        assertThatThrownBy(() -> widgetService.jsonPatchWidgetData(other, otherDashboardId, widgetId,
+                List.of(new JsonPatchOperation("replace", "", null, Map.of("contentRef", hash)))))
+                .hasMessage("Patch could not be applied");
+
+        assertThat(data(widgetId)).isEqualTo(Map.of("title", "t"));
+        assertNotReadableByOther();
+    }
+
+    @Test
+    void fullSaveKeepsTheReferenceTheWidgetHeld() {
+        UUID widgetId = createWidget(other, otherDashboardId, Map.of("content", "<p>" + "mine ".repeat(20) + "</p>"));
+        Map<String, Object> stored = data(widgetId);
+
+        Map<String, Object> saved = new HashMap<>(stored);
+        saved.put("title", "t");
+        widgetService.updateWidgetData(other, otherDashboardId, widgetId, saved, null);
+
+        assertThat(data(widgetId)).isEqualTo(saved);
+        assertThat(contentStore.getCompressed(other, (String) stored.get(WidgetContentStore.CONTENT_REF))).isNotEmpty();
+    }
+
+    @Test
+    void batchInlinePutsEveryStoredBodyBack() {
+        Map<String, Object> offloaded = Map.of("contentRef", hash, "title", "t");
+
+        assertThat(contentStore.inline(List.of(offloaded, Map.of("text", "x"), offloaded)))
+                .extracting(data -> data.get("content"))
+                .containsExactly("<p>" + "private ".repeat(20) + "</p>", null, "<p>" + "private ".repeat(20) + "</p>");
+    }
+
+    private void assertNotReadableByOther() {
+        assertThatThrownBy(() -> contentStore.getCompressed(other, hash)).hasMessage("Content not found");
+    }
+
+    private User user() {
+        String name = "content-" + UUID.randomUUID();
+        return userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+    }
+
+    private UUID dashboard(User user) {
+        DashboardRequest request = new DashboardRequest();
+        request.setName("content");
+        return dashboardService.createDashboard(user.getEmail(), request).getId();
+    }
+
+    private UUID createWidget(User user, UUID dashboardId, Map<String, Object> data) {
+        WidgetRequest request = new WidgetRequest();
+        request.setType("text-widget");
+        request.setName("w");
+        request.setData(data);
+        return widgetService.createWidget(user, dashboardId, request).getId();
+    }
+
+    private Map<String, Object> data(UUID widgetId) {
+        return widgetRepository.findDataById(widgetId).orElseThrow();
+    }
+}
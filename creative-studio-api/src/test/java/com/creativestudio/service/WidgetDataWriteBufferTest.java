@@ -0,0 +1,173 @@
+package com.creativestudio.service;
+
+import com.creativestudio.datasource.ReadYourWrites;
+import com.creativestudio.repository.DashboardRepository;
+import com.creativestudio.repository.WidgetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// The buffer against mocked repositories; the staleness is long enough that only flushAll writes
+class WidgetDataWriteBufferTest {
+
+    private final WidgetRepository widgetRepository = mock(WidgetRepository.class);
+    private final DashboardRepository dashboardRepository = mock(DashboardRepository.class);
+    private final WidgetOperationLog operationLog = mock(WidgetOperationLog.class);
+    private final ReadYourWrites readYourWrites = new ReadYourWrites(60_000, 1000, new SimpleMeterRegistry());
+    private final UUID owner = UUID.randomUUID();
+    private final UUID dashboardId = UUID.randomUUID();
+    private final UUID widgetId = UUID.randomUUID();
+
+    private WidgetDataWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        WidgetContentStore contentStore = mock(WidgetContentStore.class);
+        when(contentStore.offload(any(), any())).then(returnsFirstArg());
+        when(dashboardRepository.incrementVersions(anyCollection())).then(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            return ids.stream().filter(dashboardId::equals)
+                    .map(id -> (DashboardRepository.DashboardVersion) new Version(id, 8, owner)).toList();
+        });
+        when(widgetRepository.findDataByIds(anyCollection())).thenReturn(Map.of(widgetId, Map.of("text", "stored")));
+        buffer = new WidgetDataWriteBuffer(widgetRepository, dashboardRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), contentStore, operationLog,
+                readYourWrites, true, 60_000, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.shutdown();
+    }
+
+    @Test
+    void laterSaveSupersedesTheBufferedOneAndIsReadBack() {
+        buffer.put(dashboardId, widgetId, Map.of("text", "a"));
+        buffer.put(dashboardId, widgetId, Map.of("text", "ab"));
+
+        assertThat(buffer.currentData(widgetId, Map.of("text", "stored"))).containsEntry("text", "ab");
+        assertThat(buffer.hasPending(dashboardId)).isTrue();
+        verify(widgetRepository, never()).replaceData(anyMap());
+
+        buffer.flushAll();
+
+        assertThat(written()).containsExactly(Map.entry(widgetId, Map.of("text", "ab")));
+        verify(operationLog).edit(eq(dashboardId), eq(8L), anyList());
+        assertThat(buffer.hasPending(dashboardId)).isFalse();
+        assertThat(buffer.currentData(widgetId, Map.of("text", "stored"))).containsEntry("text", "stored");
+    }
+
+    @Test
+    void flushOpensTheOwnersReadYourWritesWindow() {
+        buffer.put(dashboardId, widgetId, Map.of("text", "a"));
+        assertThat(readYourWrites.recentlyWrote(owner)).isFalse();
+
+        buffer.flushAll();
+
+        assertThat(readYourWrites.recentlyWrote(owner)).isTrue();
+    }
+
+    @Test
+    void takenSaveIsNotFlushed() {
+        buffer.put(dashboardId, widgetId, Map.of("text", "a"));
+
+        assertThat(buffer.take(widgetId)).containsEntry("text", "a");
+        buffer.flushAll();
+
+        verify(widgetRepository, never()).replaceData(anyMap());
+        assertThat(readYourWrites.recentlyWrote(owner)).isFalse();
+    }
+
+    @Test
+    void saveOfADeletedDashboardIsWrittenWithoutAnOperation() {
+        UUID deletedDashboard = UUID.randomUUID();
+        UUID orphan = UUID.randomUUID();
+        buffer.put(deletedDashboard, orphan, Map.of("text", "a"));
+
+        buffer.flushAll();
+
+        verify(operationLog, never()).edit(any(), anyLong(), anyList());
+        assertThat(readYourWrites.recentlyWrote(owner)).isFalse();
+        assertThat(buffer.hasPending(deletedDashboard)).isFalse();
+    }
+
+    @Test
+    void failedFlushKeepsTheSavesForTheNextOne() {
+        buffer.put(dashboardId, widgetId, Map.of("text", "a"));
+        doThrow(new RuntimeException("connection lost")).doNothing().when(widgetRepository).replaceData(anyMap());
+
+        buffer.flushAll();
+
+        assertThat(buffer.currentData(widgetId, null)).containsEntry("text", "a");
+        assertThat(readYourWrites.recentlyWrote(owner)).isFalse();
+
+        buffer.put(dashboardId, widgetId, Map.of("text", "ab"));
+        buffer.flushAll();
+
+        assertThat(buffer.hasPending(dashboardId)).isFalse();
+        assertThat(readYourWrites.recentlyWrote(owner)).isTrue();
+    }
+
+    @Test
+    void widgetsOfSeveralDashboardsGoOutAsOneBatch() {
+        UUID second = UUID.randomUUID();
+        buffer.put(dashboardId, widgetId, Map.of("text", "a"));
+        buffer.put(UUID.randomUUID(), second, Map.of("text", "b"));
+
+        buffer.flushAll();
+
+        assertThat(written()).containsOnlyKeys(widgetId, second);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Collection<UUID>> dashboards = ArgumentCaptor.forClass(Collection.class);
+        verify(dashboardRepository).incrementVersions(dashboards.capture());
+        assertThat(dashboards.getValue()).hasSize(2).contains(dashboardId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<UUID, Map<String, Object>> written() {
+        ArgumentCaptor<Map<UUID, Map<String, Object>>> captor = ArgumentCaptor.forClass(Map.class);
+        verify(widgetRepository).replaceData(captor.capture());
+        return captor.getValue();
+    }
+
+    private record Version(UUID id, long version, UUID userId) implements DashboardRepository.DashboardVersion {
+        @Override
+        public UUID getId() {
+            return id;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+
+        @Override
+        public UUID getUserId() {
+            return userId;
+        }
+    }
+}
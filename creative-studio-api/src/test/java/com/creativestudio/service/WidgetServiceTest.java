@@ -0,0 +1,138 @@
+package com.creativestudio.service;
+
+import com.creativestudio.dto.DashboardRequest;
+import com.creativestudio.dto.WidgetRequest;
+import com.creativestudio.dto.WidgetResponse;
+import com.creativestudio.model.User;
+import com.creativestudio.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Widget reads against the migrated schema, for a user of their own. The viewport is the
+// rectangle (100, 100) - (500, 400).
+@SpringBootTest
+class WidgetServiceTest {
+
+    @Autowired
+    private DashboardService dashboardService;
+
+    @Autowired
+    private WidgetService widgetService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<User> users = new ArrayList<>();
+    private User user;
+    private UUID dashboardId;
+
+    @BeforeEach
+    void createDashboard() {
+        user = user();
+        dashboardId = dashboard(user);
+    }
+
+    @AfterEach
+    void deleteUsers() {
+        for (User owner : users) {
+            for (UUID id : jdbcTemplate.queryForList("SELECT id FROM dashboards WHERE user_id = ?", UUID.class,
+                    owner.getId())) {
+                dashboardService.deleteDashboard(owner.getEmail(), id);
+            }
+            jdbcTemplate.update("DELETE FROM users WHERE id = ?", owner.getId());
+        }
+    }
+
+    @Test
+    void viewportHoldsTheWidgetsIntersectingIt() {
+        UUID inside = widget(dashboardId, "inside", 200, 200, 100, 100);
+        UUID acrossLeftEdge = widget(dashboardId, "across left edge", 0, 150, 150, 50);
+        UUID acrossBottomRight = widget(dashboardId, "across bottom right", 450, 350, 200, 200);
+        UUID enclosing = widget(dashboardId, "enclosing", 0, 0, 1000, 1000);
+        UUID touchingRightEdge = widget(dashboardId, "touching right edge", 500, 100, 50, 50);
+        widget(dashboardId, "right of it", 501, 100, 50, 50);
+        widget(dashboardId, "above it", 200, 0, 100, 99);
+        widget(dashboardId, "below it", 200, 401, 100, 100);
+        widget(dashboardId, "far away", 5000, 5000, 100, 100);
+        widget(dashboard(user), "other dashboard", 200, 200, 100, 100);
+
+        List<WidgetResponse> visible = widgetService.getWidgetsInViewport(user, dashboardId, 100, 100, 500, 400);
+
+        assertThat(visible).extracting(WidgetResponse::getId)
+                .containsExactly(inside, acrossLeftEdge, acrossBottomRight, enclosing, touchingRightEdge);
+    }
+
+    @Test
+    void viewportFollowsAMovedWidget() {
+        UUID moved = widget(dashboardId, "moved", 2000, 2000, 100, 100);
+        assertThat(widgetService.getWidgetsInViewport(user, dashboardId, 100, 100, 500, 400)).isEmpty();
+
+        WidgetRequest request = request("moved", 300, 300, 100, 100);
+        widgetService.updateWidget(user, dashboardId, moved, request, null);
+
+        assertThat(widgetService.getWidgetsInViewport(user, dashboardId, 100, 100, 500, 400))
+                .extracting(WidgetResponse::getId).containsExactly(moved);
+        assertThat(widgetService.getWidgetsInViewport(user, dashboardId, 1900, 1900, 2500, 2500)).isEmpty();
+    }
+
+    @Test
+    void viewportOfAnotherUsersDashboardIsNotFound() {
+        widget(dashboardId, "inside", 200, 200, 100, 100);
+        User other = user();
+
+        assertThatThrownBy(() -> widgetService.getWidgetsInViewport(other, dashboardId, 100, 100, 500, 400))
+                .hasMessage("Dashboard not found");
+    }
+
+    @Test
+    void invertedViewportIsRejected() {
+        assertThatThrownBy(() -> widgetService.getWidgetsInViewport(user, dashboardId, 500, 100, 100, 400))
+                .hasMessage("Invalid viewport");
+        assertThatThrownBy(() -> widgetService.getWidgetsInViewport(user, dashboardId, 100, 400, 500, 100))
+                .hasMessage("Invalid viewport");
+    }
+
+    private User user() {
+        String name = "widgets-" + UUID.randomUUID();
+        User created = userRepository.save(User.builder().email(name + "@example.com").username(name).passwordHash("x").build());
+        users.add(created);
+        return created;
+    }
+
+    private UUID dashboard(User owner) {
+        DashboardRequest request = new DashboardRequest();
+        request.setName("widgets");
+        return dashboardService.createDashboard(owner.getEmail(), request).getId();
+    }
+
+    private UUID widget(UUID dashboard, String name, int x, int y, int width, int height) {
+        return widgetService.createWidget(user, dashboard, request(name, x, y, width, height)).getId();
+    }
+
+    private static WidgetRequest request(String name, int x, int y, int width, int height) {
+        WidgetRequest request = new WidgetRequest();
+        request.setType("notes-widget");
+        request.setName(name);
+        request.setX(x);
+        request.setY(y);
+        request.setWidth(width);
+        request.setHeight(height);
+        request.setData(Map.of("text", name));
+        return request;
+    }
+}
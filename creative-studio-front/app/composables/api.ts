@@ -26,8 +26,43 @@ export const useApi = () => {
         return response
     }
 
+    // Conditional GET: sends If-None-Match and reports a 304 instead of returning a body
+    const getConditional = async (url: string, etag: string | null) => {
+        const token = getToken()
+
+        const headers: any = {}
+        if (token) {
+            headers['Authorization'] = `Bearer ${token}`
+        }
+        if (etag) {
+            headers['If-None-Match'] = etag
+        }
+
+        const response = await $fetch.raw(`/api${url}`, { method: 'GET', headers })
+
+        return {
+            notModified: response.status === 304,
+            etag: response.headers.get('etag'),
+            data: response._data,
+        }
+    }
+
+    // Plain-text/HTML bodies (e.g. /content/:hash); JSON would try to parse them
+    const getText = async (url: string) => {
+        const token = getToken()
+
+        const headers: any = {}
+        if (token) {
+            headers['Authorization'] = `Bearer ${token}`
+        }
+
+        return await $fetch<string>(`/api${url}`, { method: 'GET', headers, responseType: 'text' })
+    }
+
     return {
         get: (url: string) => request(url, { method: 'GET' }),
+        getText,
+        getConditional,
         post: (url: string, body: any) => request(url, { method: 'POST', body }),
         put: (url: string, body: any) => request(url, { method: 'PUT', body }),
         patch: (url: string, body: any) => request(url, { method: 'PATCH', body }),
@@ -10,6 +10,7 @@ interface Widget {
     height: number
     zIndex: number
     data: Record<string, any>
+    revision: number
     createdAt: string
     updatedAt: string
 }
@@ -18,15 +19,39 @@ interface Dashboard {
     id: string
     name: string
     gridSize: number
+    version: number
     widgets: Widget[]
     createdAt: string
 }
 
+interface DashboardChanges {
+    version: number
+    name: string
+    widgets: Widget[]
+    deleted: string[]
+}
+
+interface DashboardSummary {
+    id: string
+    name: string
+    widgetCount: number
+    createdAt: string
+    updatedAt: string
+}
+
+interface DashboardSummaryPage {
+    dashboards: DashboardSummary[]
+    nextCursor: string | null
+}
+
 export const useDashboardStore = defineStore('dashboard', () => {
     const api = useApi()
 
-    const dashboards = ref<Dashboard[]>([])
+    const dashboards = ref<(Dashboard | DashboardSummary)[]>([])
+    const dashboardsCursor = ref<string | null>(null)
     const currentDashboard = ref<Dashboard | null>(null)
+    // ETag of currentDashboard; cleared whenever local state may have diverged from the server
+    const currentDashboardETag = ref<string | null>(null)
     const widgets = ref<Widget[]>([])
     const isLoading = ref(false)
     const selectedWidget = ref<string | null>(null)
@@ -39,10 +64,13 @@ export const useDashboardStore = defineStore('dashboard', () => {
 
     // --- Dashboard CRUD ---
 
+    // Summaries only (no widgets), one page at a time
     const loadDashboards = async () => {
         isLoading.value = true
         try {
-            dashboards.value = await api.get('/dashboards') as Dashboard[]
+            const page = await api.get('/dashboards/summary?limit=50') as DashboardSummaryPage
+            dashboards.value = page.dashboards
+            dashboardsCursor.value = page.nextCursor
         } catch (e) {
             console.error('Failed to load dashboards:', e)
         } finally {
@@ -50,6 +78,17 @@ export const useDashboardStore = defineStore('dashboard', () => {
         }
     }
 
+    const loadMoreDashboards = async () => {
+        if (!dashboardsCursor.value) return
+        try {
+            const page = await api.get(`/dashboards/summary?limit=50&cursor=${dashboardsCursor.value}`) as DashboardSummaryPage
+            dashboards.value.push(...page.dashboards)
+            dashboardsCursor.value = page.nextCursor
+        } catch (e) {
+            console.error('Failed to load more dashboards:', e)
+        }
+    }
+
     const createDashboard = async (name: string) => {
         try {
             const dashboard = await api.post('/dashboards', { name }) as Dashboard
@@ -60,11 +99,33 @@ export const useDashboardStore = defineStore('dashboard', () => {
         }
     }
 
+    // Applies the widgets created, updated or deleted since the loaded version
+    const syncDashboard = async (dashboard: Dashboard) => {
+        const changes = await api.get(`/dashboards/${dashboard.id}/changes?since=${dashboard.version}`) as DashboardChanges
+        const deleted = new Set(changes.deleted)
+        const changed = new Set(changes.widgets.map(w => w.id))
+        widgets.value = widgets.value
+            .filter(w => !deleted.has(w.id) && !changed.has(w.id))
+            .concat(changes.widgets)
+        dashboard.name = changes.name
+        dashboard.version = changes.version
+        dashboard.widgets = widgets.value
+    }
+
     const loadDashboard = async (id: string) => {
         isLoading.value = true
         try {
-            currentDashboard.value = await api.get(`/dashboards/${id}`) as Dashboard
+            // Reconnect with local state still in sync: download only what changed (nothing, when
+            // the version is unchanged)
+            if (currentDashboard.value?.id === id && currentDashboardETag.value) {
+                await syncDashboard(currentDashboard.value)
+                return
+            }
+            // Full load; its ETag marks local state as in sync until a write fails
+            const result = await api.getConditional(`/dashboards/${id}`, null)
+            currentDashboard.value = result.data as Dashboard
             widgets.value = currentDashboard.value.widgets || []
+            currentDashboardETag.value = result.etag
         } catch (e) {
             console.error('Failed to load dashboard:', e)
         } finally {
@@ -147,6 +208,7 @@ export const useDashboardStore = defineStore('dashboard', () => {
             })
         } catch (e) {
             console.error('Failed to update widget:', e)
+            currentDashboardETag.value = null
         }
     }
 
@@ -163,6 +225,7 @@ export const useDashboardStore = defineStore('dashboard', () => {
             await api.patch(`/dashboards/${currentDashboard.value.id}/widgets/${widgetId}/data`, data)
         } catch (e) {
             console.error('Failed to update widget data:', e)
+            currentDashboardETag.value = null
         }
     }
 
@@ -176,6 +239,7 @@ export const useDashboardStore = defineStore('dashboard', () => {
         } catch (e) {
             console.error('Failed to delete widget:', e)
             // Reload on error
+            currentDashboardETag.value = null
             if (currentDashboard.value) {
                 await loadDashboard(currentDashboard.value.id)
             }
@@ -184,12 +248,14 @@ export const useDashboardStore = defineStore('dashboard', () => {
 
     return {
         dashboards,
+        dashboardsCursor,
         currentDashboard,
         widgets,
         isLoading,
         selectedWidget,
         widgetTypes,
         loadDashboards,
+        loadMoreDashboards,
         createDashboard,
         loadDashboard,
         updateDashboard,